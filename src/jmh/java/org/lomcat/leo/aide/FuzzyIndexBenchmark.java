@@ -0,0 +1,137 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+
+package org.lomcat.leo.aide;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FuzzyIndex} 与逐个计算 {@link StringAide#levenshtein(CharSequence, CharSequence, int)} 的线性扫描的对比基准。
+ * 字典和查询串由固定种子生成，查询串是对字典元素随机修改 0 ~ 3 次的结果，因此两种距离阈值下都有命中和未命中的查询。
+ *
+ * <p>单核环境下 size = 100000、maxDistance = 2 时，64 个查询的索引查找约 20 ms，线性扫描约 1 s；
+ * 改为长度分组和签名过滤之前的 BK 树约 1.1 s，慢于线性扫描。</p>
+ *
+ * <pre>
+ * gradle jmh
+ * </pre>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FuzzyIndexBenchmark {
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+    private static final int QUERY_COUNT = 64;
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    @Param({"1", "2"})
+    private int maxDistance;
+
+    private String[] dictionary;
+    private String[] queries;
+    private FuzzyIndex index;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(20180901L);
+        final List<String> words = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final char[] chars = new char[4 + random.nextInt(9)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            }
+            words.add(new String(chars));
+        }
+        dictionary = words.toArray(new String[0]);
+        queries = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            final StringBuilder query = new StringBuilder(dictionary[random.nextInt(size)]);
+            for (int edits = random.nextInt(4); edits > 0 && query.length() > 1; edits--) {
+                final int position = random.nextInt(query.length());
+                final char ch = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+                switch (random.nextInt(3)) {
+                    case 0:
+                        query.setCharAt(position, ch);
+                        break;
+                    case 1:
+                        query.insert(position, ch);
+                        break;
+                    default:
+                        query.deleteCharAt(position);
+                        break;
+                }
+            }
+            queries[i] = query.toString();
+        }
+        index = FuzzyIndex.build(words, false, false);
+    }
+
+    /**
+     * @return 所有查询的命中总数
+     */
+    @Benchmark
+    public int index() {
+        int matches = 0;
+        for (final String query : queries) {
+            matches += index.search(query, maxDistance, (entryIndex, distance) -> { });
+        }
+        return matches;
+    }
+
+    /**
+     * @return 所有查询的命中总数
+     */
+    @Benchmark
+    public int linearScan() {
+        int matches = 0;
+        for (final String query : queries) {
+            for (final String word : dictionary) {
+                if (StringAide.levenshtein(word, query, maxDistance) >= 0) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+}
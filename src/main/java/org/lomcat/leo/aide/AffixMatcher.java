@@ -0,0 +1,317 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * <p>预编译的前缀或后缀匹配器，用于对同一组较多的前缀（如路由路径）或后缀（如域名）反复进行匹配。</p>
+ *
+ * <p>前缀匹配器内部为正向字典树（trie），后缀匹配器为反向字典树。匹配时只沿着输入逐字符向下查找，
+ * 耗时与匹配到的长度成正比，与前缀或后缀的数量无关。
+ * 每个节点的子节点按字符排序保存在连续数组中，通过二分查找定位。</p>
+ *
+ * <p>忽略大小写时按 {@link String#equalsIgnoreCase(String)} 的规则逐字符折叠比较，不会创建小写副本。
+ * {@code null} 元素被忽略，重复的元素以第一次出现的位置为准。实例不可变，可以在多个线程之间共享。</p>
+ *
+ * <pre>
+ * AffixMatcher.prefixes("/api", "/api/v1", "/static").longestMatch("/api/v1/users")      = "/api/v1"
+ * AffixMatcher.prefixes("/api", "/api/v1", "/static").longestMatchIndex("/api/v2/users") = 0
+ * AffixMatcher.suffixesIgnoreCase(".com", ".example.com").longestMatch("WWW.EXAMPLE.COM") = ".example.com"
+ * AffixMatcher.suffixes(".com", ".org").matches("example.net")                            = false
+ * </pre>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public final class AffixMatcher {
+
+    private static final int NO_ENTRY = -1;
+
+    private final boolean suffix;
+    private final boolean ignoreCase;
+    /**
+     * 原始元素，下标即 {@link #longestMatchIndex(CharSequence)} 的返回值
+     */
+    private final String[] entries;
+    /**
+     * 节点 n 的子节点位于 [childStart[n], childStart[n + 1]) 范围内
+     */
+    private final int[] childStart;
+    /**
+     * 子节点对应的字符（忽略大小写时为折叠后的字符），每个节点范围内有序
+     */
+    private final char[] childChars;
+    /**
+     * 子节点的编号
+     */
+    private final int[] childNodes;
+    /**
+     * 以节点结束的元素下标，没有时为 {@link #NO_ENTRY}
+     */
+    private final int[] terminals;
+
+    private AffixMatcher(final boolean suffix, final boolean ignoreCase, final String[] entries,
+                         final int[] childStart, final char[] childChars, final int[] childNodes, final int[] terminals) {
+        this.suffix = suffix;
+        this.ignoreCase = ignoreCase;
+        this.entries = entries;
+        this.childStart = childStart;
+        this.childChars = childChars;
+        this.childNodes = childNodes;
+        this.terminals = terminals;
+    }
+
+    /**
+     * <p>编译一个区分大小写的前缀匹配器。</p>
+     *
+     * @param prefixes 一组前缀，{@code null} 视为空
+     * @return 前缀匹配器
+     * @since 1.0.0
+     */
+    public static AffixMatcher prefixes(final CharSequence... prefixes) {
+        return compile(prefixes, false, false);
+    }
+
+    /**
+     * <p>编译一个忽略大小写的前缀匹配器。</p>
+     *
+     * @param prefixes 一组前缀，{@code null} 视为空
+     * @return 前缀匹配器
+     * @since 1.0.0
+     */
+    public static AffixMatcher prefixesIgnoreCase(final CharSequence... prefixes) {
+        return compile(prefixes, false, true);
+    }
+
+    /**
+     * <p>编译一个前缀匹配器，可以指定是否忽略大小写。</p>
+     *
+     * @param prefixes 一组前缀，{@code null} 视为空，下标按迭代顺序计算
+     * @param ignoreCase 是否忽略大小写
+     * @return 前缀匹配器
+     * @since 1.0.0
+     */
+    public static AffixMatcher prefixes(final Collection<? extends CharSequence> prefixes, final boolean ignoreCase) {
+        return compile(prefixes == null ? null : prefixes.toArray(new CharSequence[0]), false, ignoreCase);
+    }
+
+    /**
+     * <p>编译一个区分大小写的后缀匹配器。</p>
+     *
+     * @param suffixes 一组后缀，{@code null} 视为空
+     * @return 后缀匹配器
+     * @since 1.0.0
+     */
+    public static AffixMatcher suffixes(final CharSequence... suffixes) {
+        return compile(suffixes, true, false);
+    }
+
+    /**
+     * <p>编译一个忽略大小写的后缀匹配器。</p>
+     *
+     * @param suffixes 一组后缀，{@code null} 视为空
+     * @return 后缀匹配器
+     * @since 1.0.0
+     */
+    public static AffixMatcher suffixesIgnoreCase(final CharSequence... suffixes) {
+        return compile(suffixes, true, true);
+    }
+
+    /**
+     * <p>编译一个后缀匹配器，可以指定是否忽略大小写。</p>
+     *
+     * @param suffixes 一组后缀，{@code null} 视为空，下标按迭代顺序计算
+     * @param ignoreCase 是否忽略大小写
+     * @return 后缀匹配器
+     * @since 1.0.0
+     */
+    public static AffixMatcher suffixes(final Collection<? extends CharSequence> suffixes, final boolean ignoreCase) {
+        return compile(suffixes == null ? null : suffixes.toArray(new CharSequence[0]), true, ignoreCase);
+    }
+
+    private static AffixMatcher compile(final CharSequence[] affixes, final boolean suffix, final boolean ignoreCase) {
+        final int count = ArrayAide.length(affixes);
+        final String[] entries = new String[count];
+        // 先将折叠（和反转）后的元素排序，再按排序结果逐层生成节点，同一节点的子节点自然有序
+        final String[] keys = new String[count];
+        final Integer[] order = new Integer[count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            entries[i] = affixes[i] == null ? null : affixes[i].toString();
+            if (entries[i] != null) {
+                keys[i] = key(entries[i], suffix, ignoreCase);
+                order[size++] = i;
+            }
+        }
+        final Integer[] sorted = Arrays.copyOf(order, size);
+        Arrays.sort(sorted, (a, b) -> {
+            final int compare = keys[a].compareTo(keys[b]);
+            return compare != 0 ? compare : Integer.compare(a, b);
+        });
+
+        int nodeCapacity = 1;
+        for (final Integer index : sorted) {
+            nodeCapacity += keys[index].length();
+        }
+        final int[] childStart = new int[nodeCapacity + 1];
+        final char[] childChars = new char[nodeCapacity];
+        final int[] childNodes = new int[nodeCapacity];
+        final int[] terminals = new int[nodeCapacity];
+        Arrays.fill(terminals, NO_ENTRY);
+
+        // 广度优先：队列中的每个节点对应 sorted 中的一个区间，这些元素的前 depth 个字符相同
+        final int[] rangeFrom = new int[nodeCapacity];
+        final int[] rangeTo = new int[nodeCapacity];
+        final int[] depths = new int[nodeCapacity];
+        rangeTo[0] = sorted.length;
+        int nodes = 1;
+        int edges = 0;
+        for (int node = 0; node < nodes; node++) {
+            childStart[node] = edges;
+            final int depth = depths[node];
+            int from = rangeFrom[node];
+            final int to = rangeTo[node];
+            // 长度恰好为 depth 的元素以此节点结束，排序后位于区间开头，第一个即为最早出现的
+            if (from < to && keys[sorted[from]].length() == depth) {
+                terminals[node] = sorted[from];
+                while (from < to && keys[sorted[from]].length() == depth) {
+                    from++;
+                }
+            }
+            while (from < to) {
+                final char ch = keys[sorted[from]].charAt(depth);
+                int end = from + 1;
+                while (end < to && keys[sorted[end]].charAt(depth) == ch) {
+                    end++;
+                }
+                childChars[edges] = ch;
+                childNodes[edges] = nodes;
+                edges++;
+                rangeFrom[nodes] = from;
+                rangeTo[nodes] = end;
+                depths[nodes] = depth + 1;
+                nodes++;
+                from = end;
+            }
+        }
+        childStart[nodes] = edges;
+        return new AffixMatcher(suffix, ignoreCase, entries, Arrays.copyOf(childStart, nodes + 1),
+                Arrays.copyOf(childChars, edges), Arrays.copyOf(childNodes, edges), Arrays.copyOf(terminals, nodes));
+    }
+
+    private static String key(final String entry, final boolean suffix, final boolean ignoreCase) {
+        final int length = entry.length();
+        final char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            final char ch = entry.charAt(suffix ? length - 1 - i : i);
+            chars[i] = ignoreCase ? CharSet.fold(ch) : ch;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * <p>检查 {@code sequence} 是否以任意一个元素开头（前缀匹配器）或结尾（后缀匹配器）。</p>
+     *
+     * @param sequence 要检查的字符序列，为 null 时返回 {@code false}
+     * @return 匹配时返回 {@code true}
+     * @since 1.0.0
+     */
+    public boolean matches(final CharSequence sequence) {
+        return longestMatchIndex(sequence) != NO_ENTRY;
+    }
+
+    /**
+     * <p>查找 {@code sequence} 匹配到的最长元素。</p>
+     *
+     * @param sequence 要检查的字符序列，为 null 时返回 {@code null}
+     * @return 最长的元素（编译时的原始形式），没有匹配时返回 {@code null}
+     * @since 1.0.0
+     */
+    public String longestMatch(final CharSequence sequence) {
+        final int index = longestMatchIndex(sequence);
+        return index == NO_ENTRY ? null : entries[index];
+    }
+
+    /**
+     * <p>查找 {@code sequence} 匹配到的最长元素的下标。</p>
+     *
+     * @param sequence 要检查的字符序列，为 null 时返回 -1
+     * @return 最长的元素在编译时传入的数组（或集合迭代顺序）中的下标，没有匹配时返回 -1
+     * @since 1.0.0
+     */
+    public int longestMatchIndex(final CharSequence sequence) {
+        if (sequence == null) {
+            return NO_ENTRY;
+        }
+        final int length = sequence.length();
+        int node = 0;
+        int match = terminals[0];
+        for (int i = 0; i < length; i++) {
+            char ch = sequence.charAt(suffix ? length - 1 - i : i);
+            if (ignoreCase) {
+                ch = CharSet.fold(ch);
+            }
+            final int edge = child(node, ch);
+            if (edge < 0) {
+                break;
+            }
+            node = childNodes[edge];
+            if (terminals[node] != NO_ENTRY) {
+                match = terminals[node];
+            }
+        }
+        return match;
+    }
+
+    /**
+     * @return 是否为后缀匹配器
+     * @since 1.0.0
+     */
+    public boolean isSuffix() {
+        return suffix;
+    }
+
+    /**
+     * @return 是否忽略大小写
+     * @since 1.0.0
+     */
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    private int child(final int node, final char ch) {
+        int low = childStart[node];
+        int high = childStart[node + 1] - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final char value = childChars[middle];
+            if (value < ch) {
+                low = middle + 1;
+            } else if (value > ch) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+}
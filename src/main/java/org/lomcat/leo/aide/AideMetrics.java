@@ -0,0 +1,469 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>{@link StringAide}、{@link CharSequenceAide}、{@link RegexAide} 中热点方法的调用统计。</p>
+ *
+ * <p>统计默认关闭，关闭时（且 {@link SlowOperationEvents} 未在记录时）被统计的方法只多出两次 volatile 读，
+ * 不会调用 {@link System#nanoTime()}，也不分配任何对象。
+ * 可以通过系统属性 {@code -Dleo.aide.metrics=true} 或 {@link #setEnabled(boolean)} 开启。</p>
+ *
+ * <p>开启后，每个方法统计以下数据：</p>
+ * <ul>
+ *     <li>调用次数</li>
+ *     <li>处理的字符总数（即输入字符序列的长度之和）</li>
+ *     <li>输入长度的分布，按 2 的幂分桶</li>
+ *     <li>耗时的分布，按 HDR 风格的对数-线性分桶（每个 2 的幂区间再细分 8 个桶，相对误差不超过 12.5%），
+ *     由此计算 p50、p90、p99、p999</li>
+ * </ul>
+ *
+ * <p>统计结果可以通过 {@link #snapshot()} 以编程方式获取，也可以通过 {@link #registerMBean()} 注册的
+ * JMX MXBean（{@value #OBJECT_NAME}）查看。
+ * 重载方法合并统计。每次调用只在调用方直接调用的公共方法上记录一次，库内部的调用（如 {@code strip} 对首尾的剥离、
+ * {@code delete} 对替换的复用）使用不经过统计的实现，不会重复计数或计入其它方法。</p>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public final class AideMetrics {
+
+    /**
+     * 开启统计的系统属性
+     */
+    public static final String ENABLED_PROPERTY = "leo.aide.metrics";
+    /**
+     * MXBean 的 ObjectName
+     */
+    public static final String OBJECT_NAME = "org.lomcat.leo.aide:type=AideMetrics";
+
+    private static final int LENGTH_BUCKETS = Integer.SIZE + 1;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /**
+     * 可以区分的最大耗时，约 4.9 小时，超过的按此值统计
+     */
+    private static final long MAX_TRACKABLE_NANOS = (1L << 44) - 1;
+    private static final int LATENCY_BUCKETS = latencyBucket(MAX_TRACKABLE_NANOS) + 1;
+
+    private static final Map<String, Probe> PROBES = new ConcurrentSkipListMap<>();
+
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+    private static ObjectName registeredName;
+
+    private AideMetrics() {
+    }
+
+    /**
+     * <p>统计是否已开启。</p>
+     *
+     * @return 已开启时返回 {@code true}
+     * @since 1.0.0
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * <p>被统计的方法是否需要计时，即统计已开启，或 {@link SlowOperationEvents} 已开启且存在正在运行的 JFR 记录。</p>
+     *
+     * @return 需要计时时返回 {@code true}
+     */
+    static boolean isActive() {
+        return enabled || SlowOperationEvents.isRecording();
+    }
+
+    /**
+     * <p>开启或关闭统计。关闭统计不会清除已有的统计结果。</p>
+     *
+     * @param enabled 是否开启
+     * @since 1.0.0
+     */
+    public static void setEnabled(final boolean enabled) {
+        AideMetrics.enabled = enabled;
+    }
+
+    /**
+     * <p>清除所有方法的统计结果。</p>
+     *
+     * @since 1.0.0
+     */
+    public static void reset() {
+        for (final Probe probe : PROBES.values()) {
+            probe.recorder = null;
+        }
+    }
+
+    /**
+     * <p>获取所有已注册方法的统计快照，按方法名排序。</p>
+     *
+     * <p>方法所在的类被加载后才会出现在结果中，没有被调用过的方法各项统计为 0。</p>
+     *
+     * @return 方法名到统计快照的映射，不可修改
+     * @since 1.0.0
+     */
+    public static Map<String, Snapshot> snapshot() {
+        final Map<String, Snapshot> snapshots = new LinkedHashMap<>();
+        for (final Probe probe : PROBES.values()) {
+            snapshots.put(probe.name, probe.snapshot());
+        }
+        return Collections.unmodifiableMap(snapshots);
+    }
+
+    /**
+     * <p>获取指定方法的统计快照。</p>
+     *
+     * @param method 方法名，如 {@code "StringAide.replace"}
+     * @return 统计快照，方法未注册时返回 {@code null}
+     * @since 1.0.0
+     */
+    public static Snapshot snapshot(final String method) {
+        final Probe probe = method == null ? null : PROBES.get(method);
+        return probe == null ? null : probe.snapshot();
+    }
+
+    /**
+     * <p>将统计注册为平台 MBeanServer 中的 MXBean，名称为 {@value #OBJECT_NAME}。重复调用没有副作用。</p>
+     *
+     * @throws IllegalStateException 注册失败时
+     * @since 1.0.0
+     */
+    public static synchronized void registerMBean() {
+        if (registeredName != null) {
+            return;
+        }
+        try {
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MXBeanAdapter(), name);
+            }
+            registeredName = name;
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * <p>从平台 MBeanServer 中注销 {@link #registerMBean()} 注册的 MXBean。</p>
+     *
+     * @since 1.0.0
+     */
+    public static synchronized void unregisterMBean() {
+        if (registeredName == null) {
+            return;
+        }
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(registeredName)) {
+                server.unregisterMBean(registeredName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to unregister " + OBJECT_NAME, e);
+        } finally {
+            registeredName = null;
+        }
+    }
+
+    /**
+     * <p>注册一个被统计的方法，同名方法（如重载方法）共用同一个 {@link Probe}。</p>
+     *
+     * @param method 方法名
+     * @return 该方法的 {@link Probe}
+     * @since 1.0.0
+     */
+    static Probe probe(final String method) {
+        Probe probe = PROBES.get(method);
+        if (probe == null) {
+            final Probe created = new Probe(method);
+            probe = PROBES.putIfAbsent(method, created);
+            if (probe == null) {
+                probe = created;
+            }
+        }
+        return probe;
+    }
+
+    private static int latencyBucket(long nanos) {
+        if (nanos <= 0) {
+            return 0;
+        }
+        if (nanos > MAX_TRACKABLE_NANOS) {
+            nanos = MAX_TRACKABLE_NANOS;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent < SUB_BUCKET_BITS) {
+            return (int) nanos;
+        }
+        final int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * 分桶中最大的值（包含）
+     */
+    private static long latencyBucketHighest(final int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        final int exponent = bucket / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        final long subBucket = SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * <p>单个方法的统计入口。</p>
+     *
+     * <p>被统计的方法应先检查 {@link AideMetrics#isActive()}，需要计时时再取 {@link System#nanoTime()}、
+     * 调用 {@link SlowOperationEvents#begin()}，并在结束后调用 {@link #record(int, int, long, Object)}，
+     * 以保证统计和事件都关闭时没有额外开销。</p>
+     */
+    static final class Probe {
+        private final String name;
+        private volatile Recorder recorder;
+
+        private Probe(final String name) {
+            this.name = name;
+        }
+
+        /**
+         * @param inputLength 输入字符序列的长度
+         * @param startNanos 调用开始时 {@link System#nanoTime()} 的值
+         * @param event 调用开始时 {@link SlowOperationEvents#begin()} 的返回值
+         */
+        void record(final int inputLength, final long startNanos, final Object event) {
+            record(inputLength, -1, startNanos, event);
+        }
+
+        /**
+         * @param inputLength 输入字符序列的长度
+         * @param matchCount 匹配数量，仅用于 {@link SlowOperationEvents}，无法确定时为 -1
+         * @param startNanos 调用开始时 {@link System#nanoTime()} 的值
+         * @param event 调用开始时 {@link SlowOperationEvents#begin()} 的返回值
+         */
+        void record(final int inputLength, final int matchCount, final long startNanos, final Object event) {
+            final long elapsed = System.nanoTime() - startNanos;
+            if (enabled) {
+                recorder().record(inputLength, elapsed);
+            }
+            if (event != null) {
+                SlowOperationEvents.record(event, name, inputLength, matchCount, elapsed);
+            }
+        }
+
+        private Recorder recorder() {
+            Recorder current = recorder;
+            if (current == null) {
+                synchronized (this) {
+                    current = recorder;
+                    if (current == null) {
+                        recorder = current = new Recorder();
+                    }
+                }
+            }
+            return current;
+        }
+
+        private Snapshot snapshot() {
+            final Recorder current = recorder;
+            return current == null ? new Snapshot(name) : current.snapshot(name);
+        }
+    }
+
+    private static final class Recorder {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder chars = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray lengths = new AtomicLongArray(LENGTH_BUCKETS);
+        private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_BUCKETS);
+
+        private void record(final int inputLength, final long elapsed) {
+            calls.increment();
+            chars.add(inputLength);
+            nanos.add(elapsed);
+            maxNanos.accumulate(elapsed);
+            lengths.incrementAndGet(Integer.SIZE - Integer.numberOfLeadingZeros(inputLength));
+            latencies.incrementAndGet(latencyBucket(elapsed));
+        }
+
+        private Snapshot snapshot(final String name) {
+            final long[] lengthHistogram = new long[LENGTH_BUCKETS];
+            for (int i = 0; i < LENGTH_BUCKETS; i++) {
+                lengthHistogram[i] = lengths.get(i);
+            }
+            final long[] latencyHistogram = new long[LATENCY_BUCKETS];
+            long total = 0;
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                total += latencyHistogram[i] = latencies.get(i);
+            }
+            final long max = maxNanos.get();
+            return new Snapshot(name, calls.sum(), chars.sum(), nanos.sum(), max,
+                    percentile(latencyHistogram, total, 0.5, max),
+                    percentile(latencyHistogram, total, 0.9, max),
+                    percentile(latencyHistogram, total, 0.99, max),
+                    percentile(latencyHistogram, total, 0.999, max),
+                    lengthHistogram);
+        }
+
+        private static long percentile(final long[] histogram, final long total, final double quantile, final long max) {
+            if (total == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(total * quantile));
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= rank) {
+                    return Math.min(latencyBucketHighest(i), max);
+                }
+            }
+            return max;
+        }
+    }
+
+    /**
+     * <p>单个方法在某一时刻的统计快照，不可变。耗时单位均为纳秒。</p>
+     *
+     * @since 1.0.0
+     */
+    public static final class Snapshot {
+        private final String method;
+        private final long calls;
+        private final long totalChars;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long p50Nanos;
+        private final long p90Nanos;
+        private final long p99Nanos;
+        private final long p999Nanos;
+        private final long[] lengthHistogram;
+
+        private Snapshot(final String method) {
+            this(method, 0, 0, 0, 0, 0, 0, 0, 0, new long[LENGTH_BUCKETS]);
+        }
+
+        private Snapshot(final String method, final long calls, final long totalChars, final long totalNanos,
+                         final long maxNanos, final long p50Nanos, final long p90Nanos, final long p99Nanos,
+                         final long p999Nanos, final long[] lengthHistogram) {
+            this.method = method;
+            this.calls = calls;
+            this.totalChars = totalChars;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.p50Nanos = p50Nanos;
+            this.p90Nanos = p90Nanos;
+            this.p99Nanos = p99Nanos;
+            this.p999Nanos = p999Nanos;
+            this.lengthHistogram = lengthHistogram;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getTotalChars() {
+            return totalChars;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMeanNanos() {
+            return calls == 0 ? 0 : totalNanos / calls;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public long getP90Nanos() {
+            return p90Nanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public long getP999Nanos() {
+            return p999Nanos;
+        }
+
+        /**
+         * <p>输入长度的分布。下标 0 为长度 0 的调用次数，下标 {@code i}（{@code i > 0}）
+         * 为长度在 {@code [2^(i-1), 2^i)} 之间的调用次数。</p>
+         *
+         * @return 输入长度分布的副本
+         */
+        public long[] getLengthHistogram() {
+            return lengthHistogram.clone();
+        }
+
+        @Override
+        public String toString() {
+            return method + "{calls=" + calls + ", chars=" + totalChars + ", mean=" + getMeanNanos()
+                    + "ns, p50=" + p50Nanos + "ns, p90=" + p90Nanos + "ns, p99=" + p99Nanos
+                    + "ns, p999=" + p999Nanos + "ns, max=" + maxNanos + "ns}";
+        }
+    }
+
+    private static final class MXBeanAdapter implements AideMetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return AideMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(final boolean enabled) {
+            AideMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public Map<String, Snapshot> getSnapshots() {
+            return AideMetrics.snapshot();
+        }
+
+        @Override
+        public void reset() {
+            AideMetrics.reset();
+        }
+    }
+}
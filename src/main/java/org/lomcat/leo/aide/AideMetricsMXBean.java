@@ -0,0 +1,51 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import java.util.Map;
+
+/**
+ * <p>{@link AideMetrics} 的 JMX 管理接口。</p>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public interface AideMetricsMXBean {
+
+    /**
+     * @return 统计是否已开启
+     */
+    boolean isEnabled();
+
+    /**
+     * @param enabled 开启或关闭统计
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return 所有已注册方法的统计快照
+     */
+    Map<String, AideMetrics.Snapshot> getSnapshots();
+
+    /**
+     * 清除所有统计结果
+     */
+    void reset();
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+
+package org.lomcat.leo.aide;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * <p>标识符命名风格，用于在 snake_case、kebab-case、camelCase 与 PascalCase 之间转换。</p>
+ *
+ * <p>单词边界与 {@link StringAide#splitByCharacterTypeCamelCase(String)} 相同：
+ * 按 {@link Character#getType(char)} 划分连续的同类字符，小写字母前的一个大写字母归入后面的单词。
+ * 由字母、数字（及代理字符）组成的分组作为单词，其余分组（空白、{@code '_'}、{@code '-'} 等）视为分隔符并丢弃。</p>
+ *
+ * <p>转换只遍历一次输入，直接写入预分配的缓冲区，不生成中间的单词数组；
+ * 在输出与输入出现第一个不同的字符之前不分配缓冲区，结果与输入相同时返回输入本身。</p>
+ *
+ * <pre>
+ * CaseFormat.SNAKE_CASE.format("fooBarBaz")   = "foo_bar_baz"
+ * CaseFormat.KEBAB_CASE.format("ASFRules")    = "asf-rules"
+ * CaseFormat.CAMEL_CASE.format("foo_bar-baz") = "fooBarBaz"
+ * CaseFormat.PASCAL_CASE.format("foo200bar")  = "Foo200Bar"
+ * </pre>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public enum CaseFormat {
+    /**
+     * 全部小写，单词之间以 {@code '_'} 连接，如 {@code foo_bar}
+     */
+    SNAKE_CASE('_', false, false),
+    /**
+     * 全部小写，单词之间以 {@code '-'} 连接，如 {@code foo-bar}
+     */
+    KEBAB_CASE('-', false, false),
+    /**
+     * 第一个单词全部小写，其余单词首字母大写，如 {@code fooBar}
+     */
+    CAMEL_CASE((char) 0, false, true),
+    /**
+     * 每个单词首字母大写，如 {@code FooBar}
+     */
+    PASCAL_CASE((char) 0, true, true);
+
+    /**
+     * 单词之间的分隔符，0 表示没有分隔符
+     */
+    private final char separator;
+    private final boolean capitalizeFirst;
+    private final boolean capitalizeRest;
+
+    CaseFormat(final char separator, final boolean capitalizeFirst, final boolean capitalizeRest) {
+        this.separator = separator;
+        this.capitalizeFirst = capitalizeFirst;
+        this.capitalizeRest = capitalizeRest;
+    }
+
+    /**
+     * <p>将字符串转换为当前命名风格。</p>
+     *
+     * @param string 要转换的字符串，可以为 null
+     * @return 转换后的字符串，与输入相同时返回 {@code string} 本身；{@code string} 为 null 时返回 {@code null}
+     * @since 1.0.0
+     */
+    public String format(final String string) {
+        if (string == null || string.isEmpty()) {
+            return string;
+        }
+        final Output output = new Output(string);
+        final int length = string.length();
+        int words = 0;
+        int tokenStart = 0;
+        int currentType = Character.getType(string.charAt(0));
+        for (int pos = 1; pos < length; pos++) {
+            final int type = Character.getType(string.charAt(pos));
+            if (type == currentType) {
+                continue;
+            }
+            if (type == Character.LOWERCASE_LETTER && currentType == Character.UPPERCASE_LETTER) {
+                final int newTokenStart = pos - 1;
+                if (newTokenStart != tokenStart) {
+                    words = writeToken(output, string, tokenStart, newTokenStart, words);
+                    tokenStart = newTokenStart;
+                }
+            } else {
+                words = writeToken(output, string, tokenStart, pos, words);
+                tokenStart = pos;
+            }
+            currentType = type;
+        }
+        writeToken(output, string, tokenStart, length, words);
+        return output.result();
+    }
+
+    /**
+     * <p>返回一个带有有界缓存的转换函数，适合对数量有限、反复出现的名称（如字段名）进行转换。</p>
+     *
+     * <p>缓存线程安全，条目数达到 {@code maxSize} 时整体清空后重新缓存。</p>
+     *
+     * @param maxSize 缓存的最大条目数，不能小于 1
+     * @return 转换函数，对 null 返回 {@code null}
+     * @throws IllegalArgumentException 如果 {@code maxSize} 小于 1
+     * @since 1.0.0
+     */
+    public Function<String, String> cached(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Max size must be positive: " + maxSize);
+        }
+        final Map<String, String> cache = new ConcurrentHashMap<>();
+        return string -> {
+            if (string == null) {
+                return null;
+            }
+            final String cachedResult = cache.get(string);
+            if (cachedResult != null) {
+                return cachedResult;
+            }
+            final String result = format(string);
+            if (cache.size() >= maxSize) {
+                cache.clear();
+            }
+            cache.put(string, result);
+            return result;
+        };
+    }
+
+    /**
+     * @return 写入分组后的单词数
+     */
+    private int writeToken(final Output output, final String string, final int start, final int end, final int words) {
+        final char first = string.charAt(start);
+        if (!Character.isLetterOrDigit(first) && !Character.isSurrogate(first)) {
+            return words;
+        }
+        if (words > 0 && separator != 0) {
+            output.put(separator);
+        }
+        final boolean capitalize = words == 0 ? capitalizeFirst : capitalizeRest;
+        // 按代码点转换，代理对作为一个增补字符处理（如 Deseret 字母 U+10400 的小写为 U+10428）
+        int i = start;
+        while (i < end) {
+            final int codePoint = string.codePointAt(i);
+            if (i == start && capitalize) {
+                output.put(Character.toTitleCase(codePoint));
+            } else {
+                output.put(Character.toLowerCase(codePoint));
+            }
+            i += Character.charCount(codePoint);
+        }
+        return words + 1;
+    }
+
+    /**
+     * <p>延迟分配的输出缓冲区：输出与输入的前缀一致时只移动位置，出现第一个不同的字符时才分配。</p>
+     */
+    private static final class Output {
+        private final String source;
+        private int position;
+        private StringBuilder builder;
+
+        private Output(final String source) {
+            this.source = source;
+        }
+
+        private void put(final int codePoint) {
+            if (Character.isBmpCodePoint(codePoint)) {
+                put((char) codePoint);
+            } else {
+                put(Character.highSurrogate(codePoint));
+                put(Character.lowSurrogate(codePoint));
+            }
+        }
+
+        private void put(final char ch) {
+            if (builder == null) {
+                if (position < source.length() && source.charAt(position) == ch) {
+                    position++;
+                    return;
+                }
+                // 每个单词最多增加一个分隔符
+                builder = new StringBuilder(source.length() + (source.length() >> 1) + 1);
+                builder.append(source, 0, position);
+            }
+            builder.append(ch);
+        }
+
+        private String result() {
+            if (builder != null) {
+                return builder.toString();
+            }
+            return position == source.length() ? source : source.substring(0, position);
+        }
+    }
+}
@@ -19,6 +19,8 @@
 
 package org.lomcat.leo.aide;
 
+import java.nio.CharBuffer;
+
 /**
  * TODO Kweny CharSequenceAide
  *
@@ -29,6 +31,20 @@ public class CharSequenceAide {
 
     public static final int INDEX_NOT_FOUND = -1;
 
+    /**
+     * 改用 {@link MultiSearcher} 的最少模式串个数和最短文本长度，见 {@link #isMultiSearch(CharSequence, CharSequence[])}
+     */
+    static final int MULTI_SEARCH_MIN_NEEDLES = 64;
+    static final int MULTI_SEARCH_MIN_LENGTH = 4096;
+
+    private static final AideMetrics.Probe INDEX_OF_PROBE = AideMetrics.probe("CharSequenceAide.indexOf");
+    private static final AideMetrics.Probe LAST_INDEX_OF_PROBE = AideMetrics.probe("CharSequenceAide.lastIndexOf");
+    private static final AideMetrics.Probe INDEX_OF_IGNORE_CASE_PROBE = AideMetrics.probe("CharSequenceAide.indexOfIgnoreCase");
+    private static final AideMetrics.Probe LAST_INDEX_OF_IGNORE_CASE_PROBE = AideMetrics.probe("CharSequenceAide.lastIndexOfIgnoreCase");
+    private static final AideMetrics.Probe INDEX_OF_ANY_PROBE = AideMetrics.probe("CharSequenceAide.indexOfAny");
+    private static final AideMetrics.Probe LAST_INDEX_OF_ANY_PROBE = AideMetrics.probe("CharSequenceAide.lastIndexOfAny");
+    private static final AideMetrics.Probe INDEX_OF_NON_ANY_PROBE = AideMetrics.probe("CharSequenceAide.indexOfNonAny");
+
     /**
      * <p>获取字符序列的长度，若字符序列为 {@code null} 则返回 0。</p>
      *
@@ -54,6 +70,9 @@ public class CharSequenceAide {
         if (sequence instanceof String) {
             return ((String) sequence).toCharArray();
         }
+        if (sequence instanceof CharSlice) {
+            return ((CharSlice) sequence).toCharArray();
+        }
         final int length = sequence.length();
         final char[] chars = new char[length];
         for (int i = 0; i < length; i++) {
@@ -261,6 +280,9 @@ public class CharSequenceAide {
         if (sequence == null || (length = sequence.length()) == 0) {
             return true;
         }
+        if (sequence instanceof String) {
+            return StringKernel.isBlank((String) sequence);
+        }
         for (int i = 0; i < length; i++) {
             if (!Character.isWhitespace(sequence.charAt(i))) {
                 return false;
@@ -527,6 +549,18 @@ public class CharSequenceAide {
         if (sequence1 instanceof String && sequence2 instanceof String) {
             return sequence1.equals(sequence2);
         }
+        if (sequence1 instanceof CharSlice) {
+            return ((CharSlice) sequence1).contentEquals(sequence2);
+        }
+        if (sequence2 instanceof CharSlice) {
+            return ((CharSlice) sequence2).contentEquals(sequence1);
+        }
+        if (sequence1 instanceof OffHeapStringPool.View) {
+            return ((OffHeapStringPool.View) sequence1).contentEquals(sequence2);
+        }
+        if (sequence2 instanceof OffHeapStringPool.View) {
+            return ((OffHeapStringPool.View) sequence2).contentEquals(sequence1);
+        }
         return regionMatches(false, sequence1, 0, sequence2, 0, sequence1.length());
     }
 
@@ -615,6 +649,29 @@ public class CharSequenceAide {
         return false;
     }
 
+    /**
+     * <p>检查指定字符序列是否与预编译集合中的任意元素相等，是否忽略大小写由集合决定。</p>
+     *
+     * <p>与 {@link #equalsAny(CharSequence, CharSequence...)} 和 {@link #equalsAnyIgnoreCase(CharSequence, CharSequence...)}
+     * 逐个比较不同，耗时只与 {@code sequence} 的长度有关，适合对同一组较多的候选值反复判断。</p>
+     *
+     * <pre>
+     * CharSequenceAide.equalsAnyIn("abc", CharSequenceSet.of("abc", "def"))          = true
+     * CharSequenceAide.equalsAnyIn("ABC", CharSequenceSet.of("abc", "def"))          = false
+     * CharSequenceAide.equalsAnyIn("ABC", CharSequenceSet.ofIgnoreCase("abc", "def")) = true
+     * CharSequenceAide.equalsAnyIn(null, CharSequenceSet.of(null, "abc"))            = true
+     * CharSequenceAide.equalsAnyIn("abc", null)                                      = false
+     * </pre>
+     *
+     * @param sequence 字符序列
+     * @param set 预编译的字符序列集合
+     * @return 若 {@code sequence} 与 {@code set} 中的任意一个元素相等，则返回 true， 否则 false
+     * @since 1.0.0
+     */
+    public static boolean equalsAnyIn(final CharSequence sequence, final CharSequenceSet set) {
+        return set != null && set.contains(sequence);
+    }
+
     /**
      * <p>比较两个字符序列 {@code sequence1} 和 {@code sequence2} 指定范围，如果表示相同的字符序列，则结果为 {@code true}。</p>
      *
@@ -644,6 +701,12 @@ public class CharSequenceAide {
         if (sequence1 instanceof String && sequence2 instanceof String) {
             return ((String) sequence1).regionMatches(ignoreCase, offset1, (String) sequence2, offset2, length);
         }
+        if (sequence1 instanceof CharSlice && length >= 0) {
+            return ((CharSlice) sequence1).regionMatches(ignoreCase, offset1, sequence2, offset2, length);
+        }
+        if (sequence1 instanceof OffHeapStringPool.View && length >= 0) {
+            return ((OffHeapStringPool.View) sequence1).regionMatches(ignoreCase, offset1, sequence2, offset2, length);
+        }
 
         if (offset1 < 0 || offset2 < 0 || length < 0) {
             return false;
@@ -697,6 +760,17 @@ public class CharSequenceAide {
      * @since 1.0.0
      */
     public static int indexOf(final CharSequence sequence, final int searchChar, int fromIndex) {
+        if (!AideMetrics.isActive()) {
+            return doIndexOf(sequence, searchChar, fromIndex);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final int result = doIndexOf(sequence, searchChar, fromIndex);
+        INDEX_OF_PROBE.record(length(sequence), result == INDEX_NOT_FOUND ? 0 : 1, startNanos, event);
+        return result;
+    }
+
+    private static int doIndexOf(final CharSequence sequence, final int searchChar, int fromIndex) {
         if (isEmpty(sequence)) {
             return INDEX_NOT_FOUND;
         }
@@ -712,6 +786,12 @@ public class CharSequenceAide {
         if (sequence instanceof String) {
             return ((String) sequence).indexOf(searchChar, fromIndex);
         }
+        if (sequence instanceof CharSlice) {
+            return ((CharSlice) sequence).indexOf(searchChar, fromIndex);
+        }
+        if (sequence instanceof OffHeapStringPool.View) {
+            return ((OffHeapStringPool.View) sequence).indexOf(searchChar, fromIndex);
+        }
 
         // 若 searchChar 为BMP（基本多语言面，从 U+0000 至 U+FFFF 之间），一个代码单元（16bits）表示一个字符
         if (searchChar < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
@@ -724,11 +804,12 @@ public class CharSequenceAide {
 
         // 若 searchChar 为增补字符（0x010000 至 0X10FFFF 之间），需两个代码单元（两个16bits）表示一个字符
         if (searchChar <= Character.MAX_CODE_POINT) {
-            final char[] chars = Character.toChars(searchChar);
+            final char searchHigh = Character.highSurrogate(searchChar);
+            final char searchLow = Character.lowSurrogate(searchChar);
             for (int i = fromIndex; i < length - 1; i ++) {
                 char high = sequence.charAt(i);
                 char low = sequence.charAt(i + 1);
-                if (high == chars[0] && low == chars[1]) {
+                if (high == searchHigh && low == searchLow) {
                     return i;
                 }
             }
@@ -771,6 +852,17 @@ public class CharSequenceAide {
      * @since 1.0.0
      */
     public static int lastIndexOf(final CharSequence sequence, final int searchChar, int lastIndex) {
+        if (!AideMetrics.isActive()) {
+            return doLastIndexOf(sequence, searchChar, lastIndex);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final int result = doLastIndexOf(sequence, searchChar, lastIndex);
+        LAST_INDEX_OF_PROBE.record(length(sequence), result == INDEX_NOT_FOUND ? 0 : 1, startNanos, event);
+        return result;
+    }
+
+    private static int doLastIndexOf(final CharSequence sequence, final int searchChar, int lastIndex) {
         if (isEmpty(sequence)) {
             return INDEX_NOT_FOUND;
         }
@@ -778,6 +870,9 @@ public class CharSequenceAide {
         if (sequence instanceof String) {
             return ((String) sequence).lastIndexOf(searchChar, lastIndex);
         }
+        if (sequence instanceof CharSlice) {
+            return ((CharSlice) sequence).lastIndexOf(searchChar, lastIndex);
+        }
 
         if (lastIndex < 0) {
             return INDEX_NOT_FOUND;
@@ -836,16 +931,49 @@ public class CharSequenceAide {
      * @since 1.0.0
      */
     public static int indexOf(final CharSequence sequence, final CharSequence searchSequence, int fromIndex) {
+        if (!AideMetrics.isActive()) {
+            return doIndexOf(sequence, searchSequence, fromIndex);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final int result = doIndexOf(sequence, searchSequence, fromIndex);
+        INDEX_OF_PROBE.record(length(sequence), result == INDEX_NOT_FOUND ? 0 : 1, startNanos, event);
+        return result;
+    }
+
+    /**
+     * <p>{@link #indexOf(CharSequence, CharSequence, int)} 的实现，不经过 {@link AideMetrics} 统计，供同一包中的其它类在内部调用。</p>
+     */
+    static int doIndexOf(final CharSequence sequence, final CharSequence searchSequence, int fromIndex) {
         if (sequence == null || searchSequence == null) {
             return INDEX_NOT_FOUND;
         }
         if (fromIndex < 0) {
             fromIndex = 0;
         }
-        if (fromIndex >= sequence.length()) {
+        final int length = sequence.length();
+        if (fromIndex >= length) {
             return INDEX_NOT_FOUND;
         }
-        return sequence.toString().indexOf(searchSequence.toString(), fromIndex);
+        if (sequence instanceof String && searchSequence instanceof String) {
+            return ((String) sequence).indexOf((String) searchSequence, fromIndex);
+        }
+        if (sequence instanceof CharSlice) {
+            return ((CharSlice) sequence).indexOf(searchSequence, fromIndex);
+        }
+        // 非 String 时逐字符比较，避免 toString() 产生副本
+        final int searchLength = searchSequence.length();
+        if (searchLength == 0) {
+            return fromIndex;
+        }
+        final char first = searchSequence.charAt(0);
+        final int last = length - searchLength;
+        for (int i = fromIndex; i <= last; i++) {
+            if (sequence.charAt(i) == first && regionMatches(false, sequence, i + 1, searchSequence, 1, searchLength - 1)) {
+                return i;
+            }
+        }
+        return INDEX_NOT_FOUND;
     }
 
     /**
@@ -876,6 +1004,17 @@ public class CharSequenceAide {
      * @since 1.0.0
      */
     public static int lastIndexOf(final CharSequence sequence, final CharSequence searchSequence, final int lastIndex) {
+        if (!AideMetrics.isActive()) {
+            return doLastIndexOf(sequence, searchSequence, lastIndex);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final int result = doLastIndexOf(sequence, searchSequence, lastIndex);
+        LAST_INDEX_OF_PROBE.record(length(sequence), result == INDEX_NOT_FOUND ? 0 : 1, startNanos, event);
+        return result;
+    }
+
+    private static int doLastIndexOf(final CharSequence sequence, final CharSequence searchSequence, final int lastIndex) {
         if (sequence == null || searchSequence == null) {
             return INDEX_NOT_FOUND;
         }
@@ -924,9 +1063,9 @@ public class CharSequenceAide {
         int index = lastIndex ? sequence.length() : INDEX_NOT_FOUND;
         do {
             if (lastIndex) {
-                index = lastIndexOf(sequence, searchSequence, index - 1);
+                index = doLastIndexOf(sequence, searchSequence, index - 1);
             } else {
-                index = indexOf(sequence, searchSequence, index + 1);
+                index = doIndexOf(sequence, searchSequence, index + 1);
             }
             if (index < 0) {
                 return index;
@@ -1023,6 +1162,17 @@ public class CharSequenceAide {
      * @since 1.0.0
      */
     public static int indexOfIgnoreCase(final CharSequence sequence, final CharSequence searchSequence, int fromIndex) {
+        if (!AideMetrics.isActive()) {
+            return doIndexOfIgnoreCase(sequence, searchSequence, fromIndex);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final int result = doIndexOfIgnoreCase(sequence, searchSequence, fromIndex);
+        INDEX_OF_IGNORE_CASE_PROBE.record(length(sequence), result == INDEX_NOT_FOUND ? 0 : 1, startNanos, event);
+        return result;
+    }
+
+    private static int doIndexOfIgnoreCase(final CharSequence sequence, final CharSequence searchSequence, int fromIndex) {
         if (sequence == null || searchSequence == null) {
             return INDEX_NOT_FOUND;
         }
@@ -1101,6 +1251,17 @@ public class CharSequenceAide {
      * @since 1.0.0
      */
     public static int lastIndexOfIgnoreCase(final CharSequence sequence, final CharSequence searchSequence, int lastIndex) {
+        if (!AideMetrics.isActive()) {
+            return doLastIndexOfIgnoreCase(sequence, searchSequence, lastIndex);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final int result = doLastIndexOfIgnoreCase(sequence, searchSequence, lastIndex);
+        LAST_INDEX_OF_IGNORE_CASE_PROBE.record(length(sequence), result == INDEX_NOT_FOUND ? 0 : 1, startNanos, event);
+        return result;
+    }
+
+    private static int doLastIndexOfIgnoreCase(final CharSequence sequence, final CharSequence searchSequence, int lastIndex) {
         if (sequence == null || searchSequence == null) {
             return INDEX_NOT_FOUND;
         }
@@ -1176,6 +1337,17 @@ public class CharSequenceAide {
      * @since 1.0.0
      */
     public static int indexOfAny(final CharSequence sequence, final char... searchChars) {
+        if (!AideMetrics.isActive()) {
+            return doIndexOfAny(sequence, searchChars);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final int result = doIndexOfAny(sequence, searchChars);
+        INDEX_OF_ANY_PROBE.record(length(sequence), result == INDEX_NOT_FOUND ? 0 : 1, startNanos, event);
+        return result;
+    }
+
+    private static int doIndexOfAny(final CharSequence sequence, final char... searchChars) {
         if (isEmpty(sequence) || ArrayAide.isEmpty(searchChars)) {
             return INDEX_NOT_FOUND;
         }
@@ -1251,6 +1423,17 @@ public class CharSequenceAide {
      * @since 1.0.0
      */
     public static int indexOfNonAny(final CharSequence sequence, final char... searchChars) {
+        if (!AideMetrics.isActive()) {
+            return doIndexOfNonAny(sequence, searchChars);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final int result = doIndexOfNonAny(sequence, searchChars);
+        INDEX_OF_NON_ANY_PROBE.record(length(sequence), result == INDEX_NOT_FOUND ? 0 : 1, startNanos, event);
+        return result;
+    }
+
+    private static int doIndexOfNonAny(final CharSequence sequence, final char... searchChars) {
         if (isEmpty(sequence) || ArrayAide.isEmpty(searchChars)) {
             return INDEX_NOT_FOUND;
         }
@@ -1299,16 +1482,27 @@ public class CharSequenceAide {
      * @since 1.0.0
      */
     public static int indexOfNonAny(final CharSequence sequence, final CharSequence searchChars) {
+        if (!AideMetrics.isActive()) {
+            return doIndexOfNonAny(sequence, searchChars);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final int result = doIndexOfNonAny(sequence, searchChars);
+        INDEX_OF_NON_ANY_PROBE.record(length(sequence), result == INDEX_NOT_FOUND ? 0 : 1, startNanos, event);
+        return result;
+    }
+
+    private static int doIndexOfNonAny(final CharSequence sequence, final CharSequence searchChars) {
         if (isEmpty(sequence) || isEmpty(searchChars)) {
             return INDEX_NOT_FOUND;
         }
         int sequenceLength = sequence.length();
         for (int i = 0; i < sequenceLength; i++) {
             char ch = sequence.charAt(i);
-            boolean chFound = indexOf(searchChars, ch) >= 0;
+            boolean chFound = doIndexOf(searchChars, ch, 0) >= 0;
             if (i + 1 < sequenceLength && Character.isHighSurrogate(ch)) {
                 char ch2 = sequence.charAt(i + 1);
-                if (chFound && indexOf(searchChars, ch2) < 0) {
+                if (chFound && doIndexOf(searchChars, ch2, 0) < 0) {
                     return i;
                 }
             } else
@@ -1327,6 +1521,10 @@ public class CharSequenceAide {
      * {@code searchSequences} 中的 null 元素将被忽略，
      * 如果 {@code sequence} 不为 null，则 {@code searchSequences} 中包含 空串 时将返回 {@code 0}。</p>
      *
+     * <p>模式串不少于 {@value #MULTI_SEARCH_MIN_NEEDLES} 个且 {@code sequence} 不短于 {@value #MULTI_SEARCH_MIN_LENGTH} 个字符时，
+     * 每次调用编译一个 {@link MultiSearcher} 一次扫描文本，此时会分配与模式串总长度成正比的内存；其余情况下不分配对象。
+     * 对同一组模式串反复查找时应预先编译 {@link MultiSearcher} 并重复使用。</p>
+     *
      * <pre>
      * CharSequenceAide.indexOfAny(null, *)                     = -1
      * CharSequenceAide.indexOfAny(*, null)                     = -1
@@ -1346,16 +1544,30 @@ public class CharSequenceAide {
      * @since 1.0.0
      */
     public static int indexOfAny(final CharSequence sequence, final CharSequence... searchSequences) {
+        if (!AideMetrics.isActive()) {
+            return doIndexOfAny(sequence, searchSequences);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final int result = doIndexOfAny(sequence, searchSequences);
+        INDEX_OF_ANY_PROBE.record(length(sequence), result == INDEX_NOT_FOUND ? 0 : 1, startNanos, event);
+        return result;
+    }
+
+    private static int doIndexOfAny(final CharSequence sequence, final CharSequence... searchSequences) {
         if (sequence == null || searchSequences == null) {
             return INDEX_NOT_FOUND;
         }
+        if (isMultiSearch(sequence, searchSequences)) {
+            return MultiSearcher.compile(searchSequences).indexOf(sequence);
+        }
         int ret = Integer.MAX_VALUE;
         int tmp;
         for (final CharSequence searchSequence : searchSequences) {
             if (searchSequence == null) {
                 continue;
             }
-            tmp = indexOf(sequence, searchSequence);
+            tmp = doIndexOf(sequence, searchSequence, 0);
             if (tmp == INDEX_NOT_FOUND) {
                 continue;
             }
@@ -1374,6 +1586,10 @@ public class CharSequenceAide {
      * {@code searchSequences} 中的 null 元素将被忽略，
      * 如果 {@code sequence} 不为 null，则 {@code searchSequences} 中包含 空串 时将返回 {@code sequence.length()}。</p>
      *
+     * <p>模式串不少于 {@value #MULTI_SEARCH_MIN_NEEDLES} 个且 {@code sequence} 不短于 {@value #MULTI_SEARCH_MIN_LENGTH} 个字符时，
+     * 每次调用编译一个 {@link MultiSearcher} 一次扫描文本，此时会分配与模式串总长度成正比的内存；其余情况下不分配对象。
+     * 对同一组模式串反复查找时应预先编译 {@link MultiSearcher} 并重复使用。</p>
+     *
      * <pre>
      * CharSequenceAide.lastIndexOfAny(null, *)                   = -1
      * CharSequenceAide.lastIndexOfAny(*, null)                   = -1
@@ -1392,22 +1608,48 @@ public class CharSequenceAide {
      * @since 1.0.0
      */
     public static int lastIndexOfAny(final CharSequence sequence, final CharSequence... searchSequences) {
+        if (!AideMetrics.isActive()) {
+            return doLastIndexOfAny(sequence, searchSequences);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final int result = doLastIndexOfAny(sequence, searchSequences);
+        LAST_INDEX_OF_ANY_PROBE.record(length(sequence), result == INDEX_NOT_FOUND ? 0 : 1, startNanos, event);
+        return result;
+    }
+
+    private static int doLastIndexOfAny(final CharSequence sequence, final CharSequence... searchSequences) {
         if (sequence == null || searchSequences == null) {
             return INDEX_NOT_FOUND;
         }
+        if (isMultiSearch(sequence, searchSequences)) {
+            return MultiSearcher.compile(searchSequences).lastIndexOf(sequence);
+        }
         int ret = INDEX_NOT_FOUND;
         int tmp;
         for (final CharSequence searchSequence : searchSequences) {
             if (searchSequence == null) {
                 continue;
             }
-            tmp = lastIndexOf(sequence, searchSequence, sequence.length());
+            tmp = doLastIndexOf(sequence, searchSequence, sequence.length());
             if (tmp > ret) {
                 ret = tmp;
             }
         }
         return ret;
     }
+
+    /**
+     * <p>模式串较多且文本较长时，改用 {@link MultiSearcher} 一次扫描，避免对每个模式串各扫描一遍文本。</p>
+     *
+     * <p>逐个查找时 {@link String#indexOf(String)} 是内建函数，每个模式串每个字符只需 1 ~ 2 ns，
+     * 而多模式扫描每个字符约 3 ~ 4 ns，还需要为每次调用编译自动机并分配内存。以随机单词为模式串测量，
+     * 少于 64 个模式串时不论文本多长，逐个查找都更快；64 个模式串、1024 个字符时两者相当，
+     * 8192 个字符时多模式扫描快约 3 倍，模式串越多差距越大。</p>
+     */
+    private static boolean isMultiSearch(final CharSequence sequence, final CharSequence[] searchSequences) {
+        return searchSequences.length >= MULTI_SEARCH_MIN_NEEDLES && sequence.length() >= MULTI_SEARCH_MIN_LENGTH;
+    }
     // ---------------------------------------------------------------------------------------------------
     // ----- Index of ----- end
 
@@ -1435,7 +1677,7 @@ public class CharSequenceAide {
         if (isEmpty(sequence)) {
             return false;
         }
-        return indexOf(sequence, searchChar) >= 0;
+        return doIndexOf(sequence, searchChar, 0) >= 0;
     }
 
     /**
@@ -1462,7 +1704,7 @@ public class CharSequenceAide {
         if (sequence == null || searchSequence == null) {
             return false;
         }
-        return indexOf(sequence, searchSequence) >= 0;
+        return doIndexOf(sequence, searchSequence, 0) >= 0;
     }
 
     /**
@@ -1603,10 +1845,32 @@ public class CharSequenceAide {
      * @since 1.0.0
      */
     public static boolean containsAny(final CharSequence sequence, final CharSequence searchChars) {
-        if (searchChars == null) {
+        if (isEmpty(sequence) || isEmpty(searchChars)) {
             return false;
         }
-        return containsAny(sequence, toCharArray(searchChars));
+        // 与 containsAny(CharSequence, char...) 逻辑相同，直接访问 searchChars 以避免复制字符数组
+        int sequenceLength = sequence.length();
+        int sequenceLast = sequenceLength - 1;
+        int searchLength = searchChars.length();
+        int searchLast = searchLength - 1;
+        for (int i = 0; i < sequenceLength; i++) {
+            char ch = sequence.charAt(i);
+            for (int j = 0; j < searchLength; j++) {
+                if (searchChars.charAt(j) == ch) {
+                    if (Character.isHighSurrogate(ch)) {
+                        if (j == searchLast) {
+                            return true;
+                        }
+                        if (i < sequenceLast && searchChars.charAt(j + 1) == sequence.charAt(i + 1)) {
+                            return true;
+                        }
+                    } else {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
     }
 
     /**
@@ -1616,6 +1880,10 @@ public class CharSequenceAide {
      * {@code searchSequences} 为 null 或 empty 时返回 {@code false}。
      * </p>
      *
+     * <p>模式串不少于 {@value #MULTI_SEARCH_MIN_NEEDLES} 个且 {@code sequence} 不短于 {@value #MULTI_SEARCH_MIN_LENGTH} 个字符时，
+     * 每次调用编译一个 {@link MultiSearcher} 一次扫描文本，此时会分配与模式串总长度成正比的内存；其余情况下不分配对象。
+     * 对同一组模式串反复查找时应预先编译 {@link MultiSearcher} 并重复使用。</p>
+     *
      * <pre>
      * CharSequenceAide.containsAny(null, *)            = false
      * CharSequenceAide.containsAny("", *)              = false
@@ -1636,6 +1904,9 @@ public class CharSequenceAide {
         if (isEmpty(sequence) || ArrayAide.isEmpty(searchSequences)) {
             return false;
         }
+        if (isMultiSearch(sequence, searchSequences)) {
+            return MultiSearcher.compile(searchSequences).containsAny(sequence);
+        }
         for (final CharSequence searchSequence : searchSequences) {
             if (contains(sequence, searchSequence)) {
                 return true;
@@ -1675,7 +1946,7 @@ public class CharSequenceAide {
         if (validChars.length == 0) {
             return false;
         }
-        return indexOfNonAny(sequence, validChars) == INDEX_NOT_FOUND;
+        return doIndexOfNonAny(sequence, validChars) == INDEX_NOT_FOUND;
     }
 
     /**
@@ -2040,4 +2311,539 @@ public class CharSequenceAide {
     }
     // ---------------------------------------------------------------------------------------------------
     // ----- endsWith ----- end
+
+    // ----- UTF-8 ----- start
+    // ---------------------------------------------------------------------------------------------------
+    /**
+     * <p>将字符序列截断到其 UTF-8 编码不超过 {@code maxBytes} 个字节的最长前缀，不会拆开代理对。</p>
+     *
+     * <p>逐字符累加编码宽度，不对整个字符序列编码。与 {@link String#getBytes(java.nio.charset.Charset)} 一致，
+     * 不成对的代理字符按 1 个字节（替换为 {@code '?'}）计算。</p>
+     *
+     * <pre>
+     * CharSequenceAide.truncateToUtf8Bytes(null, *)      = null
+     * CharSequenceAide.truncateToUtf8Bytes("abc", -1)    = null
+     * CharSequenceAide.truncateToUtf8Bytes("abc", 5)     = "abc"（同一个实例）
+     * CharSequenceAide.truncateToUtf8Bytes("a中b", 3)    = "a"
+     * CharSequenceAide.truncateToUtf8Bytes("a中b", 4)    = "a中"
+     * CharSequenceAide.truncateToUtf8Bytes("a😀", 4)     = "a"
+     * </pre>
+     *
+     * @param sequence 字符序列，可以为 null
+     * @param maxBytes UTF-8 编码的最大字节数
+     * @return 截断后的字符序列，无需截断时返回 {@code sequence} 本身；
+     *          {@code sequence} 为 null 或 {@code maxBytes} 小于 0 时返回 {@code null}
+     * @since 1.0.0
+     */
+    public static CharSequence truncateToUtf8Bytes(final CharSequence sequence, final int maxBytes) {
+        if (sequence == null || maxBytes < 0) {
+            return null;
+        }
+        final int length = sequence.length();
+        final int end = utf8TruncateIndex(sequence, 0, length, maxBytes);
+        return end == length ? sequence : sequence.subSequence(0, end);
+    }
+
+    /**
+     * <p>在 [from, to) 范围内，计算 UTF-8 编码不超过 {@code maxBytes} 个字节的最长前缀的结束位置，不会拆开代理对。</p>
+     *
+     * @param sequence 字符序列
+     * @param from 开始位置（包含）
+     * @param to 结束位置（不包含）
+     * @param maxBytes UTF-8 编码的最大字节数
+     * @return 结束位置（不包含）
+     */
+    static int utf8TruncateIndex(final CharSequence sequence, final int from, final int to, final int maxBytes) {
+        // 每个 char 最多编码为 3 个字节（代理对为 2 个 char 共 4 个字节）
+        if ((long) (to - from) * 3 <= maxBytes) {
+            return to;
+        }
+        int bytes = 0;
+        int index = from;
+        while (index < to) {
+            final char ch = sequence.charAt(index);
+            int width = utf8Width(ch);
+            int chars = 1;
+            if (Character.isHighSurrogate(ch) && index + 1 < to && Character.isLowSurrogate(sequence.charAt(index + 1))) {
+                width = 4;
+                chars = 2;
+            }
+            if (bytes + width > maxBytes) {
+                return index;
+            }
+            bytes += width;
+            index += chars;
+        }
+        return to;
+    }
+
+    /**
+     * <p>计算字符序列的 UTF-8 编码字节数，结果与 {@code toString().getBytes(UTF_8).length} 相同，但不进行编码。</p>
+     *
+     * <pre>
+     * CharSequenceAide.utf8Length(null)      = 0
+     * CharSequenceAide.utf8Length("abc")     = 3
+     * CharSequenceAide.utf8Length("a中")     = 4
+     * CharSequenceAide.utf8Length("😀")      = 4
+     * </pre>
+     *
+     * @param sequence 字符序列，可以为 null
+     * @return UTF-8 编码字节数，{@code sequence} 为 null 时返回 0
+     * @since 1.0.0
+     */
+    public static long utf8Length(final CharSequence sequence) {
+        return sequence == null ? 0 : utf8Length(sequence, 0, sequence.length());
+    }
+
+    /**
+     * <p>计算字符序列 [from, to) 范围内字符的 UTF-8 编码字节数，不进行编码。</p>
+     *
+     * <p>不成对的代理字符按 1 个字节（替换为 {@code '?'}）计算；
+     * 跨越范围边界的代理对在两侧都被视为不成对，因此应在代码点边界上划分范围。</p>
+     *
+     * @param sequence 字符序列，不能为 null
+     * @param from 开始位置（包含）
+     * @param to 结束位置（不包含）
+     * @return UTF-8 编码字节数
+     * @throws IndexOutOfBoundsException 如果范围越界
+     * @since 1.0.0
+     */
+    public static long utf8Length(final CharSequence sequence, final int from, final int to) {
+        checkRange(sequence, from, to);
+        int index = skipAscii(sequence, from, to);
+        long bytes = index - from;
+        while (index < to) {
+            final char ch = sequence.charAt(index++);
+            if (ch < 0x80) {
+                bytes++;
+            } else if (Character.isHighSurrogate(ch) && index < to && Character.isLowSurrogate(sequence.charAt(index))) {
+                bytes += 4;
+                index++;
+            } else {
+                bytes += utf8Width(ch);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * <p>计算字符序列的 Modified UTF-8 编码字节数，即 {@link java.io.DataOutput#writeUTF(String)} 写出的内容长度（不含 2 字节的长度前缀）。</p>
+     *
+     * <p>与标准 UTF-8 不同，字符 {@code (char) 0} 编码为 2 个字节，每个代理字符各编码为 3 个字节。</p>
+     *
+     * <pre>
+     * CharSequenceAide.modifiedUtf8Length(null)       = 0
+     * CharSequenceAide.modifiedUtf8Length("a中")      = 4
+     * CharSequenceAide.modifiedUtf8Length("😀")       = 6
+     * </pre>
+     *
+     * @param sequence 字符序列，可以为 null
+     * @return Modified UTF-8 编码字节数，{@code sequence} 为 null 时返回 0
+     * @since 1.0.0
+     */
+    public static long modifiedUtf8Length(final CharSequence sequence) {
+        return sequence == null ? 0 : modifiedUtf8Length(sequence, 0, sequence.length());
+    }
+
+    /**
+     * <p>计算字符序列 [from, to) 范围内字符的 Modified UTF-8 编码字节数。</p>
+     *
+     * @param sequence 字符序列，不能为 null
+     * @param from 开始位置（包含）
+     * @param to 结束位置（不包含）
+     * @return Modified UTF-8 编码字节数
+     * @throws IndexOutOfBoundsException 如果范围越界
+     * @since 1.0.0
+     */
+    public static long modifiedUtf8Length(final CharSequence sequence, final int from, final int to) {
+        checkRange(sequence, from, to);
+        // (char) 0 也属于 ASCII，但编码为 2 个字节，因此不能使用 skipAscii
+        long bytes = 0;
+        for (int index = from; index < to; index++) {
+            final char ch = sequence.charAt(index);
+            if (ch != 0 && ch < 0x80) {
+                bytes++;
+            } else if (ch < 0x800) {
+                bytes += 2;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * <p>计算字符序列中代码点（code point）的数量，不成对的代理字符计为 1 个代码点。</p>
+     *
+     * <pre>
+     * CharSequenceAide.codePointCount(null)     = 0
+     * CharSequenceAide.codePointCount("abc")    = 3
+     * CharSequenceAide.codePointCount("a😀")    = 2
+     * </pre>
+     *
+     * @param sequence 字符序列，可以为 null
+     * @return 代码点数量，{@code sequence} 为 null 时返回 0
+     * @since 1.0.0
+     */
+    public static int codePointCount(final CharSequence sequence) {
+        return sequence == null ? 0 : codePointCount(sequence, 0, sequence.length());
+    }
+
+    /**
+     * <p>计算字符序列 [from, to) 范围内代码点（code point）的数量，结果与 {@link Character#codePointCount(CharSequence, int, int)} 相同。</p>
+     *
+     * @param sequence 字符序列，不能为 null
+     * @param from 开始位置（包含）
+     * @param to 结束位置（不包含）
+     * @return 代码点数量
+     * @throws IndexOutOfBoundsException 如果范围越界
+     * @since 1.0.0
+     */
+    public static int codePointCount(final CharSequence sequence, final int from, final int to) {
+        checkRange(sequence, from, to);
+        int index = skipAscii(sequence, from, to);
+        int count = index - from;
+        while (index < to) {
+            if (Character.isHighSurrogate(sequence.charAt(index++)) && index < to && Character.isLowSurrogate(sequence.charAt(index))) {
+                index++;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private static void checkRange(final CharSequence sequence, final int from, final int to) {
+        if (from < 0 || from > to || to > sequence.length()) {
+            throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", length: " + sequence.length());
+        }
+    }
+
+    /**
+     * <p>跳过 [from, to) 范围开头的 ASCII 字符，返回第一个非 ASCII 字符的位置。</p>
+     *
+     * <p>{@link String} 和有可访问底层数组的 {@link CharBuffer} 使用单态的紧凑循环（便于 JIT 消除边界检查），
+     * 其余字符序列通过 {@link CharSequence#charAt(int)} 读取。</p>
+     */
+    private static int skipAscii(final CharSequence sequence, final int from, final int to) {
+        int index = from;
+        if (sequence instanceof String) {
+            final String string = (String) sequence;
+            while (index < to && string.charAt(index) < 0x80) {
+                index++;
+            }
+        } else if (sequence instanceof CharBuffer && ((CharBuffer) sequence).hasArray()) {
+            final CharBuffer buffer = (CharBuffer) sequence;
+            final char[] array = buffer.array();
+            final int base = buffer.arrayOffset() + buffer.position();
+            index += base;
+            final int end = base + to;
+            while (index < end && array[index] < 0x80) {
+                index++;
+            }
+            index -= base;
+        } else {
+            while (index < to && sequence.charAt(index) < 0x80) {
+                index++;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return 单个 char 的 UTF-8 编码宽度，代理字符按不成对（1 个字节）计算
+     */
+    static int utf8Width(final char ch) {
+        if (ch < 0x80) {
+            return 1;
+        }
+        if (ch < 0x800) {
+            return 2;
+        }
+        return Character.isSurrogate(ch) ? 1 : 3;
+    }
+    // ---------------------------------------------------------------------------------------------------
+    // ----- UTF-8 ----- end
+
+    // ----- Hash ----- start
+    // ---------------------------------------------------------------------------------------------------
+    private static final long HASH_SEED = 0x9E3779B97F4A7C15L;
+    private static final long HASH_M = 0xC6A4A7935BD1E995L;
+    private static final int HASH_R = 47;
+
+    /**
+     * <p>计算字符序列的 64 位非加密哈希值。</p>
+     *
+     * <p>哈希值基于代码点（code point）计算，混合函数取自 MurmurHash64A，最后使用 Murmur3 的 fmix64 进行雪崩处理。
+     * 不成对的代理字符按 {@code '?'} 计算（与 {@link String#getBytes(java.nio.charset.Charset)} 一致），
+     * 因此同一段文本的 {@link CharSequence}、{@code char[]} 和 UTF-8 编码的 {@code byte[]} 具有相同的哈希值。</p>
+     *
+     * <p>计算过程不分配任何对象，适合对 {@code split} 等操作得到的范围直接计算哈希，而无需先创建子串。
+     * 哈希值在不同版本之间保持稳定，但不能用于安全相关的场景。</p>
+     *
+     * @param sequence 字符序列，可以为 null
+     * @return 64 位哈希值，{@code sequence} 为 null 时返回 0
+     * @since 1.0.0
+     */
+    public static long hash64(final CharSequence sequence) {
+        return sequence == null ? 0 : hash64(sequence, 0, sequence.length());
+    }
+
+    /**
+     * <p>计算字符序列 [from, to) 范围内字符的 64 位非加密哈希值。</p>
+     *
+     * <pre>
+     * CharSequenceAide.hash64("a,bc,d", 2, 4) == CharSequenceAide.hash64("bc")
+     * </pre>
+     *
+     * @param sequence 字符序列，不能为 null
+     * @param from 开始位置（包含）
+     * @param to 结束位置（不包含）
+     * @return 64 位哈希值
+     * @throws IndexOutOfBoundsException 如果范围越界
+     * @see #hash64(CharSequence)
+     * @since 1.0.0
+     */
+    public static long hash64(final CharSequence sequence, final int from, final int to) {
+        return hashChars(sequence, from, to, false);
+    }
+
+    /**
+     * <p>计算 {@code char[]} 中 [from, to) 范围内字符的 64 位非加密哈希值，与相同内容的字符序列哈希值相同。</p>
+     *
+     * @param chars 字符数组，不能为 null
+     * @param from 开始位置（包含）
+     * @param to 结束位置（不包含）
+     * @return 64 位哈希值
+     * @throws IndexOutOfBoundsException 如果范围越界
+     * @see #hash64(CharSequence)
+     * @since 1.0.0
+     */
+    public static long hash64(final char[] chars, final int from, final int to) {
+        return hashChars(chars, from, to, false);
+    }
+
+    /**
+     * <p>计算 UTF-8 编码的 {@code byte[]} 中 [from, to) 范围内文本的 64 位非加密哈希值，
+     * 与解码后的字符序列哈希值相同。</p>
+     *
+     * <p>不合法的 UTF-8 字节按 {@code U+FFFD} 逐字节计算，此时不保证与任何字符序列的哈希值相同。</p>
+     *
+     * @param utf8 UTF-8 编码的字节数组，不能为 null
+     * @param from 开始位置（包含）
+     * @param to 结束位置（不包含）
+     * @return 64 位哈希值
+     * @throws IndexOutOfBoundsException 如果范围越界
+     * @see #hash64(CharSequence)
+     * @since 1.0.0
+     */
+    public static long hash64Utf8(final byte[] utf8, final int from, final int to) {
+        return hashUtf8(utf8, from, to, false);
+    }
+
+    /**
+     * <p>计算字符序列忽略大小写的 64 位非加密哈希值。</p>
+     *
+     * <p>与 {@link #equalsIgnoreCase(CharSequence, CharSequence)} 保持一致：忽略大小写相等的两个字符序列，哈希值一定相同。</p>
+     *
+     * <pre>
+     * CharSequenceAide.hashIgnoreCase("Hello") == CharSequenceAide.hashIgnoreCase("hELLO")
+     * </pre>
+     *
+     * @param sequence 字符序列，可以为 null
+     * @return 64 位哈希值，{@code sequence} 为 null 时返回 0
+     * @see #hash64(CharSequence)
+     * @since 1.0.0
+     */
+    public static long hashIgnoreCase(final CharSequence sequence) {
+        return sequence == null ? 0 : hashIgnoreCase(sequence, 0, sequence.length());
+    }
+
+    /**
+     * <p>计算字符序列 [from, to) 范围内字符忽略大小写的 64 位非加密哈希值。</p>
+     *
+     * @param sequence 字符序列，不能为 null
+     * @param from 开始位置（包含）
+     * @param to 结束位置（不包含）
+     * @return 64 位哈希值
+     * @throws IndexOutOfBoundsException 如果范围越界
+     * @see #hashIgnoreCase(CharSequence)
+     * @since 1.0.0
+     */
+    public static long hashIgnoreCase(final CharSequence sequence, final int from, final int to) {
+        return hashChars(sequence, from, to, true);
+    }
+
+    /**
+     * <p>计算 {@code char[]} 中 [from, to) 范围内字符忽略大小写的 64 位非加密哈希值。</p>
+     *
+     * @param chars 字符数组，不能为 null
+     * @param from 开始位置（包含）
+     * @param to 结束位置（不包含）
+     * @return 64 位哈希值
+     * @throws IndexOutOfBoundsException 如果范围越界
+     * @see #hashIgnoreCase(CharSequence)
+     * @since 1.0.0
+     */
+    public static long hashIgnoreCase(final char[] chars, final int from, final int to) {
+        return hashChars(chars, from, to, true);
+    }
+
+    /**
+     * <p>计算 UTF-8 编码的 {@code byte[]} 中 [from, to) 范围内文本忽略大小写的 64 位非加密哈希值。</p>
+     *
+     * @param utf8 UTF-8 编码的字节数组，不能为 null
+     * @param from 开始位置（包含）
+     * @param to 结束位置（不包含）
+     * @return 64 位哈希值
+     * @throws IndexOutOfBoundsException 如果范围越界
+     * @see #hashIgnoreCase(CharSequence)
+     * @see #hash64Utf8(byte[], int, int)
+     * @since 1.0.0
+     */
+    public static long hashIgnoreCaseUtf8(final byte[] utf8, final int from, final int to) {
+        return hashUtf8(utf8, from, to, true);
+    }
+
+    private static long hashChars(final CharSequence sequence, final int from, final int to, final boolean ignoreCase) {
+        checkRange(sequence, from, to);
+        long hash = HASH_SEED;
+        long block = 0;
+        int count = 0;
+        int index = from;
+        while (index < to) {
+            final char ch = sequence.charAt(index++);
+            int codePoint = ch;
+            if (Character.isSurrogate(ch)) {
+                if (Character.isHighSurrogate(ch) && index < to && Character.isLowSurrogate(sequence.charAt(index))) {
+                    codePoint = Character.toCodePoint(ch, sequence.charAt(index++));
+                } else {
+                    codePoint = '?';
+                }
+            }
+            if (ignoreCase) {
+                codePoint = foldCodePoint(codePoint);
+            }
+            if ((count & 1) == 0) {
+                block = codePoint;
+            } else {
+                hash = hashMix(hash, block | (long) codePoint << 32);
+            }
+            count++;
+        }
+        return hashFinish(hash, block, count);
+    }
+
+    private static long hashChars(final char[] chars, final int from, final int to, final boolean ignoreCase) {
+        if (from < 0 || from > to || to > chars.length) {
+            throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", length: " + chars.length);
+        }
+        long hash = HASH_SEED;
+        long block = 0;
+        int count = 0;
+        int index = from;
+        while (index < to) {
+            final char ch = chars[index++];
+            int codePoint = ch;
+            if (Character.isSurrogate(ch)) {
+                if (Character.isHighSurrogate(ch) && index < to && Character.isLowSurrogate(chars[index])) {
+                    codePoint = Character.toCodePoint(ch, chars[index++]);
+                } else {
+                    codePoint = '?';
+                }
+            }
+            if (ignoreCase) {
+                codePoint = foldCodePoint(codePoint);
+            }
+            if ((count & 1) == 0) {
+                block = codePoint;
+            } else {
+                hash = hashMix(hash, block | (long) codePoint << 32);
+            }
+            count++;
+        }
+        return hashFinish(hash, block, count);
+    }
+
+    private static long hashUtf8(final byte[] utf8, final int from, final int to, final boolean ignoreCase) {
+        if (from < 0 || from > to || to > utf8.length) {
+            throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", length: " + utf8.length);
+        }
+        long hash = HASH_SEED;
+        long block = 0;
+        int count = 0;
+        int index = from;
+        while (index < to) {
+            final int b = utf8[index] & 0xFF;
+            int codePoint = 0xFFFD;
+            int width = 1;
+            if (b < 0x80) {
+                codePoint = b;
+            } else if (b >= 0xC2 && b < 0xE0 && index + 1 < to && isContinuation(utf8[index + 1])) {
+                codePoint = (b & 0x1F) << 6 | utf8[index + 1] & 0x3F;
+                width = 2;
+            } else if (b >= 0xE0 && b < 0xF0 && index + 2 < to
+                    && isContinuation(utf8[index + 1]) && isContinuation(utf8[index + 2])) {
+                final int decoded = (b & 0x0F) << 12 | (utf8[index + 1] & 0x3F) << 6 | utf8[index + 2] & 0x3F;
+                if (decoded >= 0x800 && !Character.isSurrogate((char) decoded)) {
+                    codePoint = decoded;
+                    width = 3;
+                }
+            } else if (b >= 0xF0 && b < 0xF5 && index + 3 < to
+                    && isContinuation(utf8[index + 1]) && isContinuation(utf8[index + 2]) && isContinuation(utf8[index + 3])) {
+                final int decoded = (b & 0x07) << 18 | (utf8[index + 1] & 0x3F) << 12
+                        | (utf8[index + 2] & 0x3F) << 6 | utf8[index + 3] & 0x3F;
+                if (decoded >= Character.MIN_SUPPLEMENTARY_CODE_POINT && decoded <= Character.MAX_CODE_POINT) {
+                    codePoint = decoded;
+                    width = 4;
+                }
+            }
+            index += width;
+            if (ignoreCase) {
+                codePoint = foldCodePoint(codePoint);
+            }
+            if ((count & 1) == 0) {
+                block = codePoint;
+            } else {
+                hash = hashMix(hash, block | (long) codePoint << 32);
+            }
+            count++;
+        }
+        return hashFinish(hash, block, count);
+    }
+
+    private static boolean isContinuation(final byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    /**
+     * @return 忽略大小写比较时使用的代码点，BMP 字符与 {@link CharSet#fold(char)} 相同
+     */
+    private static int foldCodePoint(final int codePoint) {
+        if (codePoint < 0x80) {
+            return codePoint >= 'A' && codePoint <= 'Z' ? codePoint + ('a' - 'A') : codePoint;
+        }
+        return Character.toLowerCase(Character.toUpperCase(codePoint));
+    }
+
+    private static long hashMix(final long hash, long block) {
+        block *= HASH_M;
+        block ^= block >>> HASH_R;
+        block *= HASH_M;
+        return (hash ^ block) * HASH_M;
+    }
+
+    private static long hashFinish(long hash, final long block, final int count) {
+        if ((count & 1) != 0) {
+            hash = hashMix(hash, block);
+        }
+        hash ^= count * HASH_M;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+    // ---------------------------------------------------------------------------------------------------
+    // ----- Hash ----- end
 }
\ No newline at end of file
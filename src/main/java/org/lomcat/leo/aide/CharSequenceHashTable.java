@@ -0,0 +1,152 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import java.util.Arrays;
+
+/**
+ * <p>{@link CharSequenceSet} 与 {@link CharSequenceMap} 共用的开放寻址（线性探测）哈希表，只保存键，
+ * 通过 {@link #indexOf(CharSequence)} 返回键在构建顺序中的下标。</p>
+ *
+ * <p>忽略大小写时哈希值按折叠后的字符计算，比较时逐字符折叠，不会创建小写副本。
+ * 区分大小写时哈希值与 {@link String#hashCode()} 一致，因此查找 {@link String} 时可以直接使用其缓存的哈希值。</p>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+final class CharSequenceHashTable {
+
+    /**
+     * 黄金分割常数，用于打散哈希值
+     */
+    private static final int MIX = 0x9E3779B9;
+
+    private final boolean ignoreCase;
+    private final String[] keys;
+    private final int[] hashes;
+    /**
+     * 槽位中保存 键的下标 + 1，0 表示空槽
+     */
+    private final int[] slots;
+    private final int shift;
+    private final int mask;
+
+    /**
+     * @param keys 键，不能包含 null
+     * @param ignoreCase 是否忽略大小写
+     * @param rejectDuplicates 存在重复的键时是否抛出异常，不抛出时保留第一次出现的键
+     * @throws IllegalArgumentException {@code rejectDuplicates} 为 {@code true} 且存在重复的键时
+     */
+    CharSequenceHashTable(final CharSequence[] keys, final boolean ignoreCase, final boolean rejectDuplicates) {
+        this.ignoreCase = ignoreCase;
+        final int capacity = Math.max(2, Integer.highestOneBit(Math.max(1, keys.length) * 2 - 1) << 1);
+        this.shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        this.mask = capacity - 1;
+        this.slots = new int[capacity];
+        final String[] distinctKeys = new String[keys.length];
+        final int[] distinctHashes = new int[keys.length];
+        int size = 0;
+        for (final CharSequence key : keys) {
+            final int hash = hash(key);
+            int slot = hash >>> shift;
+            boolean duplicate = false;
+            while (slots[slot] != 0) {
+                final int index = slots[slot] - 1;
+                if (distinctHashes[index] == hash && matches(distinctKeys[index], key)) {
+                    duplicate = true;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (duplicate) {
+                if (rejectDuplicates) {
+                    throw new IllegalArgumentException("Duplicate key: " + key);
+                }
+                continue;
+            }
+            distinctKeys[size] = key.toString();
+            distinctHashes[size] = hash;
+            slots[slot] = ++size;
+        }
+        this.keys = size == keys.length ? distinctKeys : Arrays.copyOf(distinctKeys, size);
+        this.hashes = distinctHashes;
+    }
+
+    /**
+     * @param sequence 要查找的字符序列
+     * @return 键的下标，不存在时返回 -1
+     */
+    int indexOf(final CharSequence sequence) {
+        final int hash = hash(sequence);
+        int slot = hash >>> shift;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            final int index = entry - 1;
+            if (hashes[index] == hash && matches(keys[index], sequence)) {
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    String key(final int index) {
+        return keys[index];
+    }
+
+    boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    private int hash(final CharSequence sequence) {
+        int hash = 0;
+        if (!ignoreCase && sequence instanceof String) {
+            hash = sequence.hashCode();
+        } else {
+            final int length = sequence.length();
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + (ignoreCase ? CharSet.fold(sequence.charAt(i)) : sequence.charAt(i));
+            }
+        }
+        return hash * MIX;
+    }
+
+    private boolean matches(final String key, final CharSequence sequence) {
+        final int length = key.length();
+        if (length != sequence.length()) {
+            return false;
+        }
+        if (!ignoreCase) {
+            return sequence instanceof String ? key.equals(sequence) : key.contentEquals(sequence);
+        }
+        for (int i = 0; i < length; i++) {
+            final char c1 = key.charAt(i);
+            final char c2 = sequence.charAt(i);
+            if (c1 != c2 && CharSet.fold(c1) != CharSet.fold(c2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import java.util.Map;
+
+/**
+ * <p>预编译的不可变映射，键为字符序列，可以使用任意 {@link CharSequence} 查找。</p>
+ *
+ * <p>与 {@link CharSequenceSet} 使用相同的开放寻址哈希表，{@link #get(CharSequence)} 的耗时只与被查找字符序列的长度有关。
+ * 忽略大小写时按折叠后的字符计算哈希值和比较，不会创建小写副本。</p>
+ *
+ * <p>键不能为 {@code null}，值可以为 {@code null}。实例不可变，可以在多个线程之间共享。</p>
+ *
+ * <pre>
+ * Map&lt;String, Integer&gt; source = ...; // {"Content-Type": 1, "Content-Length": 2}
+ * CharSequenceMap.ofIgnoreCase(source).get("content-type") = 1
+ * CharSequenceMap.of(source).get("content-type")           = null
+ * </pre>
+ *
+ * @param <V> 值的类型
+ * @author Kweny
+ * @since 1.0.0
+ */
+public final class CharSequenceMap<V> {
+
+    private final CharSequenceHashTable table;
+    private final Object[] values;
+
+    private CharSequenceMap(final CharSequenceHashTable table, final Object[] values) {
+        this.table = table;
+        this.values = values;
+    }
+
+    /**
+     * <p>使用 {@code source} 中的所有映射编译一个区分大小写的映射。</p>
+     *
+     * @param source 源映射，{@code null} 视为空映射
+     * @param <V> 值的类型
+     * @return 映射
+     * @throws IllegalArgumentException 存在 {@code null} 键时
+     * @since 1.0.0
+     */
+    public static <V> CharSequenceMap<V> of(final Map<? extends CharSequence, ? extends V> source) {
+        return of(source, false);
+    }
+
+    /**
+     * <p>使用 {@code source} 中的所有映射编译一个忽略大小写的映射。</p>
+     *
+     * @param source 源映射，{@code null} 视为空映射
+     * @param <V> 值的类型
+     * @return 映射
+     * @throws IllegalArgumentException 存在 {@code null} 键，或存在只相差大小写的键时
+     * @since 1.0.0
+     */
+    public static <V> CharSequenceMap<V> ofIgnoreCase(final Map<? extends CharSequence, ? extends V> source) {
+        return of(source, true);
+    }
+
+    /**
+     * <p>使用 {@code source} 中的所有映射编译一个映射，可以指定是否忽略大小写。</p>
+     *
+     * @param source 源映射，{@code null} 视为空映射
+     * @param ignoreCase 是否忽略大小写
+     * @param <V> 值的类型
+     * @return 映射
+     * @throws IllegalArgumentException 存在 {@code null} 键，或存在相等（忽略大小写时只相差大小写）的键时
+     * @since 1.0.0
+     */
+    public static <V> CharSequenceMap<V> of(final Map<? extends CharSequence, ? extends V> source,
+                                            final boolean ignoreCase) {
+        final int size = source == null ? 0 : source.size();
+        final CharSequence[] keys = new CharSequence[size];
+        final Object[] values = new Object[size];
+        if (size > 0) {
+            int index = 0;
+            for (final Map.Entry<? extends CharSequence, ? extends V> entry : source.entrySet()) {
+                if (entry.getKey() == null) {
+                    throw new IllegalArgumentException("Null key is not supported");
+                }
+                keys[index] = entry.getKey();
+                values[index] = entry.getValue();
+                index++;
+            }
+        }
+        // 拒绝重复的键，因此表中键的下标与 values 的下标一致
+        return new CharSequenceMap<>(new CharSequenceHashTable(keys, ignoreCase, true), values);
+    }
+
+    /**
+     * <p>获取与 {@code key} 相等的键所映射的值。</p>
+     *
+     * @param key 键，为 null 时返回 null
+     * @return 值，不存在时返回 {@code null}
+     * @since 1.0.0
+     */
+    public V get(final CharSequence key) {
+        return getOrDefault(key, null);
+    }
+
+    /**
+     * <p>获取与 {@code key} 相等的键所映射的值，不存在时返回 {@code defaultValue}。</p>
+     *
+     * @param key 键，为 null 时返回 {@code defaultValue}
+     * @param defaultValue 默认值
+     * @return 值
+     * @since 1.0.0
+     */
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(final CharSequence key, final V defaultValue) {
+        if (key == null) {
+            return defaultValue;
+        }
+        final int index = table.indexOf(key);
+        return index < 0 ? defaultValue : (V) values[index];
+    }
+
+    /**
+     * <p>检查是否存在与 {@code key} 相等的键。</p>
+     *
+     * @param key 键，可以为 null
+     * @return 存在时返回 {@code true}
+     * @since 1.0.0
+     */
+    public boolean containsKey(final CharSequence key) {
+        return key != null && table.indexOf(key) >= 0;
+    }
+
+    /**
+     * <p>获取与 {@code key} 相等的键在编译时的原始形式（{@link String}）。</p>
+     *
+     * @param key 键，为 null 时返回 null
+     * @return 原始键，不存在时返回 {@code null}
+     * @since 1.0.0
+     */
+    public String getKey(final CharSequence key) {
+        if (key == null) {
+            return null;
+        }
+        final int index = table.indexOf(key);
+        return index < 0 ? null : table.key(index);
+    }
+
+    /**
+     * @return 映射的个数
+     * @since 1.0.0
+     */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * <p>此映射是否忽略大小写。</p>
+     *
+     * @return 忽略大小写时返回 {@code true}
+     * @since 1.0.0
+     */
+    public boolean isIgnoreCase() {
+        return table.isIgnoreCase();
+    }
+}
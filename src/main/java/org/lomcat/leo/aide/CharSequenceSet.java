@@ -0,0 +1,137 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import java.util.Collection;
+
+/**
+ * <p>预编译的不可变字符序列集合，用于对同一组字符串反复进行相等判断，
+ * 如 {@link CharSequenceAide#equalsAnyIn(CharSequence, CharSequenceSet)}。</p>
+ *
+ * <p>内部为开放寻址的哈希表，{@link #contains(CharSequence)} 的耗时只与被查找字符序列的长度有关，与集合大小无关，
+ * 且可以查找任意 {@link CharSequence}。忽略大小写时按折叠后的字符计算哈希值和比较，不会创建小写副本，
+ * 比较规则与 {@link String#equalsIgnoreCase(String)} 一致。</p>
+ *
+ * <p>集合可以包含 {@code null}。实例不可变，可以在多个线程之间共享。</p>
+ *
+ * <pre>
+ * CharSequenceSet.of("GET", "POST").contains("GET")                     = true
+ * CharSequenceSet.of("GET", "POST").contains("get")                     = false
+ * CharSequenceSet.ofIgnoreCase("GET", "POST").contains("get")           = true
+ * CharSequenceSet.of("GET", "POST").contains(new StringBuilder("POST")) = true
+ * </pre>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public final class CharSequenceSet {
+
+    private final CharSequenceHashTable table;
+    private final boolean containsNull;
+
+    private CharSequenceSet(final CharSequenceHashTable table, final boolean containsNull) {
+        this.table = table;
+        this.containsNull = containsNull;
+    }
+
+    /**
+     * <p>编译一个区分大小写的集合。</p>
+     *
+     * @param sequences 元素，{@code null} 视为空集合
+     * @return 集合
+     * @since 1.0.0
+     */
+    public static CharSequenceSet of(final CharSequence... sequences) {
+        return compile(sequences, false);
+    }
+
+    /**
+     * <p>编译一个忽略大小写的集合。</p>
+     *
+     * @param sequences 元素，{@code null} 视为空集合
+     * @return 集合
+     * @since 1.0.0
+     */
+    public static CharSequenceSet ofIgnoreCase(final CharSequence... sequences) {
+        return compile(sequences, true);
+    }
+
+    /**
+     * <p>编译一个集合，可以指定是否忽略大小写。</p>
+     *
+     * @param sequences 元素，{@code null} 视为空集合
+     * @param ignoreCase 是否忽略大小写
+     * @return 集合
+     * @since 1.0.0
+     */
+    public static CharSequenceSet of(final Collection<? extends CharSequence> sequences, final boolean ignoreCase) {
+        return compile(sequences == null ? null : sequences.toArray(new CharSequence[0]), ignoreCase);
+    }
+
+    private static CharSequenceSet compile(final CharSequence[] sequences, final boolean ignoreCase) {
+        final int length = ArrayAide.length(sequences);
+        final CharSequence[] keys = new CharSequence[length];
+        int size = 0;
+        boolean containsNull = false;
+        for (int i = 0; i < length; i++) {
+            if (sequences[i] == null) {
+                containsNull = true;
+            } else {
+                keys[size++] = sequences[i];
+            }
+        }
+        final CharSequence[] nonNullKeys = size == length ? keys : ArrayAide.subArray(keys, 0, size);
+        return new CharSequenceSet(new CharSequenceHashTable(nonNullKeys, ignoreCase, false), containsNull);
+    }
+
+    /**
+     * <p>检查集合中是否存在与 {@code sequence} 相等的元素。</p>
+     *
+     * @param sequence 字符序列，可以为 null
+     * @return 存在时返回 {@code true}
+     * @since 1.0.0
+     */
+    public boolean contains(final CharSequence sequence) {
+        if (sequence == null) {
+            return containsNull;
+        }
+        return table.indexOf(sequence) >= 0;
+    }
+
+    /**
+     * <p>元素的个数，忽略大小写时只相差大小写的元素视为同一个元素。</p>
+     *
+     * @return 元素的个数
+     * @since 1.0.0
+     */
+    public int size() {
+        return table.size() + (containsNull ? 1 : 0);
+    }
+
+    /**
+     * <p>此集合是否忽略大小写。</p>
+     *
+     * @return 忽略大小写时返回 {@code true}
+     * @since 1.0.0
+     */
+    public boolean isIgnoreCase() {
+        return table.isIgnoreCase();
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import java.util.Arrays;
+
+/**
+ * <p>预编译的字符集合，用于对同一组字符反复进行成员判断。</p>
+ *
+ * <p>Latin-1 范围（{@code '\u0000'} 至 {@code '\u00FF'}）内的字符通过位图判断，
+ * 其余字符通过有序数组二分查找判断，判断过程不产生任何对象分配。</p>
+ *
+ * <p>忽略大小写时，集合中保存的是折叠后的字符，即 {@code Character.toLowerCase(Character.toUpperCase(ch))}，
+ * 与 {@link String#regionMatches(boolean, int, String, int, int)} 忽略大小写时的字符比较规则一致。</p>
+ *
+ * <p>实例不可变，可以在多个线程之间共享。</p>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public final class CharSet {
+
+    private static final int LATIN1_LIMIT = 256;
+
+    /**
+     * 按折叠结果排序的 Latin-1 字符：{@code LATIN1_FOLDS[i]} 是 {@code LATIN1_BY_FOLD[i]} 折叠后的结果，
+     * 用于由集合中的折叠字符反查对应的 Latin-1 字符，编译的耗时只与集合大小有关
+     */
+    private static final char[] LATIN1_FOLDS = new char[LATIN1_LIMIT];
+    private static final char[] LATIN1_BY_FOLD = new char[LATIN1_LIMIT];
+
+    static {
+        final int[] pairs = new int[LATIN1_LIMIT];
+        for (char ch = 0; ch < LATIN1_LIMIT; ch++) {
+            pairs[ch] = (fold(ch) << 16) | ch;
+        }
+        Arrays.sort(pairs);
+        for (int i = 0; i < LATIN1_LIMIT; i++) {
+            LATIN1_FOLDS[i] = (char) (pairs[i] >>> 16);
+            LATIN1_BY_FOLD[i] = (char) pairs[i];
+        }
+    }
+
+    private static final CharSet EMPTY = new CharSet(new long[LATIN1_LIMIT >>> 6], new char[0], false);
+    private static final CharSet EMPTY_IGNORE_CASE = new CharSet(new long[LATIN1_LIMIT >>> 6], new char[0], true);
+
+    /**
+     * Latin-1 字符的位图，下标为输入字符本身（忽略大小写时已经考虑了折叠）
+     */
+    private final long[] latin1;
+    /**
+     * 区分大小写时为集合中所有非 Latin-1 字符；忽略大小写时为集合中所有字符折叠后的结果。有序且无重复
+     */
+    private final char[] others;
+    private final boolean ignoreCase;
+
+    private CharSet(final long[] latin1, final char[] others, final boolean ignoreCase) {
+        this.latin1 = latin1;
+        this.others = others;
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * <p>使用 {@code chars} 中的所有字符编译一个区分大小写的字符集合。</p>
+     *
+     * @param chars 字符集，{@code null} 视为空集合
+     * @return 字符集合
+     * @since 1.0.0
+     */
+    public static CharSet of(final CharSequence chars) {
+        return of(chars, false);
+    }
+
+    /**
+     * <p>使用 {@code chars} 中的所有字符编译一个忽略大小写的字符集合。</p>
+     *
+     * @param chars 字符集，{@code null} 视为空集合
+     * @return 字符集合
+     * @since 1.0.0
+     */
+    public static CharSet ofIgnoreCase(final CharSequence chars) {
+        return of(chars, true);
+    }
+
+    /**
+     * <p>使用 {@code chars} 中的所有字符编译一个字符集合，可以指定是否忽略大小写。</p>
+     *
+     * @param chars 字符集，{@code null} 视为空集合
+     * @param ignoreCase 是否忽略大小写
+     * @return 字符集合
+     * @since 1.0.0
+     */
+    public static CharSet of(final CharSequence chars, final boolean ignoreCase) {
+        final int length;
+        if (chars == null || (length = chars.length()) == 0) {
+            return ignoreCase ? EMPTY_IGNORE_CASE : EMPTY;
+        }
+        final long[] latin1 = new long[LATIN1_LIMIT >>> 6];
+        char[] others = new char[length];
+        int othersCount = 0;
+        for (int i = 0; i < length; i++) {
+            final char ch = chars.charAt(i);
+            if (ignoreCase) {
+                others[othersCount++] = fold(ch);
+            } else if (ch < LATIN1_LIMIT) {
+                latin1[ch >>> 6] |= 1L << ch;
+            } else {
+                others[othersCount++] = ch;
+            }
+        }
+        others = distinct(others, othersCount);
+        if (ignoreCase) {
+            // Latin-1 字符折叠后可能落在 Latin-1 之外（如 'µ'），反之亦然（如 'ſ'），
+            // 因此位图按输入字符本身预先计算，查询时无需再折叠
+            for (final char folded : others) {
+                int index = Arrays.binarySearch(LATIN1_FOLDS, folded);
+                if (index < 0) {
+                    continue;
+                }
+                while (index > 0 && LATIN1_FOLDS[index - 1] == folded) {
+                    index--;
+                }
+                for (; index < LATIN1_LIMIT && LATIN1_FOLDS[index] == folded; index++) {
+                    final char ch = LATIN1_BY_FOLD[index];
+                    latin1[ch >>> 6] |= 1L << ch;
+                }
+            }
+        }
+        return new CharSet(latin1, others, ignoreCase);
+    }
+
+    /**
+     * <p>检查字符是否属于此集合。</p>
+     *
+     * @param ch 要检查的字符
+     * @return 属于此集合时返回 {@code true}
+     * @since 1.0.0
+     */
+    public boolean contains(final char ch) {
+        if (ch < LATIN1_LIMIT) {
+            return (latin1[ch >>> 6] & (1L << ch)) != 0;
+        }
+        if (others.length == 0) {
+            return false;
+        }
+        return Arrays.binarySearch(others, ignoreCase ? fold(ch) : ch) >= 0;
+    }
+
+    /**
+     * <p>此集合是否忽略大小写。</p>
+     *
+     * @return 忽略大小写时返回 {@code true}
+     * @since 1.0.0
+     */
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    /**
+     * <p>按 {@link String#regionMatches(boolean, int, String, int, int)} 的规则折叠字符的大小写，ASCII 字符直接转换。</p>
+     *
+     * @param ch 字符
+     * @return 折叠后的字符
+     * @since 1.0.0
+     */
+    static char fold(final char ch) {
+        if (ch < 0x80) {
+            return ch >= 'A' && ch <= 'Z' ? (char) (ch + ('a' - 'A')) : ch;
+        }
+        return Character.toLowerCase(Character.toUpperCase(ch));
+    }
+
+    private static char[] distinct(final char[] chars, final int count) {
+        if (count == 0) {
+            return new char[0];
+        }
+        Arrays.sort(chars, 0, count);
+        int size = 1;
+        for (int i = 1; i < count; i++) {
+            if (chars[i] != chars[size - 1]) {
+                chars[size++] = chars[i];
+            }
+        }
+        return Arrays.copyOf(chars, size);
+    }
+}
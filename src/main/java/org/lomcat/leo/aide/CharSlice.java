@@ -0,0 +1,405 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+
+package org.lomcat.leo.aide;
+
+/**
+ * <p>不可变的字符序列视图，与源字符串或字符数组共享存储，创建时不复制字符。</p>
+ *
+ * <p>{@link StringAide} 的 {@code substringView}、{@code stripView}、{@code splitView} 等方法返回此类型，
+ * 解析过程可以先以视图形式传递中间结果，只在需要保存时再通过 {@link #toString()} 创建字符串。
+ * 注意视图会使整个源字符串（或数组）保持可达；基于 {@code char[]} 创建的视图在源数组被修改后内容随之改变。</p>
+ *
+ * <p>{@link #equals(Object)} 与 {@link #compareTo(CharSlice)} 按内容比较，只与另一个 {@code CharSlice} 相等；
+ * {@link #hashCode()} 与内容相同的 {@link String#hashCode()} 一致；基于字符串的视图在第一次计算后缓存，
+ * 基于 {@code char[]} 的视图内容可能改变，每次重新计算。
+ * 与 {@link String} 等其他字符序列比较内容时使用 {@link #contentEquals(CharSequence)}。</p>
+ *
+ * <pre>
+ * CharSlice.of("key=value", 4, 9).toString()            = "value"
+ * CharSlice.of("key=value", 4, 9).contentEquals("value") = true
+ * CharSlice.of("key=value", 4, 9).indexOf('l', 0)        = 2
+ * </pre>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public final class CharSlice implements CharSequence, Comparable<CharSlice> {
+
+    private static final CharSlice EMPTY = new CharSlice(StringAide.EMPTY, null, 0, 0);
+
+    /**
+     * 源字符串，与 {@link #chars} 有且只有一个不为 null
+     */
+    private final String string;
+    private final char[] chars;
+    private final int offset;
+    private final int length;
+    /**
+     * 缓存的哈希值，0 表示尚未计算（或哈希值恰好为 0），只用于基于字符串的视图
+     */
+    private int hash;
+
+    private CharSlice(final String string, final char[] chars, final int offset, final int length) {
+        this.string = string;
+        this.chars = chars;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * @return 空的视图
+     * @since 1.0.0
+     */
+    public static CharSlice empty() {
+        return EMPTY;
+    }
+
+    /**
+     * <p>创建整个字符串的视图。</p>
+     *
+     * @param string 源字符串，不能为 null
+     * @return 视图
+     * @since 1.0.0
+     */
+    public static CharSlice of(final String string) {
+        return of(string, 0, string.length());
+    }
+
+    /**
+     * <p>创建字符串 [from, to) 范围的视图，不复制字符。</p>
+     *
+     * @param string 源字符串，不能为 null
+     * @param from 开始位置（包含）
+     * @param to 结束位置（不包含）
+     * @return 视图
+     * @throws IndexOutOfBoundsException 如果范围越界
+     * @since 1.0.0
+     */
+    public static CharSlice of(final String string, final int from, final int to) {
+        checkRange(from, to, string.length());
+        return from == to ? EMPTY : new CharSlice(string, null, from, to - from);
+    }
+
+    /**
+     * <p>创建字符数组 [from, to) 范围的视图，不复制字符，之后对数组的修改会反映到视图中。</p>
+     *
+     * @param chars 源字符数组，不能为 null
+     * @param from 开始位置（包含）
+     * @param to 结束位置（不包含）
+     * @return 视图
+     * @throws IndexOutOfBoundsException 如果范围越界
+     * @since 1.0.0
+     */
+    public static CharSlice of(final char[] chars, final int from, final int to) {
+        checkRange(from, to, chars.length);
+        return from == to ? EMPTY : new CharSlice(null, chars, from, to - from);
+    }
+
+    private static void checkRange(final int from, final int to, final int length) {
+        if (from < 0 || from > to || to > length) {
+            throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", length: " + length);
+        }
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+        return string != null ? string.charAt(offset + index) : chars[offset + index];
+    }
+
+    /**
+     * @return 视图是否为空
+     * @since 1.0.0
+     */
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * <p>返回当前视图 [start, end) 范围的视图，与当前视图共享存储。</p>
+     */
+    @Override
+    public CharSlice subSequence(final int start, final int end) {
+        checkRange(start, end, length);
+        if (start == 0 && end == length) {
+            return this;
+        }
+        return start == end ? EMPTY : new CharSlice(string, chars, offset + start, end - start);
+    }
+
+    /**
+     * <p>查找指定字符从 {@code fromIndex} 开始首次出现的位置，规则与 {@link String#indexOf(int, int)} 相同。</p>
+     *
+     * @param searchChar 要查找的字符（代码点）
+     * @param fromIndex 开始位置，小于 0 时从 0 开始
+     * @return 相对于视图开头的位置，未找到时返回 -1
+     * @since 1.0.0
+     */
+    public int indexOf(final int searchChar, final int fromIndex) {
+        if (fromIndex >= length) {
+            return CharSequenceAide.INDEX_NOT_FOUND;
+        }
+        final int end = offset + length;
+        int i = offset + Math.max(fromIndex, 0);
+        if (string != null) {
+            return relative(StringKernel.indexOf(string, searchChar, i, end));
+        }
+        if (searchChar < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            for (; i < end; i++) {
+                if (at(i) == searchChar) {
+                    return i - offset;
+                }
+            }
+        } else if (searchChar <= Character.MAX_CODE_POINT) {
+            final char high = Character.highSurrogate(searchChar);
+            final char low = Character.lowSurrogate(searchChar);
+            for (; i < end - 1; i++) {
+                if (at(i) == high && at(i + 1) == low) {
+                    return i - offset;
+                }
+            }
+        }
+        return CharSequenceAide.INDEX_NOT_FOUND;
+    }
+
+    /**
+     * <p>从 {@code fromIndex} 开始向前查找指定字符最后一次出现的位置，规则与 {@link String#lastIndexOf(int, int)} 相同。</p>
+     *
+     * @param searchChar 要查找的字符（代码点）
+     * @param fromIndex 开始位置，超出长度时从最后一个字符开始
+     * @return 相对于视图开头的位置，未找到时返回 -1
+     * @since 1.0.0
+     */
+    public int lastIndexOf(final int searchChar, final int fromIndex) {
+        if (searchChar < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            for (int i = offset + Math.min(fromIndex, length - 1); i >= offset; i--) {
+                if (at(i) == searchChar) {
+                    return i - offset;
+                }
+            }
+        } else if (searchChar <= Character.MAX_CODE_POINT) {
+            final char high = Character.highSurrogate(searchChar);
+            final char low = Character.lowSurrogate(searchChar);
+            for (int i = offset + Math.min(fromIndex, length - 2); i >= offset; i--) {
+                if (at(i) == high && at(i + 1) == low) {
+                    return i - offset;
+                }
+            }
+        }
+        return CharSequenceAide.INDEX_NOT_FOUND;
+    }
+
+    /**
+     * <p>查找指定字符序列从 {@code fromIndex} 开始首次出现的位置，规则与 {@link String#indexOf(String, int)} 相同。</p>
+     *
+     * @param searchSequence 要查找的字符序列，不能为 null
+     * @param fromIndex 开始位置，小于 0 时从 0 开始
+     * @return 相对于视图开头的位置，未找到时返回 -1
+     * @since 1.0.0
+     */
+    public int indexOf(final CharSequence searchSequence, final int fromIndex) {
+        final int from = Math.max(fromIndex, 0);
+        final int searchLength = searchSequence.length();
+        if (searchLength == 0) {
+            return Math.min(from, length);
+        }
+        if (string != null && searchSequence instanceof String) {
+            return from > length - searchLength ? CharSequenceAide.INDEX_NOT_FOUND
+                    : relative(StringKernel.indexOf(string, (String) searchSequence, offset + from, offset + length));
+        }
+        final char first = searchSequence.charAt(0);
+        final int last = length - searchLength;
+        for (int i = from; i <= last; i++) {
+            if (at(offset + i) == first && regionMatches(false, i + 1, searchSequence, 1, searchLength - 1)) {
+                return i;
+            }
+        }
+        return CharSequenceAide.INDEX_NOT_FOUND;
+    }
+
+    /**
+     * <p>比较当前视图的一个区域与另一个字符序列的一个区域是否相等，规则与 {@link String#regionMatches(boolean, int, String, int, int)} 相同。</p>
+     *
+     * <p>两者都以 {@link String} 为存储时，直接委托给 {@link String#regionMatches(boolean, int, String, int, int)}。</p>
+     *
+     * @param ignoreCase 是否忽略大小写
+     * @param thisOffset 当前视图中区域的开始位置
+     * @param other 另一个字符序列，不能为 null
+     * @param otherOffset 另一个字符序列中区域的开始位置
+     * @param regionLength 区域长度
+     * @return 区域相等时返回 {@code true}，任意一个区域越界时返回 {@code false}
+     * @since 1.0.0
+     */
+    public boolean regionMatches(final boolean ignoreCase, final int thisOffset,
+                                 final CharSequence other, final int otherOffset, final int regionLength) {
+        if (thisOffset < 0 || otherOffset < 0
+                || thisOffset > (long) length - regionLength || otherOffset > (long) other.length() - regionLength) {
+            return false;
+        }
+        if (string != null) {
+            if (other instanceof String) {
+                return string.regionMatches(ignoreCase, offset + thisOffset, (String) other, otherOffset, regionLength);
+            }
+            if (other instanceof CharSlice && ((CharSlice) other).string != null) {
+                final CharSlice slice = (CharSlice) other;
+                return string.regionMatches(ignoreCase, offset + thisOffset, slice.string, slice.offset + otherOffset, regionLength);
+            }
+        }
+        for (int i = 0; i < regionLength; i++) {
+            final char c1 = at(offset + thisOffset + i);
+            final char c2 = other.charAt(otherOffset + i);
+            if (c1 == c2) {
+                continue;
+            }
+            if (!ignoreCase) {
+                return false;
+            }
+            if (Character.toUpperCase(c1) != Character.toUpperCase(c2)
+                    && Character.toLowerCase(c1) != Character.toLowerCase(c2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * <p>比较当前视图与任意字符序列的内容是否相同。</p>
+     *
+     * @param sequence 字符序列，可以为 null
+     * @return 内容相同时返回 {@code true}
+     * @since 1.0.0
+     */
+    public boolean contentEquals(final CharSequence sequence) {
+        return sequence != null && sequence.length() == length && regionMatches(false, 0, sequence, 0, length);
+    }
+
+    /**
+     * <p>将视图中 [srcBegin, srcEnd) 范围的字符复制到目标数组。</p>
+     *
+     * @param srcBegin 开始位置（包含）
+     * @param srcEnd 结束位置（不包含）
+     * @param dst 目标数组
+     * @param dstBegin 目标数组中的开始位置
+     * @since 1.0.0
+     */
+    public void getChars(final int srcBegin, final int srcEnd, final char[] dst, final int dstBegin) {
+        checkRange(srcBegin, srcEnd, length);
+        if (string != null) {
+            string.getChars(offset + srcBegin, offset + srcEnd, dst, dstBegin);
+        } else {
+            System.arraycopy(chars, offset + srcBegin, dst, dstBegin, srcEnd - srcBegin);
+        }
+    }
+
+    /**
+     * @return 包含视图内容的新字符数组
+     * @since 1.0.0
+     */
+    public char[] toCharArray() {
+        final char[] result = new char[length];
+        getChars(0, length, result, 0);
+        return result;
+    }
+
+    /**
+     * <p>创建包含视图内容的字符串。视图覆盖整个源字符串时直接返回源字符串。</p>
+     */
+    @Override
+    public String toString() {
+        if (string != null) {
+            return offset == 0 && length == string.length() ? string : string.substring(offset, offset + length);
+        }
+        return new String(chars, offset, length);
+    }
+
+    /**
+     * <p>与内容相同的 {@link String#hashCode()} 一致。基于 {@code char[]} 的视图不缓存，以反映源数组的修改。</p>
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && length > 0) {
+            for (int i = offset, end = offset + length; i < end; i++) {
+                h = 31 * h + at(i);
+            }
+            if (string != null) {
+                hash = h;
+            }
+        }
+        return h;
+    }
+
+    /**
+     * <p>只有内容相同的另一个 {@code CharSlice} 与当前视图相等。</p>
+     */
+    @Override
+    public boolean equals(final Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof CharSlice)) {
+            return false;
+        }
+        final CharSlice other = (CharSlice) object;
+        if (other.length != length) {
+            return false;
+        }
+        // 只有基于字符串的视图会缓存哈希值，缓存的值总是与当前内容一致
+        if (hash != 0 && other.hash != 0 && hash != other.hash) {
+            return false;
+        }
+        return regionMatches(false, 0, other, 0, length);
+    }
+
+    /**
+     * <p>按字典顺序比较，规则与 {@link String#compareTo(String)} 相同。</p>
+     */
+    @Override
+    public int compareTo(final CharSlice other) {
+        final int limit = Math.min(length, other.length);
+        for (int i = 0; i < limit; i++) {
+            final char c1 = at(offset + i);
+            final char c2 = other.at(other.offset + i);
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return length - other.length;
+    }
+
+    private int relative(final int index) {
+        return index < 0 ? CharSequenceAide.INDEX_NOT_FOUND : index - offset;
+    }
+
+    /**
+     * @param index 源字符串或数组中的绝对位置
+     */
+    private char at(final int index) {
+        return string != null ? string.charAt(index) : chars[index];
+    }
+}
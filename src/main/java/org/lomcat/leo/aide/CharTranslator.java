@@ -0,0 +1,230 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import java.util.Arrays;
+
+/**
+ * <p>预编译的字符转换器，类似 Unix 的 {@code tr} 命令，同时支持字符替换和字符删除。</p>
+ *
+ * <p>{@code searchChars} 与 {@code replaceChars} 按代码点（code point）一一对应：
+ * 有对应替换字符的搜索字符被替换，没有对应替换字符的搜索字符被删除；
+ * 同一个搜索字符出现多次时，以第一次出现的位置为准。
+ * 增补字符（由代理对表示）被视为一个整体处理。</p>
+ *
+ * <p>Latin-1 范围内的字符通过稠密表直接查找，其余字符通过有序数组二分查找。
+ * 转换时只有在遇到第一个需要替换或删除的字符之后才会分配缓冲区，
+ * 如果没有任何字符需要处理，则直接返回源字符串。</p>
+ *
+ * <p>实例不可变，可以在多个线程之间共享。</p>
+ *
+ * <pre>
+ * CharTranslator.compile("ho", "jy").translate("hello")   = "jelly"
+ * CharTranslator.compile("bc", "y").translate("abcba")    = "ayya"
+ * CharTranslator.compile("b", null).translate("abc")      = "ac"
+ * </pre>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public final class CharTranslator {
+
+    private static final int LATIN1_LIMIT = 256;
+    /**
+     * 不需要处理的字符
+     */
+    private static final int KEEP = -1;
+    /**
+     * 需要删除的字符
+     */
+    private static final int DELETE = -2;
+
+    /**
+     * Latin-1 字符的转换表，值为替换后的代码点、{@link #KEEP} 或 {@link #DELETE}
+     */
+    private final int[] latin1;
+    /**
+     * 非 Latin-1 的搜索代码点，有序
+     */
+    private final int[] keys;
+    /**
+     * 与 {@link #keys} 一一对应的替换代码点或 {@link #DELETE}
+     */
+    private final int[] values;
+
+    private CharTranslator(final int[] latin1, final int[] keys, final int[] values) {
+        this.latin1 = latin1;
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * <p>编译一个字符转换器。</p>
+     *
+     * <p>通常 {@code searchChars} 应与 {@code replaceChars} 长度相等。
+     * 如果搜索字符较长，则删除额外的搜索字符，如果搜索字符较短，则忽略额外的替换字符。</p>
+     *
+     * @param searchChars 要搜索的一组字符，{@code null} 视为空串
+     * @param replaceChars 要替换的一组字符，{@code null} 视为空串（即删除所有搜索字符）
+     * @return 字符转换器
+     * @since 1.0.0
+     */
+    public static CharTranslator compile(final CharSequence searchChars, final CharSequence replaceChars) {
+        final int[] latin1 = new int[LATIN1_LIMIT];
+        Arrays.fill(latin1, KEEP);
+        final int searchLength = CharSequenceAide.length(searchChars);
+        final int replaceLength = CharSequenceAide.length(replaceChars);
+        final int[] keys = new int[searchLength];
+        final int[] values = new int[searchLength];
+        int count = 0;
+        int replaceIndex = 0;
+        for (int i = 0; i < searchLength; ) {
+            final int searchCodePoint = Character.codePointAt(searchChars, i);
+            i += Character.charCount(searchCodePoint);
+            int target = DELETE;
+            if (replaceIndex < replaceLength) {
+                target = Character.codePointAt(replaceChars, replaceIndex);
+                replaceIndex += Character.charCount(target);
+            }
+            if (searchCodePoint < LATIN1_LIMIT) {
+                if (latin1[searchCodePoint] == KEEP) {
+                    latin1[searchCodePoint] = target;
+                }
+            } else {
+                keys[count] = searchCodePoint;
+                values[count] = target;
+                count++;
+            }
+        }
+        if (count == 0) {
+            return new CharTranslator(latin1, new int[0], new int[0]);
+        }
+        // 以 (代码点, 原始位置) 作为排序键，重复的代码点中原始位置最小（即第一次出现）的排在最前面
+        final long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = ((long) keys[i] << 32) | i;
+        }
+        Arrays.sort(order);
+        final int[] sortedKeys = new int[count];
+        final int[] sortedValues = new int[count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            final int key = (int) (order[i] >>> 32);
+            if (size > 0 && sortedKeys[size - 1] == key) {
+                continue;
+            }
+            sortedKeys[size] = key;
+            sortedValues[size] = values[(int) order[i]];
+            size++;
+        }
+        return new CharTranslator(latin1, Arrays.copyOf(sortedKeys, size), Arrays.copyOf(sortedValues, size));
+    }
+
+    /**
+     * <p>对字符串执行转换。</p>
+     *
+     * <p>{@code string} 为 null 时返回 null，没有任何字符需要处理时直接返回 {@code string}。</p>
+     *
+     * @param string 源字符串，可以为 null
+     * @return 转换后的字符串
+     * @since 1.0.0
+     */
+    public String translate(final String string) {
+        final int length;
+        if (string == null || (length = string.length()) == 0) {
+            return string;
+        }
+        int index = 0;
+        int target = KEEP;
+        int codePoint = 0;
+        while (index < length) {
+            codePoint = codePointAt(string, index, length);
+            target = lookup(codePoint);
+            if (target != KEEP) {
+                break;
+            }
+            index += Character.charCount(codePoint);
+        }
+        if (index == length) {
+            return string;
+        }
+        final StringBuilder builder = new StringBuilder(length);
+        builder.append(string, 0, index);
+        while (true) {
+            if (target == KEEP) {
+                builder.appendCodePoint(codePoint);
+            } else if (target != DELETE) {
+                builder.appendCodePoint(target);
+            }
+            index += Character.charCount(codePoint);
+            if (index >= length) {
+                break;
+            }
+            codePoint = codePointAt(string, index, length);
+            target = lookup(codePoint);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * <p>对字符序列执行转换，并将结果追加到 {@code builder} 中。</p>
+     *
+     * @param sequence 源字符序列，为 null 时不追加任何内容
+     * @param builder 接收结果的 {@link StringBuilder}
+     * @return {@code builder}
+     * @since 1.0.0
+     */
+    public StringBuilder translate(final CharSequence sequence, final StringBuilder builder) {
+        final int length = CharSequenceAide.length(sequence);
+        for (int i = 0; i < length; ) {
+            final int codePoint = codePointAt(sequence, i, length);
+            final int target = lookup(codePoint);
+            if (target == KEEP) {
+                builder.appendCodePoint(codePoint);
+            } else if (target != DELETE) {
+                builder.appendCodePoint(target);
+            }
+            i += Character.charCount(codePoint);
+        }
+        return builder;
+    }
+
+    private int lookup(final int codePoint) {
+        if (codePoint < LATIN1_LIMIT) {
+            return latin1[codePoint];
+        }
+        if (keys.length == 0) {
+            return KEEP;
+        }
+        final int index = Arrays.binarySearch(keys, codePoint);
+        return index < 0 ? KEEP : values[index];
+    }
+
+    private static int codePointAt(final CharSequence sequence, final int index, final int length) {
+        final char ch = sequence.charAt(index);
+        if (Character.isHighSurrogate(ch) && index + 1 < length) {
+            final char low = sequence.charAt(index + 1);
+            if (Character.isLowSurrogate(low)) {
+                return Character.toCodePoint(ch, low);
+            }
+        }
+        return ch;
+    }
+}
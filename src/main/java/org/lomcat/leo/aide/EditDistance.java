@@ -0,0 +1,533 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+
+package org.lomcat.leo.aide;
+
+import java.util.Arrays;
+
+/**
+ * <p>编辑距离与相似度算法的实现，供 {@link StringAide} 使用。</p>
+ *
+ * <p>Levenshtein 距离使用 Myers 的位并行算法（Hyyrö 的表述），以较短的字符序列作为模式串，
+ * 每 64 个字符为一个块，逐列推进所有块；超过阈值后立即结束。
+ * 模式串的字符位图（Peq）按字符分组，只保存字符出现过的块，占用的空间与模式串长度成正比，而与不同字符的个数无关。</p>
+ *
+ * <p>位图、各块的垂直差分向量及其他工作数组都保存在线程本地的 {@link Scratch} 中重复使用，
+ * 因此对较短的输入，稳定状态下计算不分配对象；计算较长的输入后，超过 {@value #MAX_RETAINED_LENGTH} 个元素的工作数组被释放，
+ * 线程不会一直持有曾经用过的最大缓冲区。</p>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+final class EditDistance {
+
+    /**
+     * 计算结束后保留的工作数组的最大长度（元素个数）
+     */
+    static final int MAX_RETAINED_LENGTH = 4096;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private EditDistance() {
+    }
+
+    /**
+     * <p>计算两个非 null 字符序列的 Levenshtein 距离。</p>
+     *
+     * @param threshold 阈值，小于 0 表示不限制
+     * @return 编辑距离，超过阈值时返回 -1
+     */
+    static int levenshtein(final CharSequence left, final CharSequence right, final int threshold) {
+        CharSequence pattern = left;
+        CharSequence text = right;
+        if (pattern.length() > text.length()) {
+            pattern = right;
+            text = left;
+        }
+        final int m = pattern.length();
+        final int n = text.length();
+        final int limit = threshold < 0 ? Integer.MAX_VALUE : threshold;
+        if (n - m > limit) {
+            return -1;
+        }
+        if (m == 0) {
+            return n;
+        }
+
+        final Scratch scratch = SCRATCH.get();
+        try {
+            return levenshtein(scratch, pattern, text, limit);
+        } finally {
+            scratch.trim();
+        }
+    }
+
+    private static int levenshtein(final Scratch scratch, final CharSequence pattern, final CharSequence text,
+                                   final int limit) {
+        final int m = pattern.length();
+        final int n = text.length();
+        final int blocks = (m + 63) >>> 6;
+        scratch.preparePattern(pattern, blocks);
+        final int[] offsets = scratch.offsets;
+        final int[] entryBlocks = scratch.entryBlocks;
+        final long[] entryMasks = scratch.entryMasks;
+        final long[] pv = scratch.pv;
+        final long[] mv = scratch.mv;
+        for (int b = 0; b < blocks; b++) {
+            pv[b] = -1L;
+            mv[b] = 0L;
+        }
+        final long lastBit = 1L << ((m - 1) & 63);
+        final int lastBlock = blocks - 1;
+        int score = m;
+
+        for (int j = 0; j < n; j++) {
+            final int index = scratch.find(text.charAt(j));
+            // 该字符出现过的块按顺序排列，随块的推进依次取出
+            int entry = index < 0 ? 0 : offsets[index];
+            final int entryEnd = index < 0 ? 0 : offsets[index + 1];
+            // 第 0 行 D[0][j] = j，因此进入第一个块的水平差分为 +1
+            int carry = 1;
+            for (int b = 0; b < blocks; b++) {
+                long eq = 0L;
+                if (entry < entryEnd && entryBlocks[entry] == b) {
+                    eq = entryMasks[entry++];
+                }
+                final long pvb = pv[b];
+                final long mvb = mv[b];
+                final long xv = eq | mvb;
+                if (carry < 0) {
+                    eq |= 1L;
+                }
+                final long xh = (((eq & pvb) + pvb) ^ pvb) | eq;
+                long ph = mvb | ~(xh | pvb);
+                long mh = pvb & xh;
+                final long high = b == lastBlock ? lastBit : Long.MIN_VALUE;
+                final int out = (ph & high) != 0 ? 1 : (mh & high) != 0 ? -1 : 0;
+                ph <<= 1;
+                mh <<= 1;
+                if (carry < 0) {
+                    mh |= 1L;
+                } else if (carry > 0) {
+                    ph |= 1L;
+                }
+                pv[b] = mh | ~(xv | ph);
+                mv[b] = ph & xv;
+                carry = out;
+            }
+            score += carry;
+            // 之后的每一列最多使距离减少 1
+            if (score - (n - j - 1) > limit) {
+                return -1;
+            }
+        }
+        return score > limit ? -1 : score;
+    }
+
+    /**
+     * <p>计算两个非 null 字符序列的 Damerau-Levenshtein 距离（限制编辑距离，即 Optimal String Alignment）。</p>
+     *
+     * <p>使用三行滚动数组的动态规划，有阈值时只计算主对角线两侧宽度为阈值的带状区域。</p>
+     *
+     * @param threshold 阈值，小于 0 表示不限制
+     * @return 编辑距离，超过阈值时返回 -1
+     */
+    static int damerauLevenshtein(final CharSequence left, final CharSequence right, final int threshold) {
+        CharSequence s = left;
+        CharSequence t = right;
+        if (s.length() > t.length()) {
+            s = right;
+            t = left;
+        }
+        final int m = s.length();
+        final int n = t.length();
+        final int limit = threshold < 0 ? Integer.MAX_VALUE : threshold;
+        if (n - m > limit) {
+            return -1;
+        }
+        if (m == 0) {
+            return n;
+        }
+        final Scratch scratch = SCRATCH.get();
+        try {
+            return damerauLevenshtein(scratch, s, t, limit);
+        } finally {
+            scratch.trim();
+        }
+    }
+
+    private static int damerauLevenshtein(final Scratch scratch, final CharSequence s, final CharSequence t,
+                                          final int limit) {
+        final int m = s.length();
+        final int n = t.length();
+        // 超出带状区域的单元格视为无穷大
+        final int infinity = limit == Integer.MAX_VALUE ? Integer.MAX_VALUE : limit + 1;
+        int[] previous2 = scratch.rows(0, m + 1);
+        int[] previous = scratch.rows(1, m + 1);
+        int[] current = scratch.rows(2, m + 1);
+        for (int i = 0; i <= m; i++) {
+            previous[i] = i <= limit ? i : infinity;
+        }
+        for (int j = 1; j <= n; j++) {
+            final char tj = t.charAt(j - 1);
+            final int from = Math.max(1, j - limit);
+            final int to = limit >= n ? m : Math.min(m, j + limit);
+            current[0] = j <= limit ? j : infinity;
+            if (from > 1) {
+                current[from - 1] = infinity;
+            }
+            int rowMin = current[0];
+            for (int i = from; i <= to; i++) {
+                final char si = s.charAt(i - 1);
+                final int cost = si == tj ? 0 : 1;
+                int value = Math.min(Math.min(current[i - 1], previous[i]), infinity - 1) + 1;
+                value = Math.min(value, previous[i - 1] == infinity ? infinity : previous[i - 1] + cost);
+                if (i > 1 && j > 1 && si == t.charAt(j - 2) && s.charAt(i - 2) == tj && previous2[i - 2] != infinity) {
+                    value = Math.min(value, previous2[i - 2] + 1);
+                }
+                current[i] = Math.min(value, infinity);
+                rowMin = Math.min(rowMin, current[i]);
+            }
+            if (to < m) {
+                current[to + 1] = infinity;
+            }
+            if (rowMin > limit) {
+                return -1;
+            }
+            final int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        final int distance = previous[m];
+        return distance > limit ? -1 : distance;
+    }
+
+    /**
+     * <p>计算两个非 null 字符序列的 Jaro-Winkler 相似度。</p>
+     *
+     * <p>Jaro 相似度不低于 0.7 时按公共前缀加权，加权系数为 0.1，最多计算 4 个字符的公共前缀。</p>
+     *
+     * @return 相似度，取值范围 [0, 1]
+     */
+    static double jaroWinkler(final CharSequence left, final CharSequence right) {
+        final int m = left.length();
+        final int n = right.length();
+        if (m == 0 && n == 0) {
+            return 1.0;
+        }
+        if (m == 0 || n == 0) {
+            return 0.0;
+        }
+        final Scratch scratch = SCRATCH.get();
+        try {
+            return jaroWinkler(scratch, left, right);
+        } finally {
+            scratch.trim();
+        }
+    }
+
+    private static double jaroWinkler(final Scratch scratch, final CharSequence left, final CharSequence right) {
+        final int m = left.length();
+        final int n = right.length();
+        final int window = Math.max(0, Math.max(m, n) / 2 - 1);
+        final boolean[] leftMatched = scratch.flags(0, m);
+        final boolean[] rightMatched = scratch.flags(1, n);
+
+        int matches = 0;
+        for (int i = 0; i < m; i++) {
+            final char ch = left.charAt(i);
+            final int end = Math.min(n, i + window + 1);
+            for (int j = Math.max(0, i - window); j < end; j++) {
+                if (!rightMatched[j] && ch == right.charAt(j)) {
+                    leftMatched[i] = true;
+                    rightMatched[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0.0;
+        }
+        int halfTranspositions = 0;
+        for (int i = 0, j = 0; i < m; i++) {
+            if (!leftMatched[i]) {
+                continue;
+            }
+            while (!rightMatched[j]) {
+                j++;
+            }
+            if (left.charAt(i) != right.charAt(j)) {
+                halfTranspositions++;
+            }
+            j++;
+        }
+        final double jaro = ((double) matches / m + (double) matches / n
+                + (double) (matches - halfTranspositions / 2) / matches) / 3.0;
+        if (jaro < 0.7) {
+            return jaro;
+        }
+        int prefix = 0;
+        final int maxPrefix = Math.min(4, Math.min(m, n));
+        while (prefix < maxPrefix && left.charAt(prefix) == right.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1.0 - jaro);
+    }
+
+    /**
+     * @return 当前线程的工作区中保留的数组占用的字节数（不含对象头），用于测试
+     */
+    static long retainedBytes() {
+        return SCRATCH.get().retainedBytes();
+    }
+
+    /**
+     * <p>线程本地的工作区，按需扩容，在多次计算之间重复使用，见 {@link #trim()}。</p>
+     */
+    private static final class Scratch {
+        private static final int INITIAL_CAPACITY = 128;
+
+        /**
+         * 模式串中不同字符的开放寻址哈希表，{@link #stamps} 与当前 {@link #generation} 相等的槽位有效，
+         * {@link #indices} 为字符的编号（按第一次出现的顺序）
+         */
+        private char[] keys = new char[INITIAL_CAPACITY];
+        private int[] stamps = new int[INITIAL_CAPACITY];
+        private int[] indices = new int[INITIAL_CAPACITY];
+        private int generation;
+        private int distinct;
+        /**
+         * 编号为 {@code k} 的字符出现过的块位于 {@code entryBlocks/entryMasks[offsets[k], offsets[k + 1])}，按块的顺序排列：
+         * {@code entryBlocks} 为块的下标，{@code entryMasks} 为该块中的位图
+         */
+        private int[] offsets = new int[INITIAL_CAPACITY + 1];
+        private int[] entryBlocks = new int[INITIAL_CAPACITY];
+        private long[] entryMasks = new long[INITIAL_CAPACITY];
+        /**
+         * 每个编号的字符最近出现的块（构建时使用）和块的个数（构建时用作计数和写入位置）
+         */
+        private int[] lastBlocks = new int[INITIAL_CAPACITY];
+        private int[] cursors = new int[INITIAL_CAPACITY];
+        /**
+         * 模式串每个位置上的字符编号
+         */
+        private int[] charIndices = new int[INITIAL_CAPACITY];
+        private long[] pv = new long[1];
+        private long[] mv = new long[1];
+        private final int[][] rows = new int[3][];
+        private final boolean[][] flags = new boolean[2][];
+
+        private void preparePattern(final CharSequence pattern, final int blocks) {
+            final int length = pattern.length();
+            if (pv.length < blocks) {
+                pv = new long[blocks];
+                mv = new long[blocks];
+            }
+            if (charIndices.length < length) {
+                charIndices = new int[length];
+            }
+            if (++generation == 0) {
+                Arrays.fill(stamps, 0);
+                generation = 1;
+            }
+            distinct = 0;
+            // 为字符编号，并统计每个字符出现过的块数
+            int entries = 0;
+            for (int i = 0; i < length; i++) {
+                final int index = intern(pattern.charAt(i));
+                charIndices[i] = index;
+                final int block = i >>> 6;
+                if (lastBlocks[index] != block) {
+                    lastBlocks[index] = block;
+                    cursors[index]++;
+                    entries++;
+                }
+            }
+            if (entryBlocks.length < entries) {
+                entryBlocks = new int[entries];
+                entryMasks = new long[entries];
+            }
+            for (int k = 0, offset = 0; k < distinct; k++) {
+                offsets[k] = offset;
+                offset += cursors[k];
+                cursors[k] = offsets[k];
+                lastBlocks[k] = -1;
+            }
+            offsets[distinct] = entries;
+            for (int i = 0; i < length; i++) {
+                final int index = charIndices[i];
+                final int block = i >>> 6;
+                if (lastBlocks[index] != block) {
+                    lastBlocks[index] = block;
+                    final int entry = cursors[index]++;
+                    entryBlocks[entry] = block;
+                    entryMasks[entry] = 0L;
+                }
+                entryMasks[cursors[index] - 1] |= 1L << (i & 63);
+            }
+        }
+
+        /**
+         * @return 字符的编号，第一次出现时分配新的编号
+         */
+        private int intern(final char ch) {
+            int mask = keys.length - 1;
+            int slot = hash(ch) & mask;
+            while (stamps[slot] == generation) {
+                if (keys[slot] == ch) {
+                    return indices[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            if ((distinct + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+                mask = keys.length - 1;
+                slot = hash(ch) & mask;
+                while (stamps[slot] == generation) {
+                    slot = (slot + 1) & mask;
+                }
+            }
+            if (distinct == lastBlocks.length) {
+                lastBlocks = Arrays.copyOf(lastBlocks, distinct * 2);
+                cursors = Arrays.copyOf(cursors, distinct * 2);
+                offsets = new int[distinct * 2 + 1];
+            }
+            stamps[slot] = generation;
+            keys[slot] = ch;
+            indices[slot] = distinct;
+            lastBlocks[distinct] = -1;
+            cursors[distinct] = 0;
+            return distinct++;
+        }
+
+        private void rehash(final int capacity) {
+            final char[] oldKeys = keys;
+            final int[] oldStamps = stamps;
+            final int[] oldIndices = indices;
+            keys = new char[capacity];
+            stamps = new int[capacity];
+            indices = new int[capacity];
+            final int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldStamps[i] == generation) {
+                    int slot = hash(oldKeys[i]) & mask;
+                    while (stamps[slot] == generation) {
+                        slot = (slot + 1) & mask;
+                    }
+                    stamps[slot] = generation;
+                    keys[slot] = oldKeys[i];
+                    indices[slot] = oldIndices[i];
+                }
+            }
+        }
+
+        /**
+         * @return 字符 {@code ch} 的编号，字符不在模式串中时返回 -1
+         */
+        private int find(final char ch) {
+            final int mask = keys.length - 1;
+            int slot = hash(ch) & mask;
+            while (stamps[slot] == generation) {
+                if (keys[slot] == ch) {
+                    return indices[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private static int hash(final char ch) {
+            return (ch * 0x9E3779B1) >>> 16;
+        }
+
+        /**
+         * 释放超过 {@link #MAX_RETAINED_LENGTH} 的工作数组，恢复为初始大小或在下次使用时重新分配
+         */
+        private void trim() {
+            if (keys.length > MAX_RETAINED_LENGTH) {
+                keys = new char[INITIAL_CAPACITY];
+                stamps = new int[INITIAL_CAPACITY];
+                indices = new int[INITIAL_CAPACITY];
+                generation = 0;
+            }
+            if (lastBlocks.length > MAX_RETAINED_LENGTH) {
+                lastBlocks = new int[INITIAL_CAPACITY];
+                cursors = new int[INITIAL_CAPACITY];
+                offsets = new int[INITIAL_CAPACITY + 1];
+            }
+            if (entryBlocks.length > MAX_RETAINED_LENGTH) {
+                entryBlocks = new int[INITIAL_CAPACITY];
+                entryMasks = new long[INITIAL_CAPACITY];
+            }
+            if (charIndices.length > MAX_RETAINED_LENGTH) {
+                charIndices = new int[INITIAL_CAPACITY];
+            }
+            if (pv.length > MAX_RETAINED_LENGTH) {
+                pv = new long[1];
+                mv = new long[1];
+            }
+            for (int i = 0; i < rows.length; i++) {
+                if (rows[i] != null && rows[i].length > MAX_RETAINED_LENGTH) {
+                    rows[i] = null;
+                }
+            }
+            for (int i = 0; i < flags.length; i++) {
+                if (flags[i] != null && flags[i].length > MAX_RETAINED_LENGTH) {
+                    flags[i] = null;
+                }
+            }
+        }
+
+        private long retainedBytes() {
+            long bytes = keys.length * 2L + stamps.length * 4L + indices.length * 4L
+                    + (offsets.length + lastBlocks.length + cursors.length + charIndices.length + entryBlocks.length) * 4L
+                    + (entryMasks.length + pv.length + mv.length) * 8L;
+            for (int[] row : rows) {
+                bytes += row == null ? 0 : row.length * 4L;
+            }
+            for (boolean[] flag : flags) {
+                bytes += flag == null ? 0 : flag.length;
+            }
+            return bytes;
+        }
+
+        private int[] rows(final int index, final int length) {
+            int[] row = rows[index];
+            if (row == null || row.length < length) {
+                row = new int[Math.max(length, 64)];
+                rows[index] = row;
+            }
+            return row;
+        }
+
+        private boolean[] flags(final int index, final int length) {
+            boolean[] flag = flags[index];
+            if (flag == null || flag.length < length) {
+                flag = new boolean[Math.max(length, 64)];
+                flags[index] = flag;
+            } else {
+                Arrays.fill(flag, 0, length, false);
+            }
+            return flag;
+        }
+    }
+}
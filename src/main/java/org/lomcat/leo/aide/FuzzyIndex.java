@@ -0,0 +1,362 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>预编译的模糊查找索引，用于在较大的字典中查找与查询串的 Levenshtein 距离不超过 k 的所有元素。</p>
+ *
+ * <p>键按长度排序保存，查询时只检查长度与查询串相差不超过 k 的键（长度差是编辑距离的下界）。
+ * 每个键另外保存两个 64 位的签名：字符集合与相邻字符对（2-gram）集合，分别散列到 64 个位上。
+ * 一次编辑最多引入（或消除）一个字符、两个 2-gram，因此查询串中缺失于键的字符超过 k 个、
+ * 或 2-gram 超过 2k 个时（反之亦然），编辑距离一定大于 k，无需计算。
+ * 通过过滤的键再以 {@link StringAide#levenshtein(CharSequence, CharSequence, int)} 的位并行算法以阈值提前结束的方式计算距离。
+ * 所有数据保存在连续数组中，不为每个键创建对象。</p>
+ *
+ * <p>可以忽略大小写（按 {@link String#equalsIgnoreCase(String)} 的规则逐字符折叠）和忽略重音符号
+ * （与 {@link StringAide#stripAccents(String)} 相同），此时按折叠后的键计算距离，返回原始元素。
+ * {@code null} 元素被忽略，折叠后相同的元素共享同一个键。实例不可变，可以在多个线程之间共享。</p>
+ *
+ * <pre>
+ * FuzzyIndex index = FuzzyIndex.build(Arrays.asList("Jonathan", "Johnathan", "Jon", "Nathan"), true, false);
+ * index.search("jonathon", 1) = ["Jonathan"]
+ * index.search("jonathon", 2) = ["Jonathan", "Johnathan"]
+ * </pre>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public final class FuzzyIndex {
+
+    private final boolean ignoreCase;
+    private final boolean ignoreAccents;
+    /**
+     * 原始元素，下标即 {@link MatchHandler#onMatch(int, int)} 中的元素下标
+     */
+    private final String[] entries;
+    /**
+     * 去重后的键（折叠后），按长度升序排列
+     */
+    private final String[] keys;
+    /**
+     * 键的长度，与 keys 一一对应，用于二分查找长度范围
+     */
+    private final int[] keyLengths;
+    /**
+     * 键的字符签名：每个字符散列到 64 位中的一位
+     */
+    private final long[] charMasks;
+    /**
+     * 键的 2-gram 签名：每对相邻字符散列到 64 位中的一位
+     */
+    private final long[] bigramMasks;
+    /**
+     * 键 n 对应的元素下标位于 keyEntries 的 [entryStart[n], entryStart[n + 1]) 范围内
+     */
+    private final int[] entryStart;
+    private final int[] keyEntries;
+
+    private FuzzyIndex(final boolean ignoreCase, final boolean ignoreAccents, final String[] entries, final String[] keys,
+                       final int[] keyLengths, final long[] charMasks, final long[] bigramMasks,
+                       final int[] entryStart, final int[] keyEntries) {
+        this.ignoreCase = ignoreCase;
+        this.ignoreAccents = ignoreAccents;
+        this.entries = entries;
+        this.keys = keys;
+        this.keyLengths = keyLengths;
+        this.charMasks = charMasks;
+        this.bigramMasks = bigramMasks;
+        this.entryStart = entryStart;
+        this.keyEntries = keyEntries;
+    }
+
+    /**
+     * <p>接收匹配结果的回调。</p>
+     *
+     * @author Kweny
+     * @since 1.0.0
+     */
+    @FunctionalInterface
+    public interface MatchHandler {
+        /**
+         * @param entryIndex 元素的下标
+         * @param distance 元素（折叠后）与查询串的编辑距离
+         */
+        void onMatch(int entryIndex, int distance);
+    }
+
+    /**
+     * <p>构建一个区分大小写和重音符号的模糊查找索引。</p>
+     *
+     * @param entries 一组元素，{@code null} 视为空
+     * @return 模糊查找索引
+     * @since 1.0.0
+     */
+    public static FuzzyIndex build(final CharSequence... entries) {
+        return build(entries, false, false);
+    }
+
+    /**
+     * <p>构建一个模糊查找索引，可以指定是否忽略大小写和重音符号。</p>
+     *
+     * @param entries 一组元素，{@code null} 视为空，下标按迭代顺序计算
+     * @param ignoreCase 是否忽略大小写
+     * @param ignoreAccents 是否忽略重音符号
+     * @return 模糊查找索引
+     * @since 1.0.0
+     */
+    public static FuzzyIndex build(final Collection<? extends CharSequence> entries, final boolean ignoreCase, final boolean ignoreAccents) {
+        return build(entries == null ? null : entries.toArray(new CharSequence[0]), ignoreCase, ignoreAccents);
+    }
+
+    private static FuzzyIndex build(final CharSequence[] sources, final boolean ignoreCase, final boolean ignoreAccents) {
+        final int count = ArrayAide.length(sources);
+        final String[] entries = new String[count];
+        // 折叠后相同的元素共享同一个键，键按第一次出现的顺序编号
+        final Map<String, Integer> ids = new HashMap<>();
+        final String[] distinct = new String[count];
+        final int[] entryIds = new int[count];
+        for (int i = 0; i < count; i++) {
+            entryIds[i] = -1;
+            if (sources[i] == null) {
+                continue;
+            }
+            entries[i] = sources[i].toString();
+            final String key = key(entries[i], ignoreCase, ignoreAccents);
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = ids.size();
+                ids.put(key, id);
+                distinct[id] = key;
+            }
+            entryIds[i] = id;
+        }
+        final int size = ids.size();
+
+        // (长度, 编号) 打包为 long 后排序，长度相同的键保持第一次出现的顺序
+        final long[] order = new long[size];
+        for (int id = 0; id < size; id++) {
+            order[id] = (long) distinct[id].length() << 32 | id;
+        }
+        Arrays.sort(order);
+        final String[] keys = new String[size];
+        final int[] keyLengths = new int[size];
+        final long[] charMasks = new long[size];
+        final long[] bigramMasks = new long[size];
+        final int[] ranks = new int[size];
+        for (int rank = 0; rank < size; rank++) {
+            final int id = (int) order[rank];
+            final String key = distinct[id];
+            ranks[id] = rank;
+            keys[rank] = key;
+            keyLengths[rank] = key.length();
+            charMasks[rank] = charMask(key);
+            bigramMasks[rank] = bigramMask(key);
+        }
+
+        final int[] entryStart = new int[size + 1];
+        int entryCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (entryIds[i] >= 0) {
+                entryStart[ranks[entryIds[i]] + 1]++;
+                entryCount++;
+            }
+        }
+        for (int rank = 0; rank < size; rank++) {
+            entryStart[rank + 1] += entryStart[rank];
+        }
+        final int[] keyEntries = new int[entryCount];
+        final int[] fill = Arrays.copyOf(entryStart, size);
+        for (int i = 0; i < count; i++) {
+            if (entryIds[i] >= 0) {
+                keyEntries[fill[ranks[entryIds[i]]]++] = i;
+            }
+        }
+        return new FuzzyIndex(ignoreCase, ignoreAccents, entries, keys, keyLengths, charMasks, bigramMasks, entryStart, keyEntries);
+    }
+
+    private static String key(final String entry, final boolean ignoreCase, final boolean ignoreAccents) {
+        final String stripped = ignoreAccents ? StringAide.doStripAccents(entry) : entry;
+        if (!ignoreCase) {
+            return stripped;
+        }
+        final int length = stripped.length();
+        final char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = CharSet.fold(stripped.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private static long charMask(final String key) {
+        long mask = 0;
+        for (int i = 0; i < key.length(); i++) {
+            mask |= 1L << (key.charAt(i) & 63);
+        }
+        return mask;
+    }
+
+    private static long bigramMask(final String key) {
+        long mask = 0;
+        for (int i = 1; i < key.length(); i++) {
+            final int bigram = key.charAt(i - 1) << 16 | key.charAt(i);
+            mask |= 1L << ((bigram * 0x9E3779B1) >>> 26);
+        }
+        return mask;
+    }
+
+    /**
+     * <p>查找与 {@code query} 的编辑距离不超过 {@code maxDistance} 的所有元素。</p>
+     *
+     * @param query 查询串，为 null 时返回空列表
+     * @param maxDistance 最大编辑距离，不能小于 0
+     * @return 匹配的元素，按编辑距离升序排列，距离相同时按下标升序排列
+     * @throws IllegalArgumentException 如果 {@code maxDistance} 小于 0
+     * @since 1.0.0
+     */
+    public List<String> search(final CharSequence query, final int maxDistance) {
+        final Collector collector = new Collector();
+        search(query, maxDistance, collector);
+        if (collector.size == 0) {
+            return Collections.emptyList();
+        }
+        // (距离, 下标) 打包为 long 后排序
+        Arrays.sort(collector.found, 0, collector.size);
+        final List<String> result = new ArrayList<>(collector.size);
+        for (int i = 0; i < collector.size; i++) {
+            result.add(entries[(int) collector.found[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * <p>查找与 {@code query} 的编辑距离不超过 {@code maxDistance} 的所有元素，通过回调接收结果。</p>
+     *
+     * <p>回调按键的长度升序进行，不保证按距离排列。</p>
+     *
+     * @param query 查询串，为 null 时不回调
+     * @param maxDistance 最大编辑距离，不能小于 0
+     * @param handler 接收结果的回调
+     * @return 匹配的元素个数
+     * @throws IllegalArgumentException 如果 {@code maxDistance} 小于 0
+     * @since 1.0.0
+     */
+    public int search(final CharSequence query, final int maxDistance, final MatchHandler handler) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Max distance must not be negative: " + maxDistance);
+        }
+        if (query == null || keys.length == 0) {
+            return 0;
+        }
+        final String key = key(query.toString(), ignoreCase, ignoreAccents);
+        final int length = key.length();
+        final long charMask = charMask(key);
+        final long bigramMask = bigramMask(key);
+        final long bigramLimit = 2L * maxDistance;
+        int matches = 0;
+        for (int i = lowerBound(length - maxDistance); i < keys.length && keyLengths[i] - length <= maxDistance; i++) {
+            if (Long.bitCount(charMask & ~charMasks[i]) > maxDistance
+                    || Long.bitCount(charMasks[i] & ~charMask) > maxDistance
+                    || Long.bitCount(bigramMask & ~bigramMasks[i]) > bigramLimit
+                    || Long.bitCount(bigramMasks[i] & ~bigramMask) > bigramLimit) {
+                continue;
+            }
+            final int distance = EditDistance.levenshtein(key, keys[i], maxDistance);
+            if (distance < 0) {
+                continue;
+            }
+            for (int j = entryStart[i]; j < entryStart[i + 1]; j++) {
+                handler.onMatch(keyEntries[j], distance);
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return 第一个长度不小于 {@code length} 的键的位置
+     */
+    private int lowerBound(final int length) {
+        int low = 0;
+        int high = keyLengths.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (keyLengths[middle] < length) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static final class Collector implements MatchHandler {
+        private long[] found = new long[8];
+        private int size;
+
+        @Override
+        public void onMatch(final int entryIndex, final int distance) {
+            if (size == found.length) {
+                found = Arrays.copyOf(found, size * 2);
+            }
+            found[size++] = (long) distance << 32 | entryIndex;
+        }
+    }
+
+    /**
+     * @param index 元素的下标
+     * @return 指定下标的原始元素
+     * @since 1.0.0
+     */
+    public String getEntry(final int index) {
+        return entries[index];
+    }
+
+    /**
+     * @return 元素个数（包括被忽略的 {@code null} 元素）
+     * @since 1.0.0
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * @return 是否忽略大小写
+     * @since 1.0.0
+     */
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    /**
+     * @return 是否忽略重音符号
+     * @since 1.0.0
+     */
+    public boolean isIgnoreAccents() {
+        return ignoreAccents;
+    }
+}
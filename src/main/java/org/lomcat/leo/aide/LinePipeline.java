@@ -0,0 +1,500 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+
+package org.lomcat.leo.aide;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.UnaryOperator;
+
+/**
+ * <p>按行转换文本文件的处理管道，对每一行依次执行一组字符串操作（如 {@link StringAide#strip(String)}、
+ * {@link StringAide#replaceEach(String, String[], String[])}、{@link StringAide#deleteChars(String, String)}）。</p>
+ *
+ * <p>源文件按窗口通过内存映射读取并流式解码，行结束符可以是 {@link StringAide#CR}、{@link StringAide#LF} 或二者的组合 CRLF，
+ * 默认原样保留每一行的结束符；结果经编码后通过直接缓冲区写入目标文件的 {@link FileChannel}。
+ * 某个操作返回 {@code null} 时，该行（连同其结束符）被删除。</p>
+ *
+ * <p>开启 {@link #parallel(int)} 后，每 {@code blockLines} 行作为一个块提交到线程池处理，按原有顺序写出；
+ * 同时处理的块数有上限，内存占用与文件大小无关。实例不可变，可以在多个线程之间共享。</p>
+ *
+ * <pre>
+ * LinePipeline.of(StringAide::strip)
+ *         .then(line -&gt; StringAide.replaceEach(line, new String[]{"\t"}, new String[]{" "}))
+ *         .parallel(4096)
+ *         .transform(source, target);
+ * </pre>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public final class LinePipeline {
+
+    private static final String CRLF = StringAide.CR + StringAide.LF;
+    private static final int MAP_WINDOW = 16 << 20;
+    private static final int CHAR_BUFFER = 64 << 10;
+    private static final int STAGING_BUFFER = 64 << 10;
+    private static final int WRITE_BUFFER = 256 << 10;
+
+    private final List<UnaryOperator<String>> operations;
+    private final Charset charset;
+    /**
+     * 输出的行结束符，为 null 时保留原有的结束符
+     */
+    private final String lineSeparator;
+    private final Executor executor;
+    /**
+     * 每个并行块的行数，0 表示不并行
+     */
+    private final int blockLines;
+
+    private LinePipeline(final List<UnaryOperator<String>> operations, final Charset charset,
+                         final String lineSeparator, final Executor executor, final int blockLines) {
+        this.operations = operations;
+        this.charset = charset;
+        this.lineSeparator = lineSeparator;
+        this.executor = executor;
+        this.blockLines = blockLines;
+    }
+
+    /**
+     * <p>以一个操作创建处理管道，默认使用 UTF-8、保留原有的行结束符、不并行。</p>
+     *
+     * @param operation 对每一行执行的操作，返回 {@code null} 表示删除该行
+     * @return 处理管道
+     * @since 1.0.0
+     */
+    public static LinePipeline of(final UnaryOperator<String> operation) {
+        final List<UnaryOperator<String>> operations = new ArrayList<>();
+        operations.add(Objects.requireNonNull(operation, "operation"));
+        return new LinePipeline(operations, StandardCharsets.UTF_8, null, null, 0);
+    }
+
+    /**
+     * @param operation 在已有操作之后执行的操作，返回 {@code null} 表示删除该行
+     * @return 新的处理管道
+     * @since 1.0.0
+     */
+    public LinePipeline then(final UnaryOperator<String> operation) {
+        final List<UnaryOperator<String>> next = new ArrayList<>(operations);
+        next.add(Objects.requireNonNull(operation, "operation"));
+        return new LinePipeline(next, charset, lineSeparator, executor, blockLines);
+    }
+
+    /**
+     * @param charset 源文件和目标文件的字符集
+     * @return 新的处理管道
+     * @since 1.0.0
+     */
+    public LinePipeline charset(final Charset charset) {
+        return new LinePipeline(operations, Objects.requireNonNull(charset, "charset"), lineSeparator, executor, blockLines);
+    }
+
+    /**
+     * @param lineSeparator 输出统一使用的行结束符，为 null 时保留每一行原有的结束符
+     * @return 新的处理管道
+     * @since 1.0.0
+     */
+    public LinePipeline lineSeparator(final String lineSeparator) {
+        return new LinePipeline(operations, charset, lineSeparator, executor, blockLines);
+    }
+
+    /**
+     * <p>使用 {@link ForkJoinPool#commonPool()} 并行处理，每 {@code blockLines} 行为一个块。</p>
+     *
+     * @param blockLines 每个块的行数，必须大于 0
+     * @return 新的处理管道
+     * @throws IllegalArgumentException 如果 {@code blockLines} 不大于 0
+     * @since 1.0.0
+     */
+    public LinePipeline parallel(final int blockLines) {
+        return parallel(ForkJoinPool.commonPool(), blockLines);
+    }
+
+    /**
+     * <p>使用指定的线程池并行处理，每 {@code blockLines} 行为一个块，结果按原有顺序写出。</p>
+     *
+     * @param executor 线程池
+     * @param blockLines 每个块的行数，必须大于 0
+     * @return 新的处理管道
+     * @throws IllegalArgumentException 如果 {@code blockLines} 不大于 0
+     * @since 1.0.0
+     */
+    public LinePipeline parallel(final Executor executor, final int blockLines) {
+        if (blockLines <= 0) {
+            throw new IllegalArgumentException("Block lines must be positive: " + blockLines);
+        }
+        return new LinePipeline(operations, charset, lineSeparator, Objects.requireNonNull(executor, "executor"), blockLines);
+    }
+
+    /**
+     * <p>对一行文本依次执行所有操作。</p>
+     *
+     * @param line 一行文本（不含结束符）
+     * @return 处理后的文本，为 {@code null} 表示删除该行
+     * @since 1.0.0
+     */
+    public String apply(final String line) {
+        String result = line;
+        for (int i = 0, size = operations.size(); i < size && result != null; i++) {
+            result = operations.get(i).apply(result);
+        }
+        return result;
+    }
+
+    /**
+     * <p>转换 {@code source} 的每一行并写入 {@code target}，{@code target} 已存在时被覆盖。</p>
+     *
+     * <p>不合法或无法映射的字符按 {@link CodingErrorAction#REPLACE} 处理，与 {@link java.io.InputStreamReader} 一致。
+     * 源文件最后一行没有结束符时，输出的最后一行也没有结束符。</p>
+     *
+     * @param source 源文件
+     * @param target 目标文件，不能与源文件相同
+     * @return 写出的行数
+     * @throws IOException 如果读写失败
+     * @throws IllegalArgumentException 如果目标文件与源文件相同
+     * @since 1.0.0
+     */
+    public long transform(final Path source, final Path target) throws IOException {
+        if (Files.exists(target) && Files.isSameFile(source, target)) {
+            throw new IllegalArgumentException("Target must not be the same file as source: " + target);
+        }
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final Output output = new Output(out, charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE));
+            final Sink sink = blockLines > 0 ? new ParallelSink(output) : new SequentialSink(output);
+            read(in, sink);
+            sink.finish();
+            output.finish();
+            return sink.written;
+        }
+    }
+
+    private void read(final FileChannel channel, final Sink sink) throws IOException {
+        final CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER);
+        // 解码器只对堆缓冲区走批量快速路径，映射内容先批量复制到堆上的暂存区再解码，
+        // 窗口末尾不完整的多字节字符留在暂存区中与下一个窗口拼接
+        final ByteBuffer staging = ByteBuffer.allocate(STAGING_BUFFER);
+        final LineSplitter splitter = new LineSplitter(sink);
+        final long size = channel.size();
+        for (long position = 0; position < size; ) {
+            final long length = Math.min(MAP_WINDOW, size - position);
+            final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            position += length;
+            final boolean lastWindow = position == size;
+            while (window.hasRemaining()) {
+                final int count = Math.min(staging.remaining(), window.remaining());
+                window.get(staging.array(), staging.arrayOffset() + staging.position(), count);
+                staging.position(staging.position() + count);
+                staging.flip();
+                final boolean endOfInput = lastWindow && !window.hasRemaining();
+                while (decoder.decode(staging, chars, endOfInput).isOverflow()) {
+                    splitter.accept(chars);
+                }
+                splitter.accept(chars);
+                staging.compact();
+            }
+        }
+        if (size > 0) {
+            while (decoder.flush(chars).isOverflow()) {
+                splitter.accept(chars);
+            }
+            splitter.accept(chars);
+        }
+        splitter.finish();
+    }
+
+    /**
+     * <p>按 CR、LF、CRLF 拆分行，跨越缓冲区的行和 CRLF 都能正确处理。</p>
+     */
+    private static final class LineSplitter {
+        private final Sink sink;
+        private final StringBuilder line = new StringBuilder();
+        /**
+         * 上一个字符是 CR，需要根据下一个字符判断结束符是 CR 还是 CRLF
+         */
+        private boolean pendingCr;
+
+        private LineSplitter(final Sink sink) {
+            this.sink = sink;
+        }
+
+        /**
+         * 消费 {@code chars} 中已写入的字符，之后 {@code chars} 被清空以便继续写入
+         */
+        private void accept(final CharBuffer chars) throws IOException {
+            final char[] array = chars.array();
+            final int end = chars.arrayOffset() + chars.position();
+            int start = chars.arrayOffset();
+            chars.clear();
+            for (int i = start; i < end; i++) {
+                final char ch = array[i];
+                if (pendingCr) {
+                    pendingCr = false;
+                    if (ch == '\n') {
+                        emit(CRLF, line.toString());
+                        start = i + 1;
+                        continue;
+                    }
+                    emit(StringAide.CR, line.toString());
+                }
+                if (ch == '\n' || ch == '\r') {
+                    if (ch == '\n') {
+                        emit(StringAide.LF, take(array, start, i));
+                    } else {
+                        line.append(array, start, i - start);
+                        pendingCr = true;
+                    }
+                    start = i + 1;
+                }
+            }
+            line.append(array, start, end - start);
+        }
+
+        /**
+         * 行完全位于当前缓冲区中时直接创建字符串，避免经过 {@link #line} 多复制一次
+         */
+        private String take(final char[] array, final int start, final int end) {
+            if (line.length() == 0) {
+                return new String(array, start, end - start);
+            }
+            line.append(array, start, end - start);
+            return line.toString();
+        }
+
+        private void emit(final String terminator, final String content) throws IOException {
+            sink.line(content, terminator);
+            line.setLength(0);
+        }
+
+        private void finish() throws IOException {
+            if (pendingCr) {
+                pendingCr = false;
+                emit(StringAide.CR, line.toString());
+            }
+            if (line.length() > 0) {
+                emit(StringAide.EMPTY, line.toString());
+            }
+        }
+    }
+
+    private abstract class Sink {
+        final Output output;
+        long written;
+
+        Sink(final Output output) {
+            this.output = output;
+        }
+
+        abstract void line(String line, String terminator) throws IOException;
+
+        abstract void finish() throws IOException;
+
+        void write(final String line, final String terminator) throws IOException {
+            if (line == null) {
+                return;
+            }
+            output.write(line);
+            output.write(lineSeparator == null || terminator.isEmpty() ? terminator : lineSeparator);
+            written++;
+        }
+    }
+
+    private final class SequentialSink extends Sink {
+        SequentialSink(final Output output) {
+            super(output);
+        }
+
+        @Override
+        void line(final String line, final String terminator) throws IOException {
+            write(apply(line), terminator);
+        }
+
+        @Override
+        void finish() {
+        }
+    }
+
+    /**
+     * <p>按块提交到线程池，按提交顺序等待并写出，同时处理的块数有上限。</p>
+     */
+    private final class ParallelSink extends Sink {
+        private final int maxInFlight = Math.max(2, 2 * Runtime.getRuntime().availableProcessors());
+        private final ArrayDeque<CompletableFuture<String[]>> inFlight = new ArrayDeque<>();
+        private final ArrayDeque<String[]> terminators = new ArrayDeque<>();
+        private String[] lines = new String[blockLines];
+        private String[] lineTerminators = new String[blockLines];
+        private int size;
+
+        ParallelSink(final Output output) {
+            super(output);
+        }
+
+        @Override
+        void line(final String line, final String terminator) throws IOException {
+            lines[size] = line;
+            lineTerminators[size] = terminator;
+            if (++size == blockLines) {
+                submit();
+            }
+        }
+
+        private void submit() throws IOException {
+            final String[] block = size == lines.length ? lines : Arrays.copyOf(lines, size);
+            inFlight.add(CompletableFuture.supplyAsync(() -> {
+                for (int i = 0; i < block.length; i++) {
+                    block[i] = apply(block[i]);
+                }
+                return block;
+            }, executor));
+            terminators.add(lineTerminators);
+            lines = new String[blockLines];
+            lineTerminators = new String[blockLines];
+            size = 0;
+            while (inFlight.size() >= maxInFlight) {
+                drainOne();
+            }
+        }
+
+        private void drainOne() throws IOException {
+            final String[] block;
+            try {
+                block = inFlight.poll().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+            final String[] blockTerminators = terminators.poll();
+            for (int i = 0; i < block.length; i++) {
+                write(block[i], blockTerminators[i]);
+            }
+        }
+
+        @Override
+        void finish() throws IOException {
+            if (size > 0) {
+                submit();
+            }
+            while (!inFlight.isEmpty()) {
+                drainOne();
+            }
+        }
+    }
+
+    /**
+     * <p>先将字符收集到字符缓冲区，攒满后一次编码，直接缓冲区满时写入文件通道。</p>
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private final CharsetEncoder encoder;
+        private final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER);
+        private final ByteBuffer bytes = ByteBuffer.allocate(STAGING_BUFFER);
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER);
+
+        private Output(final FileChannel channel, final CharsetEncoder encoder) {
+            this.channel = channel;
+            this.encoder = encoder;
+        }
+
+        private void write(final String string) throws IOException {
+            final int length = string.length();
+            int offset = 0;
+            while (offset < length) {
+                if (!chars.hasRemaining()) {
+                    encode(false);
+                }
+                final int count = Math.min(length - offset, chars.remaining());
+                string.getChars(offset, offset + count, chars.array(), chars.arrayOffset() + chars.position());
+                chars.position(chars.position() + count);
+                offset += count;
+            }
+        }
+
+        private void encode(final boolean endOfInput) throws IOException {
+            chars.flip();
+            while (encoder.encode(chars, bytes, endOfInput).isOverflow()) {
+                transfer();
+            }
+            transfer();
+            // 末尾不完整的代理对留在缓冲区中，与后续字符一起编码
+            chars.compact();
+        }
+
+        private void finish() throws IOException {
+            encode(true);
+            while (encoder.flush(bytes).isOverflow()) {
+                transfer();
+            }
+            transfer();
+            drain();
+        }
+
+        /**
+         * 编码器同样只对堆缓冲区走快速路径，编码结果批量复制到直接缓冲区后再写入通道
+         */
+        private void transfer() throws IOException {
+            bytes.flip();
+            if (bytes.remaining() > buffer.remaining()) {
+                drain();
+            }
+            buffer.put(bytes);
+            bytes.clear();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,1736 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+
+package org.lomcat.leo.aide;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>以线性时间匹配的正则表达式，语法和匹配结果与 {@link Pattern} 相同，但只支持不需要回溯的子集。</p>
+ *
+ * <p>{@link Pattern} 是回溯实现，{@code "(a+)+$"} 这类表达式遇到 {@code "aaaa…b"} 时耗时随文本长度指数增长。
+ * 本类把表达式编译为 Thompson NFA，并用 Pike VM 同时推进所有可能的状态：每个文本位置上每条指令最多执行一次，
+ * 因此一次查找的耗时不超过 O(n·m)（n 为文本长度，m 为指令数），与表达式的写法无关。
+ * {@link #findAll(CharSequence)} 和 {@link #replaceAll(CharSequence, String)} 在相邻的查找之间记录已经确定无法匹配的线程状态，
+ * 全部查找的总耗时同样不超过 O(n·m)；记录占用的 int 数超过文本长度的 16 倍（且超过 {@code 1 << 22}）时停止记录，
+ * 此后每次查找都可能重新扫描到文本末尾，最坏 O(n²·m)。
+ * 线程按 {@link Pattern} 回溯时尝试的顺序排列优先级，所以匹配位置和分组的捕获结果与 {@link Matcher} 一致。</p>
+ *
+ * <p>支持的语法：</p>
+ * <ul>
+ *     <li>字面量，{@code \t \n \r \f \a \e \xhh \x{h…h} \cX}、Unicode 转义、转义的非字母数字字符和 {@code \Q…\E}；</li>
+ *     <li>{@code .}、{@code \d \D \s \S \w \W}，以及由字符、范围和上述预定义类组成的字符类 {@code [...]} 和 {@code [^...]}；</li>
+ *     <li>边界 {@code ^ $ \A \Z \z \b \B}；</li>
+ *     <li>捕获分组 {@code (...)}、命名分组 {@code (?<name>...)}、非捕获分组 {@code (?:...)} 和选择 {@code |}；</li>
+ *     <li>贪婪和勉强的量词 {@code ? * + {n} {n,} {n,m}}。</li>
+ * </ul>
+ *
+ * <p>反向引用、环视、独占量词、原子分组、内嵌标志、八进制转义、Unicode 属性 {@code \p{…}}、
+ * 嵌套和交集字符类等构造无法在线性时间内实现，或与 {@link Pattern} 的细节不易对齐，{@link #compile(String)}
+ * 遇到时抛出 {@link IllegalArgumentException}，不会静默地改用回溯实现。调用方可以先用 {@link #isSupported(String)}
+ * 判断，再显式地选择本类或 {@link Pattern}。有界量词会被展开，展开后的指令数不能超过 {@value #MAX_PROGRAM_SIZE}。</p>
+ *
+ * <p>整个匹配的位置总是与 {@link Matcher} 一致，分组的捕获结果在两种情况下可能不同：量词作用于可以匹配空串的分组时
+ * （如 {@code "(a?)*"}）；带量词的分组又位于外层循环中时（如 {@code "((\\w){1,3},)*"}），
+ * 本类与 Perl 一样返回最后一次迭代的捕获，而 {@link Matcher} 可能保留较早一次迭代的捕获。</p>
+ *
+ * <p>实例不可变，可以在多个线程之间共享。</p>
+ *
+ * <pre>
+ * LinearRegex regex = RegexAide.compileLinear("(a+)+$");
+ * regex.find("aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa!")   = false，耗时与文本长度成正比
+ * RegexAide.replaceAll("a1b22", RegexAide.compileLinear("(\\d+)"), "[$1]")   = "a[1]b[22]"
+ * LinearRegex.isSupported("(\\w)\\1")                   = false
+ * </pre>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public final class LinearRegex {
+
+    /**
+     * 展开有界量词之后允许的最大指令数
+     */
+    static final int MAX_PROGRAM_SIZE = 10000;
+    /**
+     * 每个线程保存的捕获位置总数（指令数 × 槽位数）的上限
+     */
+    private static final int MAX_CAPTURE_CELLS = 1 << 22;
+
+    private static final int OP_CHAR = 0;
+    private static final int OP_CLASS = 1;
+    private static final int OP_MATCH = 2;
+    private static final int OP_JUMP = 3;
+    /**
+     * 优先尝试 {@code a}，其次尝试 {@code b}
+     */
+    private static final int OP_SPLIT = 4;
+    /**
+     * 把当前位置保存到槽位 {@code a}
+     */
+    private static final int OP_SAVE = 5;
+    private static final int OP_ASSERT = 6;
+    /**
+     * 如果当前位置大于槽位 {@code a} 中记录的循环开始位置，跳到 {@code b} 继续循环，否则跳到 {@code c} 退出循环。
+     * 与 {@link Pattern} 一样，量词作用于可以匹配空串的部分时，匹配了空串的一次迭代之后不再继续迭代
+     */
+    private static final int OP_PROGRESS = 7;
+
+    private static final int ASSERT_BEGIN = 0;
+    private static final int ASSERT_END = 1;
+    private static final int ASSERT_DOLLAR = 2;
+    private static final int ASSERT_WORD_BOUNDARY = 3;
+    private static final int ASSERT_NOT_WORD_BOUNDARY = 4;
+
+    private static final int[] DIGIT = {'0', '9'};
+    private static final int[] SPACE = {'\t', '\r', ' ', ' '};
+    private static final int[] WORD = {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+    private static final int[] LINE_TERMINATORS = {'\n', '\n', '\r', '\r', '\u0085', '\u0085', '\u2028', '\u2029'};
+
+    /**
+     * {@code \b} 的单词字符定义在不同的 JDK 版本中不同：JDK 19 之前是 {@link Character#isLetterOrDigit(int)} 加下划线，
+     * 之后与 {@code \w} 一致只包含 ASCII 字符。在运行时探测当前 JDK 的行为，保证结果与 {@link Pattern} 相同
+     */
+    private static final boolean UNICODE_WORD_BOUNDARY = Pattern.compile("\\b").matcher("\u00E9").find();
+
+    private final String regex;
+    private final int groupCount;
+    private final Map<String, Integer> groupNames;
+    private final int[] op;
+    private final int[] a;
+    private final int[] b;
+    private final int[] c;
+    private final CharClass[] classes;
+    /**
+     * 每条指令所在的、需要进度检查的循环体的循环开始位置槽位，-1 表示不在其中
+     */
+    private final int[] guards;
+    /**
+     * 每个线程的槽位数：前 {@code 2 * (groupCount + 1)} 个是分组的开始和结束位置，其余是循环的开始位置
+     */
+    private final int slotCount;
+    /**
+     * 与 {@link Pattern} 一样，表达式可能匹配增补字符时不从代理对的中间开始匹配
+     */
+    private final boolean supplementary;
+
+    private LinearRegex(final String regex, final Parser parser, final Compiler compiler) {
+        this.regex = regex;
+        this.groupCount = parser.groupCount;
+        this.groupNames = parser.groupNames.isEmpty() ? Collections.<String, Integer>emptyMap() : parser.groupNames;
+        this.op = Arrays.copyOf(compiler.op, compiler.size);
+        this.a = Arrays.copyOf(compiler.a, compiler.size);
+        this.b = Arrays.copyOf(compiler.b, compiler.size);
+        this.c = Arrays.copyOf(compiler.c, compiler.size);
+        this.classes = Arrays.copyOf(compiler.classes, compiler.size);
+        this.guards = Arrays.copyOf(compiler.guards, compiler.size);
+        this.slotCount = compiler.slotCount;
+        this.supplementary = parser.supplementary || regex.codePoints().anyMatch(Character::isSupplementaryCodePoint);
+    }
+
+    /**
+     * <p>编译正则表达式。</p>
+     *
+     * @param regex 正则表达式
+     * @return 编译后的表达式
+     * @throws java.util.regex.PatternSyntaxException 如果正则表达式语法错误
+     * @throws IllegalArgumentException 如果正则表达式使用了不支持的构造，此时应改用 {@link Pattern}
+     * @since 1.0.0
+     */
+    public static LinearRegex compile(final String regex) {
+        // 先交给 Pattern 检查语法，语法错误的表达式抛出与 Pattern 相同的异常，下面的解析只需处理合法的表达式
+        Pattern.compile(regex);
+        final Parser parser = new Parser(regex);
+        final Node root = parser.alternation();
+        if (parser.position != regex.length()) {
+            throw unsupported(regex, parser.position, "unbalanced ')'");
+        }
+        final Compiler compiler = new Compiler(regex, 2 * (parser.groupCount + 1));
+        compiler.emit(OP_SAVE, 0, 0, 0);
+        compiler.emit(root);
+        compiler.emit(OP_SAVE, 1, 0, 0);
+        compiler.emit(OP_MATCH, 0, 0, 0);
+        if (2L * compiler.size * compiler.slotCount > MAX_CAPTURE_CELLS) {
+            throw unsupported(regex, 0, "too many groups for the program size");
+        }
+        return new LinearRegex(regex, parser, compiler);
+    }
+
+    /**
+     * <p>检查正则表达式能否由本类编译。</p>
+     *
+     * @param regex 正则表达式，为 null 时返回 {@code false}
+     * @return 语法正确且只使用了支持的构造时返回 {@code true}
+     * @since 1.0.0
+     */
+    public static boolean isSupported(final String regex) {
+        if (regex == null) {
+            return false;
+        }
+        try {
+            compile(regex);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return 编译时的正则表达式
+     * @since 1.0.0
+     */
+    public String pattern() {
+        return regex;
+    }
+
+    /**
+     * @return 捕获分组的个数
+     * @since 1.0.0
+     */
+    public int groupCount() {
+        return groupCount;
+    }
+
+    /**
+     * <p>检查 {@code text} 中是否存在匹配，相当于 {@link Matcher#find()}。</p>
+     *
+     * @param text 文本
+     * @return 存在匹配时返回 {@code true}
+     * @since 1.0.0
+     */
+    public boolean find(final CharSequence text) {
+        return new Machine(text).search(0, false, false);
+    }
+
+    /**
+     * <p>检查整个 {@code text} 是否与表达式匹配，相当于 {@link Matcher#matches()}。</p>
+     *
+     * @param text 文本
+     * @return 整个文本匹配时返回 {@code true}
+     * @since 1.0.0
+     */
+    public boolean matches(final CharSequence text) {
+        return new Machine(text).search(0, true, true);
+    }
+
+    /**
+     * <p>从 {@code text} 的开头查找第一个匹配。</p>
+     *
+     * @param text 文本
+     * @return 第一个匹配，没有匹配时返回 {@code null}
+     * @since 1.0.0
+     */
+    public Match findMatch(final CharSequence text) {
+        return findMatch(text, 0);
+    }
+
+    /**
+     * <p>从 {@code text} 的 {@code from} 位置开始查找第一个匹配，相当于 {@link Matcher#find(int)}。</p>
+     *
+     * @param text 文本
+     * @param from 开始查找的位置
+     * @return 第一个匹配，没有匹配时返回 {@code null}
+     * @throws IndexOutOfBoundsException 如果 {@code from} 小于 0 或大于文本长度
+     * @since 1.0.0
+     */
+    public Match findMatch(final CharSequence text, final int from) {
+        if (from < 0 || from > text.length()) {
+            throw new IndexOutOfBoundsException("Illegal start index");
+        }
+        final Machine machine = new Machine(text);
+        return machine.search(from, false, false) ? new Match(text, machine.groups.clone(), groupNames) : null;
+    }
+
+    /**
+     * <p>查找 {@code text} 中所有互不重叠的匹配，与反复调用 {@link Matcher#find()} 的结果相同。
+     * 总耗时为 O(n·m)，而不是每个匹配各 O(n·m)，见类说明。</p>
+     *
+     * @param text 文本
+     * @return 所有匹配，按位置升序
+     * @since 1.0.0
+     */
+    public List<Match> findAll(final CharSequence text) {
+        final Machine machine = new Machine(text, true);
+        final List<Match> result = new ArrayList<>();
+        int from = 0;
+        while (from <= text.length() && machine.search(from, false, false)) {
+            final int[] groups = machine.groups.clone();
+            result.add(new Match(text, groups, groupNames));
+            from = groups[0] == groups[1] ? groups[1] + 1 : groups[1];
+        }
+        return result;
+    }
+
+    /**
+     * <p>将 {@code text} 中所有匹配的部分替换为 {@code replacement}，结果与 {@link Matcher#replaceAll(String)} 相同。
+     * 总耗时为 O(n·m)，而不是每个匹配各 O(n·m)，见类说明。</p>
+     *
+     * @param text 文本
+     * @param replacement 替换串，可以包含 {@code $n}、{@code ${name}} 分组引用和 {@code \} 转义
+     * @return 替换后的字符串
+     * @throws IllegalArgumentException 如果替换串语法错误或引用了不存在的命名分组
+     * @throws IndexOutOfBoundsException 如果替换串引用了不存在的分组
+     * @since 1.0.0
+     */
+    public String replaceAll(final CharSequence text, final String replacement) {
+        return replace(text, replacement, true);
+    }
+
+    /**
+     * <p>将 {@code text} 中第一个匹配的部分替换为 {@code replacement}，结果与 {@link Matcher#replaceFirst(String)} 相同。</p>
+     *
+     * @param text 文本
+     * @param replacement 替换串，可以包含 {@code $n}、{@code ${name}} 分组引用和 {@code \} 转义
+     * @return 替换后的字符串
+     * @throws IllegalArgumentException 如果替换串语法错误或引用了不存在的命名分组
+     * @throws IndexOutOfBoundsException 如果替换串引用了不存在的分组
+     * @since 1.0.0
+     */
+    public String replaceFirst(final CharSequence text, final String replacement) {
+        return replace(text, replacement, false);
+    }
+
+    private String replace(final CharSequence text, final String replacement, final boolean all) {
+        final Machine machine = new Machine(text, all);
+        if (!machine.search(0, false, false)) {
+            return text.toString();
+        }
+        // 与 Matcher 一样，替换串在第一次匹配时才解析，没有匹配时即使替换串非法也不抛出异常
+        final Replacement parsed = new Replacement(replacement);
+        final int length = text.length();
+        final int[] groups = machine.groups;
+        final StringBuilder builder = new StringBuilder(length + 16);
+        int appendPosition = 0;
+        while (true) {
+            final int start = groups[0];
+            final int end = groups[1];
+            builder.append(text, appendPosition, start);
+            parsed.appendTo(builder, text, groups);
+            appendPosition = end;
+            final int next = start == end ? end + 1 : end;
+            if (!all || next > length || !machine.search(next, false, false)) {
+                break;
+            }
+        }
+        builder.append(text, appendPosition, length);
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return regex;
+    }
+
+    private static IllegalArgumentException unsupported(final String regex, final int index, final String construct) {
+        return new IllegalArgumentException("Unsupported construct for linear matching, " + construct
+                + " near index " + index + ": " + regex);
+    }
+
+    private static boolean isWord(final int ch) {
+        if (UNICODE_WORD_BOUNDARY) {
+            return ch == '_' || Character.isLetterOrDigit(ch);
+        }
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9') || ch == '_';
+    }
+
+    /**
+     * <p>一次匹配的结果。</p>
+     *
+     * @since 1.0.0
+     */
+    public static final class Match {
+        private final CharSequence text;
+        /**
+         * 每个分组的开始和结束位置，未参与匹配的分组为 -1
+         */
+        private final int[] groups;
+        private final Map<String, Integer> groupNames;
+
+        private Match(final CharSequence text, final int[] groups, final Map<String, Integer> groupNames) {
+            this.text = text;
+            this.groups = groups;
+            this.groupNames = groupNames;
+        }
+
+        /**
+         * @return 匹配在文本中的开始位置
+         */
+        public int getStart() {
+            return groups[0];
+        }
+
+        /**
+         * @return 匹配在文本中的结束位置（不包含）
+         */
+        public int getEnd() {
+            return groups[1];
+        }
+
+        /**
+         * @param group 分组序号，0 表示整个匹配
+         * @return 分组在文本中的开始位置，分组未参与匹配时返回 -1
+         * @throws IndexOutOfBoundsException 如果分组不存在
+         */
+        public int getStart(final int group) {
+            return groups[2 * checkGroup(group)];
+        }
+
+        /**
+         * @param group 分组序号，0 表示整个匹配
+         * @return 分组在文本中的结束位置（不包含），分组未参与匹配时返回 -1
+         * @throws IndexOutOfBoundsException 如果分组不存在
+         */
+        public int getEnd(final int group) {
+            return groups[2 * checkGroup(group) + 1];
+        }
+
+        /**
+         * @return 捕获分组的个数
+         */
+        public int groupCount() {
+            return groups.length / 2 - 1;
+        }
+
+        /**
+         * @return 匹配的文本
+         */
+        public String group() {
+            return group(0);
+        }
+
+        /**
+         * @param group 分组序号，0 表示整个匹配
+         * @return 分组匹配的文本，分组未参与匹配时返回 {@code null}
+         * @throws IndexOutOfBoundsException 如果分组不存在
+         */
+        public String group(final int group) {
+            final int start = getStart(group);
+            return start == -1 ? null : text.subSequence(start, groups[2 * group + 1]).toString();
+        }
+
+        /**
+         * @param name 分组名称
+         * @return 命名分组匹配的文本，分组未参与匹配时返回 {@code null}
+         * @throws IllegalArgumentException 如果命名分组不存在
+         */
+        public String group(final String name) {
+            final Integer group = groupNames.get(name);
+            if (group == null) {
+                throw new IllegalArgumentException("No group with name <" + name + ">");
+            }
+            return group(group);
+        }
+
+        private int checkGroup(final int group) {
+            if (group < 0 || group > groupCount()) {
+                throw new IndexOutOfBoundsException("No group " + group);
+            }
+            return group;
+        }
+
+        @Override
+        public String toString() {
+            return group() + "@" + getStart();
+        }
+    }
+
+    /**
+     * <p>解析后的替换串，由字面量和分组引用交替组成，语法和异常与 {@link Matcher#appendReplacement} 相同。</p>
+     */
+    private final class Replacement {
+        private final List<String> literals = new ArrayList<>();
+        /**
+         * 与 {@link #literals} 一一对应，字面量之后引用的分组，-1 表示没有
+         */
+        private final List<Integer> references = new ArrayList<>();
+
+        private Replacement(final String replacement) {
+            final int length = replacement.length();
+            final StringBuilder literal = new StringBuilder();
+            int cursor = 0;
+            while (cursor < length) {
+                char ch = replacement.charAt(cursor);
+                if (ch == '\\') {
+                    cursor++;
+                    if (cursor == length) {
+                        throw new IllegalArgumentException("character to be escaped is missing");
+                    }
+                    literal.append(replacement.charAt(cursor++));
+                } else if (ch == '$') {
+                    cursor++;
+                    if (cursor == length) {
+                        throw new IllegalArgumentException("Illegal group reference: group index is missing");
+                    }
+                    ch = replacement.charAt(cursor);
+                    int reference;
+                    if (ch == '{') {
+                        cursor++;
+                        final int begin = cursor;
+                        while (cursor < length && isAsciiLetterOrDigit(ch = replacement.charAt(cursor))) {
+                            cursor++;
+                        }
+                        if (begin == cursor) {
+                            throw new IllegalArgumentException("named capturing group has 0 length name");
+                        }
+                        if (ch != '}') {
+                            throw new IllegalArgumentException("named capturing group is missing trailing '}'");
+                        }
+                        final String name = replacement.substring(begin, cursor);
+                        if (name.charAt(0) >= '0' && name.charAt(0) <= '9') {
+                            throw new IllegalArgumentException("capturing group name {" + name + "} starts with digit character");
+                        }
+                        final Integer number = groupNames.get(name);
+                        if (number == null) {
+                            throw new IllegalArgumentException("No group with name {" + name + "}");
+                        }
+                        reference = number;
+                        cursor++;
+                    } else {
+                        reference = ch - '0';
+                        if (reference < 0 || reference > 9) {
+                            throw new IllegalArgumentException("Illegal group reference");
+                        }
+                        cursor++;
+                        // 与 Matcher 一样，尽可能多地读取不超过分组个数的数字
+                        while (cursor < length) {
+                            final int digit = replacement.charAt(cursor) - '0';
+                            if (digit < 0 || digit > 9 || reference * 10 + digit > groupCount) {
+                                break;
+                            }
+                            reference = reference * 10 + digit;
+                            cursor++;
+                        }
+                        if (reference > groupCount) {
+                            throw new IndexOutOfBoundsException("No group " + reference);
+                        }
+                    }
+                    literals.add(literal.toString());
+                    references.add(reference);
+                    literal.setLength(0);
+                } else {
+                    literal.append(ch);
+                    cursor++;
+                }
+            }
+            literals.add(literal.toString());
+            references.add(-1);
+        }
+
+        private void appendTo(final StringBuilder builder, final CharSequence text, final int[] groups) {
+            for (int i = 0; i < literals.size(); i++) {
+                builder.append(literals.get(i));
+                final int reference = references.get(i);
+                if (reference >= 0 && groups[2 * reference] != -1 && groups[2 * reference + 1] != -1) {
+                    builder.append(text, groups[2 * reference], groups[2 * reference + 1]);
+                }
+            }
+        }
+    }
+
+    private static boolean isAsciiLetterOrDigit(final char ch) {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9');
+    }
+
+    /**
+     * <p>一次查找的运行状态，可以在同一个文本上反复查找。</p>
+     *
+     * <p>{@link #lists} 是分别对应当前位置、下一个位置和再下一个位置的线程列表：
+     * 增补字符占两个 {@code char}，消耗它的线程直接进入再下一个位置。</p>
+     *
+     * <p>连续查找时（{@link #memoize}），每次查找在最后一次到达匹配指令之后访问过的线程状态都不可能再到达匹配：
+     * 线程状态（见 {@link #state(int, int)}）和位置决定了之后的全部走向，而这些状态之后的路径都已经走完。
+     * 这些状态按位置记录下来，之后的查找预先把它们标记为已访问，不再重复推进。
+     * 否则每次查找中优先级更高、但最终失败的线程（如 {@code "a.*b|a"} 中的 {@code a.*b}）都会重新扫描到文本末尾，
+     * 查找全部匹配的耗时变为 O(n²·m)。每个位置上的每个状态最多被记录一次，因此全部查找的总耗时仍为 O(n·m)。</p>
+     */
+    private final class Machine {
+        private final CharSequence text;
+        private final int length;
+        /**
+         * 是否记录并跳过不可能到达匹配的线程状态
+         */
+        private boolean memoize;
+        /**
+         * 每个位置上最近记录的块在 {@link #deadPool} 中的下标，-1 表示没有
+         */
+        private int[] deadHeads;
+        /**
+         * 按块保存的不可能到达匹配的线程状态，每块依次为位置、同一位置上前一个块的下标、状态数和各个状态
+         */
+        private int[] deadPool;
+        private int deadSize;
+        /**
+         * 本次查找记录的第一个块的下标
+         */
+        private int searchDeadStart;
+        private final Threads[] lists = {new Threads(), new Threads(), new Threads()};
+        private final int[] scratch = new int[slotCount];
+        private final int[] stackPcs = new int[2 * op.length + 1];
+        private final int[] stackValues = new int[2 * op.length + 1];
+        /**
+         * 最近计算过的 4 个位置上的单词边界，同一个位置在不同指令上只计算一次
+         */
+        private final int[] boundaryPositions = {-1, -1, -1, -1};
+        private final boolean[] boundaryValues = new boolean[4];
+        /**
+         * 每个位置上的非间距标记是否有基字符：0 未计算，1 有，2 没有
+         */
+        private byte[] bases;
+        private final int[] groups = new int[2 * (groupCount + 1)];
+
+        private Machine(final CharSequence text) {
+            this.text = text;
+            this.length = text.length();
+        }
+
+        private Machine(final CharSequence text, final boolean memoize) {
+            this(text);
+            this.memoize = memoize;
+        }
+
+        /**
+         * <p>从 {@code from} 开始查找，成功时把捕获结果写入 {@link #groups}。</p>
+         *
+         * @param anchored 只在 {@code from} 处开始匹配
+         * @param requireEnd 只接受在文本末尾结束的匹配
+         */
+        private boolean search(final int from, final boolean anchored, final boolean requireEnd) {
+            for (Threads list : lists) {
+                list.clear();
+            }
+            if (memoize) {
+                searchDeadStart = deadSize;
+                for (int i = 0; i < lists.length; i++) {
+                    preload(lists[(from + i) % 3], from + i);
+                }
+            }
+            boolean matched = false;
+            int lastMatch = -1;
+            for (int position = from; ; position++) {
+                final Threads current = lists[position % 3];
+                if (!matched && (position == from || !anchored) && isStart(position, from)) {
+                    // 新线程的优先级最低，排在从更早位置开始的线程之后
+                    Arrays.fill(scratch, -1);
+                    add(current, 0, position);
+                }
+                final int codePoint = position < length ? Character.codePointAt(text, position) : -1;
+                final int next = position + (codePoint > Character.MAX_VALUE ? 2 : 1);
+                final Threads nextList = lists[next % 3];
+                for (int t = 0; t < current.count; t++) {
+                    final int pc = current.pcs[t];
+                    final boolean step;
+                    switch (op[pc]) {
+                        case OP_CHAR:
+                            step = codePoint == a[pc];
+                            break;
+                        case OP_CLASS:
+                            step = codePoint >= 0 && classes[pc].contains(codePoint);
+                            break;
+                        default:
+                            if (requireEnd && position != length) {
+                                continue;
+                            }
+                            System.arraycopy(current.caps, t * slotCount, groups, 0, groups.length);
+                            matched = true;
+                            if (memoize && lastMatch != position) {
+                                // 之前记录的状态在这次匹配之前，不能断定它们到达不了匹配
+                                lastMatch = position;
+                                forget();
+                            }
+                            // 优先级更低的线程不可能再产生更优的匹配
+                            t = current.count;
+                            continue;
+                    }
+                    if (step) {
+                        System.arraycopy(current.caps, t * slotCount, scratch, 0, slotCount);
+                        add(nextList, pc + 1, next);
+                    }
+                }
+                if (memoize && lastMatch != position) {
+                    record(current, position);
+                }
+                current.clear();
+                if (memoize) {
+                    preload(current, position + 3);
+                }
+                if (position >= length) {
+                    return matched;
+                }
+                if ((matched || anchored) && lists[(position + 1) % 3].isEmpty() && lists[(position + 2) % 3].isEmpty()) {
+                    return matched;
+                }
+            }
+        }
+
+        /**
+         * 把 {@code position} 上已知不可能到达匹配的状态标记为已访问
+         */
+        private void preload(final Threads list, final int position) {
+            if (deadHeads == null || position > length) {
+                return;
+            }
+            for (int block = deadHeads[position]; block >= 0; block = deadPool[block + 1]) {
+                for (int i = block + 3, end = i + deadPool[block + 2]; i < end; i++) {
+                    list.visit(deadPool[i]);
+                }
+            }
+            list.preloaded = list.visited;
+        }
+
+        /**
+         * 记录 {@code list} 在 {@code position} 上新访问的状态。记录超出上限时停止记录，之后的查找退化为不跳过任何状态
+         */
+        private void record(final Threads list, final int position) {
+            final int count = list.visited - list.preloaded;
+            if (count == 0) {
+                return;
+            }
+            final int required = deadSize + 3 + count;
+            if (deadPool == null || required > deadPool.length) {
+                final long limit = Math.max(MAX_CAPTURE_CELLS, 16L * (length + 1));
+                if (required > limit) {
+                    memoize = false;
+                    return;
+                }
+                if (deadPool == null) {
+                    deadHeads = new int[length + 1];
+                    Arrays.fill(deadHeads, -1);
+                    deadPool = new int[Math.max(required, 64)];
+                } else {
+                    deadPool = Arrays.copyOf(deadPool, (int) Math.min(limit, Math.max(required, 2L * deadPool.length)));
+                }
+            }
+            deadPool[deadSize] = position;
+            deadPool[deadSize + 1] = deadHeads[position];
+            deadPool[deadSize + 2] = count;
+            System.arraycopy(list.dense, list.preloaded, deadPool, deadSize + 3, count);
+            deadHeads[position] = deadSize;
+            deadSize = required;
+        }
+
+        /**
+         * 撤销本次查找的所有记录，每个位置上最多有一个本次查找的块
+         */
+        private void forget() {
+            for (int block = searchDeadStart; block < deadSize; block += 3 + deadPool[block + 2]) {
+                deadHeads[deadPool[block]] = deadPool[block + 1];
+            }
+            deadSize = searchDeadStart;
+        }
+
+        /**
+         * 与 {@link Pattern} 的起始节点一致：表达式包含增补字符时跳过代理对中的低代理项
+         */
+        private boolean isStart(final int position, final int from) {
+            return !supplementary || position == from || position >= length
+                    || !Character.isLowSurrogate(text.charAt(position)) || !Character.isHighSurrogate(text.charAt(position - 1));
+        }
+
+        /**
+         * <p>从 {@code start} 出发沿所有不消耗字符的指令加入线程，{@link #scratch} 为当前的捕获位置。</p>
+         *
+         * <p>使用显式栈代替递归：{@code OP_SAVE} 在修改槽位前把旧值压栈，回溯到这里时恢复，
+         * 因此优先级较低的分支看到的仍是进入分支之前的捕获位置。</p>
+         */
+        private void add(final Threads list, final int start, final int position) {
+            int top = 0;
+            stackPcs[top++] = start;
+            while (top > 0) {
+                top--;
+                int pc = stackPcs[top];
+                if (pc < 0) {
+                    scratch[-1 - pc] = stackValues[top];
+                    continue;
+                }
+                follow:
+                while (!list.visit(state(pc, position))) {
+                    switch (op[pc]) {
+                        case OP_JUMP:
+                            pc = a[pc];
+                            break;
+                        case OP_SPLIT:
+                            stackPcs[top++] = b[pc];
+                            pc = a[pc];
+                            break;
+                        case OP_SAVE:
+                            stackPcs[top] = -1 - a[pc];
+                            stackValues[top++] = scratch[a[pc]];
+                            scratch[a[pc]] = position;
+                            pc++;
+                            break;
+                        case OP_PROGRESS:
+                            pc = position > scratch[a[pc]] ? b[pc] : c[pc];
+                            break;
+                        case OP_ASSERT:
+                            if (!check(a[pc], position)) {
+                                break follow;
+                            }
+                            pc++;
+                            break;
+                        default:
+                            list.add(pc, scratch, slotCount);
+                            break follow;
+                    }
+                }
+            }
+        }
+
+        /**
+         * <p>线程的去重键。循环体中的指令在同一位置上可能以“本次迭代已经前进”和“本次迭代尚未前进”两种状态到达，
+         * 两者在进度检查处的走向不同，需要分别去重；其余指令只取决于指令本身。</p>
+         */
+        private int state(final int pc, final int position) {
+            final int slot = guards[pc];
+            return slot >= 0 && scratch[slot] == position ? 2 * pc + 1 : 2 * pc;
+        }
+
+        private boolean check(final int assertion, final int position) {
+            switch (assertion) {
+                case ASSERT_BEGIN:
+                    return position == 0;
+                case ASSERT_END:
+                    return position == length;
+                case ASSERT_DOLLAR:
+                    return isDollar(position);
+                case ASSERT_WORD_BOUNDARY:
+                    return isBoundary(position);
+                default:
+                    return !isBoundary(position);
+            }
+        }
+
+        /**
+         * 与 {@link Pattern} 非多行模式的 {@code $} 相同：文本末尾，或末尾的行终止符之前，{@code \r\n} 视为一个行终止符
+         */
+        private boolean isDollar(final int position) {
+            if (position < length - 2) {
+                return false;
+            }
+            if (position == length - 2 && (text.charAt(position) != '\r' || text.charAt(position + 1) != '\n')) {
+                return false;
+            }
+            if (position < length) {
+                final char ch = text.charAt(position);
+                if (ch == '\n') {
+                    return position == 0 || text.charAt(position - 1) != '\r';
+                }
+                return ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029';
+            }
+            return true;
+        }
+
+        private boolean isBoundary(final int position) {
+            final int slot = position & 3;
+            if (boundaryPositions[slot] == position) {
+                return boundaryValues[slot];
+            }
+            boolean left = false;
+            if (position > 0) {
+                final int ch = Character.codePointBefore(text, position);
+                left = isWord(ch) || (Character.getType(ch) == Character.NON_SPACING_MARK && hasBase(position - 1));
+            }
+            boolean right = false;
+            if (position < length) {
+                final int ch = Character.codePointAt(text, position);
+                right = isWord(ch) || (Character.getType(ch) == Character.NON_SPACING_MARK && hasBase(position));
+            }
+            boundaryPositions[slot] = position;
+            boundaryValues[slot] = left ^ right;
+            return left ^ right;
+        }
+
+        /**
+         * <p>与 {@link Pattern} 相同：非间距标记向前找到的第一个非标记字符是字母或数字时才视为单词字符。
+         * 结果按位置缓存，连续的标记只向前扫描一次。</p>
+         */
+        private boolean hasBase(final int index) {
+            if (bases == null) {
+                bases = new byte[length];
+            }
+            int x = index;
+            byte result = 2;
+            for (; x >= 0; x--) {
+                if (bases[x] != 0) {
+                    result = bases[x];
+                    break;
+                }
+                final int ch = Character.codePointAt(text, x);
+                if (Character.isLetterOrDigit(ch)) {
+                    result = 1;
+                    break;
+                }
+                if (Character.getType(ch) != Character.NON_SPACING_MARK) {
+                    break;
+                }
+            }
+            for (int i = Math.max(x, 0); i <= index; i++) {
+                bases[i] = result;
+            }
+            return result == 1;
+        }
+    }
+
+    /**
+     * <p>一个文本位置上的线程列表。{@link #sparse} 和 {@link #dense} 组成稀疏集合，记录该位置上已经访问过的线程状态；
+     * 停在消耗字符或匹配指令上的线程按优先级顺序保存在 {@link #pcs} 中，捕获位置保存在 {@link #caps} 中。</p>
+     */
+    private final class Threads {
+        private final int[] sparse = new int[2 * op.length];
+        private final int[] dense = new int[2 * op.length];
+        private int visited;
+        /**
+         * {@link #dense} 中预先标记的、已知不可能到达匹配的状态数
+         */
+        private int preloaded;
+        private final int[] pcs = new int[2 * op.length];
+        private int[] caps = new int[slotCount * 4];
+        private int count;
+
+        /**
+         * @return 状态已经访问过时返回 {@code true}，否则标记为已访问并返回 {@code false}
+         */
+        private boolean visit(final int state) {
+            final int index = sparse[state];
+            if (index < visited && dense[index] == state) {
+                return true;
+            }
+            sparse[state] = visited;
+            dense[visited++] = state;
+            return false;
+        }
+
+        private void add(final int pc, final int[] slots, final int slotCount) {
+            if ((count + 1) * slotCount > caps.length) {
+                caps = Arrays.copyOf(caps, Math.max(caps.length * 2, (count + 1) * slotCount));
+            }
+            System.arraycopy(slots, 0, caps, count * slotCount, slotCount);
+            pcs[count++] = pc;
+        }
+
+        private boolean isEmpty() {
+            return count == 0;
+        }
+
+        private void clear() {
+            visited = 0;
+            preloaded = 0;
+            count = 0;
+        }
+    }
+
+    /**
+     * <p>字符类：Latin-1 范围内查表，其余代码点在有序的区间数组中二分查找。</p>
+     */
+    private static final class CharClass {
+        private final boolean[] latin1 = new boolean[256];
+        /**
+         * 有序且互不相交的闭区间 {@code [lo0, hi0, lo1, hi1, ...]}
+         */
+        private final int[] ranges;
+
+        private CharClass(final int[] ranges) {
+            this.ranges = ranges;
+            for (int i = 0; i < ranges.length && ranges[i] < 256; i += 2) {
+                for (int ch = ranges[i]; ch <= Math.min(ranges[i + 1], 255); ch++) {
+                    latin1[ch] = true;
+                }
+            }
+        }
+
+        private boolean contains(final int codePoint) {
+            if (codePoint < 256) {
+                return latin1[codePoint];
+            }
+            int low = 0;
+            int high = ranges.length / 2 - 1;
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                if (codePoint < ranges[2 * middle]) {
+                    high = middle - 1;
+                } else if (codePoint > ranges[2 * middle + 1]) {
+                    low = middle + 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * <p>收集字符类的区间，最后排序、合并，需要时取补集。</p>
+     */
+    private static final class RangeBuilder {
+        private int[] ranges = new int[16];
+        private int size;
+
+        private void add(final int low, final int high) {
+            if (size + 2 > ranges.length) {
+                ranges = Arrays.copyOf(ranges, ranges.length * 2);
+            }
+            ranges[size++] = low;
+            ranges[size++] = high;
+        }
+
+        private void addAll(final int[] predefined, final boolean negate) {
+            final int[] source = negate ? complement(predefined) : predefined;
+            for (int i = 0; i < source.length; i += 2) {
+                add(source[i], source[i + 1]);
+            }
+        }
+
+        private CharClass build(final boolean negate) {
+            final long[] order = new long[size / 2];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = ((long) ranges[2 * i] << 32) | ranges[2 * i + 1];
+            }
+            Arrays.sort(order);
+            final int[] merged = new int[size];
+            int count = 0;
+            for (long range : order) {
+                final int low = (int) (range >>> 32);
+                final int high = (int) range;
+                if (count > 0 && low <= merged[count - 1] + 1) {
+                    merged[count - 1] = Math.max(merged[count - 1], high);
+                } else {
+                    merged[count++] = low;
+                    merged[count++] = high;
+                }
+            }
+            final int[] result = Arrays.copyOf(merged, count);
+            return new CharClass(negate ? complement(result) : result);
+        }
+
+        /**
+         * @param ranges 有序且互不相交的闭区间
+         * @return 在所有代码点范围内的补集
+         */
+        private static int[] complement(final int[] ranges) {
+            final int[] result = new int[ranges.length + 2];
+            int count = 0;
+            int next = 0;
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (ranges[i] > next) {
+                    result[count++] = next;
+                    result[count++] = ranges[i] - 1;
+                }
+                next = ranges[i + 1] + 1;
+            }
+            if (next <= Character.MAX_CODE_POINT) {
+                result[count++] = next;
+                result[count++] = Character.MAX_CODE_POINT;
+            }
+            return Arrays.copyOf(result, count);
+        }
+    }
+
+    private static final int NODE_CHAR = 0;
+    private static final int NODE_CLASS = 1;
+    private static final int NODE_ASSERT = 2;
+    private static final int NODE_CONCAT = 3;
+    private static final int NODE_ALTERNATE = 4;
+    private static final int NODE_GROUP = 5;
+    private static final int NODE_REPEAT = 6;
+
+    /**
+     * <p>语法树节点。</p>
+     */
+    private static final class Node {
+        private final int kind;
+        /**
+         * 字符的代码点、断言的种类或分组的序号（非捕获分组为 -1）
+         */
+        private final int value;
+        private final CharClass charClass;
+        private final List<Node> children;
+        private final int min;
+        /**
+         * 量词的上限，-1 表示无上限
+         */
+        private final int max;
+        private final boolean greedy;
+        /**
+         * 量词是否为 {@code ?}，{@link Pattern} 将其编译为分支而不是计数循环
+         */
+        private final boolean question;
+        /**
+         * 可以匹配空串的无上限量词用来记录循环开始位置的槽位，在第一次生成指令时分配
+         */
+        private int loopSlot = -1;
+
+        private Node(final int kind, final int value, final CharClass charClass, final List<Node> children,
+                     final int min, final int max, final boolean greedy, final boolean question) {
+            this.kind = kind;
+            this.value = value;
+            this.charClass = charClass;
+            this.children = children;
+            this.min = min;
+            this.max = max;
+            this.greedy = greedy;
+            this.question = question;
+        }
+
+        private static Node leaf(final int kind, final int value, final CharClass charClass) {
+            return new Node(kind, value, charClass, Collections.<Node>emptyList(), 0, 0, false, false);
+        }
+
+        private static Node branch(final int kind, final int value, final List<Node> children) {
+            return new Node(kind, value, null, children, 0, 0, false, false);
+        }
+
+        private static Node repeat(final Node child, final int min, final int max,
+                                   final boolean greedy, final boolean question) {
+            return new Node(NODE_REPEAT, 0, null, Collections.singletonList(child), min, max, greedy, question);
+        }
+
+        /**
+         * <p>只包含断言（以及由断言组成的分组和固定次数的量词）的节点总是匹配空串，
+         * 并且每个位置上只有一种匹配方式。</p>
+         *
+         * @return 节点只能以唯一的方式匹配空串时返回 {@code true}
+         */
+        private boolean isEmptyOnly() {
+            switch (kind) {
+                case NODE_ASSERT:
+                    return true;
+                case NODE_CONCAT:
+                case NODE_GROUP:
+                    for (Node child : children) {
+                        if (!child.isEmptyOnly()) {
+                            return false;
+                        }
+                    }
+                    return true;
+                case NODE_REPEAT:
+                    return min == max && children.get(0).isEmptyOnly();
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * @return 能够匹配空串时返回 {@code true}
+         */
+        private boolean isNullable() {
+            switch (kind) {
+                case NODE_CHAR:
+                case NODE_CLASS:
+                    return false;
+                case NODE_ALTERNATE:
+                    for (Node child : children) {
+                        if (child.isNullable()) {
+                            return true;
+                        }
+                    }
+                    return false;
+                case NODE_REPEAT:
+                    return min == 0 || children.get(0).isNullable();
+                default:
+                    for (Node child : children) {
+                        if (!child.isNullable()) {
+                            return false;
+                        }
+                    }
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * <p>按 {@link Pattern} 的语法递归解析表达式，遇到不支持的构造时抛出 {@link IllegalArgumentException}。
+     * 表达式已经通过了 {@link Pattern#compile(String)} 的检查，所以这里不再处理语法错误。</p>
+     */
+    private static final class Parser {
+        private final String regex;
+        private final int length;
+        private int position;
+        private int groupCount;
+        private final Map<String, Integer> groupNames = new HashMap<>();
+        /**
+         * <p>{@link Pattern} 在表达式包含增补字符，或者生成了可能匹配增补字符的字符谓词时，改用跳过低代理项的起始节点。
+         * 后者包括取反的字符类、{@code \D \S \W}、跨越代理区的范围，以及单独成为一个原子的增补字符；
+         * 连续字面量中的增补字符转义不在此列。这里按同样的规则记录，以得到相同的匹配结果。</p>
+         */
+        private boolean supplementary;
+
+        private Parser(final String regex) {
+            this.regex = regex;
+            this.length = regex.length();
+        }
+
+        private Node alternation() {
+            final List<Node> branches = new ArrayList<>();
+            branches.add(sequence());
+            while (position < length && regex.charAt(position) == '|') {
+                position++;
+                branches.add(sequence());
+            }
+            return branches.size() == 1 ? branches.get(0) : Node.branch(NODE_ALTERNATE, 0, branches);
+        }
+
+        private Node sequence() {
+            final List<Node> items = new ArrayList<>();
+            while (position < length) {
+                final char ch = regex.charAt(position);
+                if (ch == '|' || ch == ')') {
+                    break;
+                }
+                final Node atom = atom(items);
+                if (atom == null) {
+                    if (isQuantifier()) {
+                        throw unsupported(regex, position, "quantifier after empty \\Q\\E");
+                    }
+                    continue;
+                }
+                items.add(quantified(atom));
+            }
+            markSingleSupplementary(items);
+            return items.size() == 1 ? items.get(0) : Node.branch(NODE_CONCAT, 0, items);
+        }
+
+        /**
+         * {@link Pattern} 把连续的字面量合并为一个节点，被量词修饰的字面量单独成为一个节点，只有单个字符的节点才影响起始节点的选择
+         */
+        private void markSingleSupplementary(final List<Node> items) {
+            int run = 0;
+            for (int i = 0; i <= items.size(); i++) {
+                final Node item = i < items.size() ? items.get(i) : null;
+                if (item != null && item.kind == NODE_CHAR) {
+                    run++;
+                    continue;
+                }
+                if (run == 1 && Character.isSupplementaryCodePoint(items.get(i - 1).value)) {
+                    supplementary = true;
+                }
+                run = 0;
+                if (item != null && item.kind == NODE_REPEAT && item.children.get(0).kind == NODE_CHAR
+                        && Character.isSupplementaryCodePoint(item.children.get(0).value)) {
+                    supplementary = true;
+                }
+            }
+        }
+
+        private boolean isQuantifier() {
+            if (position >= length) {
+                return false;
+            }
+            final char ch = regex.charAt(position);
+            return ch == '?' || ch == '*' || ch == '+' || ch == '{';
+        }
+
+        private Node quantified(final Node atom) {
+            if (!isQuantifier()) {
+                return atom;
+            }
+            final int start = position;
+            final char ch = regex.charAt(position++);
+            final int min;
+            final int max;
+            if (ch == '?') {
+                min = 0;
+                max = 1;
+            } else if (ch == '*') {
+                min = 0;
+                max = -1;
+            } else if (ch == '+') {
+                min = 1;
+                max = -1;
+            } else {
+                min = number();
+                if (regex.charAt(position) == ',') {
+                    position++;
+                    max = regex.charAt(position) == '}' ? -1 : number();
+                } else {
+                    max = min;
+                }
+                position++;
+            }
+            if (atom.kind == NODE_ASSERT) {
+                throw unsupported(regex, start, "quantified boundary");
+            }
+            boolean greedy = true;
+            if (position < length && regex.charAt(position) == '?') {
+                greedy = false;
+                position++;
+            } else if (position < length && regex.charAt(position) == '+') {
+                throw unsupported(regex, position, "possessive quantifier");
+            }
+            return Node.repeat(atom, min, max, greedy, ch == '?');
+        }
+
+        private int number() {
+            int value = 0;
+            while (regex.charAt(position) >= '0' && regex.charAt(position) <= '9') {
+                value = value * 10 + regex.charAt(position++) - '0';
+                if (value > MAX_PROGRAM_SIZE) {
+                    throw unsupported(regex, position, "repetition count too large");
+                }
+            }
+            return value;
+        }
+
+        /**
+         * @param items 当前序列，{@code \Q...\E} 除最后一个字符以外的字符直接加入其中
+         * @return 可以被量词修饰的原子，空的 {@code \Q\E} 返回 {@code null}
+         */
+        private Node atom(final List<Node> items) {
+            final char ch = regex.charAt(position);
+            switch (ch) {
+                case '(':
+                    return group();
+                case '[':
+                    return charClass();
+                case '.':
+                    position++;
+                    return Node.leaf(NODE_CLASS, 0, classOf(LINE_TERMINATORS, true));
+                case '^':
+                    position++;
+                    return Node.leaf(NODE_ASSERT, ASSERT_BEGIN, null);
+                case '$':
+                    position++;
+                    return Node.leaf(NODE_ASSERT, ASSERT_DOLLAR, null);
+                case '\\':
+                    return escape(items);
+                case '{':
+                    throw unsupported(regex, position, "dangling '{'");
+                default:
+                    return Node.leaf(NODE_CHAR, literal(), null);
+            }
+        }
+
+        private Node group() {
+            final int start = position++;
+            int index = -1;
+            if (regex.startsWith("?:", position)) {
+                position += 2;
+            } else if (regex.startsWith("?<", position) && position + 2 < length && isAsciiLetter(regex.charAt(position + 2))) {
+                final int end = regex.indexOf('>', position);
+                final String name = regex.substring(position + 2, end);
+                position = end + 1;
+                index = ++groupCount;
+                groupNames.put(name, index);
+            } else if (position < length && regex.charAt(position) == '?') {
+                throw unsupported(regex, start, "lookaround, atomic group or inline flag");
+            } else {
+                index = ++groupCount;
+            }
+            final Node body = alternation();
+            position++;
+            return Node.branch(NODE_GROUP, index, Collections.singletonList(body));
+        }
+
+        private Node escape(final List<Node> items) {
+            final int start = position;
+            final char ch = regex.charAt(position + 1);
+            switch (ch) {
+                case 'd':
+                case 'D':
+                case 's':
+                case 'S':
+                case 'w':
+                case 'W':
+                    position += 2;
+                    supplementary |= Character.isUpperCase(ch);
+                    return Node.leaf(NODE_CLASS, 0, classOf(predefined(ch), Character.isUpperCase(ch)));
+                case 'b':
+                case 'B':
+                    position += 2;
+                    if (position < length && regex.charAt(position) == '{') {
+                        throw unsupported(regex, start, "grapheme boundary");
+                    }
+                    return Node.leaf(NODE_ASSERT, ch == 'b' ? ASSERT_WORD_BOUNDARY : ASSERT_NOT_WORD_BOUNDARY, null);
+                case 'A':
+                    position += 2;
+                    return Node.leaf(NODE_ASSERT, ASSERT_BEGIN, null);
+                case 'Z':
+                    position += 2;
+                    return Node.leaf(NODE_ASSERT, ASSERT_DOLLAR, null);
+                case 'z':
+                    position += 2;
+                    return Node.leaf(NODE_ASSERT, ASSERT_END, null);
+                case 'Q':
+                    return quote(items);
+                default:
+                    return Node.leaf(NODE_CHAR, literal(), null);
+            }
+        }
+
+        /**
+         * <p>{@code \Q...\E} 相当于逐个转义其中的字符，所以后面的量词只修饰最后一个字符。</p>
+         */
+        private Node quote(final List<Node> items) {
+            position += 2;
+            int end = regex.indexOf("\\E", position);
+            if (end < 0) {
+                end = length;
+            }
+            Node last = null;
+            while (position < end) {
+                if (last != null) {
+                    items.add(last);
+                }
+                last = Node.leaf(NODE_CHAR, codePoint(), null);
+            }
+            position = Math.min(end + 2, length);
+            return last;
+        }
+
+        private Node charClass() {
+            final int start = position++;
+            boolean negate = false;
+            if (regex.charAt(position) == '^') {
+                negate = true;
+                position++;
+            }
+            if (regex.charAt(position) == ']') {
+                throw unsupported(regex, start, "leading ']' in character class");
+            }
+            final RangeBuilder ranges = new RangeBuilder();
+            boolean wide = negate;
+            boolean first = true;
+            // 可以作为范围起点的上一个字符，-1 表示没有
+            int previous = -1;
+            while (true) {
+                final char ch = regex.charAt(position);
+                if (ch == ']') {
+                    position++;
+                    break;
+                }
+                if (ch == '[' || (ch == '&' && regex.charAt(position + 1) == '&')) {
+                    throw unsupported(regex, position, "nested or intersected character class");
+                }
+                if (ch == '-' && !first && regex.charAt(position + 1) != ']') {
+                    if (previous < 0) {
+                        throw unsupported(regex, position, "ambiguous '-' in character class");
+                    }
+                    position++;
+                    final char next = regex.charAt(position);
+                    if (next == '[' || next == '-' || next == '&' || (next == '\\' && isClassEscape(regex.charAt(position + 1)))) {
+                        throw unsupported(regex, position, "ambiguous range in character class");
+                    }
+                    final int high = classLiteral();
+                    ranges.add(previous, high);
+                    wide |= high >= Character.MIN_SURROGATE && (previous <= Character.MAX_SURROGATE || high > Character.MAX_VALUE);
+                    previous = -1;
+                    continue;
+                }
+                first = false;
+                if (ch == '\\' && isClassEscape(regex.charAt(position + 1))) {
+                    final char escape = regex.charAt(position + 1);
+                    ranges.addAll(predefined(escape), Character.isUpperCase(escape));
+                    wide |= Character.isUpperCase(escape);
+                    position += 2;
+                    previous = -1;
+                    continue;
+                }
+                final int codePoint = classLiteral();
+                ranges.add(codePoint, codePoint);
+                wide |= codePoint > Character.MAX_VALUE;
+                previous = codePoint == '-' ? -1 : codePoint;
+            }
+            supplementary |= wide;
+            return Node.leaf(NODE_CLASS, 0, ranges.build(negate));
+        }
+
+        private int classLiteral() {
+            if (regex.charAt(position) == '\\') {
+                return literal();
+            }
+            return codePoint();
+        }
+
+        /**
+         * @return 当前位置上的字面量或转义字符的代码点
+         */
+        private int literal() {
+            if (regex.charAt(position) != '\\') {
+                return codePoint();
+            }
+            final int start = position;
+            position++;
+            final char ch = regex.charAt(position);
+            int value;
+            switch (ch) {
+                case 't':
+                    value = '\t';
+                    break;
+                case 'n':
+                    value = '\n';
+                    break;
+                case 'r':
+                    value = '\r';
+                    break;
+                case 'f':
+                    value = '\f';
+                    break;
+                case 'a':
+                    value = '\u0007';
+                    break;
+                case 'e':
+                    value = '\u001B';
+                    break;
+                case 'c':
+                    position++;
+                    value = regex.charAt(position) ^ 64;
+                    break;
+                case 'x':
+                    if (regex.charAt(position + 1) == '{') {
+                        final int end = regex.indexOf('}', position);
+                        value = Integer.parseInt(regex.substring(position + 2, end), 16);
+                        position = end;
+                    } else {
+                        value = Integer.parseInt(regex.substring(position + 1, position + 3), 16);
+                        position += 2;
+                    }
+                    break;
+                case 'u':
+                    value = Integer.parseInt(regex.substring(position + 1, position + 5), 16);
+                    position += 4;
+                    if (Character.isHighSurrogate((char) value) && regex.startsWith("\\u", position + 1)
+                            && position + 7 <= length) {
+                        final int low = parseHex(regex.substring(position + 3, position + 7));
+                        if (low >= 0 && Character.isLowSurrogate((char) low)) {
+                            value = Character.toCodePoint((char) value, (char) low);
+                            position += 6;
+                        }
+                    }
+                    break;
+                default:
+                    if (ch < 128 && Character.isLetterOrDigit(ch)) {
+                        throw unsupported(regex, start, "escape \\" + ch);
+                    }
+                    return codePoint();
+            }
+            position++;
+            if (value >= Character.MIN_SURROGATE && value <= Character.MAX_SURROGATE) {
+                throw unsupported(regex, start, "unpaired surrogate");
+            }
+            return value;
+        }
+
+        /**
+         * @return 当前位置上的代码点，代理对视为一个代码点
+         */
+        private int codePoint() {
+            final int value = regex.codePointAt(position);
+            if (Character.isSurrogate((char) value)) {
+                throw unsupported(regex, position, "unpaired surrogate");
+            }
+            position += Character.charCount(value);
+            return value;
+        }
+
+        private static int parseHex(final String digits) {
+            try {
+                return Integer.parseInt(digits, 16);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        private static int[] predefined(final char escape) {
+            final char lower = Character.toLowerCase(escape);
+            return lower == 'd' ? DIGIT : lower == 's' ? SPACE : WORD;
+        }
+
+        private static boolean isClassEscape(final char ch) {
+            return ch == 'd' || ch == 'D' || ch == 's' || ch == 'S' || ch == 'w' || ch == 'W';
+        }
+
+        private static boolean isAsciiLetter(final char ch) {
+            return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z');
+        }
+
+        private static CharClass classOf(final int[] predefined, final boolean negate) {
+            final RangeBuilder ranges = new RangeBuilder();
+            ranges.addAll(predefined, false);
+            return ranges.build(negate);
+        }
+    }
+
+    /**
+     * <p>把语法树生成为 Pike VM 的指令。有界量词按次数展开，无上限量词生成循环。</p>
+     */
+    private static final class Compiler {
+        private final String regex;
+        private int[] op = new int[64];
+        private int[] a = new int[64];
+        private int[] b = new int[64];
+        private int[] c = new int[64];
+        private CharClass[] classes = new CharClass[64];
+        private int[] guards = new int[64];
+        private int size;
+        private int slotCount;
+        /**
+         * 正在生成的循环体所属的循环开始位置槽位，-1 表示不在需要进度检查的循环体中
+         */
+        private int guard = -1;
+
+        private Compiler(final String regex, final int slotCount) {
+            this.regex = regex;
+            this.slotCount = slotCount;
+        }
+
+        private int emit(final int code, final int x, final int y, final int z) {
+            if (size == MAX_PROGRAM_SIZE) {
+                throw unsupported(regex, 0, "program larger than " + MAX_PROGRAM_SIZE + " instructions");
+            }
+            if (size == op.length) {
+                final int capacity = Math.min(size * 2, MAX_PROGRAM_SIZE);
+                op = Arrays.copyOf(op, capacity);
+                a = Arrays.copyOf(a, capacity);
+                b = Arrays.copyOf(b, capacity);
+                c = Arrays.copyOf(c, capacity);
+                classes = Arrays.copyOf(classes, capacity);
+                guards = Arrays.copyOf(guards, capacity);
+            }
+            guards[size] = guard;
+            op[size] = code;
+            a[size] = x;
+            b[size] = y;
+            c[size] = z;
+            return size++;
+        }
+
+        private void emit(final Node node) {
+            switch (node.kind) {
+                case NODE_CHAR:
+                    emit(OP_CHAR, node.value, 0, 0);
+                    break;
+                case NODE_CLASS:
+                    final int pc = emit(OP_CLASS, 0, 0, 0);
+                    classes[pc] = node.charClass;
+                    break;
+                case NODE_ASSERT:
+                    emit(OP_ASSERT, node.value, 0, 0);
+                    break;
+                case NODE_CONCAT:
+                    for (Node child : node.children) {
+                        emit(child);
+                    }
+                    break;
+                case NODE_ALTERNATE:
+                    alternate(node.children);
+                    break;
+                case NODE_GROUP:
+                    if (node.value < 0) {
+                        emit(node.children.get(0));
+                    } else {
+                        emit(OP_SAVE, 2 * node.value, 0, 0);
+                        emit(node.children.get(0));
+                        emit(OP_SAVE, 2 * node.value + 1, 0, 0);
+                    }
+                    break;
+                default:
+                    repeat(node);
+                    break;
+            }
+        }
+
+        private void alternate(final List<Node> branches) {
+            final int[] jumps = new int[branches.size() - 1];
+            for (int i = 0; i < jumps.length; i++) {
+                final int split = emit(OP_SPLIT, size + 1, 0, 0);
+                emit(branches.get(i));
+                jumps[i] = emit(OP_JUMP, 0, 0, 0);
+                b[split] = size;
+            }
+            emit(branches.get(jumps.length));
+            for (int jump : jumps) {
+                a[jump] = size;
+            }
+        }
+
+        /**
+         * <p>{@code x{n,m}} 展开为 n 个 {@code x} 加上 m - n 层嵌套的可选 {@code x}，{@code x{n,}} 展开为 n 个 {@code x} 加上循环。</p>
+         *
+         * <p>{@code x} 可以匹配空串时，与 {@link Pattern} 的循环节点一样，每次迭代前记录开始位置，
+         * 某次迭代没有前进时结束整个量词（即使还没有达到最少次数），直接跳到量词之后。
+         * 分组只由断言组成时，只生成必需的 n 次迭代。</p>
+         */
+        private void repeat(final Node node) {
+            final Node child = node.children.get(0);
+            if (child.kind == NODE_GROUP && !node.question && child.isEmptyOnly()) {
+                // Pattern 对这样的分组使用 GroupCurly：可选的迭代即使成功也会恢复之前的捕获，等同于没有执行
+                for (int i = 0; i < node.min; i++) {
+                    emit(child);
+                }
+                return;
+            }
+            final boolean nullable = child.isNullable() && (node.max < 0 || node.max > 1);
+            if (nullable && guard >= 0) {
+                // 嵌套时线程的去重需要区分每一层循环的状态，不再是线性的
+                throw unsupported(regex, 0, "nested quantifiers over empty-matching groups");
+            }
+            if (nullable && node.loopSlot < 0) {
+                node.loopSlot = slotCount++;
+            }
+            // 需要跳到量词之后的分支和进度检查指令
+            final List<Integer> exits = new ArrayList<>();
+            final int copies = node.max < 0 ? node.min : node.max;
+            for (int i = 0; i < copies; i++) {
+                if (i >= node.min) {
+                    exits.add(emit(OP_SPLIT, 0, 0, 0));
+                }
+                if (nullable) {
+                    emit(OP_SAVE, node.loopSlot, 0, 0);
+                    guard = node.loopSlot;
+                }
+                emit(child);
+                if (nullable) {
+                    if (i < copies - 1 || node.max < 0) {
+                        exits.add(emit(OP_PROGRESS, node.loopSlot, size + 1, 0));
+                    }
+                    guard = -1;
+                }
+            }
+            if (node.max < 0) {
+                final int loop = emit(OP_SPLIT, 0, 0, 0);
+                exits.add(loop);
+                if (nullable) {
+                    emit(OP_SAVE, node.loopSlot, 0, 0);
+                    guard = node.loopSlot;
+                }
+                emit(child);
+                if (nullable) {
+                    exits.add(emit(OP_PROGRESS, node.loopSlot, loop, 0));
+                    guard = -1;
+                } else {
+                    emit(OP_JUMP, loop, 0, 0);
+                }
+            }
+            for (int pc : exits) {
+                if (op[pc] == OP_SPLIT) {
+                    a[pc] = node.greedy ? pc + 1 : size;
+                    b[pc] = node.greedy ? size : pc + 1;
+                } else {
+                    c[pc] = size;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,445 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * <p>预编译的多模式串查找器，在一次扫描中查找一组字符序列中任意一个的第一次或最后一次出现。</p>
+ *
+ * <p>使用 Wu-Manber 算法：以所有模式串中最短的长度 {@code m} 作为窗口，根据窗口末尾（向前查找时）
+ * 或窗口开头（向后查找时）的字符块查移动表，只有移动距离为 0 时才逐个验证该字符块对应的模式串。
+ * 模式串较多、文本较长时，耗时接近文本长度除以 {@code m}，而不是文本长度乘以模式串的个数。</p>
+ *
+ * <p>同一位置有多个模式串匹配时，报告其中最长的一个，长度相同时报告下标最小的一个。
+ * {@code null} 模式串被忽略，空串在任何位置都匹配。实例不可变，可以在多个线程之间共享。</p>
+ *
+ * <pre>
+ * MultiSearcher searcher = MultiSearcher.compile("ab", "cd", "abyy");
+ * searcher.indexOf("zzabyycdxx")                   = 2
+ * searcher.lastIndexOf("zzabyycdxx")               = 6
+ * searcher.findFirst("zzabyycdxx", 0).getNeedle()  = "abyy"
+ * </pre>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public final class MultiSearcher {
+
+    private static final int MIN_TABLE_BITS = 6;
+    private static final int MAX_TABLE_BITS = 16;
+    static final long NOT_FOUND = -1L;
+
+    /**
+     * 模式串，下标与编译时传入的顺序一致，可能包含 null
+     */
+    private final String[] needles;
+    /**
+     * 最短的非空模式串长度，没有非空模式串时为 0
+     */
+    private final int minLength;
+    private final int blockSize;
+    private final int tableBits;
+    /**
+     * 最先出现的空串的下标，没有时为 -1
+     */
+    private final int emptyNeedle;
+
+    private final int[] forwardShift;
+    private final int[] forwardBucketStart;
+    private final int[] forwardBucket;
+    private final int[] backwardShift;
+    private final int[] backwardBucketStart;
+    private final int[] backwardBucket;
+
+    private MultiSearcher(final String[] needles) {
+        this.needles = needles;
+        int min = Integer.MAX_VALUE;
+        int empty = -1;
+        int count = 0;
+        for (int i = 0; i < needles.length; i++) {
+            final String needle = needles[i];
+            if (needle == null) {
+                continue;
+            }
+            if (needle.isEmpty()) {
+                if (empty < 0) {
+                    empty = i;
+                }
+            } else {
+                min = Math.min(min, needle.length());
+                count++;
+            }
+        }
+        this.emptyNeedle = empty;
+        this.minLength = count == 0 ? 0 : min;
+        this.blockSize = minLength >= 2 ? 2 : 1;
+        final int blocksPerNeedle = Math.max(1, minLength - blockSize + 1);
+        final int wanted = 32 - Integer.numberOfLeadingZeros(Math.max(1, count * blocksPerNeedle * 2 - 1));
+        this.tableBits = Math.min(MAX_TABLE_BITS, Math.max(MIN_TABLE_BITS, wanted));
+
+        final int tableSize = 1 << tableBits;
+        final int defaultShift = minLength - blockSize + 1;
+        forwardShift = new int[tableSize];
+        backwardShift = new int[tableSize];
+        Arrays.fill(forwardShift, defaultShift);
+        Arrays.fill(backwardShift, defaultShift);
+        forwardBucketStart = new int[tableSize + 1];
+        backwardBucketStart = new int[tableSize + 1];
+        forwardBucket = new int[count];
+        backwardBucket = new int[count];
+        if (count == 0) {
+            return;
+        }
+        for (final String needle : needles) {
+            if (needle == null || needle.isEmpty()) {
+                continue;
+            }
+            // 窗口内以位置 q 开头的字符块：向前查找时距窗口末尾 m - B - q，向后查找时距窗口开头 q
+            for (int q = 0; q <= minLength - blockSize; q++) {
+                final int hash = hash(needle, q);
+                forwardShift[hash] = Math.min(forwardShift[hash], minLength - blockSize - q);
+                backwardShift[hash] = Math.min(backwardShift[hash], q);
+            }
+            forwardBucketStart[hash(needle, minLength - blockSize) + 1]++;
+            backwardBucketStart[hash(needle, 0) + 1]++;
+        }
+        for (int i = 0; i < tableSize; i++) {
+            forwardBucketStart[i + 1] += forwardBucketStart[i];
+            backwardBucketStart[i + 1] += backwardBucketStart[i];
+        }
+        final int[] forwardFill = Arrays.copyOf(forwardBucketStart, tableSize);
+        final int[] backwardFill = Arrays.copyOf(backwardBucketStart, tableSize);
+        for (int i = 0; i < needles.length; i++) {
+            final String needle = needles[i];
+            if (needle == null || needle.isEmpty()) {
+                continue;
+            }
+            forwardBucket[forwardFill[hash(needle, minLength - blockSize)]++] = i;
+            backwardBucket[backwardFill[hash(needle, 0)]++] = i;
+        }
+    }
+
+    /**
+     * <p>编译一组模式串。</p>
+     *
+     * @param needles 模式串，{@code null} 视为空数组，其中的 {@code null} 元素被忽略
+     * @return 查找器
+     * @since 1.0.0
+     */
+    public static MultiSearcher compile(final CharSequence... needles) {
+        final int length = ArrayAide.length(needles);
+        final String[] strings = new String[length];
+        for (int i = 0; i < length; i++) {
+            strings[i] = needles[i] == null ? null : needles[i].toString();
+        }
+        return new MultiSearcher(strings);
+    }
+
+    /**
+     * <p>编译一组模式串，下标按集合的迭代顺序计算。</p>
+     *
+     * @param needles 模式串，{@code null} 视为空集合，其中的 {@code null} 元素被忽略
+     * @return 查找器
+     * @since 1.0.0
+     */
+    public static MultiSearcher compile(final Collection<? extends CharSequence> needles) {
+        return compile(needles == null ? null : needles.toArray(new CharSequence[0]));
+    }
+
+    /**
+     * <p>查找任意模式串在 {@code text} 中第一次出现的索引。</p>
+     *
+     * @param text 文本，为 null 时返回 -1
+     * @return 索引值，没有找到时返回 -1
+     * @since 1.0.0
+     */
+    public int indexOf(final CharSequence text) {
+        return indexOf(text, 0);
+    }
+
+    /**
+     * <p>从 {@code fromIndex} 开始查找任意模式串在 {@code text} 中第一次出现的索引，
+     * 与 {@link String#indexOf(String, int)} 的规则一致。</p>
+     *
+     * @param text 文本，为 null 时返回 -1
+     * @param fromIndex 起始位置，小于 0 时从 0 开始
+     * @return 索引值，没有找到时返回 -1
+     * @since 1.0.0
+     */
+    public int indexOf(final CharSequence text, final int fromIndex) {
+        final long found = first(text, fromIndex);
+        return found == NOT_FOUND ? -1 : (int) (found >>> 32);
+    }
+
+    /**
+     * <p>查找任意模式串在 {@code text} 中最后一次出现的索引。</p>
+     *
+     * @param text 文本，为 null 时返回 -1
+     * @return 索引值，没有找到时返回 -1
+     * @since 1.0.0
+     */
+    public int lastIndexOf(final CharSequence text) {
+        return text == null ? -1 : lastIndexOf(text, text.length());
+    }
+
+    /**
+     * <p>从 {@code lastIndex} 开始向左查找任意模式串在 {@code text} 中最后一次出现的索引，
+     * 与 {@link String#lastIndexOf(String, int)} 的规则一致。</p>
+     *
+     * @param text 文本，为 null 时返回 -1
+     * @param lastIndex 匹配开始位置的最大值
+     * @return 索引值，没有找到时返回 -1
+     * @since 1.0.0
+     */
+    public int lastIndexOf(final CharSequence text, final int lastIndex) {
+        final long found = last(text, lastIndex);
+        return found == NOT_FOUND ? -1 : (int) (found >>> 32);
+    }
+
+    /**
+     * <p>检查 {@code text} 中是否包含任意模式串。</p>
+     *
+     * @param text 文本，为 null 时返回 {@code false}
+     * @return 包含时返回 {@code true}
+     * @since 1.0.0
+     */
+    public boolean containsAny(final CharSequence text) {
+        return first(text, 0) != NOT_FOUND;
+    }
+
+    /**
+     * <p>从 {@code fromIndex} 开始查找第一个匹配，并报告匹配的模式串。</p>
+     *
+     * @param text 文本，为 null 时返回 null
+     * @param fromIndex 起始位置，小于 0 时从 0 开始
+     * @return 匹配结果，没有找到时返回 {@code null}
+     * @since 1.0.0
+     */
+    public Match findFirst(final CharSequence text, final int fromIndex) {
+        return toMatch(first(text, fromIndex));
+    }
+
+    /**
+     * <p>从 {@code lastIndex} 开始向左查找最后一个匹配，并报告匹配的模式串。</p>
+     *
+     * @param text 文本，为 null 时返回 null
+     * @param lastIndex 匹配开始位置的最大值
+     * @return 匹配结果，没有找到时返回 {@code null}
+     * @since 1.0.0
+     */
+    public Match findLast(final CharSequence text, final int lastIndex) {
+        return toMatch(last(text, lastIndex));
+    }
+
+    /**
+     * @return 编译时传入的模式串个数（包括被忽略的 {@code null}）
+     * @since 1.0.0
+     */
+    public int size() {
+        return needles.length;
+    }
+
+    /**
+     * @param needleIndex 模式串的下标
+     * @return 模式串，可能为 {@code null}
+     * @since 1.0.0
+     */
+    public String getNeedle(final int needleIndex) {
+        return needles[needleIndex];
+    }
+
+    private Match toMatch(final long found) {
+        if (found == NOT_FOUND) {
+            return null;
+        }
+        final int needleIndex = (int) found;
+        return new Match((int) (found >>> 32), needleIndex, needles[needleIndex]);
+    }
+
+    /**
+     * @return (位置 &lt;&lt; 32 | 模式串下标)，没有找到时返回 {@link #NOT_FOUND}
+     */
+    long first(final CharSequence text, final int fromIndex) {
+        if (text == null) {
+            return NOT_FOUND;
+        }
+        final int length = text.length();
+        int start = Math.max(0, fromIndex);
+        if (emptyNeedle >= 0) {
+            return start > length ? pack(length, emptyNeedle) : pack(start, longestAt(text, start, length));
+        }
+        if (minLength == 0) {
+            return NOT_FOUND;
+        }
+        final int lastStart = length - minLength;
+        final int blockOffset = minLength - blockSize;
+        while (start <= lastStart) {
+            final int hash = hash(text, start + blockOffset);
+            final int shift = forwardShift[hash];
+            if (shift > 0) {
+                start += shift;
+                continue;
+            }
+            final int needle = longestInBucket(text, start, length, forwardBucket,
+                    forwardBucketStart[hash], forwardBucketStart[hash + 1]);
+            if (needle >= 0) {
+                return pack(start, needle);
+            }
+            start++;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * @return (位置 &lt;&lt; 32 | 模式串下标)，没有找到时返回 {@link #NOT_FOUND}
+     */
+    long last(final CharSequence text, final int lastIndex) {
+        if (text == null || lastIndex < 0) {
+            return NOT_FOUND;
+        }
+        final int length = text.length();
+        int start = Math.min(lastIndex, length);
+        if (emptyNeedle >= 0) {
+            return pack(start, longestAt(text, start, length));
+        }
+        if (minLength == 0) {
+            return NOT_FOUND;
+        }
+        start = Math.min(start, length - minLength);
+        while (start >= 0) {
+            final int hash = hash(text, start);
+            final int shift = backwardShift[hash];
+            if (shift > 0) {
+                start -= shift;
+                continue;
+            }
+            final int needle = longestInBucket(text, start, length, backwardBucket,
+                    backwardBucketStart[hash], backwardBucketStart[hash + 1]);
+            if (needle >= 0) {
+                return pack(start, needle);
+            }
+            start--;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * 存在空串时，在 start 处匹配的最长模式串（至少为空串）
+     */
+    private int longestAt(final CharSequence text, final int start, final int length) {
+        int best = emptyNeedle;
+        for (int i = 0; i < needles.length; i++) {
+            final String needle = needles[i];
+            if (needle != null && needle.length() > needles[best].length() && matchesAt(text, start, length, needle)) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private int longestInBucket(final CharSequence text, final int start, final int length,
+                                final int[] bucket, final int from, final int to) {
+        int best = -1;
+        for (int i = from; i < to; i++) {
+            final String needle = needles[bucket[i]];
+            if ((best < 0 || needle.length() > needles[best].length()) && matchesAt(text, start, length, needle)) {
+                best = bucket[i];
+            }
+        }
+        return best;
+    }
+
+    private static boolean matchesAt(final CharSequence text, final int start, final int length, final String needle) {
+        final int needleLength = needle.length();
+        if (start + needleLength > length) {
+            return false;
+        }
+        for (int i = 0; i < needleLength; i++) {
+            if (text.charAt(start + i) != needle.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int hash(final CharSequence sequence, final int index) {
+        int hash = sequence.charAt(index);
+        if (blockSize == 2) {
+            hash = hash * 0x9E3779B1 + sequence.charAt(index + 1);
+        }
+        return (hash * 0x9E3779B1) >>> (32 - tableBits);
+    }
+
+    private static long pack(final int index, final int needle) {
+        return ((long) index << 32) | needle;
+    }
+
+    /**
+     * <p>一次匹配的结果，不可变。</p>
+     *
+     * @since 1.0.0
+     */
+    public static final class Match {
+        private final int index;
+        private final int needleIndex;
+        private final String needle;
+
+        private Match(final int index, final int needleIndex, final String needle) {
+            this.index = index;
+            this.needleIndex = needleIndex;
+            this.needle = needle;
+        }
+
+        /**
+         * @return 匹配在文本中的开始位置
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return 匹配的模式串在编译时的下标
+         */
+        public int getNeedleIndex() {
+            return needleIndex;
+        }
+
+        /**
+         * @return 匹配的模式串
+         */
+        public String getNeedle() {
+            return needle;
+        }
+
+        /**
+         * @return 匹配在文本中的结束位置（不包含）
+         */
+        public int getEnd() {
+            return index + needle.length();
+        }
+
+        @Override
+        public String toString() {
+            return needle + "@" + index;
+        }
+    }
+}
@@ -0,0 +1,456 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+
+package org.lomcat.leo.aide;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * <p>堆外字符串池，将大量短字符串（如分词结果、ID）保存在直接内存或内存映射文件中，以减少对象开销和 GC 压力。</p>
+ *
+ * <p>字符串按块追加写入，每个条目由 8 个字节的头部（长度与编码、{@link String#hashCode()}）和字符数据组成：
+ * 所有字符都不超过 {@code 0xFF} 时按 Latin-1 每个字符 1 个字节保存，否则按 UTF-16 每个字符 2 个字节保存。
+ * {@link #add(CharSequence)} 返回一个 {@code long} 句柄（高 32 位为块编号，低 32 位为块内偏移），
+ * 通过 {@link #get(long)} 获取不复制数据的 {@link View}。</p>
+ *
+ * <p>{@link CharSequenceAide#equals(CharSequence, CharSequence)}、{@code indexOf}、{@code startsWith} 等方法
+ * 对 {@link View} 有专门的处理，直接读取池中的数据，不会复制回堆内。</p>
+ *
+ * <p>{@link #add(CharSequence)} 是同步的；读取不加锁，句柄需要通过安全发布（如 volatile、并发容器）交给其他线程。
+ * 字符串池只能追加，不能删除单个条目。</p>
+ *
+ * <pre>
+ * OffHeapStringPool pool = OffHeapStringPool.direct(1 &lt;&lt; 20);
+ * long handle = pool.add("token");
+ * pool.get(handle).length()              = 5
+ * StringAide.equals(pool.get(handle), "token") = true
+ * </pre>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public final class OffHeapStringPool implements AutoCloseable {
+
+    private static final int HEADER_BYTES = 8;
+    private static final int LATIN1_LIMIT = 0xFF;
+
+    private final int chunkCapacity;
+    /**
+     * 内存映射时使用的文件通道，使用直接内存时为 null
+     */
+    private final FileChannel channel;
+    /**
+     * 新块很少追加，读取时无需加锁
+     */
+    private final List<ByteBuffer> chunks = new CopyOnWriteArrayList<>();
+    private ByteBuffer current;
+    private int writeOffset;
+    private long count;
+    private long usedBytes;
+
+    private OffHeapStringPool(final int chunkCapacity, final FileChannel channel) {
+        if (chunkCapacity <= HEADER_BYTES) {
+            throw new IllegalArgumentException("Chunk capacity must be greater than " + HEADER_BYTES + ": " + chunkCapacity);
+        }
+        this.chunkCapacity = chunkCapacity;
+        this.channel = channel;
+    }
+
+    /**
+     * <p>创建一个使用直接内存（{@link ByteBuffer#allocateDirect(int)}）的字符串池。</p>
+     *
+     * @param chunkCapacity 每个块的字节数，单个字符串编码后（含 8 个字节的头部）不能超过此大小
+     * @return 字符串池
+     * @throws IllegalArgumentException 如果 {@code chunkCapacity} 不大于 8
+     * @since 1.0.0
+     */
+    public static OffHeapStringPool direct(final int chunkCapacity) {
+        return new OffHeapStringPool(chunkCapacity, null);
+    }
+
+    /**
+     * <p>创建一个使用内存映射文件的字符串池，第 n 个块映射到文件的 [n * chunkCapacity, (n + 1) * chunkCapacity) 区域。</p>
+     *
+     * <p>文件不存在时创建，已有内容会被覆盖。关闭字符串池时关闭文件通道，已映射的区域在被回收之前仍然可以读取。</p>
+     *
+     * @param file 文件路径
+     * @param chunkCapacity 每个块的字节数
+     * @return 字符串池
+     * @throws IOException 如果无法打开文件
+     * @throws IllegalArgumentException 如果 {@code chunkCapacity} 不大于 8
+     * @since 1.0.0
+     */
+    public static OffHeapStringPool mapped(final Path file, final int chunkCapacity) throws IOException {
+        final FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new OffHeapStringPool(chunkCapacity, channel);
+        } catch (IllegalArgumentException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * <p>追加一个字符串。</p>
+     *
+     * @param sequence 字符序列，不能为 null
+     * @return 句柄
+     * @throws IllegalArgumentException 如果编码后的大小超过块容量
+     * @throws UncheckedIOException 如果映射文件区域失败
+     * @since 1.0.0
+     */
+    public synchronized long add(final CharSequence sequence) {
+        final int length = sequence.length();
+        boolean latin1 = true;
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            final char ch = sequence.charAt(i);
+            latin1 &= ch <= LATIN1_LIMIT;
+            hash = 31 * hash + ch;
+        }
+        final long entryBytes = HEADER_BYTES + (latin1 ? (long) length : (long) length << 1);
+        if (entryBytes > chunkCapacity) {
+            throw new IllegalArgumentException("Encoded size " + entryBytes + " exceeds chunk capacity " + chunkCapacity);
+        }
+        if (current == null || writeOffset + entryBytes > chunkCapacity) {
+            current = newChunk(chunks.size());
+            chunks.add(current);
+            writeOffset = 0;
+        }
+        final ByteBuffer buffer = current;
+        final int offset = writeOffset;
+        buffer.putInt(offset, length << 1 | (latin1 ? 0 : 1));
+        buffer.putInt(offset + 4, hash);
+        int position = offset + HEADER_BYTES;
+        if (latin1) {
+            for (int i = 0; i < length; i++) {
+                buffer.put(position++, (byte) sequence.charAt(i));
+            }
+        } else {
+            for (int i = 0; i < length; i++, position += 2) {
+                buffer.putChar(position, sequence.charAt(i));
+            }
+        }
+        writeOffset = position;
+        count++;
+        usedBytes += entryBytes;
+        return (long) (chunks.size() - 1) << 32 | offset;
+    }
+
+    private ByteBuffer newChunk(final int index) {
+        if (channel == null) {
+            return ByteBuffer.allocateDirect(chunkCapacity);
+        }
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, (long) index * chunkCapacity, chunkCapacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * <p>获取句柄对应字符串的视图，不复制数据。</p>
+     *
+     * @param handle {@link #add(CharSequence)} 返回的句柄
+     * @return 视图
+     * @throws IndexOutOfBoundsException 如果句柄无效
+     * @since 1.0.0
+     */
+    public View get(final long handle) {
+        final ByteBuffer buffer = chunk(handle);
+        final int offset = (int) handle;
+        final int header = buffer.getInt(offset);
+        return new View(buffer, offset + HEADER_BYTES, header >>> 1, (header & 1) == 0, buffer.getInt(offset + 4));
+    }
+
+    /**
+     * <p>获取句柄对应的字符串，会在堆内创建字符串。</p>
+     *
+     * @param handle {@link #add(CharSequence)} 返回的句柄
+     * @return 字符串
+     * @since 1.0.0
+     */
+    public String getString(final long handle) {
+        return get(handle).toString();
+    }
+
+    /**
+     * @param handle {@link #add(CharSequence)} 返回的句柄
+     * @return 句柄对应字符串的长度
+     * @since 1.0.0
+     */
+    public int length(final long handle) {
+        return chunk(handle).getInt((int) handle) >>> 1;
+    }
+
+    private ByteBuffer chunk(final long handle) {
+        return chunks.get((int) (handle >>> 32));
+    }
+
+    /**
+     * @return 已追加的字符串个数
+     * @since 1.0.0
+     */
+    public synchronized long size() {
+        return count;
+    }
+
+    /**
+     * @return 已追加的条目占用的字节数（含头部，不含块末尾未使用的空间）
+     * @since 1.0.0
+     */
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * <p>关闭内存映射使用的文件通道，使用直接内存时不做任何事。</p>
+     *
+     * @throws IOException 如果关闭文件通道失败
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * <p>池中字符串（或其一部分）的只读视图，直接读取池中的数据。</p>
+     *
+     * <p>{@link #equals(Object)} 按内容比较，只与另一个 {@code View} 相等；{@link #hashCode()} 与内容相同的
+     * {@link String#hashCode()} 一致，完整条目的哈希值在追加时已经计算好。</p>
+     *
+     * @author Kweny
+     * @since 1.0.0
+     */
+    public static final class View implements CharSequence {
+        private final ByteBuffer buffer;
+        /**
+         * 字符数据在块中的起始字节位置
+         */
+        private final int start;
+        private final int length;
+        private final boolean latin1;
+        private int hash;
+
+        private View(final ByteBuffer buffer, final int start, final int length, final boolean latin1, final int hash) {
+            this.buffer = buffer;
+            this.start = start;
+            this.length = length;
+            this.latin1 = latin1;
+            this.hash = hash;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+            }
+            return at(index);
+        }
+
+        private char at(final int index) {
+            return latin1 ? (char) (buffer.get(start + index) & 0xFF) : buffer.getChar(start + (index << 1));
+        }
+
+        /**
+         * <p>返回 [from, to) 范围的视图，与当前视图共享数据。</p>
+         */
+        @Override
+        public View subSequence(final int from, final int to) {
+            if (from < 0 || from > to || to > length) {
+                throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", length: " + length);
+            }
+            if (from == 0 && to == length) {
+                return this;
+            }
+            return new View(buffer, start + (latin1 ? from : from << 1), to - from, latin1, 0);
+        }
+
+        /**
+         * <p>查找指定字符从 {@code fromIndex} 开始首次出现的位置，规则与 {@link String#indexOf(int, int)} 相同。</p>
+         *
+         * <p>Latin-1 编码的条目不可能包含大于 {@code 0xFF} 的字符，此时（以及 {@code searchChar} 为负数时）直接返回 -1。</p>
+         *
+         * @param searchChar 要查找的字符（代码点）
+         * @param fromIndex 开始位置，小于 0 时从 0 开始
+         * @return 位置，未找到时返回 -1
+         * @since 1.0.0
+         */
+        public int indexOf(final int searchChar, final int fromIndex) {
+            final int from = Math.max(fromIndex, 0);
+            if (latin1) {
+                // 负数强制转换为 byte 后可能与 0x80 ~ 0xFF 的字符相同
+                if (searchChar < 0 || searchChar > LATIN1_LIMIT) {
+                    return CharSequenceAide.INDEX_NOT_FOUND;
+                }
+                final byte target = (byte) searchChar;
+                for (int i = from; i < length; i++) {
+                    if (buffer.get(start + i) == target) {
+                        return i;
+                    }
+                }
+                return CharSequenceAide.INDEX_NOT_FOUND;
+            }
+            if (searchChar < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                for (int i = from; i < length; i++) {
+                    if (buffer.getChar(start + (i << 1)) == searchChar) {
+                        return i;
+                    }
+                }
+            } else if (searchChar <= Character.MAX_CODE_POINT) {
+                final char high = Character.highSurrogate(searchChar);
+                final char low = Character.lowSurrogate(searchChar);
+                for (int i = from; i < length - 1; i++) {
+                    if (at(i) == high && at(i + 1) == low) {
+                        return i;
+                    }
+                }
+            }
+            return CharSequenceAide.INDEX_NOT_FOUND;
+        }
+
+        /**
+         * <p>比较当前视图的一个区域与另一个字符序列的一个区域是否相等，规则与 {@link String#regionMatches(boolean, int, String, int, int)} 相同。</p>
+         *
+         * <p>另一个字符序列是编码相同的 {@code View} 且区分大小写时，直接逐字节比较。</p>
+         *
+         * @param ignoreCase 是否忽略大小写
+         * @param thisOffset 当前视图中区域的开始位置
+         * @param other 另一个字符序列，不能为 null
+         * @param otherOffset 另一个字符序列中区域的开始位置
+         * @param regionLength 区域长度
+         * @return 区域相等时返回 {@code true}，任意一个区域越界时返回 {@code false}
+         * @since 1.0.0
+         */
+        public boolean regionMatches(final boolean ignoreCase, final int thisOffset,
+                                     final CharSequence other, final int otherOffset, final int regionLength) {
+            if (thisOffset < 0 || otherOffset < 0
+                    || thisOffset > (long) length - regionLength || otherOffset > (long) other.length() - regionLength) {
+                return false;
+            }
+            if (!ignoreCase && other instanceof View && ((View) other).latin1 == latin1) {
+                final View view = (View) other;
+                final int shift = latin1 ? 0 : 1;
+                final int bytes = regionLength << shift;
+                final int from1 = start + (thisOffset << shift);
+                final int from2 = view.start + (otherOffset << shift);
+                int i = 0;
+                for (; i + 8 <= bytes; i += 8) {
+                    if (buffer.getLong(from1 + i) != view.buffer.getLong(from2 + i)) {
+                        return false;
+                    }
+                }
+                for (; i < bytes; i++) {
+                    if (buffer.get(from1 + i) != view.buffer.get(from2 + i)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            for (int i = 0; i < regionLength; i++) {
+                final char c1 = at(thisOffset + i);
+                final char c2 = other.charAt(otherOffset + i);
+                if (c1 == c2) {
+                    continue;
+                }
+                if (!ignoreCase) {
+                    return false;
+                }
+                if (Character.toUpperCase(c1) != Character.toUpperCase(c2)
+                        && Character.toLowerCase(c1) != Character.toLowerCase(c2)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * <p>比较当前视图与任意字符序列的内容是否相同。</p>
+         *
+         * @param sequence 字符序列，可以为 null
+         * @return 内容相同时返回 {@code true}
+         * @since 1.0.0
+         */
+        public boolean contentEquals(final CharSequence sequence) {
+            if (sequence == null || sequence.length() != length) {
+                return false;
+            }
+            if (sequence instanceof View && hash != 0 && ((View) sequence).hash != 0 && hash != ((View) sequence).hash) {
+                return false;
+            }
+            return regionMatches(false, 0, sequence, 0, length);
+        }
+
+        /**
+         * <p>在堆内创建包含视图内容的字符串。</p>
+         */
+        @Override
+        public String toString() {
+            if (latin1) {
+                final byte[] bytes = new byte[length];
+                for (int i = 0; i < length; i++) {
+                    bytes[i] = buffer.get(start + i);
+                }
+                return new String(bytes, StandardCharsets.ISO_8859_1);
+            }
+            final char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = buffer.getChar(start + (i << 1));
+            }
+            return new String(chars);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = hash;
+            if (h == 0 && length > 0) {
+                for (int i = 0; i < length; i++) {
+                    h = 31 * h + at(i);
+                }
+                hash = h;
+            }
+            return h;
+        }
+
+        /**
+         * <p>只有内容相同的另一个 {@code View} 与当前视图相等。</p>
+         */
+        @Override
+        public boolean equals(final Object object) {
+            return this == object || object instanceof View && contentEquals((View) object);
+        }
+    }
+}
@@ -19,48 +19,411 @@
 
 package org.lomcat.leo.aide;
 
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
  * <p>使用正则表达式处理字符串的辅助类。</p>
  *
+ * <p>以字符串形式传入的正则表达式会被分析一次并缓存：不含元字符、或只包含转义的元字符（如 {@code "\\."}）
+ * 和 {@code \Q...\E} 引用的表达式视为字面量，直接交给 {@link StringAide#replace(String, String, String)}
+ * 和 {@link StringAide#replaceOnce(String, String, String)} 处理，不经过 {@link java.util.regex}；
+ * 其余表达式编译后的 {@link Pattern} 同样被缓存。两条路径的结果（包括替换串非法时抛出的异常）完全相同。</p>
+ *
+ * <p>来自不可信输入的表达式可以用 {@link #compileLinear(String)} 编译为 {@link LinearRegex}，
+ * 再交给接受 {@link LinearRegex} 的替换方法，匹配时间与文本长度成线性关系，不会发生灾难性回溯。</p>
+ *
  * @author Kweny
  * @since 2018-09-04 2:20
  */
 public class RegexAide {
 
+    private static final AideMetrics.Probe REPLACE_ALL_PROBE = AideMetrics.probe("RegexAide.replaceAll");
+    private static final AideMetrics.Probe REPLACE_FIRST_PROBE = AideMetrics.probe("RegexAide.replaceFirst");
+    private static final AideMetrics.Probe REPLACE_PATTERN_PROBE = AideMetrics.probe("RegexAide.replacePattern");
+
+    /**
+     * 正则表达式中需要转义才能作为字面量的字符
+     */
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+    private static final int CACHE_SIZE = 512;
+    private static final ConcurrentHashMap<String, CompiledRegex> CACHE = new ConcurrentHashMap<>();
+
     public static String replaceAll(final String text, final Pattern regex, final String replacement) {
+        if (!AideMetrics.isActive()) {
+            return doReplaceAll(text, regex, replacement);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String result = doReplaceAll(text, regex, replacement);
+        REPLACE_ALL_PROBE.record(CharSequenceAide.length(text), startNanos, event);
+        return result;
+    }
+
+    private static String doReplaceAll(final String text, final Pattern regex, final String replacement) {
         if (text == null || regex == null || replacement == null) {
             return text;
         }
         return regex.matcher(text).replaceAll(replacement);
     }
 
-    public static String replaceALl(final String text, final String regex, final String replacement) {
+    /**
+     * <p>使用线性时间的 {@link LinearRegex} 将 {@code text} 中所有匹配的部分替换为 {@code replacement}，
+     * 结果与使用同一表达式的 {@link java.util.regex.Matcher#replaceAll(String)} 相同。</p>
+     *
+     * <pre>
+     * RegexAide.replaceAll("a1b22", RegexAide.compileLinear("(\\d+)"), "[$1]") = "a[1]b[22]"
+     * </pre>
+     *
+     * @param text 源字符串，为 null 时返回 null
+     * @param regex 编译后的表达式，为 null 时返回 {@code text}
+     * @param replacement 替换串，可以包含 {@code $n} 分组引用和 {@code \} 转义，为 null 时返回 {@code text}
+     * @return 替换后的字符串
+     * @see #compileLinear(String)
+     * @since 1.0.0
+     */
+    public static String replaceAll(final String text, final LinearRegex regex, final String replacement) {
+        if (!AideMetrics.isActive()) {
+            return doReplaceAll(text, regex, replacement);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String result = doReplaceAll(text, regex, replacement);
+        REPLACE_ALL_PROBE.record(CharSequenceAide.length(text), startNanos, event);
+        return result;
+    }
+
+    private static String doReplaceAll(final String text, final LinearRegex regex, final String replacement) {
         if (text == null || regex == null || replacement == null) {
             return text;
         }
-        return text.replaceAll(regex, replacement);
+        return regex.replaceAll(text, replacement);
+    }
+
+    /**
+     * <p>将 {@code text} 中所有与正则表达式 {@code regex} 匹配的部分替换为 {@code replacement}，
+     * 结果与 {@link String#replaceAll(String, String)} 相同。</p>
+     *
+     * <p>{@code regex} 是字面量时不经过 {@link java.util.regex}，否则使用缓存的 {@link Pattern}。</p>
+     *
+     * <pre>
+     * RegexAide.replaceAll("a.b.c", "\\.", "-")      = "a-b-c"
+     * RegexAide.replaceAll("a.b.c", "\\Q.\\E", "$0$0") = "a..b..c"
+     * RegexAide.replaceAll("a1b22", "[0-9]+", "#")    = "a#b#"
+     * </pre>
+     *
+     * @param text 源字符串，为 null 时返回 null
+     * @param regex 正则表达式，为 null 时返回 {@code text}
+     * @param replacement 替换串，可以包含 {@code $n} 分组引用和 {@code \} 转义，为 null 时返回 {@code text}
+     * @return 替换后的字符串
+     * @throws java.util.regex.PatternSyntaxException 如果正则表达式语法错误
+     * @since 1.0.0
+     */
+    public static String replaceAll(final String text, final String regex, final String replacement) {
+        if (!AideMetrics.isActive()) {
+            return doReplaceAll(text, regex, replacement);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String result = doReplaceAll(text, regex, replacement);
+        REPLACE_ALL_PROBE.record(CharSequenceAide.length(text), startNanos, event);
+        return result;
+    }
+
+    private static String doReplaceAll(final String text, final String regex, final String replacement) {
+        if (text == null || regex == null || replacement == null) {
+            return text;
+        }
+        final CompiledRegex compiled = compile(regex);
+        final String literalReplacement = compiled.literalReplacement(replacement);
+        if (literalReplacement != null) {
+            return StringAide.doReplace(text, compiled.literal, literalReplacement, -1, false);
+        }
+        return compiled.pattern().matcher(text).replaceAll(replacement);
+    }
+
+    /**
+     * @deprecated 方法名拼写错误，使用 {@link #replaceAll(String, String, String)} 代替
+     */
+    @Deprecated
+    public static String replaceALl(final String text, final String regex, final String replacement) {
+        return replaceAll(text, regex, replacement);
     }
 
     public static String replaceFirst(final String text, final Pattern regex, final String replacement) {
+        if (!AideMetrics.isActive()) {
+            return doReplaceFirst(text, regex, replacement);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String result = doReplaceFirst(text, regex, replacement);
+        REPLACE_FIRST_PROBE.record(CharSequenceAide.length(text), startNanos, event);
+        return result;
+    }
+
+    private static String doReplaceFirst(final String text, final Pattern regex, final String replacement) {
         if (text == null || regex == null || replacement == null) {
             return text;
         }
         return regex.matcher(text).replaceFirst(replacement);
     }
 
+    /**
+     * <p>使用线性时间的 {@link LinearRegex} 将 {@code text} 中第一个匹配的部分替换为 {@code replacement}，
+     * 结果与使用同一表达式的 {@link java.util.regex.Matcher#replaceFirst(String)} 相同。</p>
+     *
+     * @param text 源字符串，为 null 时返回 null
+     * @param regex 编译后的表达式，为 null 时返回 {@code text}
+     * @param replacement 替换串，可以包含 {@code $n} 分组引用和 {@code \} 转义，为 null 时返回 {@code text}
+     * @return 替换后的字符串
+     * @see #compileLinear(String)
+     * @since 1.0.0
+     */
+    public static String replaceFirst(final String text, final LinearRegex regex, final String replacement) {
+        if (!AideMetrics.isActive()) {
+            return doReplaceFirst(text, regex, replacement);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String result = doReplaceFirst(text, regex, replacement);
+        REPLACE_FIRST_PROBE.record(CharSequenceAide.length(text), startNanos, event);
+        return result;
+    }
+
+    private static String doReplaceFirst(final String text, final LinearRegex regex, final String replacement) {
+        if (text == null || regex == null || replacement == null) {
+            return text;
+        }
+        return regex.replaceFirst(text, replacement);
+    }
+
     public static String replaceFirst(final String text, final String regex, final String replacement) {
+        if (!AideMetrics.isActive()) {
+            return doReplaceFirst(text, regex, replacement);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String result = doReplaceFirst(text, regex, replacement);
+        REPLACE_FIRST_PROBE.record(CharSequenceAide.length(text), startNanos, event);
+        return result;
+    }
+
+    private static String doReplaceFirst(final String text, final String regex, final String replacement) {
         if (text == null || regex == null || replacement == null) {
             return text;
         }
-        return text.replaceFirst(regex, replacement);
+        final CompiledRegex compiled = compile(regex);
+        final String literalReplacement = compiled.literalReplacement(replacement);
+        if (literalReplacement != null) {
+            return StringAide.doReplace(text, compiled.literal, literalReplacement, 1, false);
+        }
+        return compiled.pattern().matcher(text).replaceFirst(replacement);
     }
 
     public static String replacePattern(final String text, final String regex, final String replacement) {
+        if (!AideMetrics.isActive()) {
+            return doReplacePattern(text, regex, replacement);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String result = doReplacePattern(text, regex, replacement);
+        REPLACE_PATTERN_PROBE.record(CharSequenceAide.length(text), startNanos, event);
+        return result;
+    }
+
+    private static String doReplacePattern(final String text, final String regex, final String replacement) {
         if (text == null || regex == null || replacement == null) {
             return text;
         }
-        return Pattern.compile(regex, Pattern.DOTALL).matcher(text).replaceAll(replacement);
+        final CompiledRegex compiled = compile(regex);
+        final String literalReplacement = compiled.literalReplacement(replacement);
+        if (literalReplacement != null) {
+            return StringAide.doReplace(text, compiled.literal, literalReplacement, -1, false);
+        }
+        return compiled.dotallPattern().matcher(text).replaceAll(replacement);
+    }
+
+    /**
+     * <p>编译一组正则表达式，用于在一次扫描中判断哪些表达式能够匹配同一个文本。</p>
+     *
+     * @param regexes 正则表达式，{@code null} 视为空集合，其中的 {@code null} 元素不匹配任何文本
+     * @return 编译后的正则表达式集合
+     * @throws java.util.regex.PatternSyntaxException 如果任一表达式语法错误
+     * @see RegexSet
+     * @since 1.0.0
+     */
+    public static RegexSet compileSet(final Collection<String> regexes) {
+        return RegexSet.compile(regexes);
+    }
+
+    /**
+     * <p>将正则表达式编译为线性时间匹配的 {@link LinearRegex}。</p>
+     *
+     * <p>表达式包含反向引用、环视、占有量词等不支持的构造时抛出 {@link IllegalArgumentException}，
+     * 不会静默地改用 {@link Pattern}；需要两者兼容时先用 {@link LinearRegex#isSupported(String)} 判断。</p>
+     *
+     * <pre>
+     * RegexAide.compileLinear("(a+)+$")  // 对 "aaaa...!" 也在线性时间内返回
+     * RegexAide.compileLinear("(a)\\1")   // 抛出 IllegalArgumentException
+     * </pre>
+     *
+     * @param regex 正则表达式，为 null 时返回 null
+     * @return 编译后的表达式
+     * @throws java.util.regex.PatternSyntaxException 如果正则表达式语法错误
+     * @throws IllegalArgumentException 如果表达式包含不支持的构造
+     * @see LinearRegex
+     * @since 1.0.0
+     */
+    public static LinearRegex compileLinear(final String regex) {
+        return regex == null ? null : LinearRegex.compile(regex);
+    }
+
+    /**
+     * <p>分析并缓存正则表达式，缓存满时整体清空。</p>
+     */
+    static CompiledRegex compile(final String regex) {
+        CompiledRegex compiled = CACHE.get(regex);
+        if (compiled == null) {
+            compiled = new CompiledRegex(regex, literalOf(regex));
+            if (CACHE.size() >= CACHE_SIZE) {
+                CACHE.clear();
+            }
+            CACHE.put(regex, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * <p>如果正则表达式（不带任何标志）只匹配一个固定的非空字符串，则返回这个字符串，否则返回 {@code null}。</p>
+     *
+     * <p>可识别的形式：不含元字符的普通字符、反斜杠加非字母数字的 ASCII 字符、{@code \t \n \r \f}、
+     * 以及 {@code \Q...\E} 引用（缺少 {@code \E} 时引用到末尾）。
+     * 包含代理字符的表达式不视为字面量，因为 {@link java.util.regex} 按代码点而不是按 {@code char} 匹配。</p>
+     *
+     * @param regex 正则表达式
+     * @return 字面量，或 {@code null}
+     */
+    static String literalOf(final String regex) {
+        final int length = regex.length();
+        final StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            final char ch = regex.charAt(i);
+            if (Character.isSurrogate(ch)) {
+                return null;
+            }
+            if (ch != '\\') {
+                if (METACHARACTERS.indexOf(ch) != CharSequenceAide.INDEX_NOT_FOUND) {
+                    return null;
+                }
+                builder.append(ch);
+                continue;
+            }
+            if (++i == length) {
+                return null;
+            }
+            final char escaped = regex.charAt(i);
+            if (escaped == 'Q') {
+                int end = regex.indexOf("\\E", i + 1);
+                if (end == CharSequenceAide.INDEX_NOT_FOUND) {
+                    end = length;
+                }
+                for (int j = i + 1; j < end; j++) {
+                    if (Character.isSurrogate(regex.charAt(j))) {
+                        return null;
+                    }
+                }
+                builder.append(regex, i + 1, end);
+                i = end + 1;
+            } else if (escaped == 't') {
+                builder.append('\t');
+            } else if (escaped == 'n') {
+                builder.append('\n');
+            } else if (escaped == 'r') {
+                builder.append('\r');
+            } else if (escaped == 'f') {
+                builder.append('\f');
+            } else if (escaped < 128 && !Character.isLetterOrDigit(escaped)) {
+                builder.append(escaped);
+            } else {
+                return null;
+            }
+        }
+        return builder.length() == 0 ? null : builder.toString();
+    }
+
+    /**
+     * <p>分析后的正则表达式。</p>
+     */
+    static final class CompiledRegex {
+        final String regex;
+        /**
+         * 表达式匹配的固定字符串，不是字面量时为 null
+         */
+        final String literal;
+        private volatile Pattern pattern;
+        private volatile Pattern dotallPattern;
+
+        private CompiledRegex(final String regex, final String literal) {
+            this.regex = regex;
+            this.literal = literal;
+        }
+
+        Pattern pattern() {
+            Pattern result = pattern;
+            if (result == null) {
+                pattern = result = Pattern.compile(regex);
+            }
+            return result;
+        }
+
+        Pattern dotallPattern() {
+            Pattern result = dotallPattern;
+            if (result == null) {
+                dotallPattern = result = Pattern.compile(regex, Pattern.DOTALL);
+            }
+            return result;
+        }
+
+        /**
+         * <p>按 {@link java.util.regex.Matcher#appendReplacement(StringBuffer, String)} 的规则展开替换串：
+         * {@code \x} 表示字符 {@code x}，{@code $0}（其后的 {@code 0} 也属于分组号）表示匹配到的字面量本身。</p>
+         *
+         * @param replacement 替换串
+         * @return 展开后的替换串；表达式不是字面量，或替换串引用了不存在的分组、格式非法时返回 {@code null}，
+         *          此时应走正则路径以得到相同的结果或异常
+         */
+        String literalReplacement(final String replacement) {
+            if (literal == null) {
+                return null;
+            }
+            if (replacement.indexOf('\\') == CharSequenceAide.INDEX_NOT_FOUND
+                    && replacement.indexOf('$') == CharSequenceAide.INDEX_NOT_FOUND) {
+                return replacement;
+            }
+            final int length = replacement.length();
+            final StringBuilder builder = new StringBuilder(length + literal.length());
+            for (int i = 0; i < length; i++) {
+                final char ch = replacement.charAt(i);
+                if (ch == '\\') {
+                    if (++i == length) {
+                        return null;
+                    }
+                    builder.append(replacement.charAt(i));
+                } else if (ch == '$') {
+                    if (i + 1 == length || replacement.charAt(i + 1) != '0') {
+                        return null;
+                    }
+                    i++;
+                    while (i + 1 < length && replacement.charAt(i + 1) == '0') {
+                        i++;
+                    }
+                    builder.append(literal);
+                } else {
+                    builder.append(ch);
+                }
+            }
+            return builder.toString();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,633 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+
+package org.lomcat.leo.aide;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>预编译的一组正则表达式，对同一个文本判断其中哪些表达式能够匹配（{@link Matcher#find()}）。</p>
+ *
+ * <p>编译时从每个表达式中提取必需的字面量：任何匹配都一定包含其中至少一个字面量。
+ * 所有字面量合并为一个 {@link MultiSearcher}，匹配时先扫描一遍文本，只有必需字面量出现在文本中的表达式才会真正执行
+ * {@link Pattern}，因此每个文本的耗时主要取决于文本长度和实际命中的表达式数，而与表达式总数关系不大。</p>
+ *
+ * <p>无法提取长度不小于 {@value #MIN_LITERAL_LENGTH} 的字面量的表达式（如 {@code "\\d+"}、
+ * 带内嵌标志的 {@code "(?i)error"}）不参与预过滤，每次都执行。预过滤只会排除不可能匹配的表达式，
+ * 结果与逐个执行 {@code pattern.matcher(text).find()} 完全相同。</p>
+ *
+ * <p>实例不可变，可以在多个线程之间共享。</p>
+ *
+ * <pre>
+ * RegexSet set = RegexAide.compileSet(Arrays.asList("ERROR \\d+", "timeout|refused", "^\\s*$"));
+ * set.matches("ERROR 500: connection refused")  = [0, 1]
+ * set.find("ERROR 500: connection refused")     = [ERROR \d+@0, timeout|refused@22]
+ * </pre>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public final class RegexSet {
+
+    /**
+     * 参与预过滤的字面量的最小长度，过短的字面量会使 {@link MultiSearcher} 的窗口过小
+     */
+    static final int MIN_LITERAL_LENGTH = 3;
+    private static final int[] NO_INDEXES = new int[0];
+
+    private final String[] regexes;
+    private final Pattern[] patterns;
+    /**
+     * 每个表达式是否参与预过滤
+     */
+    private final boolean[] prefiltered;
+    /**
+     * 不参与预过滤、每次都要执行的表达式（{@code null} 表达式除外）
+     */
+    private final int[] unfiltered;
+    /**
+     * 所有去重后的字面量，为 null 表示没有任何表达式参与预过滤
+     */
+    private final MultiSearcher searcher;
+    /**
+     * 每个字面量对应的表达式
+     */
+    private final int[][] owners;
+    /**
+     * 每个字面量的所有前缀字面量（包括自身）。{@link MultiSearcher} 在同一位置只报告最长的匹配，
+     * 同一位置上更短的匹配一定是它的前缀
+     */
+    private final int[][] prefixes;
+
+    private RegexSet(final String[] regexes) {
+        final int size = regexes.length;
+        this.regexes = regexes;
+        this.patterns = new Pattern[size];
+        this.prefiltered = new boolean[size];
+        final Map<String, List<Integer>> literalOwners = new LinkedHashMap<>();
+        final List<Integer> unfilteredList = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (regexes[i] == null) {
+                continue;
+            }
+            patterns[i] = Pattern.compile(regexes[i]);
+            final List<String> literals = requiredLiterals(regexes[i]);
+            if (literals == null) {
+                unfilteredList.add(i);
+                continue;
+            }
+            prefiltered[i] = true;
+            for (String literal : literals) {
+                literalOwners.computeIfAbsent(literal, key -> new ArrayList<>()).add(i);
+            }
+        }
+        this.unfiltered = unfilteredList.stream().mapToInt(Integer::intValue).toArray();
+        final String[] literals = literalOwners.keySet().toArray(new String[0]);
+        this.searcher = literals.length == 0 ? null : MultiSearcher.compile(literals);
+        this.owners = new int[literals.length][];
+        this.prefixes = new int[literals.length][];
+        for (int i = 0; i < literals.length; i++) {
+            owners[i] = literalOwners.get(literals[i]).stream().mapToInt(Integer::intValue).toArray();
+            final List<Integer> prefixList = new ArrayList<>();
+            for (int j = 0; j < literals.length; j++) {
+                if (literals[i].startsWith(literals[j])) {
+                    prefixList.add(j);
+                }
+            }
+            prefixes[i] = prefixList.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * <p>编译一组正则表达式，下标按集合的迭代顺序计算，不使用任何标志。</p>
+     *
+     * @param regexes 正则表达式，{@code null} 视为空集合，其中的 {@code null} 元素不匹配任何文本
+     * @return 编译后的正则表达式集合
+     * @throws java.util.regex.PatternSyntaxException 如果任一表达式语法错误
+     * @since 1.0.0
+     */
+    public static RegexSet compile(final Collection<String> regexes) {
+        return new RegexSet(regexes == null ? new String[0] : regexes.toArray(new String[0]));
+    }
+
+    /**
+     * <p>检查是否有任意一个表达式能在 {@code text} 中找到匹配。</p>
+     *
+     * @param text 文本，为 null 时返回 {@code false}
+     * @return 有表达式匹配时返回 {@code true}
+     * @since 1.0.0
+     */
+    public boolean matchesAny(final CharSequence text) {
+        if (text == null) {
+            return false;
+        }
+        final boolean[] candidates = candidates(text);
+        for (int i = 0; i < candidates.length; i++) {
+            if (candidates[i] && patterns[i].matcher(text).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <p>查找所有能在 {@code text} 中找到匹配的表达式。</p>
+     *
+     * @param text 文本，为 null 时返回空数组
+     * @return 匹配的表达式的下标，升序
+     * @since 1.0.0
+     */
+    public int[] matches(final CharSequence text) {
+        if (text == null) {
+            return NO_INDEXES;
+        }
+        final boolean[] candidates = candidates(text);
+        final int[] result = new int[candidates.length];
+        int count = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            if (candidates[i] && patterns[i].matcher(text).find()) {
+                result[count++] = i;
+            }
+        }
+        return count == 0 ? NO_INDEXES : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * <p>查找所有能在 {@code text} 中找到匹配的表达式，并报告每个表达式的第一个匹配的位置。</p>
+     *
+     * @param text 文本，为 null 时返回空列表
+     * @return 匹配结果，按表达式的下标升序
+     * @since 1.0.0
+     */
+    public List<Match> find(final CharSequence text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        final boolean[] candidates = candidates(text);
+        final List<Match> result = new ArrayList<>();
+        for (int i = 0; i < candidates.length; i++) {
+            if (candidates[i]) {
+                final Matcher matcher = patterns[i].matcher(text);
+                if (matcher.find()) {
+                    result.add(new Match(i, regexes[i], matcher.start(), matcher.end()));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return 编译时传入的表达式个数（包括 {@code null}）
+     * @since 1.0.0
+     */
+    public int size() {
+        return regexes.length;
+    }
+
+    /**
+     * @param index 表达式的下标
+     * @return 正则表达式，可能为 {@code null}
+     * @since 1.0.0
+     */
+    public String getRegex(final int index) {
+        return regexes[index];
+    }
+
+    /**
+     * @param index 表达式的下标
+     * @return 编译后的 {@link Pattern}，表达式为 {@code null} 时返回 {@code null}
+     * @since 1.0.0
+     */
+    public Pattern getPattern(final int index) {
+        return patterns[index];
+    }
+
+    /**
+     * @param index 表达式的下标
+     * @return 表达式参与字面量预过滤时返回 {@code true}，否则该表达式对每个文本都要执行
+     * @since 1.0.0
+     */
+    public boolean isPrefiltered(final int index) {
+        return prefiltered[index];
+    }
+
+    /**
+     * <p>扫描一遍文本，找出必需字面量出现过的表达式，加上不参与预过滤的表达式。</p>
+     */
+    private boolean[] candidates(final CharSequence text) {
+        final boolean[] candidates = new boolean[patterns.length];
+        for (int index : unfiltered) {
+            candidates[index] = true;
+        }
+        if (searcher == null) {
+            return candidates;
+        }
+        final boolean[] seen = new boolean[owners.length];
+        int remaining = owners.length;
+        MultiSearcher.Match match = searcher.findFirst(text, 0);
+        while (match != null) {
+            for (int literal : prefixes[match.getNeedleIndex()]) {
+                if (!seen[literal]) {
+                    seen[literal] = true;
+                    remaining--;
+                    for (int owner : owners[literal]) {
+                        candidates[owner] = true;
+                    }
+                }
+            }
+            if (remaining == 0) {
+                break;
+            }
+            match = searcher.findFirst(text, match.getIndex() + 1);
+        }
+        return candidates;
+    }
+
+    /**
+     * <p>提取正则表达式的必需字面量：任何匹配都一定包含返回的字面量中的至少一个。</p>
+     *
+     * @param regex 已经能够成功编译的正则表达式
+     * @return 必需字面量；无法提取、或最短的字面量短于 {@link #MIN_LITERAL_LENGTH} 时返回 {@code null}
+     */
+    static List<String> requiredLiterals(final String regex) {
+        final LiteralExtractor extractor = new LiteralExtractor(regex);
+        final List<String> literals = extractor.alternation();
+        if (extractor.unsupported || extractor.position != regex.length() || shortest(literals) < MIN_LITERAL_LENGTH) {
+            return null;
+        }
+        return literals;
+    }
+
+    /**
+     * @return 最短的字面量的长度，{@code literals} 为 null 时返回 -1
+     */
+    private static int shortest(final List<String> literals) {
+        if (literals == null) {
+            return -1;
+        }
+        int shortest = Integer.MAX_VALUE;
+        for (String literal : literals) {
+            shortest = Math.min(shortest, literal.length());
+        }
+        return shortest;
+    }
+
+    /**
+     * <p>按 {@link Pattern} 的语法递归解析表达式。每个序列在其各个组成部分的必需字面量中选最短字面量最长的一组；
+     * 选择分支取各分支的并集，任一分支没有必需字面量时整体也没有。
+     * 可量化零次的部分、字符类、预定义字符类、零宽断言和环视都不提供字面量，
+     * 遇到内嵌标志、八进制、十六进制、Unicode 属性等无法确定含义的构造时放弃整个表达式。</p>
+     */
+    private static final class LiteralExtractor {
+        private final String regex;
+        private final int length;
+        private int position;
+        private boolean unsupported;
+
+        private LiteralExtractor(final String regex) {
+            this.regex = regex;
+            this.length = regex.length();
+        }
+
+        private List<String> alternation() {
+            final List<List<String>> branches = new ArrayList<>();
+            branches.add(sequence());
+            while (!unsupported && position < length && regex.charAt(position) == '|') {
+                position++;
+                branches.add(sequence());
+            }
+            if (branches.size() == 1) {
+                return branches.get(0);
+            }
+            final List<String> union = new ArrayList<>();
+            for (List<String> branch : branches) {
+                if (branch == null) {
+                    return null;
+                }
+                for (String literal : branch) {
+                    if (!union.contains(literal)) {
+                        union.add(literal);
+                    }
+                }
+            }
+            return union;
+        }
+
+        private List<String> sequence() {
+            List<String> best = null;
+            final StringBuilder run = new StringBuilder();
+            while (!unsupported && position < length) {
+                final char ch = regex.charAt(position);
+                if (ch == '|' || ch == ')') {
+                    break;
+                }
+                switch (ch) {
+                    case '(':
+                        best = better(best, flush(run));
+                        best = better(best, group());
+                        break;
+                    case '[':
+                        best = better(best, flush(run));
+                        skipCharacterClass();
+                        quantifier();
+                        break;
+                    case '.':
+                    case '^':
+                    case '$':
+                    case ']':
+                    case '}':
+                        best = better(best, flush(run));
+                        position++;
+                        quantifier();
+                        break;
+                    case '\\':
+                        best = escape(run, best);
+                        break;
+                    case '{':
+                    case '*':
+                    case '+':
+                    case '?':
+                        unsupported = true;
+                        break;
+                    default:
+                        final int atomLength = Character.isHighSurrogate(ch) && position + 1 < length
+                                && Character.isLowSurrogate(regex.charAt(position + 1)) ? 2 : 1;
+                        final String atom = regex.substring(position, position + atomLength);
+                        position += atomLength;
+                        best = atom(run, best, atom);
+                        break;
+                }
+            }
+            return better(best, flush(run));
+        }
+
+        /**
+         * <p>将一个字面字符加入当前的连续字面量，并处理其后的量词。</p>
+         */
+        private List<String> atom(final StringBuilder run, final List<String> best, final String atom) {
+            final int min = quantifier();
+            if (min == 0) {
+                return better(best, flush(run));
+            }
+            run.append(atom);
+            // 重复多次的字符之后的字面量与之前的不再连续
+            return min > 0 ? better(best, flush(run)) : best;
+        }
+
+        private List<String> escape(final StringBuilder run, final List<String> best) {
+            if (position + 1 >= length) {
+                unsupported = true;
+                return best;
+            }
+            final char escaped = regex.charAt(position + 1);
+            position += 2;
+            if (escaped == 'Q') {
+                int end = regex.indexOf("\\E", position);
+                if (end == CharSequenceAide.INDEX_NOT_FOUND) {
+                    end = length;
+                }
+                final String quoted = regex.substring(position, end);
+                position = Math.min(end + 2, length);
+                if (quoted.isEmpty()) {
+                    return best;
+                }
+                // 量词只作用于引用中的最后一个字符
+                int last = quoted.length() - 1;
+                if (last > 0 && Character.isLowSurrogate(quoted.charAt(last)) && Character.isHighSurrogate(quoted.charAt(last - 1))) {
+                    last--;
+                }
+                run.append(quoted, 0, last);
+                return atom(run, best, quoted.substring(last));
+            }
+            final char literal = escapedLiteral(escaped);
+            if (literal != 0) {
+                return atom(run, best, String.valueOf(literal));
+            }
+            if ("dDsSwWhHvVRX".indexOf(escaped) != CharSequenceAide.INDEX_NOT_FOUND) {
+                final List<String> result = better(best, flush(run));
+                quantifier();
+                return result;
+            }
+            if ("bBAzZG".indexOf(escaped) != CharSequenceAide.INDEX_NOT_FOUND) {
+                return better(best, flush(run));
+            }
+            unsupported = true;
+            return best;
+        }
+
+        private List<String> group() {
+            position++;
+            boolean lookaround = false;
+            if (regex.startsWith("?:", position) || regex.startsWith("?>", position)) {
+                position += 2;
+            } else if (regex.startsWith("?=", position) || regex.startsWith("?!", position)) {
+                position += 2;
+                lookaround = true;
+            } else if (regex.startsWith("?<=", position) || regex.startsWith("?<!", position)) {
+                position += 3;
+                lookaround = true;
+            } else if (regex.startsWith("?<", position)) {
+                final int end = regex.indexOf('>', position);
+                if (end == CharSequenceAide.INDEX_NOT_FOUND) {
+                    unsupported = true;
+                    return null;
+                }
+                position = end + 1;
+            } else if (regex.startsWith("?", position)) {
+                // 内嵌标志会改变匹配规则（如忽略大小写）
+                unsupported = true;
+                return null;
+            }
+            final List<String> inner = alternation();
+            if (unsupported || position >= length || regex.charAt(position) != ')') {
+                unsupported = true;
+                return null;
+            }
+            position++;
+            final int min = quantifier();
+            return lookaround || min == 0 ? null : inner;
+        }
+
+        private void skipCharacterClass() {
+            position++;
+            int depth = 1;
+            skipClassStart();
+            while (position < length) {
+                final char ch = regex.charAt(position++);
+                if (ch == '\\') {
+                    if (position < length && regex.charAt(position) == 'Q') {
+                        unsupported = true;
+                        return;
+                    }
+                    position++;
+                } else if (ch == '[') {
+                    depth++;
+                    skipClassStart();
+                } else if (ch == ']' && --depth == 0) {
+                    return;
+                }
+            }
+            unsupported = true;
+        }
+
+        /**
+         * <p>字符类开头的 {@code '^'} 和紧随其后的 {@code ']'} 都不是特殊字符。</p>
+         */
+        private void skipClassStart() {
+            if (position < length && regex.charAt(position) == '^') {
+                position++;
+            }
+            if (position < length && regex.charAt(position) == ']') {
+                position++;
+            }
+        }
+
+        /**
+         * @return 量词的最小重复次数，没有量词时返回 -1
+         */
+        private int quantifier() {
+            if (position >= length) {
+                return -1;
+            }
+            final char ch = regex.charAt(position);
+            int min;
+            if (ch == '?' || ch == '*') {
+                min = 0;
+                position++;
+            } else if (ch == '+') {
+                min = 1;
+                position++;
+            } else if (ch == '{') {
+                final int end = regex.indexOf('}', position);
+                if (end == CharSequenceAide.INDEX_NOT_FOUND) {
+                    unsupported = true;
+                    return -1;
+                }
+                min = 0;
+                for (int i = position + 1; i < end && Character.isDigit(regex.charAt(i)); i++) {
+                    min = Math.min(min * 10 + regex.charAt(i) - '0', 1);
+                }
+                position = end + 1;
+            } else {
+                return -1;
+            }
+            // 懒惰和占有量词的后缀
+            if (position < length && (regex.charAt(position) == '?' || regex.charAt(position) == '+')) {
+                position++;
+            }
+            return min;
+        }
+
+        private static char escapedLiteral(final char escaped) {
+            switch (escaped) {
+                case 't':
+                    return '\t';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 'f':
+                    return '\f';
+                case 'a':
+                    return '\u0007';
+                case 'e':
+                    return '\u001B';
+                default:
+                    return escaped < 128 && !Character.isLetterOrDigit(escaped) ? escaped : 0;
+            }
+        }
+
+        private static List<String> flush(final StringBuilder run) {
+            if (run.length() == 0) {
+                return null;
+            }
+            final List<String> result = Collections.singletonList(run.toString());
+            run.setLength(0);
+            return result;
+        }
+
+        /**
+         * @return 最短字面量更长的一组
+         */
+        private static List<String> better(final List<String> current, final List<String> candidate) {
+            return shortest(candidate) > shortest(current) ? candidate : current;
+        }
+    }
+
+    /**
+     * <p>一个表达式的第一个匹配，不可变。</p>
+     *
+     * @since 1.0.0
+     */
+    public static final class Match {
+        private final int patternIndex;
+        private final String regex;
+        private final int start;
+        private final int end;
+
+        private Match(final int patternIndex, final String regex, final int start, final int end) {
+            this.patternIndex = patternIndex;
+            this.regex = regex;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * @return 表达式在编译时的下标
+         */
+        public int getPatternIndex() {
+            return patternIndex;
+        }
+
+        /**
+         * @return 正则表达式
+         */
+        public String getRegex() {
+            return regex;
+        }
+
+        /**
+         * @return 匹配在文本中的开始位置
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * @return 匹配在文本中的结束位置（不包含）
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return regex + "@" + start;
+        }
+    }
+}
@@ -0,0 +1,626 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+
+package org.lomcat.leo.aide;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>可编辑的大文本，适合对很长的文档反复执行插入、删除、替换等操作。</p>
+ *
+ * <p>内部为片段表（piece table）：文本由若干片段按顺序组成，每个片段引用某个不可变字符串的一段区域，
+ * 片段保存在以位置为键的随机平衡树（treap）中。按位置插入、删除、替换只需拆分和合并片段，
+ * 期望时间复杂度为 O(log n)，不复制文档内容；
+ * {@link #replace(String, String)} 等按内容操作的方法需要扫描一遍文本，但同样只生成新的片段，不复制未改变的部分。</p>
+ *
+ * <p>{@link #toString()} 在第一次调用时拼接出完整的字符串并缓存，直到下一次修改。
+ * {@link #charAt(int)} 的时间复杂度为 O(log n)，需要顺序读取大量字符时应使用 {@link #toString()}。
+ * 此类不是线程安全的。</p>
+ *
+ * <pre>
+ * Rope rope = Rope.of("hello world");
+ * rope.replace("o", "0");          = 2，rope 为 "hell0 w0rld"
+ * rope.insert(0, "[").append("]"); rope 为 "[hell0 w0rld]"
+ * rope.delete(1, 7);               rope 为 "[w0rld]"
+ * </pre>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public final class Rope implements CharSequence {
+
+    private Node root;
+    /**
+     * 缓存的完整字符串，修改后置为 null
+     */
+    private String flat;
+    private int seed = 0x2545F491;
+
+    private Rope() {
+    }
+
+    /**
+     * <p>以指定内容创建一个 {@code Rope}，不复制字符串。</p>
+     *
+     * @param text 初始内容，为 null 时视为空串
+     * @return {@code Rope}
+     * @since 1.0.0
+     */
+    public static Rope of(final CharSequence text) {
+        final Rope rope = new Rope();
+        rope.append(text);
+        return rope;
+    }
+
+    private static final class Node {
+        /**
+         * 片段引用的字符串
+         */
+        private final String source;
+        private final int start;
+        private final int length;
+        private int priority;
+        private Node left;
+        private Node right;
+        /**
+         * 以此节点为根的子树的字符数
+         */
+        private int size;
+
+        private Node(final String source, final int start, final int length, final int priority) {
+            this.source = source;
+            this.start = start;
+            this.length = length;
+            this.priority = priority;
+            this.size = length;
+        }
+
+        private Node update() {
+            size = length + sizeOf(left) + sizeOf(right);
+            return this;
+        }
+    }
+
+    private static int sizeOf(final Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private int nextPriority() {
+        // xorshift32
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        seed = x;
+        return x;
+    }
+
+    /**
+     * 按字符位置拆分，返回 [前 index 个字符, 其余字符]
+     */
+    private Node[] split(final Node node, final int index) {
+        if (node == null) {
+            return new Node[2];
+        }
+        final int leftSize = sizeOf(node.left);
+        if (index <= leftSize) {
+            final Node[] parts = split(node.left, index);
+            node.left = parts[1];
+            parts[1] = node.update();
+            return parts;
+        }
+        if (index >= leftSize + node.length) {
+            final Node[] parts = split(node.right, index - leftSize - node.length);
+            node.right = parts[0];
+            parts[0] = node.update();
+            return parts;
+        }
+        // 位置落在当前片段内部，将片段一分为二
+        final int offset = index - leftSize;
+        final Node head = new Node(node.source, node.start, offset, node.priority);
+        head.left = node.left;
+        final Node tail = new Node(node.source, node.start + offset, node.length - offset, nextPriority());
+        tail.right = node.right;
+        return new Node[]{head.update(), tail.update()};
+    }
+
+    private static Node merge(final Node left, final Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return left.update();
+        }
+        right.left = merge(left, right.left);
+        return right.update();
+    }
+
+    private Node piece(final CharSequence text) {
+        final String string = text.toString();
+        return new Node(string, 0, string.length(), nextPriority());
+    }
+
+    @Override
+    public int length() {
+        return sizeOf(root);
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length());
+        }
+        if (flat != null) {
+            return flat.charAt(index);
+        }
+        Node node = root;
+        int position = index;
+        while (true) {
+            final int leftSize = sizeOf(node.left);
+            if (position < leftSize) {
+                node = node.left;
+            } else if (position < leftSize + node.length) {
+                return node.source.charAt(node.start + position - leftSize);
+            } else {
+                position -= leftSize + node.length;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * <p>返回 [start, end) 范围的内容，结果为新的字符串。</p>
+     */
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+        return substring(start, end);
+    }
+
+    /**
+     * <p>返回 [start, end) 范围的内容，只拼接与范围相交的片段。</p>
+     *
+     * @param start 开始位置（包含）
+     * @param end 结束位置（不包含）
+     * @return 子串
+     * @throws IndexOutOfBoundsException 如果范围越界
+     * @since 1.0.0
+     */
+    public String substring(final int start, final int end) {
+        checkRange(start, end);
+        if (flat != null) {
+            return flat.substring(start, end);
+        }
+        final StringBuilder builder = new StringBuilder(end - start);
+        appendRange(root, start, end, builder);
+        return builder.toString();
+    }
+
+    /**
+     * <p>返回从 {@code start} 开始到结尾的内容。</p>
+     *
+     * @param start 开始位置（包含）
+     * @return 子串
+     * @throws IndexOutOfBoundsException 如果位置越界
+     * @since 1.0.0
+     */
+    public String substring(final int start) {
+        return substring(start, length());
+    }
+
+    private static void appendRange(final Node node, final int from, final int to, final StringBuilder builder) {
+        if (node == null || from >= to) {
+            return;
+        }
+        final int leftSize = sizeOf(node.left);
+        if (from < leftSize) {
+            appendRange(node.left, from, Math.min(to, leftSize), builder);
+        }
+        final int pieceFrom = Math.max(from - leftSize, 0);
+        final int pieceTo = Math.min(to - leftSize, node.length);
+        if (pieceFrom < pieceTo) {
+            builder.append(node.source, node.start + pieceFrom, node.start + pieceTo);
+        }
+        final int rightOffset = leftSize + node.length;
+        if (to > rightOffset) {
+            appendRange(node.right, Math.max(from - rightOffset, 0), to - rightOffset, builder);
+        }
+    }
+
+    /**
+     * <p>返回完整的内容，第一次调用时拼接并缓存，直到下一次修改。</p>
+     */
+    @Override
+    public String toString() {
+        if (flat == null) {
+            final StringBuilder builder = new StringBuilder(length());
+            appendRange(root, 0, length(), builder);
+            flat = builder.toString();
+        }
+        return flat;
+    }
+
+    /**
+     * <p>在末尾追加内容。</p>
+     *
+     * @param text 要追加的内容，为 null 或空串时不做任何事
+     * @return 当前对象
+     * @since 1.0.0
+     */
+    public Rope append(final CharSequence text) {
+        return insert(length(), text);
+    }
+
+    /**
+     * <p>在指定位置插入内容，期望时间复杂度为 O(log n)。</p>
+     *
+     * @param index 插入位置
+     * @param text 要插入的内容，为 null 或空串时不做任何事
+     * @return 当前对象
+     * @throws IndexOutOfBoundsException 如果位置越界
+     * @since 1.0.0
+     */
+    public Rope insert(final int index, final CharSequence text) {
+        checkRange(index, index);
+        if (text == null || text.length() == 0) {
+            return this;
+        }
+        final Node[] parts = split(root, index);
+        root = merge(merge(parts[0], piece(text)), parts[1]);
+        flat = null;
+        return this;
+    }
+
+    /**
+     * <p>删除 [start, end) 范围的内容，期望时间复杂度为 O(log n)。</p>
+     *
+     * @param start 开始位置（包含）
+     * @param end 结束位置（不包含）
+     * @return 当前对象
+     * @throws IndexOutOfBoundsException 如果范围越界
+     * @since 1.0.0
+     */
+    public Rope delete(final int start, final int end) {
+        return replace(start, end, null);
+    }
+
+    /**
+     * <p>将 [start, end) 范围的内容替换为 {@code text}，期望时间复杂度为 O(log n)。</p>
+     *
+     * @param start 开始位置（包含）
+     * @param end 结束位置（不包含）
+     * @param text 替换后的内容，为 null 时视为空串
+     * @return 当前对象
+     * @throws IndexOutOfBoundsException 如果范围越界
+     * @since 1.0.0
+     */
+    public Rope replace(final int start, final int end, final CharSequence text) {
+        checkRange(start, end);
+        if (start == end && (text == null || text.length() == 0)) {
+            return this;
+        }
+        final Node[] head = split(root, start);
+        final Node[] tail = split(head[1], end - start);
+        Node middle = null;
+        if (text != null && text.length() > 0) {
+            middle = piece(text);
+        }
+        root = merge(merge(head[0], middle), tail[1]);
+        flat = null;
+        return this;
+    }
+
+    /**
+     * <p>查找 {@code searchString} 从 {@code fromIndex} 开始首次出现的位置，逐片段扫描，不拼接完整的字符串。</p>
+     *
+     * @param searchString 要查找的字符串，不能为 null
+     * @param fromIndex 开始位置，小于 0 时从 0 开始
+     * @return 位置，未找到时返回 -1
+     * @since 1.0.0
+     */
+    public int indexOf(final String searchString, final int fromIndex) {
+        if (flat != null) {
+            return flat.indexOf(searchString, fromIndex);
+        }
+        final Pieces pieces = new Pieces(root);
+        return pieces.find(searchString, Math.max(fromIndex, 0));
+    }
+
+    /**
+     * <p>替换所有出现的 {@code searchString}，规则与 {@link StringAide#replace(String, String, String)} 相同。</p>
+     *
+     * @param searchString 要查找的字符串，为 null 或空串时不做任何事
+     * @param replacement 替换后的字符串，为 null 时不做任何事
+     * @return 替换的次数
+     * @since 1.0.0
+     */
+    public int replace(final String searchString, final String replacement) {
+        return replace(searchString, replacement, -1);
+    }
+
+    /**
+     * <p>替换 {@code searchString}，最多替换 {@code max} 次，规则与 {@link StringAide#replace(String, String, String, int)} 相同。</p>
+     *
+     * <p>只扫描一遍文本，未改变的部分以原有片段的一部分保留，然后重新构建平衡树。</p>
+     *
+     * @param searchString 要查找的字符串，为 null 或空串时不做任何事
+     * @param replacement 替换后的字符串，为 null 时不做任何事
+     * @param max 最大替换次数，{@code -1} 表示不限制
+     * @return 替换的次数
+     * @since 1.0.0
+     */
+    public int replace(final String searchString, final String replacement, int max) {
+        if (StringAide.isEmpty(searchString) || replacement == null || max == 0 || root == null) {
+            return 0;
+        }
+        final Pieces pieces = new Pieces(root);
+        final List<Node> result = new ArrayList<>();
+        final int length = length();
+        int position = 0;
+        int count = 0;
+        int found = pieces.find(searchString, 0);
+        while (found >= 0) {
+            pieces.collect(position, found, result);
+            if (!replacement.isEmpty()) {
+                result.add(new Node(replacement, 0, replacement.length(), 0));
+            }
+            position = found + searchString.length();
+            count++;
+            if (--max == 0) {
+                break;
+            }
+            found = pieces.find(searchString, position);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        pieces.collect(position, length, result);
+        root = build(result);
+        flat = null;
+        return count;
+    }
+
+    /**
+     * <p>只替换第一个出现的 {@code searchString}，规则与 {@link StringAide#replaceOnce(String, String, String)} 相同。</p>
+     *
+     * @param searchString 要查找的字符串，为 null 或空串时不做任何事
+     * @param replacement 替换后的字符串，为 null 时不做任何事
+     * @return 是否发生了替换
+     * @since 1.0.0
+     */
+    public boolean replaceOnce(final String searchString, final String replacement) {
+        if (StringAide.isEmpty(searchString) || replacement == null) {
+            return false;
+        }
+        final int index = indexOf(searchString, 0);
+        if (index < 0) {
+            return false;
+        }
+        replace(index, index + searchString.length(), replacement);
+        return true;
+    }
+
+    /**
+     * <p>删除所有出现的 {@code deleteString}，规则与 {@link StringAide#delete(String, String)} 相同。</p>
+     *
+     * @param deleteString 要删除的字符串，为 null 或空串时不做任何事
+     * @return 删除的次数
+     * @since 1.0.0
+     */
+    public int delete(final String deleteString) {
+        return replace(deleteString, StringAide.EMPTY, -1);
+    }
+
+    /**
+     * <p>当内容以 {@code deleteString} 开头时将其删除，规则与 {@link StringAide#deleteStart(String, String)} 相同。</p>
+     *
+     * @param deleteString 要删除的字符串，为 null 或空串时不做任何事
+     * @return 是否发生了删除
+     * @since 1.0.0
+     */
+    public boolean deleteStart(final String deleteString) {
+        if (StringAide.isEmpty(deleteString) || !regionEquals(0, deleteString)) {
+            return false;
+        }
+        delete(0, deleteString.length());
+        return true;
+    }
+
+    /**
+     * <p>当内容以 {@code deleteString} 结尾时将其删除，规则与 {@link StringAide#deleteEnd(String, String)} 相同。</p>
+     *
+     * @param deleteString 要删除的字符串，为 null 或空串时不做任何事
+     * @return 是否发生了删除
+     * @since 1.0.0
+     */
+    public boolean deleteEnd(final String deleteString) {
+        if (StringAide.isEmpty(deleteString) || !regionEquals(length() - deleteString.length(), deleteString)) {
+            return false;
+        }
+        delete(length() - deleteString.length(), length());
+        return true;
+    }
+
+    private boolean regionEquals(final int start, final String string) {
+        if (start < 0 || start + string.length() > length()) {
+            return false;
+        }
+        return substring(start, start + string.length()).equals(string);
+    }
+
+    private void checkRange(final int start, final int end) {
+        if (start < 0 || start > end || end > length()) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length());
+        }
+    }
+
+    /**
+     * 由有序的片段构建平衡树，再按层序分配从大到小的随机优先级，使其满足堆性质
+     */
+    private Node build(final List<Node> list) {
+        final int size = list.size();
+        if (size == 0) {
+            return null;
+        }
+        final Node top = shape(list, 0, size);
+        final int[] priorities = new int[size];
+        for (int i = 0; i < size; i++) {
+            priorities[i] = nextPriority();
+        }
+        Arrays.sort(priorities);
+        final Node[] queue = new Node[size];
+        queue[0] = top;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            final Node node = queue[head];
+            node.priority = priorities[size - 1 - head];
+            head++;
+            if (node.left != null) {
+                queue[tail++] = node.left;
+            }
+            if (node.right != null) {
+                queue[tail++] = node.right;
+            }
+        }
+        return top;
+    }
+
+    /**
+     * 以中点为根构建形状平衡的树
+     */
+    private static Node shape(final List<Node> list, final int from, final int to) {
+        if (from >= to) {
+            return null;
+        }
+        final int middle = (from + to) >>> 1;
+        final Node node = list.get(middle);
+        node.left = shape(list, from, middle);
+        node.right = shape(list, middle + 1, to);
+        return node.update();
+    }
+
+    /**
+     * <p>按顺序展开的片段列表，用于扫描文本。</p>
+     */
+    private static final class Pieces {
+        private final List<Node> list = new ArrayList<>();
+        /**
+         * 每个片段在文本中的开始位置
+         */
+        private final int[] offsets;
+
+        private Pieces(final Node root) {
+            inOrder(root);
+            offsets = new int[list.size() + 1];
+            for (int i = 0; i < list.size(); i++) {
+                offsets[i + 1] = offsets[i] + list.get(i).length;
+            }
+        }
+
+        private void inOrder(final Node node) {
+            if (node != null) {
+                inOrder(node.left);
+                list.add(node);
+                inOrder(node.right);
+            }
+        }
+
+        private int pieceAt(final int position) {
+            int index = Arrays.binarySearch(offsets, 0, list.size(), position);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        /**
+         * 查找 {@code search} 从 {@code from} 开始首次出现的位置
+         */
+        private int find(final String search, final int from) {
+            final int total = offsets[list.size()];
+            final int searchLength = search.length();
+            if (searchLength == 0) {
+                return Math.min(from, total);
+            }
+            if (from + searchLength > total) {
+                return -1;
+            }
+            for (int p = pieceAt(from); p < list.size(); p++) {
+                final Node node = list.get(p);
+                final int base = offsets[p];
+                final int localFrom = Math.max(from - base, 0);
+                // 完全位于片段内部的匹配
+                final int localLast = node.length - searchLength;
+                if (localFrom <= localLast) {
+                    final int index = CharSlice.of(node.source, node.start, node.start + node.length)
+                            .indexOf(search, localFrom);
+                    if (index >= 0) {
+                        return base + index;
+                    }
+                }
+                // 跨越片段边界的匹配
+                for (int i = Math.max(localFrom, localLast + 1); i < node.length; i++) {
+                    if (base + i + searchLength > total) {
+                        return -1;
+                    }
+                    if (matchesAt(p, i, search)) {
+                        return base + i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private boolean matchesAt(int piece, int local, final String search) {
+            Node node = list.get(piece);
+            for (int k = 0; k < search.length(); k++) {
+                while (local >= node.length) {
+                    local -= node.length;
+                    node = list.get(++piece);
+                }
+                if (node.source.charAt(node.start + local) != search.charAt(k)) {
+                    return false;
+                }
+                local++;
+            }
+            return true;
+        }
+
+        /**
+         * 将 [from, to) 范围对应的片段（或片段的一部分）追加到 {@code result}
+         */
+        private void collect(final int from, final int to, final List<Node> result) {
+            if (from >= to) {
+                return;
+            }
+            for (int p = pieceAt(from); p < list.size() && offsets[p] < to; p++) {
+                final Node node = list.get(p);
+                final int localFrom = Math.max(from - offsets[p], 0);
+                final int localTo = Math.min(to - offsets[p], node.length);
+                if (localFrom < localTo) {
+                    result.add(new Node(node.source, node.start + localFrom, localTo - localFrom, 0));
+                }
+            }
+        }
+    }
+}
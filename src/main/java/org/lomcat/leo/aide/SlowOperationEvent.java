@@ -0,0 +1,58 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+/**
+ * <p>耗时或输入长度超过阈值的字符串操作，对应的 JFR 事件名为 {@value #NAME}。</p>
+ *
+ * <p>本类是多版本 JAR 中 Java 10 的基线版本。{@code jdk.jfr} 模块从 Java 11 起才提供，
+ * 基线版本不发出任何事件，{@link #install()} 总是失败；{@code META-INF/versions/11} 中的同名类才是真正的 JFR 事件，
+ * 两个版本的方法签名必须一致。</p>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+final class SlowOperationEvent {
+
+    static final String NAME = "LeoAide.SlowOperation";
+
+    private SlowOperationEvent() {
+    }
+
+    /**
+     * @throws IllegalStateException 总是抛出
+     */
+    static void install() {
+        throw new IllegalStateException("JDK Flight Recorder events require Java 11 or later");
+    }
+
+    /**
+     * @return 总是 {@code null}
+     */
+    static Object start() {
+        return null;
+    }
+
+    /**
+     * 不做任何事
+     */
+    static void complete(final Object event, final String method, final int inputLength, final int matchCount) {
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import java.time.Duration;
+
+/**
+ * <p>为 {@link AideMetrics} 统计的方法发出 JFR 事件 {@code LeoAide.SlowOperation}。</p>
+ *
+ * <p>事件默认关闭，可以通过系统属性 {@code -Dleo.aide.jfr=true} 或 {@link #setEnabled(boolean)} 开启。
+ * 开启后，只有在存在正在运行的 JFR 记录时被统计的方法才会计时，
+ * 耗时达到 {@link #getDurationThreshold()} 或输入长度达到 {@link #getInputLengthThreshold()} 的调用会发出一个事件，
+ * 事件中包含方法名、输入长度和匹配数量，事件的持续时间即调用的耗时。
+ * 事件本身还受 JFR 记录中 {@code LeoAide.SlowOperation} 的 {@code enabled}、{@code threshold} 设置控制。</p>
+ *
+ * <p>{@code jdk.jfr} 模块从 Java 11 起才提供，事件的实现位于多版本 JAR 的 {@code META-INF/versions/11} 中；
+ * 在 Java 10 上开启事件会抛出 {@link IllegalStateException}。</p>
+ *
+ * <p>匹配数量的含义取决于方法：{@code indexOf*} 为 0 或 1，{@code split*} 为分隔后的元素个数，
+ * {@code strip*} 为移除的字符数，{@code replace}、{@code replaceEach*} 为替换的次数，无法确定时为 -1。</p>
+ *
+ * <p>阈值可以通过系统属性 {@code leo.aide.jfr.durationThresholdMillis}（默认 10）和
+ * {@code leo.aide.jfr.inputLengthThreshold}（默认 1048576）设置。</p>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public final class SlowOperationEvents {
+
+    /**
+     * 开启事件的系统属性
+     */
+    public static final String ENABLED_PROPERTY = "leo.aide.jfr";
+    /**
+     * 耗时阈值（毫秒）的系统属性
+     */
+    public static final String DURATION_THRESHOLD_PROPERTY = "leo.aide.jfr.durationThresholdMillis";
+    /**
+     * 输入长度阈值的系统属性
+     */
+    public static final String INPUT_LENGTH_THRESHOLD_PROPERTY = "leo.aide.jfr.inputLengthThreshold";
+
+    private static final long DEFAULT_DURATION_THRESHOLD_MILLIS = 10;
+    private static final int DEFAULT_INPUT_LENGTH_THRESHOLD = 1 << 20;
+
+    private static volatile long durationThresholdNanos = Duration.ofMillis(
+            Long.getLong(DURATION_THRESHOLD_PROPERTY, DEFAULT_DURATION_THRESHOLD_MILLIS)).toNanos();
+    private static volatile int inputLengthThreshold = Integer.getInteger(
+            INPUT_LENGTH_THRESHOLD_PROPERTY, DEFAULT_INPUT_LENGTH_THRESHOLD);
+
+    private static boolean installed;
+    private static volatile boolean enabled;
+    /**
+     * 已开启且存在正在运行的 JFR 记录
+     */
+    private static volatile boolean recording;
+    private static volatile boolean recordingRunning;
+
+    static {
+        if (Boolean.getBoolean(ENABLED_PROPERTY)) {
+            try {
+                setEnabled(true);
+            } catch (IllegalStateException ignored) {
+                // 运行时缺少 jdk.jfr 模块，保持关闭
+            }
+        }
+    }
+
+    private SlowOperationEvents() {
+    }
+
+    /**
+     * <p>事件是否已开启。</p>
+     *
+     * @return 已开启时返回 {@code true}
+     * @since 1.0.0
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * <p>开启或关闭事件。</p>
+     *
+     * @param enabled 是否开启
+     * @throws IllegalStateException 开启时运行时缺少 {@code jdk.jfr} 模块，或运行在 Java 10 上
+     * @since 1.0.0
+     */
+    public static synchronized void setEnabled(final boolean enabled) {
+        if (enabled && !installed) {
+            try {
+                SlowOperationEvent.install();
+            } catch (LinkageError e) {
+                throw new IllegalStateException("JDK Flight Recorder is not available", e);
+            }
+            installed = true;
+        }
+        SlowOperationEvents.enabled = enabled;
+        recording = enabled && recordingRunning;
+    }
+
+    /**
+     * <p>获取耗时阈值。</p>
+     *
+     * @return 耗时阈值
+     * @since 1.0.0
+     */
+    public static Duration getDurationThreshold() {
+        return Duration.ofNanos(durationThresholdNanos);
+    }
+
+    /**
+     * <p>设置耗时阈值，耗时达到此值的调用会发出事件。</p>
+     *
+     * @param threshold 耗时阈值，不能为 null 或负数
+     * @throws IllegalArgumentException {@code threshold} 为 null 或负数时
+     * @since 1.0.0
+     */
+    public static void setDurationThreshold(final Duration threshold) {
+        if (threshold == null || threshold.isNegative()) {
+            throw new IllegalArgumentException("Duration threshold must not be null or negative: " + threshold);
+        }
+        durationThresholdNanos = threshold.toNanos();
+    }
+
+    /**
+     * <p>获取输入长度阈值。</p>
+     *
+     * @return 输入长度阈值
+     * @since 1.0.0
+     */
+    public static int getInputLengthThreshold() {
+        return inputLengthThreshold;
+    }
+
+    /**
+     * <p>设置输入长度阈值，输入长度达到此值的调用会发出事件。</p>
+     *
+     * @param threshold 输入长度阈值，不能为负数
+     * @throws IllegalArgumentException {@code threshold} 为负数时
+     * @since 1.0.0
+     */
+    public static void setInputLengthThreshold(final int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Input length threshold must not be negative: " + threshold);
+        }
+        inputLengthThreshold = threshold;
+    }
+
+    /**
+     * @return 已开启且存在正在运行的 JFR 记录时返回 {@code true}
+     */
+    static boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * 由 {@link SlowOperationEvent} 在 JFR 记录状态变化时调用
+     */
+    static synchronized void recordingChanged(final boolean running) {
+        recordingRunning = running;
+        recording = enabled && running;
+    }
+
+    /**
+     * <p>存在正在运行的 JFR 记录时开始一个事件，由被统计的方法在调用开始时调用。</p>
+     *
+     * @return 已开始的事件，不需要发出事件时返回 {@code null}
+     */
+    static Object begin() {
+        return recording ? SlowOperationEvent.start() : null;
+    }
+
+    /**
+     * <p>超过任一阈值时提交 {@link #begin()} 开始的事件。</p>
+     *
+     * @param event {@link #begin()} 返回的事件，不能为 null
+     * @param method 方法名
+     * @param inputLength 输入长度
+     * @param matchCount 匹配数量，无法确定时为 -1
+     * @param elapsed 耗时（纳秒）
+     */
+    static void record(final Object event, final String method, final int inputLength, final int matchCount,
+                       final long elapsed) {
+        if (elapsed >= durationThresholdNanos || inputLength >= inputLengthThreshold) {
+            SlowOperationEvent.complete(event, method, inputLength, matchCount);
+        }
+    }
+}
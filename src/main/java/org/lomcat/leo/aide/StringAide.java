@@ -51,6 +51,22 @@ public class StringAide extends CharSequenceAide {
 //    public static final String HYPHEN = "-";
 //    public static final String UNDERSCORE = "_";
 
+    private static final AideMetrics.Probe STRIP_START_PROBE = AideMetrics.probe("StringAide.stripStart");
+    private static final AideMetrics.Probe STRIP_END_PROBE = AideMetrics.probe("StringAide.stripEnd");
+    private static final AideMetrics.Probe STRIP_PROBE = AideMetrics.probe("StringAide.strip");
+    private static final AideMetrics.Probe STRIP_ACCENTS_PROBE = AideMetrics.probe("StringAide.stripAccents");
+    private static final AideMetrics.Probe REPLACE_PROBE = AideMetrics.probe("StringAide.replace");
+    private static final AideMetrics.Probe REPLACE_IGNORE_CASE_PROBE = AideMetrics.probe("StringAide.replaceIgnoreCase");
+    private static final AideMetrics.Probe REPLACE_EACH_PROBE = AideMetrics.probe("StringAide.replaceEach");
+    private static final AideMetrics.Probe REPLACE_EACH_REPEATEDLY_PROBE = AideMetrics.probe("StringAide.replaceEachRepeatedly");
+    private static final AideMetrics.Probe REPLACE_CHARS_PROBE = AideMetrics.probe("StringAide.replaceChars");
+    private static final AideMetrics.Probe SPLIT_PROBE = AideMetrics.probe("StringAide.split");
+    private static final AideMetrics.Probe SPLIT_PRESERVE_ALL_TOKENS_PROBE = AideMetrics.probe("StringAide.splitPreserveAllTokens");
+    private static final AideMetrics.Probe SPLIT_BY_WHOLE_SEPARATOR_PROBE = AideMetrics.probe("StringAide.splitByWholeSeparator");
+    private static final AideMetrics.Probe SPLIT_BY_WHOLE_SEPARATOR_PRESERVE_ALL_TOKENS_PROBE = AideMetrics.probe("StringAide.splitByWholeSeparatorPreserveAllTokens");
+    private static final AideMetrics.Probe SPLIT_BY_CHARACTER_TYPE_PROBE = AideMetrics.probe("StringAide.splitByCharacterType");
+    private static final AideMetrics.Probe SPLIT_BY_CHARACTER_TYPE_CAMEL_CASE_PROBE = AideMetrics.probe("StringAide.splitByCharacterTypeCamelCase");
+
 
 
     // ----- Trim string ----- start
@@ -125,21 +141,30 @@ public class StringAide extends CharSequenceAide {
      * @since 1.0.0
      */
     public static String stripStart(final String string, final String stripChars) {
+        if (!AideMetrics.isActive()) {
+            return doStripStart(string, stripChars);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String result = doStripStart(string, stripChars);
+        STRIP_START_PROBE.record(length(string), length(string) - length(result), startNanos, event);
+        return result;
+    }
+
+    private static String doStripStart(final String string, final String stripChars) {
         int stringLength;
         if (string == null || (stringLength = string.length()) == 0) {
             return string;
         }
-        int start = 0;
         if (stripChars == null) {
-            while (start != stringLength && Character.isWhitespace(string.charAt(start))) {
-                start++;
-            }
-        } else if (stripChars.isEmpty()) {
+            return StringKernel.stripLeading(string);
+        }
+        if (stripChars.isEmpty()) {
             return string;
-        } else {
-            while (start != stringLength && stripChars.indexOf(string.charAt(start)) != INDEX_NOT_FOUND) {
-                start++;
-            }
+        }
+        int start = 0;
+        while (start != stringLength && stripChars.indexOf(string.charAt(start)) != INDEX_NOT_FOUND) {
+            start++;
         }
         return string.substring(start);
     }
@@ -175,20 +200,29 @@ public class StringAide extends CharSequenceAide {
      * @since 1.0.0
      */
     public static String stripEnd(final String string, final String stripChars) {
+        if (!AideMetrics.isActive()) {
+            return doStripEnd(string, stripChars);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String result = doStripEnd(string, stripChars);
+        STRIP_END_PROBE.record(length(string), length(string) - length(result), startNanos, event);
+        return result;
+    }
+
+    private static String doStripEnd(final String string, final String stripChars) {
         int end;
         if (string == null || (end = string.length()) == 0) {
             return string;
         }
         if (stripChars == null) {
-            while (end != 0 && Character.isWhitespace(string.charAt(end - 1))) {
-                end--;
-            }
-        } else if (stripChars.isEmpty()) {
+            return StringKernel.stripTrailing(string);
+        }
+        if (stripChars.isEmpty()) {
             return string;
-        } else {
-            while (end != 0 && stripChars.indexOf(string.charAt(end - 1)) != INDEX_NOT_FOUND) {
-                end--;
-            }
+        }
+        while (end != 0 && stripChars.indexOf(string.charAt(end - 1)) != INDEX_NOT_FOUND) {
+            end--;
         }
         return string.substring(0, end);
     }
@@ -222,10 +256,24 @@ public class StringAide extends CharSequenceAide {
      * @since 1.0.0
      */
     public static String strip(final String string, final String stripChars) {
+        if (!AideMetrics.isActive()) {
+            return doStrip(string, stripChars);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String result = doStrip(string, stripChars);
+        STRIP_PROBE.record(length(string), length(string) - length(result), startNanos, event);
+        return result;
+    }
+
+    private static String doStrip(final String string, final String stripChars) {
         if (isEmpty(string)) {
             return string;
         }
-        return stripEnd(stripStart(string, stripChars), stripChars);
+        if (stripChars == null) {
+            return StringKernel.strip(string);
+        }
+        return doStripEnd(doStripStart(string, stripChars), stripChars);
     }
 
     /**
@@ -265,7 +313,7 @@ public class StringAide extends CharSequenceAide {
         if (isEmpty(string)) {
             return null;
         }
-        string = strip(string);
+        string = doStrip(string, null);
         return string.isEmpty() ? null : string;
     }
 
@@ -280,7 +328,7 @@ public class StringAide extends CharSequenceAide {
      * @since 1.0.0
      */
     public static String stripToEmpty(String string) {
-        return string == null ? EMPTY : strip(string, null);
+        return string == null ? EMPTY : doStrip(string, null);
     }
 
     /**
@@ -298,6 +346,20 @@ public class StringAide extends CharSequenceAide {
      * @since 1.0.0
      */
     public static String stripAccents(final String string) {
+        if (!AideMetrics.isActive()) {
+            return doStripAccents(string);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String result = doStripAccents(string);
+        STRIP_ACCENTS_PROBE.record(length(string), length(string) - length(result), startNanos, event);
+        return result;
+    }
+
+    /**
+     * <p>{@link #stripAccents(String)} 的实现，不经过 {@link AideMetrics} 统计，供同一包中的其它类在内部调用。</p>
+     */
+    static String doStripAccents(final String string) {
         if (string == null) {
             return null;
         }
@@ -416,6 +478,61 @@ public class StringAide extends CharSequenceAide {
     public static String truncate(final String string, int maxLength) {
         return truncate(string, 0, maxLength);
     }
+
+    /**
+     * <p>从指定位置开始，截取 UTF-8 编码不超过 {@code maxBytes} 个字节的最长子串，不会拆开代理对。</p>
+     *
+     * <p>{@code offset} 的处理方式与 {@link #truncate(String, int, int)} 相同。
+     * 逐字符累加编码宽度，不对整个字符串编码，不成对的代理字符按 1 个字节计算。</p>
+     *
+     * <pre>
+     * StringAide.truncateToUtf8Bytes(null, *, *)         = null
+     * StringAide.truncateToUtf8Bytes("abc", 0, -1)       = null
+     * StringAide.truncateToUtf8Bytes("abc", 0, 3)        = "abc"（同一个实例）
+     * StringAide.truncateToUtf8Bytes("a中b中", 1, 4)     = "中b"
+     * StringAide.truncateToUtf8Bytes("a中b中", 1, 6)     = "中b"
+     * StringAide.truncateToUtf8Bytes("a中b中", 5, 6)     = ""
+     * </pre>
+     *
+     * @param string 要截断的字符串，可以为 null
+     * @param offset 左偏移量
+     * @param maxBytes UTF-8 编码的最大字节数
+     * @return 截取到的字符串，无需截断时返回 {@code string} 本身；
+     *          {@code string} 为 null 或 {@code maxBytes} 小于 0 时返回 {@code null}
+     * @since 1.0.0
+     */
+    public static String truncateToUtf8Bytes(final String string, int offset, final int maxBytes) {
+        if (string == null || maxBytes < 0) {
+            return null;
+        }
+        final int length = string.length();
+        offset = Math.max(offset, 0);
+        if (offset > length) {
+            return EMPTY;
+        }
+        final int end = utf8TruncateIndex(string, offset, length, maxBytes);
+        return offset == 0 && end == length ? string : string.substring(offset, end);
+    }
+
+    /**
+     * <p>截取 UTF-8 编码不超过 {@code maxBytes} 个字节的最长前缀，不会拆开代理对。</p>
+     *
+     * <pre>
+     * StringAide.truncateToUtf8Bytes(null, *)     = null
+     * StringAide.truncateToUtf8Bytes("abc", 5)    = "abc"（同一个实例）
+     * StringAide.truncateToUtf8Bytes("a中b", 3)   = "a"
+     * StringAide.truncateToUtf8Bytes("a😀b", 5)   = "a😀"
+     * </pre>
+     *
+     * @param string 要截断的字符串，可以为 null
+     * @param maxBytes UTF-8 编码的最大字节数
+     * @return 截取到的字符串，无需截断时返回 {@code string} 本身；
+     *          {@code string} 为 null 或 {@code maxBytes} 小于 0 时返回 {@code null}
+     * @since 1.0.0
+     */
+    public static String truncateToUtf8Bytes(final String string, final int maxBytes) {
+        return truncateToUtf8Bytes(string, 0, maxBytes);
+    }
     // ---------------------------------------------------------------------------------------------------
     // ----- Truncate string ----- end
 
@@ -436,7 +553,7 @@ public class StringAide extends CharSequenceAide {
         if (isEmpty(string) || isEmpty(deleteString)) {
             return string;
         }
-        return replace(string, deleteString, EMPTY, -1, ignoreCase);
+        return doReplace(string, deleteString, EMPTY, -1, ignoreCase);
     }
 
     /**
@@ -602,22 +719,51 @@ public class StringAide extends CharSequenceAide {
         } else if (deleteChars.isEmpty()) {
             return string;
         } else {
-            StringBuilder builder = new StringBuilder();
-            for (int i = 0; i < length; i++) {
-                char ch = string.charAt(i);
-                if (ignoreCase) {
-                    if (indexOfIgnoreCase(deleteChars, String.valueOf(ch)) >= 0) {
-                        continue;
-                    }
-                } else {
-                    if (deleteChars.indexOf(ch) >= 0) {
-                        continue;
-                    }
-                }
+            return deleteChars(string, CharSet.of(deleteChars, ignoreCase));
+        }
+    }
+
+    /**
+     * <p>从字符串中删除属于预编译字符集合 {@code deleteChars} 的所有字符。
+     * 是否忽略大小写由 {@code deleteChars} 编译时决定。</p>
+     *
+     * <p>当需要对大量字符串删除同一组字符时，可以预先编译 {@link CharSet} 并复用。
+     * 如果没有任何字符被删除，则直接返回 {@code string} 本身。</p>
+     *
+     * <pre>
+     * StringAide.deleteChars(null, *)                                   = null
+     * StringAide.deleteChars("", *)                                     = ""
+     * StringAide.deleteChars("abc", null)                               = "abc"
+     * StringAide.deleteChars("abxcxdexfg  ", CharSet.of("xde"))         = "abcfg  "
+     * StringAide.deleteChars("abXcxDexfg  ", CharSet.ofIgnoreCase("xd")) = "abcefg  "
+     * </pre>
+     *
+     * @param string 源字符串，可以为 null
+     * @param deleteChars 要剔除的字符集合，为 null 时直接返回 {@code string}
+     * @return 删除指定字符后的字符串
+     * @since 1.0.0
+     */
+    public static String deleteChars(final String string, final CharSet deleteChars) {
+        int length;
+        if (string == null || (length = string.length()) == 0 || deleteChars == null) {
+            return string;
+        }
+        int index = 0;
+        while (index < length && !deleteChars.contains(string.charAt(index))) {
+            index++;
+        }
+        if (index == length) {
+            return string;
+        }
+        final StringBuilder builder = new StringBuilder(length - 1);
+        builder.append(string, 0, index);
+        for (int i = index + 1; i < length; i++) {
+            final char ch = string.charAt(i);
+            if (!deleteChars.contains(ch)) {
                 builder.append(ch);
             }
-            return builder.toString();
         }
+        return builder.toString();
     }
 
     /**
@@ -935,6 +1081,34 @@ public class StringAide extends CharSequenceAide {
      */
     private static String replace(final String text, String searchString, final String replacement,
                                   int max, final boolean ignoreCase) {
+        if (!AideMetrics.isActive()) {
+            return doReplace(text, searchString, replacement, max, ignoreCase);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String result = doReplace(text, searchString, replacement, max, ignoreCase);
+        final AideMetrics.Probe probe = ignoreCase ? REPLACE_IGNORE_CASE_PROBE : REPLACE_PROBE;
+        probe.record(length(text), replacedCount(text, searchString, replacement, result), startNanos, event);
+        return result;
+    }
+
+    /**
+     * 根据替换前后的长度差计算替换次数，替换前后长度相同时无法确定，返回 -1
+     */
+    private static int replacedCount(final String text, final String searchString, final String replacement,
+                                     final String result) {
+        if (result == text) {
+            return 0;
+        }
+        final int delta = length(replacement) - length(searchString);
+        return delta == 0 ? -1 : (length(result) - length(text)) / delta;
+    }
+
+    /**
+     * <p>{@code replace*} 系列方法的实现，不经过 {@link AideMetrics} 统计，供同一包中的其它类在内部调用。</p>
+     */
+    static String doReplace(final String text, String searchString, final String replacement,
+                            int max, final boolean ignoreCase) {
         if (isEmpty(text) || isEmpty(searchString) || replacement == null || max == 0) {
             return text;
         }
@@ -1000,7 +1174,20 @@ public class StringAide extends CharSequenceAide {
      * @since 1.0.0
      */
     public static String replaceEach(final String text, final String[] searches, final String[] replacements) {
-        return replaceEach(text, searches, replacements, false, 0);
+        if (!AideMetrics.isActive()) {
+            return doReplaceEach(text, searches, replacements, null);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final int[] replaced = new int[1];
+        final String result = doReplaceEach(text, searches, replacements, replaced);
+        REPLACE_EACH_PROBE.record(length(text), replaced[0], startNanos, event);
+        return result;
+    }
+
+    private static String doReplaceEach(final String text, final String[] searches, final String[] replacements,
+                                        final int[] replaced) {
+        return replaceEach(text, searches, replacements, false, 0, replaced);
     }
 
     /**
@@ -1041,8 +1228,21 @@ public class StringAide extends CharSequenceAide {
      * @since 1.0.0
      */
     public static String replaceEachRepeatedly(final String text, final String[] searches, final String[] replacements) {
+        if (!AideMetrics.isActive()) {
+            return doReplaceEachRepeatedly(text, searches, replacements, null);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final int[] replaced = new int[1];
+        final String result = doReplaceEachRepeatedly(text, searches, replacements, replaced);
+        REPLACE_EACH_REPEATEDLY_PROBE.record(length(text), replaced[0], startNanos, event);
+        return result;
+    }
+
+    private static String doReplaceEachRepeatedly(final String text, final String[] searches, final String[] replacements,
+                                                  final int[] replaced) {
         final int timeToLive = Math.min(ArrayAide.length(searches), ArrayAide.length(replacements));
-        return replaceEach(text, searches, replacements, true, timeToLive);
+        return replaceEach(text, searches, replacements, true, timeToLive, replaced);
     }
 
     /**
@@ -1084,12 +1284,13 @@ public class StringAide extends CharSequenceAide {
      * @param replacements 要替换的字符串数组，其中的元素和 {@code searches} 中的元素一一对应成“对”
      * @param repeat 如果 true，则进行递归替换，直到没有可替换的“对”，或 {@code timeToLive < 0}
      * @param timeToLive 随着递归递减，如果小于 0，则存在循环引用和无限递归
+     * @param replaced 不为 null 时，其第一个元素累加实际替换的次数（包括每一轮递归替换）
      * @return 替换处理后的字符串，如果输入字符串为 null 则返回 {@code null}
      * @throws IllegalStateException 如果开启重复搜索（{@code repeat} 为 true），且存在无限递归
      * @since 1.0.0
      */
     private static String replaceEach(final String text, String[] searches, String[] replacements,
-                                      final boolean repeat, final int timeToLive) {
+                                      final boolean repeat, final int timeToLive, final int[] replaced) {
         if (isEmpty(text) || ArrayAide.isEmpty(searches) || ArrayAide.isEmpty(replacements)) {
             return text;
         }
@@ -1155,6 +1356,9 @@ public class StringAide extends CharSequenceAide {
                 builder.append(text.charAt(i));
             }
             builder.append(replacements[replaceIndex]);
+            if (replaced != null) {
+                replaced[0]++;
+            }
 
             start = textIndex + searches[replaceIndex].length();
 
@@ -1187,7 +1391,7 @@ public class StringAide extends CharSequenceAide {
             return result;
         }
 
-        return replaceEach(result, searches, replacements, true, timeToLive - 1);
+        return replaceEach(result, searches, replacements, true, timeToLive - 1, replaced);
     }
 
     /**
@@ -1209,6 +1413,17 @@ public class StringAide extends CharSequenceAide {
      * @since 1.0.0
      */
     public static String replaceChars(final String string, final char searchChar, final char replaceChar) {
+        if (!AideMetrics.isActive()) {
+            return doReplaceChars(string, searchChar, replaceChar);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String result = doReplaceChars(string, searchChar, replaceChar);
+        REPLACE_CHARS_PROBE.record(length(string), startNanos, event);
+        return result;
+    }
+
+    private static String doReplaceChars(final String string, final char searchChar, final char replaceChar) {
         if (string == null) {
             return null;
         }
@@ -1225,7 +1440,8 @@ public class StringAide extends CharSequenceAide {
      * {@code searchChars} 为 null 或 空串 时直接返回 {@code string}。</p>
      *
      * <p>通常搜索字符 {@code searchChars} 应与替换字符 {@code replaceChars} 长度相等。
-     * 如果搜索字符较长，则删除额外的搜索字符，如果搜索字符较短，则忽略额外的替换字符。</p>
+     * 如果搜索字符较长，则删除额外的搜索字符，如果搜索字符较短，则忽略额外的替换字符。
+     * 增补字符（由代理对表示）按一个字符对待。</p>
      *
      * <pre>
      * StringUtils.replaceChars(null, *, *)           = null
@@ -1245,33 +1461,108 @@ public class StringAide extends CharSequenceAide {
      * @return 替换处理后的字符串，如果输入字符串为 null 则返回 {@code null}
      * @since 1.0.0
      */
-    public static String replaceChars(final String string, final String searchChars, String replaceChars) {
+    public static String replaceChars(final String string, final String searchChars, final String replaceChars) {
+        if (!AideMetrics.isActive()) {
+            return doReplaceChars(string, searchChars, replaceChars);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String result = doReplaceChars(string, searchChars, replaceChars);
+        REPLACE_CHARS_PROBE.record(length(string), startNanos, event);
+        return result;
+    }
+
+    private static String doReplaceChars(final String string, final String searchChars, final String replaceChars) {
         if (isEmpty(string) || isEmpty(searchChars)) {
             return string;
         }
-        if (replaceChars == null) {
-            replaceChars = EMPTY;
-        }
-        boolean modified = false;
-        final int replaceCharsLength = replaceChars.length();
-        final int stringLength = string.length();
-        final StringBuilder builder = new StringBuilder(stringLength);
-        for (int i = 0; i < stringLength; i++) {
-            final char ch = string.charAt(i);
-            final int index = searchChars.indexOf(ch);
-            if (index >= 0) {
-                modified = true;
-                if (index < replaceCharsLength) {
-                    builder.append(replaceChars.charAt(index));
-                }
-            } else {
-                builder.append(ch);
+        // 先查找第一个需要处理的字符，没有命中时直接返回原字符串，避免编译转换器带来的分配
+        final int length = string.length();
+        int index = 0;
+        while (index < length) {
+            final int codePoint = string.codePointAt(index);
+            if (searchChars.indexOf(codePoint) >= 0) {
+                break;
             }
+            index += Character.charCount(codePoint);
         }
-        if (modified) {
-            return builder.toString();
+        if (index == length) {
+            return string;
         }
-        return string;
+        return CharTranslator.compile(searchChars, replaceChars).translate(string);
+    }
+
+    /**
+     * <p>使用预编译的字符转换器 {@code translator} 替换（或删除）字符串中的多个字符。</p>
+     *
+     * <p>当需要对大量字符串执行同一组字符替换时，可以预先编译 {@link CharTranslator} 并复用。
+     * 如果没有任何字符被替换或删除，则直接返回 {@code string} 本身。</p>
+     *
+     * <pre>
+     * StringUtils.replaceChars(null, *)                                   = null
+     * StringUtils.replaceChars("", *)                                     = ""
+     * StringUtils.replaceChars("abc", null)                               = "abc"
+     * StringUtils.replaceChars("hello", CharTranslator.compile("ho", "jy")) = "jelly"
+     * </pre>
+     *
+     * @param string  源字符串，可能为 null
+     * @param translator  字符转换器，为 null 时直接返回 {@code string}
+     * @return 替换处理后的字符串，如果输入字符串为 null 则返回 {@code null}
+     * @since 1.0.0
+     */
+    public static String replaceChars(final String string, final CharTranslator translator) {
+        if (!AideMetrics.isActive()) {
+            return doReplaceChars(string, translator);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String result = doReplaceChars(string, translator);
+        REPLACE_CHARS_PROBE.record(length(string), startNanos, event);
+        return result;
+    }
+
+    private static String doReplaceChars(final String string, final CharTranslator translator) {
+        if (isEmpty(string) || translator == null) {
+            return string;
+        }
+        return translator.translate(string);
+    }
+
+    /**
+     * <p>将模板预编译为 {@link StringTemplate}，用于反复渲染同一个模板。转义字符为 {@code '\\'}。</p>
+     *
+     * <pre>
+     * StringAide.compileTemplate("Hello ${name}!", "${", "}").render(Map.of("name", "Leo")) = "Hello Leo!"
+     * StringAide.compileTemplate("\\${name}", "${", "}").render(Map.of("name", "Leo"))      = "${name}"
+     * </pre>
+     *
+     * @param template 模板
+     * @param open 占位符的开始标记
+     * @param close 占位符的结束标记
+     * @return 预编译的模板
+     * @throws IllegalArgumentException {@code template} 为 null，或 {@code open/close} 为 null 或 空串 时
+     * @since 1.0.0
+     */
+    public static StringTemplate compileTemplate(final String template, final String open, final String close) {
+        return compileTemplate(template, open, close, '\\');
+    }
+
+    /**
+     * <p>将模板预编译为 {@link StringTemplate}，可以指定转义字符。
+     * 紧跟在转义字符之后的开始标记被视为字面量，占位符内部紧跟在转义字符之后的结束标记属于变量名，
+     * 紧邻标记的两个转义字符表示一个转义字符本身，详见 {@link StringTemplate}。</p>
+     *
+     * @param template 模板
+     * @param open 占位符的开始标记
+     * @param close 占位符的结束标记
+     * @param escape 转义字符
+     * @return 预编译的模板
+     * @throws IllegalArgumentException {@code template} 为 null，或 {@code open/close} 为 null 或 空串 时
+     * @since 1.0.0
+     */
+    public static StringTemplate compileTemplate(final String template, final String open, final String close,
+                                                 final char escape) {
+        return StringTemplate.compile(template, open, close, escape);
     }
     // ---------------------------------------------------------------------------------------------------
     // ----- Replace ----- end
@@ -1397,9 +1688,180 @@ public class StringAide extends CharSequenceAide {
     public static int compareIgnoreCase(final String str1, final String str2) {
         return compareIgnoreCase(str1, str2, true);
     }
+
+    /**
+     * <p>对字符串数组排序，结果与使用 {@link #compare(String, String, boolean)}
+     * 或 {@link #compareIgnoreCase(String, String, boolean)} 作为比较器的稳定排序一致。
+     * 忽略大小写时代理对按增补字符折叠，与 JDK 16 及以上版本一致；更早的 JDK 逐个 UTF-16 字符折叠，
+     * 仅在大小写不同的增补字符（如 U+10400 与 U+10428）上顺序可能不同。</p>
+     *
+     * <p>使用多关键字快速排序，公共前缀中的字符不会被重复比较，适合 URL、标识符等有较长公共前缀的字符串。</p>
+     *
+     * <pre>
+     * StringAide.sort(["b", null, "B", "a"], false, true)  = [null, "B", "a", "b"]
+     * StringAide.sort(["b", null, "B", "a"], true, true)   = [null, "a", "b", "B"]
+     * StringAide.sort(["b", null, "B", "a"], true, false)  = ["a", "b", "B", null]
+     * </pre>
+     *
+     * @param array 要排序的数组，为 null 时不做任何处理
+     * @param ignoreCase 是否忽略大小写
+     * @param nullIsLess {@code true} 时 null 排在最前面，否则排在最后面
+     * @since 1.0.0
+     */
+    public static void sort(final String[] array, final boolean ignoreCase, final boolean nullIsLess) {
+        StringSorter.sort(array, ignoreCase, nullIsLess, false);
+    }
+
+    /**
+     * <p>与 {@link #sort(String[], boolean, boolean)} 相同，但在 {@link java.util.concurrent.ForkJoinPool#commonPool()}
+     * 中并行排序，适用于百万级以上的数组。数组较小时与 {@link #sort(String[], boolean, boolean)} 相同。</p>
+     *
+     * @param array 要排序的数组，为 null 时不做任何处理
+     * @param ignoreCase 是否忽略大小写
+     * @param nullIsLess {@code true} 时 null 排在最前面，否则排在最后面
+     * @since 1.0.0
+     */
+    public static void parallelSort(final String[] array, final boolean ignoreCase, final boolean nullIsLess) {
+        StringSorter.sort(array, ignoreCase, nullIsLess, true);
+    }
     // ---------------------------------------------------------------------------------------------------
     // ----- Compare string ----- end
 
+    // ----- Distance ----- start
+    // ---------------------------------------------------------------------------------------------------
+    /**
+     * <p>计算两个字符序列的 Levenshtein 距离，即把一个字符序列变为另一个所需的最少单字符插入、删除、替换次数。</p>
+     *
+     * <p>null 的处理方式与 {@link #equals(CharSequence, CharSequence)} 相同：两个 null 的距离为 0，
+     * 只有一个为 null 时返回 -1。</p>
+     *
+     * <pre>
+     * StringAide.levenshtein(null, null)          = 0
+     * StringAide.levenshtein(null, "")            = -1
+     * StringAide.levenshtein("", "")              = 0
+     * StringAide.levenshtein("", "abc")           = 3
+     * StringAide.levenshtein("kitten", "sitting") = 3
+     * </pre>
+     *
+     * @param sequence1 第一个字符序列，可以为 null
+     * @param sequence2 第二个字符序列，可以为 null
+     * @return 编辑距离，只有一个为 null 时返回 -1
+     * @see #levenshtein(CharSequence, CharSequence, int)
+     * @since 1.0.0
+     */
+    public static int levenshtein(final CharSequence sequence1, final CharSequence sequence2) {
+        if (sequence1 == null || sequence2 == null) {
+            return sequence1 == sequence2 ? 0 : -1;
+        }
+        return EditDistance.levenshtein(sequence1, sequence2, -1);
+    }
+
+    /**
+     * <p>计算两个字符序列的 Levenshtein 距离，距离超过 {@code threshold} 时返回 -1。</p>
+     *
+     * <p>使用 Myers 的位并行算法，以较短的字符序列作为模式串，每 64 个字符为一个块，
+     * 时间复杂度为 O(⌈m/64⌉·n)；一旦能够确定距离超过阈值就立即返回。
+     * 工作数组按线程缓存并重复使用，稳定状态下不分配对象。</p>
+     *
+     * <pre>
+     * StringAide.levenshtein("kitten", "sitting", 3) = 3
+     * StringAide.levenshtein("kitten", "sitting", 2) = -1
+     * StringAide.levenshtein("a", "abcd", 2)         = -1
+     * </pre>
+     *
+     * @param sequence1 第一个字符序列，可以为 null
+     * @param sequence2 第二个字符序列，可以为 null
+     * @param threshold 阈值，不能小于 0
+     * @return 编辑距离，超过阈值或只有一个为 null 时返回 -1
+     * @throws IllegalArgumentException 如果 {@code threshold} 小于 0
+     * @since 1.0.0
+     */
+    public static int levenshtein(final CharSequence sequence1, final CharSequence sequence2, final int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative: " + threshold);
+        }
+        if (sequence1 == null || sequence2 == null) {
+            return sequence1 == sequence2 ? 0 : -1;
+        }
+        return EditDistance.levenshtein(sequence1, sequence2, threshold);
+    }
+
+    /**
+     * <p>计算两个字符序列的 Damerau-Levenshtein 距离，在 Levenshtein 距离的基础上允许交换相邻的两个字符。</p>
+     *
+     * <p>这里实现的是限制编辑距离（Optimal String Alignment）：每个子串最多只被编辑一次，
+     * 因此 {@code ("ca", "abc")} 的距离为 3 而不是 2。null 的处理方式与 {@link #levenshtein(CharSequence, CharSequence)} 相同。</p>
+     *
+     * <pre>
+     * StringAide.damerauLevenshtein(null, null)  = 0
+     * StringAide.damerauLevenshtein("ab", null)  = -1
+     * StringAide.damerauLevenshtein("ab", "ba")  = 1
+     * StringAide.damerauLevenshtein("ca", "abc") = 3
+     * </pre>
+     *
+     * @param sequence1 第一个字符序列，可以为 null
+     * @param sequence2 第二个字符序列，可以为 null
+     * @return 编辑距离，只有一个为 null 时返回 -1
+     * @since 1.0.0
+     */
+    public static int damerauLevenshtein(final CharSequence sequence1, final CharSequence sequence2) {
+        if (sequence1 == null || sequence2 == null) {
+            return sequence1 == sequence2 ? 0 : -1;
+        }
+        return EditDistance.damerauLevenshtein(sequence1, sequence2, -1);
+    }
+
+    /**
+     * <p>计算两个字符序列的 Damerau-Levenshtein 距离（Optimal String Alignment），距离超过 {@code threshold} 时返回 -1。</p>
+     *
+     * <p>只计算主对角线两侧宽度为 {@code threshold} 的带状区域，时间复杂度为 O(threshold·n)。</p>
+     *
+     * @param sequence1 第一个字符序列，可以为 null
+     * @param sequence2 第二个字符序列，可以为 null
+     * @param threshold 阈值，不能小于 0
+     * @return 编辑距离，超过阈值或只有一个为 null 时返回 -1
+     * @throws IllegalArgumentException 如果 {@code threshold} 小于 0
+     * @see #damerauLevenshtein(CharSequence, CharSequence)
+     * @since 1.0.0
+     */
+    public static int damerauLevenshtein(final CharSequence sequence1, final CharSequence sequence2, final int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative: " + threshold);
+        }
+        if (sequence1 == null || sequence2 == null) {
+            return sequence1 == sequence2 ? 0 : -1;
+        }
+        return EditDistance.damerauLevenshtein(sequence1, sequence2, threshold);
+    }
+
+    /**
+     * <p>计算两个字符序列的 Jaro-Winkler 相似度，取值范围为 [0, 1]，1 表示完全相同。</p>
+     *
+     * <p>null 的处理方式与 {@link #equals(CharSequence, CharSequence)} 相同：两个 null 的相似度为 1，
+     * 只有一个为 null 时相似度为 0。</p>
+     *
+     * <pre>
+     * StringAide.jaroWinkler(null, null)          = 1.0
+     * StringAide.jaroWinkler(null, "abc")         = 0.0
+     * StringAide.jaroWinkler("", "")              = 1.0
+     * StringAide.jaroWinkler("MARTHA", "MARHTA")  = 0.9611...
+     * StringAide.jaroWinkler("abc", "xyz")        = 0.0
+     * </pre>
+     *
+     * @param sequence1 第一个字符序列，可以为 null
+     * @param sequence2 第二个字符序列，可以为 null
+     * @return 相似度
+     * @since 1.0.0
+     */
+    public static double jaroWinkler(final CharSequence sequence1, final CharSequence sequence2) {
+        if (sequence1 == null || sequence2 == null) {
+            return sequence1 == sequence2 ? 1.0 : 0.0;
+        }
+        return EditDistance.jaroWinkler(sequence1, sequence2);
+    }
+    // ---------------------------------------------------------------------------------------------------
+    // ----- Distance ----- end
+
     // ----- Substring ----- start
     // ---------------------------------------------------------------------------------------------------
     /**
@@ -1879,6 +2341,246 @@ public class StringAide extends CharSequenceAide {
     // ---------------------------------------------------------------------------------------------------
     // ----- Substring ----- end
 
+    // ----- Slice view ----- start
+    // ---------------------------------------------------------------------------------------------------
+    /**
+     * <p>与 {@link #substring(String, int)} 相同，但返回与源字符串共享存储的 {@link CharSlice}，不复制字符。</p>
+     *
+     * @param string 源字符串
+     * @param start 起始位置，负数意味着从字符串末尾倒数这么多个字符
+     * @return 子串视图，若源字符串为 null 则返回 {@code null}
+     * @since 1.0.0
+     */
+    public static CharSlice substringView(final String string, int start) {
+        if (string == null) {
+            return null;
+        }
+        if (start < 0) {
+            start = Math.max(string.length() + start, 0);
+        }
+        if (start > string.length()) {
+            return CharSlice.empty();
+        }
+        return CharSlice.of(string, start, string.length());
+    }
+
+    /**
+     * <p>与 {@link #substring(String, int, int)} 相同，但返回与源字符串共享存储的 {@link CharSlice}，不复制字符。</p>
+     *
+     * <pre>
+     * StringAide.substringView("abc", -2, -1).toString() = "b"
+     * </pre>
+     *
+     * @param string 源字符串
+     * @param start 起始位置，负数意味着从字符串末尾倒数这么多个字符
+     * @param end 结束位置，负数意味着从字符串末尾倒数这么多个字符
+     * @return 子串视图，若源字符串为 null 则返回 {@code null}
+     * @since 1.0.0
+     */
+    public static CharSlice substringView(final String string, int start, int end) {
+        if (string == null) {
+            return null;
+        }
+        if (end < 0) {
+            end = string.length() + end;
+        }
+        if (start < 0) {
+            start = string.length() + start;
+        }
+        end = Math.min(end, string.length());
+        if (start > end) {
+            return CharSlice.empty();
+        }
+        return CharSlice.of(string, Math.max(start, 0), Math.max(end, 0));
+    }
+
+    /**
+     * <p>与 {@link #substringBefore(String, String)} 相同，但返回与源字符串共享存储的 {@link CharSlice}。</p>
+     *
+     * @param string 源字符串
+     * @param separator 分隔符
+     * @return 第一个分隔符之前的子串视图，若源字符串为 null 则返回 {@code null}
+     * @since 1.0.0
+     */
+    public static CharSlice substringBeforeView(final String string, final String separator) {
+        if (isEmpty(string) || separator == null) {
+            return view(string);
+        }
+        if (separator.isEmpty()) {
+            return CharSlice.empty();
+        }
+        final int separatorIndex = string.indexOf(separator);
+        if (separatorIndex == INDEX_NOT_FOUND) {
+            return CharSlice.of(string);
+        }
+        return CharSlice.of(string, 0, separatorIndex);
+    }
+
+    /**
+     * <p>与 {@link #substringAfter(String, String)} 相同，但返回与源字符串共享存储的 {@link CharSlice}。</p>
+     *
+     * @param string 源字符串
+     * @param separator 分隔符
+     * @return 第一个分隔符之后的子串视图，若源字符串为 null 则返回 {@code null}
+     * @since 1.0.0
+     */
+    public static CharSlice substringAfterView(final String string, final String separator) {
+        if (isEmpty(string)) {
+            return view(string);
+        }
+        if (separator == null) {
+            return CharSlice.empty();
+        }
+        final int separatorIndex = string.indexOf(separator);
+        if (separatorIndex == INDEX_NOT_FOUND) {
+            return CharSlice.empty();
+        }
+        return CharSlice.of(string, separatorIndex + separator.length(), string.length());
+    }
+
+    /**
+     * <p>与 {@link #substringBetween(String, String, String)} 相同，但返回与源字符串共享存储的 {@link CharSlice}。</p>
+     *
+     * <pre>
+     * StringAide.substringBetweenView("wx[b]yz", "[", "]").toString() = "b"
+     * </pre>
+     *
+     * @param string 源字符串
+     * @param open 开始标记
+     * @param close 结束标记
+     * @return 两个标记之间的子串视图，未找到时返回 {@code null}
+     * @since 1.0.0
+     */
+    public static CharSlice substringBetweenView(final String string, final String open, final String close) {
+        if (string == null || open == null || close == null) {
+            return null;
+        }
+        final int start = string.indexOf(open);
+        if (start != INDEX_NOT_FOUND) {
+            final int end = string.indexOf(close, start + open.length());
+            if (end != INDEX_NOT_FOUND) {
+                return CharSlice.of(string, start + open.length(), end);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * <p>与 {@link #strip(String)} 相同，但返回与源字符串共享存储的 {@link CharSlice}。</p>
+     *
+     * @param string 源字符串，可以为 null
+     * @return 剥离首尾空白符之后的视图，若源字符串为 null 则返回 {@code null}
+     * @since 1.0.0
+     */
+    public static CharSlice stripView(final String string) {
+        if (string == null) {
+            return null;
+        }
+        int start = 0;
+        int end = string.length();
+        while (start < end && Character.isWhitespace(string.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(string.charAt(end - 1))) {
+            end--;
+        }
+        return CharSlice.of(string, start, end);
+    }
+
+    /**
+     * <p>与 {@link #trim(String)} 相同，但返回与源字符串共享存储的 {@link CharSlice}。</p>
+     *
+     * @param string 源字符串，可以为 null
+     * @return 移除首尾控制字符（char <= 32）之后的视图，若源字符串为 null 则返回 {@code null}
+     * @since 1.0.0
+     */
+    public static CharSlice trimView(final String string) {
+        if (string == null) {
+            return null;
+        }
+        int start = 0;
+        int end = string.length();
+        while (start < end && string.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && string.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return CharSlice.of(string, start, end);
+    }
+
+    /**
+     * <p>与 {@link #split(String, char)} 相同，但每个元素都是与源字符串共享存储的 {@link CharSlice}。</p>
+     *
+     * <pre>
+     * StringAide.splitView("a..b.c", '.') = [a, b, c]
+     * </pre>
+     *
+     * @param string 要分割的字符串
+     * @param separatorChar 分隔符
+     * @return 子串视图数组，若源字符串为 null 则返回 {@code null}
+     * @since 1.0.0
+     */
+    public static CharSlice[] splitView(final String string, final char separatorChar) {
+        if (string == null) {
+            return null;
+        }
+        final int length = string.length();
+        final List<CharSlice> list = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (string.charAt(i) == separatorChar) {
+                if (i > start) {
+                    list.add(CharSlice.of(string, start, i));
+                }
+                start = i + 1;
+            }
+        }
+        if (length > start) {
+            list.add(CharSlice.of(string, start, length));
+        }
+        return list.toArray(new CharSlice[0]);
+    }
+
+    /**
+     * <p>与 {@link #split(String, String)} 相同，但每个元素都是与源字符串共享存储的 {@link CharSlice}。</p>
+     *
+     * @param string 要分割的字符串
+     * @param separatorChars 分隔符，为 null 时按空白符分割
+     * @return 子串视图数组，若源字符串为 null 则返回 {@code null}
+     * @since 1.0.0
+     */
+    public static CharSlice[] splitView(final String string, final String separatorChars) {
+        if (string == null) {
+            return null;
+        }
+        final int length = string.length();
+        final List<CharSlice> list = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            final char ch = string.charAt(i);
+            final boolean separator = separatorChars == null
+                    ? Character.isWhitespace(ch)
+                    : separatorChars.indexOf(ch) != INDEX_NOT_FOUND;
+            if (separator) {
+                if (i > start) {
+                    list.add(CharSlice.of(string, start, i));
+                }
+                start = i + 1;
+            }
+        }
+        if (length > start) {
+            list.add(CharSlice.of(string, start, length));
+        }
+        return list.toArray(new CharSlice[0]);
+    }
+
+    private static CharSlice view(final String string) {
+        return string == null ? null : CharSlice.of(string);
+    }
+    // ---------------------------------------------------------------------------------------------------
+    // ----- Slice view ----- end
+
     // ----- Split ----- start
     // ---------------------------------------------------------------------------------------------------
     /**
@@ -2119,6 +2821,21 @@ public class StringAide extends CharSequenceAide {
      */
     private static String[] splitByWholeSeparatorWorker(final String str, final String separator,
                                                         final int max, final boolean preserveAllTokens) {
+        if (!AideMetrics.isActive()) {
+            return doSplitByWholeSeparatorWorker(str, separator, max, preserveAllTokens);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String[] result = doSplitByWholeSeparatorWorker(str, separator, max, preserveAllTokens);
+        final AideMetrics.Probe probe = preserveAllTokens
+                ? SPLIT_BY_WHOLE_SEPARATOR_PRESERVE_ALL_TOKENS_PROBE
+                : SPLIT_BY_WHOLE_SEPARATOR_PROBE;
+        probe.record(length(str), result == null ? 0 : result.length, startNanos, event);
+        return result;
+    }
+
+    private static String[] doSplitByWholeSeparatorWorker(final String str, final String separator,
+                                                          final int max, final boolean preserveAllTokens) {
         if (str == null) {
             return null;
         }
@@ -2129,7 +2846,7 @@ public class StringAide extends CharSequenceAide {
         }
 
         if (separator == null) {
-            return splitWorker(str, null, max, preserveAllTokens);
+            return doSplitWorker(str, null, max, preserveAllTokens);
         }
 
         final int separatorLen = separator.length();
@@ -2239,6 +2956,18 @@ public class StringAide extends CharSequenceAide {
      * @since 1.0.0
      */
     private static String[] splitWorker(final String str, final char separatorChar, final boolean preserveAllTokens) {
+        if (!AideMetrics.isActive()) {
+            return doSplitWorker(str, separatorChar, preserveAllTokens);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String[] result = doSplitWorker(str, separatorChar, preserveAllTokens);
+        final AideMetrics.Probe probe = preserveAllTokens ? SPLIT_PRESERVE_ALL_TOKENS_PROBE : SPLIT_PROBE;
+        probe.record(length(str), result == null ? 0 : result.length, startNanos, event);
+        return result;
+    }
+
+    private static String[] doSplitWorker(final String str, final char separatorChar, final boolean preserveAllTokens) {
         if (str == null) {
             return null;
         }
@@ -2348,6 +3077,19 @@ public class StringAide extends CharSequenceAide {
      */
     private static String[] splitWorker(final String str, final String separatorChars,
                                         final int max, final boolean preserveAllTokens) {
+        if (!AideMetrics.isActive()) {
+            return doSplitWorker(str, separatorChars, max, preserveAllTokens);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String[] result = doSplitWorker(str, separatorChars, max, preserveAllTokens);
+        final AideMetrics.Probe probe = preserveAllTokens ? SPLIT_PRESERVE_ALL_TOKENS_PROBE : SPLIT_PROBE;
+        probe.record(length(str), result == null ? 0 : result.length, startNanos, event);
+        return result;
+    }
+
+    private static String[] doSplitWorker(final String str, final String separatorChars,
+                                          final int max, final boolean preserveAllTokens) {
         if (str == null) {
             return null;
         }
@@ -2472,6 +3214,20 @@ public class StringAide extends CharSequenceAide {
      * @since 1.0.0
      */
     private static String[] splitByCharacterType(final String str, final boolean camelCase) {
+        if (!AideMetrics.isActive()) {
+            return doSplitByCharacterType(str, camelCase);
+        }
+        final long startNanos = System.nanoTime();
+        final Object event = SlowOperationEvents.begin();
+        final String[] result = doSplitByCharacterType(str, camelCase);
+        final AideMetrics.Probe probe = camelCase
+                ? SPLIT_BY_CHARACTER_TYPE_CAMEL_CASE_PROBE
+                : SPLIT_BY_CHARACTER_TYPE_PROBE;
+        probe.record(length(str), result == null ? 0 : result.length, startNanos, event);
+        return result;
+    }
+
+    private static String[] doSplitByCharacterType(final String str, final boolean camelCase) {
         if (str == null) {
             return null;
         }
@@ -2505,6 +3261,85 @@ public class StringAide extends CharSequenceAide {
     // ---------------------------------------------------------------------------------------------------
     // ----- Split ----- end
 
+    // ----- Case format ----- start
+    // ---------------------------------------------------------------------------------------------------
+    /**
+     * <p>将字符串转换为 snake_case 风格，单词边界与 {@link #splitByCharacterTypeCamelCase(String)} 相同。</p>
+     *
+     * <pre>
+     * StringAide.toSnakeCase(null)          = null
+     * StringAide.toSnakeCase("fooBar")      = "foo_bar"
+     * StringAide.toSnakeCase("ASFRules")    = "asf_rules"
+     * StringAide.toSnakeCase("foo-bar baz") = "foo_bar_baz"
+     * StringAide.toSnakeCase("foo_bar")     = "foo_bar"（同一个实例）
+     * </pre>
+     *
+     * @param string 要转换的字符串，可以为 null
+     * @return 转换后的字符串，与输入相同时返回 {@code string} 本身
+     * @see CaseFormat#SNAKE_CASE
+     * @since 1.0.0
+     */
+    public static String toSnakeCase(final String string) {
+        return CaseFormat.SNAKE_CASE.format(string);
+    }
+
+    /**
+     * <p>将字符串转换为 kebab-case 风格，单词边界与 {@link #splitByCharacterTypeCamelCase(String)} 相同。</p>
+     *
+     * <pre>
+     * StringAide.toKebabCase(null)         = null
+     * StringAide.toKebabCase("fooBar")     = "foo-bar"
+     * StringAide.toKebabCase("foo200Bar")  = "foo-200-bar"
+     * </pre>
+     *
+     * @param string 要转换的字符串，可以为 null
+     * @return 转换后的字符串，与输入相同时返回 {@code string} 本身
+     * @see CaseFormat#KEBAB_CASE
+     * @since 1.0.0
+     */
+    public static String toKebabCase(final String string) {
+        return CaseFormat.KEBAB_CASE.format(string);
+    }
+
+    /**
+     * <p>将字符串转换为 camelCase 风格，单词边界与 {@link #splitByCharacterTypeCamelCase(String)} 相同。</p>
+     *
+     * <pre>
+     * StringAide.toCamelCase(null)          = null
+     * StringAide.toCamelCase("foo_bar")     = "fooBar"
+     * StringAide.toCamelCase("URLParser")   = "urlParser"
+     * StringAide.toCamelCase("fooBar")      = "fooBar"（同一个实例）
+     * </pre>
+     *
+     * @param string 要转换的字符串，可以为 null
+     * @return 转换后的字符串，与输入相同时返回 {@code string} 本身
+     * @see CaseFormat#CAMEL_CASE
+     * @since 1.0.0
+     */
+    public static String toCamelCase(final String string) {
+        return CaseFormat.CAMEL_CASE.format(string);
+    }
+
+    /**
+     * <p>将字符串转换为 PascalCase 风格，单词边界与 {@link #splitByCharacterTypeCamelCase(String)} 相同。</p>
+     *
+     * <pre>
+     * StringAide.toPascalCase(null)         = null
+     * StringAide.toPascalCase("foo_bar")    = "FooBar"
+     * StringAide.toPascalCase("foo-bar")    = "FooBar"
+     * </pre>
+     *
+     * @param string 要转换的字符串，可以为 null
+     * @return 转换后的字符串，与输入相同时返回 {@code string} 本身
+     * @see CaseFormat#PASCAL_CASE
+     * @since 1.0.0
+     */
+    public static String toPascalCase(final String string) {
+        return CaseFormat.PASCAL_CASE.format(string);
+    }
+    // ---------------------------------------------------------------------------------------------------
+    // ----- Case format ----- end
+
     // ----- Joining ----- start
     // ---------------------------------------------------------------------------------------------------
     // ---------------------------------------------------------------------------------------------------
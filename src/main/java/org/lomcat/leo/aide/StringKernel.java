@@ -0,0 +1,157 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+
+package org.lomcat.leo.aide;
+
+/**
+ * <p>字符串热点操作的底层实现：有界查找、空白符扫描。</p>
+ *
+ * <p>本类是多版本 JAR（Multi-Release JAR）中 Java 10 的基线版本，
+ * {@code META-INF/versions/17} 和 {@code META-INF/versions/21} 中有同名的类，
+ * 在对应版本的 JVM 上改用新版本 {@link String} 中针对紧凑字符串（compact strings）做过内建优化的方法。
+ * 各版本的方法签名和行为必须完全一致，由 {@code testJava17}、{@code testJava21} 任务在对应的 JVM 上运行全部测试来保证。</p>
+ *
+ * <p>所有方法都不做参数检查，由调用者保证参数非 null、{@code 0 <= fromIndex <= toIndex <= string.length()}。</p>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+final class StringKernel {
+
+    private StringKernel() {
+    }
+
+    /**
+     * @param string 字符串
+     * @return 字符串为空或只包含 {@link Character#isWhitespace(char)} 定义的空白符时返回 {@code true}
+     */
+    static boolean isBlank(final String string) {
+        for (int i = 0, length = string.length(); i < length; i++) {
+            if (!Character.isWhitespace(string.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param string 字符串
+     * @return 去掉首尾空白符之后的字符串，没有空白符可去时返回 {@code string} 本身
+     */
+    static String strip(final String string) {
+        final int length = string.length();
+        int start = 0;
+        while (start < length && Character.isWhitespace(string.charAt(start))) {
+            start++;
+        }
+        int end = length;
+        while (end > start && Character.isWhitespace(string.charAt(end - 1))) {
+            end--;
+        }
+        return string.substring(start, end);
+    }
+
+    /**
+     * @param string 字符串
+     * @return 去掉开头空白符之后的字符串，没有空白符可去时返回 {@code string} 本身
+     */
+    static String stripLeading(final String string) {
+        final int length = string.length();
+        int start = 0;
+        while (start < length && Character.isWhitespace(string.charAt(start))) {
+            start++;
+        }
+        return string.substring(start);
+    }
+
+    /**
+     * @param string 字符串
+     * @return 去掉末尾空白符之后的字符串，没有空白符可去时返回 {@code string} 本身
+     */
+    static String stripTrailing(final String string) {
+        int end = string.length();
+        while (end > 0 && Character.isWhitespace(string.charAt(end - 1))) {
+            end--;
+        }
+        return string.substring(0, end);
+    }
+
+    /**
+     * <p>在 {@code [fromIndex, toIndex)} 范围内查找字符（代码点），增补字符的两个代码单元都必须位于范围内。</p>
+     *
+     * @param string 字符串
+     * @param searchChar 要查找的字符（代码点）
+     * @param fromIndex 开始位置（包含）
+     * @param toIndex 结束位置（不包含）
+     * @return 索引值，未找到时返回 -1
+     */
+    static int indexOf(final String string, final int searchChar, final int fromIndex, final int toIndex) {
+        if (toIndex == string.length()) {
+            return string.indexOf(searchChar, fromIndex);
+        }
+        if (searchChar < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            for (int i = fromIndex; i < toIndex; i++) {
+                if (string.charAt(i) == searchChar) {
+                    return i;
+                }
+            }
+        } else if (searchChar <= Character.MAX_CODE_POINT) {
+            final char high = Character.highSurrogate(searchChar);
+            final char low = Character.lowSurrogate(searchChar);
+            for (int i = fromIndex; i < toIndex - 1; i++) {
+                if (string.charAt(i) == high && string.charAt(i + 1) == low) {
+                    return i;
+                }
+            }
+        }
+        return CharSequenceAide.INDEX_NOT_FOUND;
+    }
+
+    /**
+     * <p>在 {@code [fromIndex, toIndex)} 范围内查找子串，子串必须完整地位于范围内。</p>
+     *
+     * @param string 字符串
+     * @param searchString 要查找的子串
+     * @param fromIndex 开始位置（包含）
+     * @param toIndex 结束位置（不包含）
+     * @return 索引值，未找到时返回 -1
+     */
+    static int indexOf(final String string, final String searchString, final int fromIndex, final int toIndex) {
+        if (toIndex == string.length()) {
+            return string.indexOf(searchString, fromIndex);
+        }
+        final int searchLength = searchString.length();
+        if (searchLength == 0) {
+            return fromIndex;
+        }
+        final char first = searchString.charAt(0);
+        final int last = toIndex - searchLength;
+        for (int i = fromIndex; i <= last; i++) {
+            i = indexOf(string, first, i, last + 1);
+            if (i < 0) {
+                break;
+            }
+            if (string.regionMatches(i + 1, searchString, 1, searchLength - 1)) {
+                return i;
+            }
+        }
+        return CharSequenceAide.INDEX_NOT_FOUND;
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>{@link StringAide#sort(String[], boolean, boolean)} 和 {@link StringAide#parallelSort(String[], boolean, boolean)}
+ * 的实现，使用多关键字快速排序（multikey quicksort）。</p>
+ *
+ * <p>每一轮只按第 {@code depth} 个字符做三路划分，等于基准字符的部分进入下一个字符继续划分，
+ * 因此公共前缀中的每个字符只被比较一次，而不像基于比较器的排序那样在每次比较中重复扫描公共前缀。</p>
+ *
+ * <p>排序结果与使用 {@link StringAide#compare(String, String, boolean)} 或
+ * {@link StringAide#compareIgnoreCase(String, String, boolean)} 作为比较器的稳定排序一致，
+ * 忽略大小写时按 {@code Character.toLowerCase(Character.toUpperCase(codePoint))} 折叠后比较，
+ * 代理对作为一个增补字符折叠，与 JDK 16 及以上版本的 {@link String#compareToIgnoreCase(String)} 一致；
+ * 更早的 JDK 逐个 UTF-16 字符比较，对 U+10400 / U+10428 这样的增补字符大小写对，顺序可能与本类不同。</p>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+final class StringSorter {
+
+    /**
+     * 长度小于此值的区间使用插入排序
+     */
+    private static final int INSERTION_THRESHOLD = 12;
+    /**
+     * 长度不小于此值的区间在并行排序时作为独立的任务
+     */
+    private static final int FORK_THRESHOLD = 1 << 13;
+
+    private final String[] strings;
+    /**
+     * 元素在原数组中的位置，用于在相等的元素之间保持原有顺序
+     */
+    private final int[] positions;
+    private final boolean ignoreCase;
+
+    private StringSorter(final String[] strings, final int[] positions, final boolean ignoreCase) {
+        this.strings = strings;
+        this.positions = positions;
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * @param array 要排序的数组，为 null 时不做任何处理
+     * @param ignoreCase 是否忽略大小写
+     * @param nullIsLess {@code true} 时 null 排在最前面，否则排在最后面
+     * @param parallel 是否使用 {@link ForkJoinPool#commonPool()} 并行排序
+     */
+    static void sort(final String[] array, final boolean ignoreCase, final boolean nullIsLess, final boolean parallel) {
+        if (array == null || array.length < 2) {
+            return;
+        }
+        int nulls = 0;
+        for (final String string : array) {
+            if (string == null) {
+                nulls++;
+            }
+        }
+        final int size = array.length - nulls;
+        final String[] strings = new String[size];
+        final int[] positions = new int[size];
+        int index = 0;
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] != null) {
+                strings[index] = array[i];
+                positions[index] = i;
+                index++;
+            }
+        }
+
+        final StringSorter sorter = new StringSorter(strings, positions, ignoreCase);
+        if (parallel && size >= FORK_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(sorter.new SortTask(0, size, 0));
+        } else {
+            sorter.sort(0, size, 0, null);
+        }
+
+        final int offset = nullIsLess ? nulls : 0;
+        for (int i = 0; i < array.length; i++) {
+            array[i] = null;
+        }
+        System.arraycopy(strings, 0, array, offset, size);
+    }
+
+    /**
+     * <p>对 [low, high) 区间中前 {@code depth} 个字符都相同的元素排序。</p>
+     *
+     * @param task 并行排序时当前的任务，较大的子区间作为新任务提交；为 null 时在当前线程中递归
+     */
+    private void sort(int low, int high, int depth, final SortTask task) {
+        while (high - low > INSERTION_THRESHOLD) {
+            final int pivot = median(key(low, depth), key((low + high) >>> 1, depth), key(high - 1, depth));
+            int less = low;
+            int greater = high - 1;
+            int i = low;
+            while (i <= greater) {
+                final int key = key(i, depth);
+                if (key < pivot) {
+                    swap(less++, i++);
+                } else if (key > pivot) {
+                    swap(i, greater--);
+                } else {
+                    i++;
+                }
+            }
+            // [low, less) 小于基准，[less, greater] 等于基准，(greater, high) 大于基准
+            sortPart(low, less, depth, task);
+            sortPart(greater + 1, high, depth, task);
+            if (pivot < 0) {
+                // 所有字符都已比较完，这些元素互相相等
+                sortByPosition(less, greater + 1);
+                return;
+            }
+            low = less;
+            high = greater + 1;
+            depth++;
+        }
+        insertionSort(low, high, depth);
+    }
+
+    private void sortPart(final int low, final int high, final int depth, final SortTask task) {
+        if (high - low < 2) {
+            return;
+        }
+        if (task != null && high - low >= FORK_THRESHOLD) {
+            task.fork(new SortTask(low, high, depth));
+        } else {
+            sort(low, high, depth, task);
+        }
+    }
+
+    private void insertionSort(final int low, final int high, final int depth) {
+        for (int i = low + 1; i < high; i++) {
+            for (int j = i; j > low && compare(j - 1, j, depth) > 0; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    private void sortByPosition(final int low, final int high) {
+        for (int i = low + 1; i < high; i++) {
+            for (int j = i; j > low && positions[j - 1] > positions[j]; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    private int compare(final int a, final int b, int depth) {
+        while (true) {
+            final int keyA = key(a, depth);
+            final int keyB = key(b, depth);
+            if (keyA != keyB) {
+                return keyA - keyB;
+            }
+            if (keyA < 0) {
+                return positions[a] - positions[b];
+            }
+            depth++;
+        }
+    }
+
+    /**
+     * <p>忽略大小写时，代理对的第一个位置返回折叠后的增补代码点（大于所有 UTF-16 字符），第二个位置返回 0：
+     * 走到第二个位置的元素在第一个位置的代码点相同，不需要再区分。</p>
+     *
+     * @return 第 {@code depth} 个字符（忽略大小写时为折叠后的字符），超出长度时返回 -1
+     */
+    private int key(final int index, final int depth) {
+        final String string = strings[index];
+        if (depth >= string.length()) {
+            return -1;
+        }
+        final char ch = string.charAt(depth);
+        if (!ignoreCase) {
+            return ch;
+        }
+        if (Character.isHighSurrogate(ch) && depth + 1 < string.length()) {
+            final char low = string.charAt(depth + 1);
+            if (Character.isLowSurrogate(low)) {
+                return Character.toLowerCase(Character.toUpperCase(Character.toCodePoint(ch, low)));
+            }
+        } else if (Character.isLowSurrogate(ch) && depth > 0 && Character.isHighSurrogate(string.charAt(depth - 1))) {
+            return 0;
+        }
+        return CharSet.fold(ch);
+    }
+
+    private void swap(final int a, final int b) {
+        final String string = strings[a];
+        strings[a] = strings[b];
+        strings[b] = string;
+        final int position = positions[a];
+        positions[a] = positions[b];
+        positions[b] = position;
+    }
+
+    private static int median(final int a, final int b, final int c) {
+        if (a < b) {
+            return b < c ? b : Math.max(a, c);
+        }
+        return a < c ? a : Math.max(b, c);
+    }
+
+    private final class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int low;
+        private final int high;
+        private final int depth;
+        private SortTask pending;
+        private SortTask next;
+
+        private SortTask(final int low, final int high, final int depth) {
+            this.low = low;
+            this.high = high;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            sort(low, high, depth, this);
+            for (SortTask forked = pending; forked != null; forked = forked.next) {
+                forked.join();
+            }
+        }
+
+        private void fork(final SortTask child) {
+            child.next = pending;
+            pending = child;
+            child.fork();
+        }
+    }
+}
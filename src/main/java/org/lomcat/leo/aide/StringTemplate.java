@@ -0,0 +1,297 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * <p>预编译的占位符模板，由 {@link StringAide#compileTemplate(String, String, String)} 创建。</p>
+ *
+ * <p>模板在编译时被解析为字面量片段和变量片段，渲染时只需依次输出各个片段，耗时与输出长度成正比，
+ * 而不像 {@link StringAide#replaceEach(String, String[], String[])} 那样对每个占位符重新搜索整个模板。
+ * 渲染使用的 {@link StringBuilder} 按字面量长度加上每个变量的估计长度预先分配容量。</p>
+ *
+ * <p>转义字符（默认为 {@code '\\'}）只在开始标记之前，以及占位符内部的结束标记之前起作用：
+ * 紧邻标记的连续转义字符每两个输出一个转义字符；数量为奇数时标记本身被转义，开始标记作为字面量输出，
+ * 结束标记作为变量名的一部分而不结束占位符。其它位置的转义字符保持原样。
+ * 没有对应结束标记的开始标记也被视为字面量。</p>
+ *
+ * <p>实例不可变，可以在多个线程之间共享。</p>
+ *
+ * <pre>
+ * StringTemplate template = StringAide.compileTemplate("Hello ${name}, \\${literal} ${missing}", "${", "}");
+ * template.render(Map.of("name", "Leo"))                                     = "Hello Leo, ${literal} ${missing}"
+ * template.render(Map.of("name", "Leo")::get, MissingKeyPolicy.EMPTY)        = "Hello Leo, ${literal} "
+ * template.render(Map.of("name", "Leo")::get, MissingKeyPolicy.THROW)        -&gt; IllegalArgumentException
+ *
+ * StringAide.compileTemplate("C:\\\\${dir}", "${", "}").render(Map.of("dir", "tmp"))        = "C:\\tmp"
+ * StringAide.compileTemplate("${a\\}b}", "${", "}").render(Map.of("a}b", 1))              = "1"
+ * </pre>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public final class StringTemplate {
+
+    /**
+     * <p>变量没有对应的值（查找结果为 {@code null}）时的处理方式。</p>
+     *
+     * @since 1.0.0
+     */
+    public enum MissingKeyPolicy {
+        /**
+         * 原样保留占位符，包括开始标记和结束标记
+         */
+        KEEP_PLACEHOLDER,
+        /**
+         * 输出空串
+         */
+        EMPTY,
+        /**
+         * 抛出 {@link IllegalArgumentException}
+         */
+        THROW
+    }
+
+    private static final int ESTIMATED_VALUE_LENGTH = 16;
+
+    private final String source;
+    /**
+     * 依次为各个片段，偶数下标为字面量（可能为空串），奇数下标为变量名
+     */
+    private final String[] segments;
+    /**
+     * 各个变量在模板中的原始占位符，包括开始标记、结束标记和转义字符，缺少变量时原样输出
+     */
+    private final String[] placeholders;
+    private final int literalLength;
+    /**
+     * 渲染结果的估计长度，用于预先分配容量
+     */
+    private final int estimatedLength;
+
+    private StringTemplate(final String source, final String[] segments, final String[] placeholders,
+                           final int literalLength) {
+        this.source = source;
+        this.segments = segments;
+        this.placeholders = placeholders;
+        this.literalLength = literalLength;
+        this.estimatedLength = literalLength + placeholders.length * ESTIMATED_VALUE_LENGTH;
+    }
+
+    /**
+     * @see StringAide#compileTemplate(String, String, String, char)
+     */
+    static StringTemplate compile(final String template, final String open, final String close, final char escape) {
+        if (template == null) {
+            throw new IllegalArgumentException("Template must not be null");
+        }
+        if (StringAide.isEmpty(open) || StringAide.isEmpty(close)) {
+            throw new IllegalArgumentException("Open and close delimiters must not be empty");
+        }
+        final List<String> segments = new ArrayList<>();
+        final List<String> placeholders = new ArrayList<>();
+        final StringBuilder literal = new StringBuilder();
+        final StringBuilder name = new StringBuilder();
+        int literalLength = 0;
+        final int length = template.length();
+        int index = 0;
+        while (index < length) {
+            final int start = template.indexOf(open, index);
+            if (start < 0) {
+                literal.append(template, index, length);
+                break;
+            }
+            if (unescape(template, index, start, escape, literal)) {
+                literal.append(open);
+                index = start + open.length();
+                continue;
+            }
+            final int end = findClose(template, start + open.length(), close, escape, name);
+            if (end < 0) {
+                literal.append(template, start, length);
+                break;
+            }
+            literalLength += literal.length();
+            segments.add(literal.toString());
+            segments.add(name.toString());
+            placeholders.add(template.substring(start, end + close.length()));
+            literal.setLength(0);
+            index = end + close.length();
+        }
+        literalLength += literal.length();
+        segments.add(literal.toString());
+        return new StringTemplate(template, segments.toArray(new String[0]), placeholders.toArray(new String[0]),
+                literalLength);
+    }
+
+    /**
+     * 查找 {@code from} 之后第一个未被转义的结束标记，并将其前的变量名（已处理转义）写入 {@code name}
+     *
+     * @return 结束标记的位置，没有时返回 -1
+     */
+    private static int findClose(final String template, int from, final String close, final char escape,
+                                 final StringBuilder name) {
+        name.setLength(0);
+        int end;
+        while ((end = template.indexOf(close, from)) >= 0) {
+            if (!unescape(template, from, end, escape, name)) {
+                return end;
+            }
+            name.append(close);
+            from = end + close.length();
+        }
+        return -1;
+    }
+
+    /**
+     * 将 {@code [from, marker)} 追加到 {@code builder}，紧邻 {@code marker} 的连续转义字符每两个输出一个
+     *
+     * @return 转义字符的数量为奇数，即 {@code marker} 处的标记被转义时返回 true
+     */
+    private static boolean unescape(final String template, final int from, final int marker, final char escape,
+                                    final StringBuilder builder) {
+        int escapeStart = marker;
+        while (escapeStart > from && template.charAt(escapeStart - 1) == escape) {
+            escapeStart--;
+        }
+        builder.append(template, from, escapeStart);
+        final int escapes = marker - escapeStart;
+        for (int i = 0; i < escapes / 2; i++) {
+            builder.append(escape);
+        }
+        return (escapes & 1) == 1;
+    }
+
+    /**
+     * <p>使用 {@code values} 渲染模板，缺少的变量保留占位符。</p>
+     *
+     * @param values 变量名到值的映射，为 null 时视为空映射
+     * @return 渲染结果
+     * @since 1.0.0
+     */
+    public String render(final Map<String, ?> values) {
+        return render(values == null ? name -> null : values::get, MissingKeyPolicy.KEEP_PLACEHOLDER);
+    }
+
+    /**
+     * <p>使用 {@code lookup} 渲染模板。</p>
+     *
+     * @param lookup 根据变量名查找值，返回 {@code null} 表示缺少该变量
+     * @param policy 缺少变量时的处理方式
+     * @return 渲染结果
+     * @throws IllegalArgumentException {@code policy} 为 {@link MissingKeyPolicy#THROW} 且缺少变量时
+     * @since 1.0.0
+     */
+    public String render(final Function<String, ?> lookup, final MissingKeyPolicy policy) {
+        return render(new StringBuilder(estimatedLength), lookup, policy).toString();
+    }
+
+    /**
+     * <p>使用 {@code lookup} 渲染模板，并将结果追加到 {@code builder} 中。</p>
+     *
+     * @param builder 接收结果的 {@link StringBuilder}
+     * @param lookup 根据变量名查找值，返回 {@code null} 表示缺少该变量
+     * @param policy 缺少变量时的处理方式
+     * @return {@code builder}
+     * @throws IllegalArgumentException {@code policy} 为 {@link MissingKeyPolicy#THROW} 且缺少变量时
+     * @since 1.0.0
+     */
+    public StringBuilder render(final StringBuilder builder, final Function<String, ?> lookup,
+                                final MissingKeyPolicy policy) {
+        try {
+            return renderTo(builder, lookup, policy);
+        } catch (IOException e) {
+            // StringBuilder 不会抛出 IOException
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * <p>使用 {@code lookup} 渲染模板，并将结果追加到 {@code appendable} 中，如 {@link java.io.Writer}。</p>
+     *
+     * @param appendable 接收结果的 {@link Appendable}
+     * @param lookup 根据变量名查找值，返回 {@code null} 表示缺少该变量
+     * @param policy 缺少变量时的处理方式
+     * @param <A> {@link Appendable} 的类型
+     * @return {@code appendable}
+     * @throws IOException {@code appendable} 抛出时
+     * @throws IllegalArgumentException {@code lookup} 或 {@code policy} 为 null，
+     *                                  或 {@code policy} 为 {@link MissingKeyPolicy#THROW} 且缺少变量时
+     * @since 1.0.0
+     */
+    public <A extends Appendable> A renderTo(final A appendable, final Function<String, ?> lookup,
+                                             final MissingKeyPolicy policy) throws IOException {
+        if (lookup == null || policy == null) {
+            throw new IllegalArgumentException("Lookup and policy must not be null");
+        }
+        appendable.append(segments[0]);
+        for (int i = 1; i < segments.length; i += 2) {
+            final String name = segments[i];
+            final Object value = lookup.apply(name);
+            if (value instanceof CharSequence) {
+                appendable.append((CharSequence) value);
+            } else if (value != null) {
+                appendable.append(String.valueOf(value));
+            } else if (policy == MissingKeyPolicy.KEEP_PLACEHOLDER) {
+                appendable.append(placeholders[i / 2]);
+            } else if (policy == MissingKeyPolicy.THROW) {
+                throw new IllegalArgumentException("Missing value for template variable: " + name);
+            }
+            appendable.append(segments[i + 1]);
+        }
+        return appendable;
+    }
+
+    /**
+     * @return 模板中出现的所有变量名，按第一次出现的顺序排列，不可修改
+     * @since 1.0.0
+     */
+    public Set<String> getVariableNames() {
+        final Set<String> names = new LinkedHashSet<>();
+        for (int i = 1; i < segments.length; i += 2) {
+            names.add(segments[i]);
+        }
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * @return 所有字面量片段的总长度
+     * @since 1.0.0
+     */
+    public int getLiteralLength() {
+        return literalLength;
+    }
+
+    /**
+     * @return 模板源字符串
+     */
+    @Override
+    public String toString() {
+        return source;
+    }
+}
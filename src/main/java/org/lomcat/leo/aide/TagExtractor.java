@@ -0,0 +1,314 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import java.util.Arrays;
+
+/**
+ * <p>预编译的标签提取器，一次扫描提取文本中由多组开始/结束标记包围的内容，如 {@code ${...}}、{@code [[...]]}、{@code <%...%>}。</p>
+ *
+ * <p>所有开始标记（嵌套模式下还包括结束标记）编译为一个 {@link MultiSearcher}，因此不论有多少组标记，文本都只被扫描一遍。
+ * 顺序和重叠模式下每组标记的结束标记按位置单调地查找，已知的查找结果会被复用，即使存在大量没有配对的开始标记，耗时也与文本长度成线性关系。
+ * 除每次提取开始时分配的工作数组（及其按需扩容）和回调外，扫描过程中不分配对象。
+ * 结果按开始标记在文本中的位置排列，可以通过回调 {@link #extract(CharSequence, SpanHandler)} 获取偏移量，
+ * 或者通过 {@link #offsets(CharSequence)}、{@link #substrings(String)} 一次获取全部结果。</p>
+ *
+ * <p>标记之间的关系由 {@link Mode} 决定。实例不可变，可以在多个线程之间共享。</p>
+ *
+ * <pre>
+ * TagExtractor extractor = TagExtractor.compile(new String[]{"${", "[[", "&lt;%"}, new String[]{"}", "]]", "%&gt;"});
+ * extractor.substrings("a ${x} b [[y]] c &lt;%z%&gt;") = ["x", "y", "z"]
+ * </pre>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public final class TagExtractor {
+
+    /**
+     * <p>标记之间的关系。</p>
+     *
+     * @since 1.0.0
+     */
+    public enum Mode {
+        /**
+         * 不重叠：找到一个标签后从其结束标记之后继续查找，与 {@link StringAide#substringsBetween(String, String, String)} 相同
+         */
+        SEQUENTIAL,
+        /**
+         * 嵌套：开始标记与结束标记按栈配对，内层和外层的标签都会被提取，没有配对的标记被忽略
+         */
+        NESTED,
+        /**
+         * 重叠：每个开始标记都与其后第一个对应的结束标记组成一个标签，标签之间可以重叠
+         */
+        OVERLAPPING
+    }
+
+    /**
+     * <p>接收标签的回调。开始标记的位置为 {@code contentStart - open.length()}，
+     * 结束标记之后的位置为 {@code contentEnd + close.length()}。</p>
+     *
+     * @since 1.0.0
+     */
+    @FunctionalInterface
+    public interface SpanHandler {
+        /**
+         * @param pairIndex 标记组的下标
+         * @param contentStart 内容的开始位置（包含）
+         * @param contentEnd 内容的结束位置（不包含）
+         */
+        void onSpan(int pairIndex, int contentStart, int contentEnd);
+    }
+
+    private final String[] opens;
+    private final String[] closes;
+    private final Mode mode;
+    /**
+     * 尚未查找过结束标记
+     */
+    private static final int UNSEARCHED = -2;
+
+    /**
+     * 顺序和重叠模式下只包含开始标记；嵌套模式下前一半为开始标记，后一半为结束标记
+     */
+    private final MultiSearcher searcher;
+
+    private TagExtractor(final String[] opens, final String[] closes, final Mode mode) {
+        this.opens = opens;
+        this.closes = closes;
+        this.mode = mode;
+        if (mode == Mode.NESTED) {
+            final String[] needles = Arrays.copyOf(opens, opens.length * 2);
+            System.arraycopy(closes, 0, needles, opens.length, closes.length);
+            this.searcher = MultiSearcher.compile(needles);
+        } else {
+            this.searcher = MultiSearcher.compile(opens);
+        }
+    }
+
+    /**
+     * <p>编译一个 {@link Mode#SEQUENTIAL} 模式的标签提取器。</p>
+     *
+     * @param opens 开始标记
+     * @param closes 结束标记，与 {@code opens} 一一对应
+     * @return 标签提取器
+     * @throws IllegalArgumentException 标记为 null 或 空串，或两个数组的长度不同时
+     * @since 1.0.0
+     */
+    public static TagExtractor compile(final String[] opens, final String[] closes) {
+        return compile(opens, closes, Mode.SEQUENTIAL);
+    }
+
+    /**
+     * <p>编译一个标签提取器。</p>
+     *
+     * @param opens 开始标记
+     * @param closes 结束标记，与 {@code opens} 一一对应
+     * @param mode 标记之间的关系
+     * @return 标签提取器
+     * @throws IllegalArgumentException 标记为 null 或 空串，或两个数组的长度不同，或 {@code mode} 为 null 时
+     * @since 1.0.0
+     */
+    public static TagExtractor compile(final String[] opens, final String[] closes, final Mode mode) {
+        if (opens == null || closes == null || opens.length != closes.length || opens.length == 0) {
+            throw new IllegalArgumentException("Opens and closes must be non-empty arrays of the same length");
+        }
+        if (mode == null) {
+            throw new IllegalArgumentException("Mode must not be null");
+        }
+        for (int i = 0; i < opens.length; i++) {
+            if (StringAide.isEmpty(opens[i]) || StringAide.isEmpty(closes[i])) {
+                throw new IllegalArgumentException("Tag delimiters must not be empty: " + i);
+            }
+        }
+        return new TagExtractor(opens.clone(), closes.clone(), mode);
+    }
+
+    /**
+     * <p>提取所有标签，按开始标记的位置依次回调 {@code handler}。</p>
+     *
+     * @param text 文本，为 null 时不回调
+     * @param handler 回调
+     * @return 标签的个数
+     * @since 1.0.0
+     */
+    public int extract(final CharSequence text, final SpanHandler handler) {
+        if (text == null) {
+            return 0;
+        }
+        if (mode == Mode.NESTED) {
+            return extractNested(text, handler);
+        }
+        final int length = text.length();
+        // 每组标记最近一次查找到的结束标记位置，没有找到时为 -1。
+        // 同一组的内容开始位置单调递增，所以缓存的位置不小于内容开始位置时仍然是其后第一个结束标记，
+        // 缓存为 -1 时之后也不会再有结束标记
+        final int[] closeAt = new int[opens.length];
+        Arrays.fill(closeAt, UNSEARCHED);
+        int count = 0;
+        int from = 0;
+        long found;
+        while ((found = searcher.first(text, from)) != MultiSearcher.NOT_FOUND) {
+            final int openStart = (int) (found >>> 32);
+            final int pair = (int) found;
+            final int contentStart = openStart + opens[pair].length();
+            int contentEnd = closeAt[pair];
+            if (contentEnd == UNSEARCHED || (contentEnd >= 0 && contentEnd < contentStart)) {
+                contentEnd = closeAt[pair] = CharSequenceAide.doIndexOf(text, closes[pair], contentStart);
+            }
+            if (contentEnd < 0) {
+                from = openStart + 1;
+                continue;
+            }
+            handler.onSpan(pair, contentStart, contentEnd);
+            count++;
+            from = mode == Mode.SEQUENTIAL ? contentEnd + closes[pair].length() : openStart + 1;
+            if (from > length) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private int extractNested(final CharSequence text, final SpanHandler handler) {
+        final int pairs = opens.length;
+        // 栈中保存 (标记组, 内容开始位置)；pending 中保存当前最外层标签内已经闭合的标签
+        int[] stack = new int[16];
+        int depth = 0;
+        int[] pending = new int[24];
+        int pendingCount = 0;
+        // flush 排序用的工作数组，在整个扫描过程中复用
+        long[] order = new long[8];
+        int count = 0;
+        int from = 0;
+        long found;
+        while ((found = searcher.first(text, from)) != MultiSearcher.NOT_FOUND) {
+            final int position = (int) (found >>> 32);
+            final int needle = (int) found;
+            final int top = depth > 0 ? stack[depth * 2 - 2] : -1;
+            if (top >= 0 && regionMatches(text, position, closes[top])) {
+                // 栈顶标记组的结束标记优先，允许开始标记与结束标记相同
+                depth--;
+                pending = grow(pending, pendingCount * 3 + 3);
+                pending[pendingCount * 3] = top;
+                pending[pendingCount * 3 + 1] = stack[depth * 2 + 1];
+                pending[pendingCount * 3 + 2] = position;
+                pendingCount++;
+                from = position + closes[top].length();
+                if (depth == 0) {
+                    order = grow(order, pendingCount);
+                    count += flush(pending, pendingCount, order, handler);
+                    pendingCount = 0;
+                }
+            } else if (needle < pairs) {
+                final int contentStart = position + opens[needle].length();
+                stack = grow(stack, depth * 2 + 2);
+                stack[depth * 2] = needle;
+                stack[depth * 2 + 1] = contentStart;
+                depth++;
+                from = contentStart;
+            } else {
+                // 不属于栈顶标记组的结束标记
+                from = position + 1;
+            }
+        }
+        // 未闭合的开始标记被忽略，其内部已闭合的标签仍然有效
+        return count + flush(pending, pendingCount, grow(order, pendingCount), handler);
+    }
+
+    /**
+     * 按内容开始位置排序后回调，{@code order} 的长度不小于 {@code count}
+     */
+    private static int flush(final int[] pending, final int count, final long[] order, final SpanHandler handler) {
+        for (int i = 0; i < count; i++) {
+            order[i] = ((long) pending[i * 3 + 1] << 32) | i;
+        }
+        Arrays.sort(order, 0, count);
+        for (int k = 0; k < count; k++) {
+            final int i = (int) order[k];
+            handler.onSpan(pending[i * 3], pending[i * 3 + 1], pending[i * 3 + 2]);
+        }
+        return count;
+    }
+
+    /**
+     * <p>提取所有标签的偏移量。</p>
+     *
+     * @param text 文本，为 null 时返回空数组
+     * @return 每个标签依次占三个元素：标记组的下标、内容的开始位置（包含）、内容的结束位置（不包含）
+     * @since 1.0.0
+     */
+    public int[] offsets(final CharSequence text) {
+        final IntBuffer buffer = new IntBuffer();
+        extract(text, buffer);
+        return Arrays.copyOf(buffer.values, buffer.size);
+    }
+
+    /**
+     * <p>提取所有标签的内容。</p>
+     *
+     * @param text 文本，为 null 时返回空数组
+     * @return 标签的内容，没有标签时返回空数组
+     * @since 1.0.0
+     */
+    public String[] substrings(final String text) {
+        final int[] offsets = offsets(text);
+        final String[] substrings = new String[offsets.length / 3];
+        for (int i = 0; i < substrings.length; i++) {
+            substrings[i] = text.substring(offsets[i * 3 + 1], offsets[i * 3 + 2]);
+        }
+        return substrings;
+    }
+
+    /**
+     * @return 标签之间的关系
+     * @since 1.0.0
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    private static boolean regionMatches(final CharSequence text, final int offset, final String tag) {
+        return offset + tag.length() <= text.length()
+                && CharSequenceAide.regionMatches(false, text, offset, tag, 0, tag.length());
+    }
+
+    private static int[] grow(final int[] array, final int minLength) {
+        return array.length >= minLength ? array : Arrays.copyOf(array, Math.max(minLength, array.length * 2));
+    }
+
+    private static long[] grow(final long[] array, final int minLength) {
+        return array.length >= minLength ? array : Arrays.copyOf(array, Math.max(minLength, array.length * 2));
+    }
+
+    private static final class IntBuffer implements SpanHandler {
+        private int[] values = new int[12];
+        private int size;
+
+        @Override
+        public void onSpan(final int pairIndex, final int contentStart, final int contentEnd) {
+            values = grow(values, size + 3);
+            values[size++] = pairIndex;
+            values[size++] = contentStart;
+            values[size++] = contentEnd;
+        }
+    }
+}
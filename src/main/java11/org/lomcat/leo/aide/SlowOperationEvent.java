@@ -0,0 +1,126 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * <p>{@link SlowOperationEvent} 的 Java 11 版本，位于多版本 JAR 的 {@code META-INF/versions/11} 中，
+ * 是耗时或输入长度超过阈值的字符串操作对应的 JFR 事件，事件名为 {@value #NAME}。</p>
+ *
+ * <p>事件在被统计的方法开始时 {@link #begin()}、结束时 {@link #end()}，JFR 记录的持续时间就是调用的耗时，
+ * 因此 JFR 自身的 {@code threshold} 设置（如 {@code LeoAide.SlowOperation#threshold=50 ms}）可以在
+ * {@link SlowOperationEvents} 的阈值之外进一步过滤事件。</p>
+ *
+ * <p>此类是唯一直接依赖 {@code jdk.jfr} 模块的类，只由 {@link SlowOperationEvents} 在开启事件后加载，
+ * 运行时缺少 {@code jdk.jfr} 模块时不影响其它功能。</p>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+@Name(SlowOperationEvent.NAME)
+@Label("Slow String Operation")
+@Category("Leo Aide")
+@Description("A StringAide, CharSequenceAide or RegexAide call that exceeded the duration or input length threshold")
+final class SlowOperationEvent extends Event {
+
+    static final String NAME = "LeoAide.SlowOperation";
+
+    /**
+     * 用于在创建事件对象之前检查事件是否开启
+     */
+    private static final EventType TYPE = EventType.getEventType(SlowOperationEvent.class);
+
+    @Label("Method")
+    String method;
+
+    @Label("Input Length")
+    @Description("Length of the input character sequence")
+    int inputLength;
+
+    @Label("Match Count")
+    @Description("Number of matches, tokens or removed characters, -1 if not determined")
+    int matchCount;
+
+    /**
+     * <p>监听 JFR 记录的状态变化，并立即同步一次当前状态。</p>
+     */
+    static void install() {
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recordingStateChanged(final Recording recording) {
+                SlowOperationEvents.recordingChanged(isRecording());
+            }
+        });
+        SlowOperationEvents.recordingChanged(FlightRecorder.isInitialized() && isRecording());
+    }
+
+    /**
+     * <p>在被统计的方法开始时创建事件并开始计时。</p>
+     *
+     * @return 已开始的事件，事件未在任何 JFR 记录中开启时返回 {@code null}
+     */
+    static Object start() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        final SlowOperationEvent event = new SlowOperationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * <p>结束计时，事件满足 JFR 的 {@code threshold} 等设置时提交。</p>
+     *
+     * @param event {@link #start()} 返回的事件
+     * @param method 方法名
+     * @param inputLength 输入长度
+     * @param matchCount 匹配数量，无法确定时为 -1
+     */
+    static void complete(final Object event, final String method, final int inputLength, final int matchCount) {
+        final SlowOperationEvent slowOperation = (SlowOperationEvent) event;
+        slowOperation.end();
+        if (!slowOperation.shouldCommit()) {
+            return;
+        }
+        slowOperation.method = method;
+        slowOperation.inputLength = inputLength;
+        slowOperation.matchCount = matchCount;
+        slowOperation.commit();
+    }
+
+    private static boolean isRecording() {
+        for (final Recording recording : FlightRecorder.getFlightRecorder().getRecordings()) {
+            if (recording.getState() == RecordingState.RUNNING) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+
+package org.lomcat.leo.aide;
+
+/**
+ * <p>{@link StringKernel} 的 Java 21 版本，位于多版本 JAR 的 {@code META-INF/versions/21} 中。</p>
+ *
+ * <p>在 Java 17 版本的基础上，有界查找改用 Java 21 新增的 {@link String#indexOf(int, int, int)} 和
+ * {@link String#indexOf(String, int, int)}，由 JVM 的向量化内建实现完成，且不会扫描范围之外的字符。</p>
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+final class StringKernel {
+
+    private StringKernel() {
+    }
+
+    /**
+     * @param string 字符串
+     * @return 字符串为空或只包含 {@link Character#isWhitespace(int)} 定义的空白符时返回 {@code true}
+     */
+    static boolean isBlank(final String string) {
+        return string.isBlank();
+    }
+
+    /**
+     * @param string 字符串
+     * @return 去掉首尾空白符之后的字符串，没有空白符可去时返回 {@code string} 本身
+     */
+    static String strip(final String string) {
+        return string.strip();
+    }
+
+    /**
+     * @param string 字符串
+     * @return 去掉开头空白符之后的字符串，没有空白符可去时返回 {@code string} 本身
+     */
+    static String stripLeading(final String string) {
+        return string.stripLeading();
+    }
+
+    /**
+     * @param string 字符串
+     * @return 去掉末尾空白符之后的字符串，没有空白符可去时返回 {@code string} 本身
+     */
+    static String stripTrailing(final String string) {
+        return string.stripTrailing();
+    }
+
+    /**
+     * <p>在 {@code [fromIndex, toIndex)} 范围内查找字符（代码点），增补字符的两个代码单元都必须位于范围内。</p>
+     *
+     * @param string 字符串
+     * @param searchChar 要查找的字符（代码点）
+     * @param fromIndex 开始位置（包含）
+     * @param toIndex 结束位置（不包含）
+     * @return 索引值，未找到时返回 -1
+     */
+    static int indexOf(final String string, final int searchChar, final int fromIndex, final int toIndex) {
+        return string.indexOf(searchChar, fromIndex, toIndex);
+    }
+
+    /**
+     * <p>在 {@code [fromIndex, toIndex)} 范围内查找子串，子串必须完整地位于范围内。</p>
+     *
+     * @param string 字符串
+     * @param searchString 要查找的子串
+     * @param fromIndex 开始位置（包含）
+     * @param toIndex 结束位置（不包含）
+     * @return 索引值，未找到时返回 -1
+     */
+    static int indexOf(final String string, final String searchString, final int fromIndex, final int toIndex) {
+        return string.indexOf(searchString, fromIndex, toIndex);
+    }
+}
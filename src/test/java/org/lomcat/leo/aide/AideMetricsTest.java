@@ -0,0 +1,137 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+
+/**
+ * {@link AideMetrics} 的统计结果测试。统计是全局状态，每个测试前清空，结束后关闭。
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public class AideMetricsTest extends TestCase {
+
+    @Override
+    protected void setUp() {
+        AideMetrics.setEnabled(true);
+        AideMetrics.reset();
+    }
+
+    @Override
+    protected void tearDown() {
+        AideMetrics.setEnabled(false);
+        AideMetrics.reset();
+        AideMetrics.unregisterMBean();
+    }
+
+    @Test
+    public void testCounters() {
+        assertEquals("b-b", StringAide.replace("bab", "a", "-"));
+        assertEquals("bb", StringAide.replaceOnce("abb", "a", ""));
+        final AideMetrics.Snapshot replace = AideMetrics.snapshot("StringAide.replace");
+        assertEquals(2, replace.getCalls());
+        assertEquals(6, replace.getTotalChars());
+        assertTrue(replace.getTotalNanos() >= replace.getMaxNanos());
+        assertTrue(replace.getMaxNanos() > 0);
+
+        AideMetrics.setEnabled(false);
+        StringAide.replace("bab", "a", "-");
+        assertEquals(2, AideMetrics.snapshot("StringAide.replace").getCalls());
+        assertNull(AideMetrics.snapshot("StringAide.noSuchMethod"));
+    }
+
+    @Test
+    public void testPublicEntryPointOnly() {
+        StringAide.strip("  abc  ");
+        StringAide.delete("abcabc", "b");
+        StringAide.splitByWholeSeparator("a b c", null);
+        RegexAide.replaceAll("a.b.c", "\\.", "-");
+        CharSequenceAide.contains("abc", "b");
+        CharSequenceAide.ordinalIndexOf("abab", "b", 2);
+
+        assertEquals(1, AideMetrics.snapshot("StringAide.strip").getCalls());
+        assertEquals(0, AideMetrics.snapshot("StringAide.stripStart").getCalls());
+        assertEquals(0, AideMetrics.snapshot("StringAide.stripEnd").getCalls());
+        assertEquals(1, AideMetrics.snapshot("StringAide.splitByWholeSeparator").getCalls());
+        assertEquals(0, AideMetrics.snapshot("StringAide.split").getCalls());
+        assertEquals(1, AideMetrics.snapshot("RegexAide.replaceAll").getCalls());
+        assertEquals(0, AideMetrics.snapshot("StringAide.replace").getCalls());
+        assertEquals(0, AideMetrics.snapshot("CharSequenceAide.indexOf").getCalls());
+    }
+
+    @Test
+    public void testHistogram() {
+        final int[] lengths = {0, 1, 5, 1000};
+        for (final int length : lengths) {
+            CharSequenceAide.indexOf(new StringBuilder().append(new char[length]), 'b', 0);
+        }
+        final AideMetrics.Snapshot snapshot = AideMetrics.snapshot("CharSequenceAide.indexOf");
+        assertEquals(4, snapshot.getCalls());
+        assertEquals(1006, snapshot.getTotalChars());
+
+        final long[] histogram = snapshot.getLengthHistogram();
+        assertEquals(1, histogram[0]);
+        assertEquals(1, histogram[1]);
+        assertEquals(1, histogram[3]);
+        assertEquals(1, histogram[10]);
+        long total = 0;
+        for (final long count : histogram) {
+            total += count;
+        }
+        assertEquals(4, total);
+
+        assertTrue(snapshot.getP50Nanos() <= snapshot.getP90Nanos());
+        assertTrue(snapshot.getP90Nanos() <= snapshot.getP99Nanos());
+        assertTrue(snapshot.getP99Nanos() <= snapshot.getP999Nanos());
+        assertTrue(snapshot.getP999Nanos() <= snapshot.getMaxNanos());
+        assertEquals(snapshot.getTotalNanos() / 4, snapshot.getMeanNanos());
+    }
+
+    @Test
+    public void testMXBean() throws Exception {
+        AideMetrics.registerMBean();
+        AideMetrics.registerMBean();
+        StringAide.split("a,b,c", ',');
+
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new ObjectName(AideMetrics.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+        assertEquals(Boolean.TRUE, server.getAttribute(name, "Enabled"));
+
+        final TabularData snapshots = (TabularData) server.getAttribute(name, "Snapshots");
+        final CompositeData split = (CompositeData) snapshots.get(new Object[]{"StringAide.split"}).get("value");
+        assertEquals(1L, split.get("calls"));
+        assertEquals(5L, split.get("totalChars"));
+
+        server.invoke(name, "reset", null, null);
+        assertEquals(0, AideMetrics.snapshot("StringAide.split").getCalls());
+
+        AideMetrics.unregisterMBean();
+        assertFalse(server.isRegistered(name));
+    }
+}
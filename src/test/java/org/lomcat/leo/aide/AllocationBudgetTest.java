@@ -0,0 +1,221 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * 分配预算测试，通过 {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)} 统计单次调用分配的字节数，
+ * 超出预算时测试失败。JVM 不支持线程分配统计时跳过。
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public class AllocationBudgetTest extends TestCase {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURE_ITERATIONS = 10_000;
+    /**
+     * 取多轮测量的最小值：每次调用都会发生的分配在每一轮中都出现，而编译、去优化等一次性的分配只影响个别轮次
+     */
+    private static final int MEASURE_ROUNDS = 3;
+    /**
+     * 对象头及对齐带来的误差
+     */
+    private static final int OBJECT_SLACK = 64;
+    /**
+     * 零分配预算允许的总误差，针对整个测量循环而不是单次调用，最多容许几个零星的小对象
+     */
+    private static final int ZERO_ALLOCATION_TOLERANCE = 64;
+
+    private static final String ASCII = "The quick brown fox jumps over the lazy dog";
+    private static final String LATIN1 = "Ünïcödé çàfé naïve résumé";
+    private static final String UTF16 = "快速的棕色狐狸跳过了懒狗 🦊 and the dog";
+    private static final String BLANK = " \t\r\n    ";
+    private static final String[] INPUTS = {ASCII, LATIN1, UTF16, BLANK};
+
+    private static volatile int intSink;
+    private static volatile boolean booleanSink;
+    private static volatile Object objectSink;
+
+    private com.sun.management.ThreadMXBean threadBean;
+
+    @Override
+    protected void setUp() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threadBean = (com.sun.management.ThreadMXBean) bean;
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    @Test
+    public void testIsBlank() {
+        for (final String input : INPUTS) {
+            final StringBuilder builder = new StringBuilder(input);
+            assertZeroAllocation("isBlank(String) " + input, () -> booleanSink = CharSequenceAide.isBlank(input));
+            assertZeroAllocation("isBlank(StringBuilder) " + input, () -> booleanSink = CharSequenceAide.isBlank(builder));
+        }
+    }
+
+    @Test
+    public void testIndexOf() {
+        for (final String input : INPUTS) {
+            final StringBuilder builder = new StringBuilder(input);
+            final String needle = input.substring(input.length() / 2, input.length() / 2 + 3);
+            final StringBuilder needleBuilder = new StringBuilder(needle);
+            assertZeroAllocation("indexOf(String, char) " + input, () -> intSink = CharSequenceAide.indexOf(input, 'z'));
+            assertZeroAllocation("indexOf(StringBuilder, char) " + input, () -> intSink = CharSequenceAide.indexOf(builder, 'z'));
+            assertZeroAllocation("indexOf(StringBuilder, codePoint) " + input,
+                    () -> intSink = CharSequenceAide.indexOf(builder, 0x1F98A, 0));
+            assertZeroAllocation("indexOf(String, String) " + input, () -> intSink = CharSequenceAide.indexOf(input, needle));
+            assertZeroAllocation("indexOf(StringBuilder, StringBuilder) " + input,
+                    () -> intSink = CharSequenceAide.indexOf(builder, needleBuilder));
+        }
+    }
+
+    @Test
+    public void testContainsAny() {
+        final char[] chars = {'#', '$', '狗'};
+        final String charString = "#$狗";
+        for (final String input : INPUTS) {
+            final StringBuilder builder = new StringBuilder(input);
+            assertZeroAllocation("containsAny(String, char[]) " + input,
+                    () -> booleanSink = CharSequenceAide.containsAny(input, chars));
+            assertZeroAllocation("containsAny(StringBuilder, char[]) " + input,
+                    () -> booleanSink = CharSequenceAide.containsAny(builder, chars));
+            assertZeroAllocation("containsAny(String, String) " + input,
+                    () -> booleanSink = CharSequenceAide.containsAny(input, charString));
+        }
+    }
+
+    @Test
+    public void testIndexOfAny() {
+        // 低于 MultiSearcher 的切换阈值时逐个查找，不分配对象；达到阈值时编译自动机，分配与模式串总长度成正比的内存
+        final String[] needles = new String[CharSequenceAide.MULTI_SEARCH_MIN_NEEDLES - 1];
+        for (int i = 0; i < needles.length; i++) {
+            needles[i] = "needle-" + i;
+        }
+        final StringBuilder text = new StringBuilder();
+        while (text.length() < CharSequenceAide.MULTI_SEARCH_MIN_LENGTH) {
+            text.append(ASCII);
+        }
+        final String input = text.toString();
+        assertZeroAllocation("indexOfAny(String, String...)", () -> intSink = CharSequenceAide.indexOfAny(input, needles));
+        assertZeroAllocation("lastIndexOfAny(String, String...)",
+                () -> intSink = CharSequenceAide.lastIndexOfAny(input, needles));
+        assertZeroAllocation("containsAny(String, String...)",
+                () -> booleanSink = CharSequenceAide.containsAny(input, needles));
+    }
+
+    @Test
+    public void testEqualsIgnoreCase() {
+        for (final String input : INPUTS) {
+            final String upper = input.toUpperCase();
+            final StringBuilder builder = new StringBuilder(upper);
+            assertZeroAllocation("equalsIgnoreCase(String, String) " + input,
+                    () -> booleanSink = CharSequenceAide.equalsIgnoreCase(input, upper));
+            assertZeroAllocation("equalsIgnoreCase(String, StringBuilder) " + input,
+                    () -> booleanSink = CharSequenceAide.equalsIgnoreCase(input, builder));
+        }
+    }
+
+    @Test
+    public void testReplace() {
+        for (final String input : INPUTS) {
+            final String search = input.substring(4, 6);
+            for (final String replacement : new String[]{"", "-", "<replacement>"}) {
+                final String expected = input.replace(search, replacement);
+                // 结果字符串，加上一个容量为 输入长度 + 有限增长 的 StringBuilder；
+                // 工作缓冲区初始为 Latin-1 编码，遇到非 Latin-1 字符时会扩展为 UTF-16 编码
+                final int capacity = input.length() + Math.max(0, replacement.length() - search.length()) * 16;
+                final int coder = coder(input + replacement);
+                final long buffers = 24 + arraySize(capacity) + (coder == 2 ? arraySize(capacity * 2) : 0);
+                final long budget = stringSize(expected) + buffers;
+                assertAllocation("replace " + input + " -> " + replacement, budget,
+                        () -> objectSink = StringAide.replace(input, search, replacement));
+            }
+            assertZeroAllocation("replace(no match) " + input, () -> objectSink = StringAide.replace(input, "\u0000", "x"));
+        }
+    }
+
+    @Test
+    public void testReplaceChars() {
+        for (final String input : INPUTS) {
+            assertZeroAllocation("replaceChars(no match) " + input,
+                    () -> objectSink = StringAide.replaceChars(input, "#%~\uD83D\uDE00", "-=+!"));
+        }
+    }
+
+    private void assertZeroAllocation(final String name, final Runnable action) {
+        assertAllocation(name, 0, action);
+    }
+
+    private void assertAllocation(final String name, final long budget, final Runnable action) {
+        if (threadBean == null) {
+            return;
+        }
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            action.run();
+        }
+        final long threadId = Thread.currentThread().getId();
+        final long baseline = measure(threadId, () -> { });
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < MEASURE_ROUNDS; round++) {
+            allocated = Math.min(allocated, measure(threadId, action) - baseline);
+        }
+        // 比较总量而不是按次数整除后的平均值，否则零星的分配（总量小于 MEASURE_ITERATIONS 字节）会被舍入为 0
+        final long limit = budget == 0
+                ? ZERO_ALLOCATION_TOLERANCE
+                : (budget + OBJECT_SLACK) * MEASURE_ITERATIONS;
+        assertTrue(name + ": allocated " + allocated + " bytes in " + MEASURE_ITERATIONS + " calls, budget " + limit,
+                allocated <= limit);
+    }
+
+    private long measure(final long threadId, final Runnable action) {
+        final long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            action.run();
+        }
+        return threadBean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private static long stringSize(final String string) {
+        return 24 + arraySize(string.length() * coder(string));
+    }
+
+    private static long arraySize(final int bytes) {
+        return (16 + bytes + 7) & ~7L;
+    }
+
+    private static int coder(final String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) > 0xFF) {
+                return 2;
+            }
+        }
+        return 1;
+    }
+}
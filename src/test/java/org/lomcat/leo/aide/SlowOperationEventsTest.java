@@ -0,0 +1,146 @@
+/*
+ * Copyright Lomcat and/or its affiliates..
+ *
+ * This file is part of Leo Aide [1].
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ * [1] Leo Aide: http://leo.lomcat.org
+ */
+
+package org.lomcat.leo.aide;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link SlowOperationEvents} 发出的 JFR 事件测试，需要在 Java 11 及以上运行（使用多版本 JAR 中的 Java 11 版本）。
+ *
+ * @author Kweny
+ * @since 1.0.0
+ */
+public class SlowOperationEventsTest extends TestCase {
+
+    private Duration durationThreshold;
+
+    @Override
+    protected void setUp() {
+        durationThreshold = SlowOperationEvents.getDurationThreshold();
+        SlowOperationEvents.setEnabled(true);
+        SlowOperationEvents.setDurationThreshold(Duration.ZERO);
+    }
+
+    @Override
+    protected void tearDown() {
+        SlowOperationEvents.setEnabled(false);
+        SlowOperationEvents.setDurationThreshold(durationThreshold);
+    }
+
+    @Test
+    public void testEvents() throws IOException {
+        final String text = repeat("abcab", 20000);
+        final List<RecordedEvent> events = record(Duration.ZERO, () -> {
+            StringAide.replaceEach(text, new String[]{"a", "b"}, new String[]{"x", "y"});
+            StringAide.replaceEachRepeatedly("ab", new String[]{"a", "b"}, new String[]{"b", "c"});
+            StringAide.stripAccents("café");
+        });
+        assertEquals(3, events.size());
+
+        final RecordedEvent replaceEach = events.get(0);
+        assertEquals("StringAide.replaceEach", replaceEach.getString("method"));
+        assertEquals(text.length(), replaceEach.getInt("inputLength"));
+        assertEquals(80000, replaceEach.getInt("matchCount"));
+        assertTrue(replaceEach.getDuration().compareTo(Duration.ZERO) > 0);
+
+        // "ab" -> "bc" -> "cc"
+        final RecordedEvent repeatedly = events.get(1);
+        assertEquals("StringAide.replaceEachRepeatedly", repeatedly.getString("method"));
+        assertEquals(3, repeatedly.getInt("matchCount"));
+
+        assertEquals("StringAide.stripAccents", events.get(2).getString("method"));
+    }
+
+    @Test
+    public void testThresholds() throws IOException {
+        // JFR 自身的 threshold 设置按事件的持续时间过滤
+        assertEquals(0, record(Duration.ofHours(1), () -> StringAide.replace("abc", "b", "x")).size());
+
+        SlowOperationEvents.setDurationThreshold(Duration.ofHours(1));
+        SlowOperationEvents.setInputLengthThreshold(1000);
+        try {
+            final List<RecordedEvent> events = record(Duration.ZERO, () -> {
+                StringAide.replace("abc", "b", "x");
+                StringAide.replace(repeat("abc", 1000), "b", "xy");
+            });
+            assertEquals(1, events.size());
+            assertEquals(3000, events.get(0).getInt("inputLength"));
+            assertEquals(1000, events.get(0).getInt("matchCount"));
+        } finally {
+            SlowOperationEvents.setInputLengthThreshold(1 << 20);
+        }
+    }
+
+    @Test
+    public void testNotRecording() {
+        assertFalse(SlowOperationEvents.isRecording());
+        assertNull(SlowOperationEvents.begin());
+        assertFalse(AideMetrics.isActive());
+        try {
+            SlowOperationEvents.setDurationThreshold(null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 阈值不能为 null
+        }
+    }
+
+    private static List<RecordedEvent> record(final Duration threshold, final Runnable action) throws IOException {
+        final Path file = Files.createTempFile("leo-aide", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable(SlowOperationEvent.NAME).withThreshold(threshold);
+                recording.start();
+                assertTrue(SlowOperationEvents.isRecording());
+                action.run();
+                recording.stop();
+                recording.dump(file);
+            }
+            final List<RecordedEvent> events = new ArrayList<>();
+            for (final RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals(SlowOperationEvent.NAME)) {
+                    events.add(event);
+                }
+            }
+            events.sort((left, right) -> left.getStartTime().compareTo(right.getStartTime()));
+            return events;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static String repeat(final String string, final int count) {
+        final char[] chars = new char[string.length() * count];
+        for (int i = 0; i < count; i++) {
+            string.getChars(0, string.length(), chars, i * string.length());
+        }
+        return new String(chars);
+    }
+}
@@ -22,6 +22,19 @@ package org.lomcat.leo.aide;
 import junit.framework.TestCase;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
 /**
  * TODO Kweny StringAideTest
  *
@@ -82,6 +95,710 @@ public class StringAideTest extends TestCase {
         assertEquals(StringAide.truncate("abcdefghij", -2, 4), "abcd");
     }
 
+    @Test
+    public void testDeleteCharsIgnoreCase() {
+        assertNull(StringAide.deleteCharsIgnoreCase(null, "x"));
+        assertEquals("", StringAide.deleteCharsIgnoreCase("", "x"));
+        assertEquals("  ab c", StringAide.deleteCharsIgnoreCase("  ab c", ""));
+        assertEquals("abcfG  ", StringAide.deleteCharsIgnoreCase("abXcxDexfG  ", "xde"));
+        assertEquals("abcfg  ", StringAide.deleteChars("abxcxdexfg  ", "xde"));
+        assertEquals("s\u017Fs", StringAide.deleteCharsIgnoreCase("s\u017Fs\u00B5\u039C", "\u00B5"));
+        final String source = "abc";
+        assertSame(source, StringAide.deleteChars(source, CharSet.ofIgnoreCase("xyz")));
+
+        // 位图由折叠结果反查 Latin-1 字符，与逐个折叠比较的结果一致
+        final Random random = new Random(26);
+        for (int round = 0; round < 200; round++) {
+            final char[] members = new char[1 + random.nextInt(6)];
+            for (int i = 0; i < members.length; i++) {
+                members[i] = (char) (random.nextBoolean() ? random.nextInt(0x100) : random.nextInt(0x2200));
+            }
+            final CharSet set = CharSet.ofIgnoreCase(new String(members));
+            for (char ch = 0; ch < 0x2200; ch++) {
+                boolean expected = false;
+                for (final char member : members) {
+                    expected |= CharSet.fold(member) == CharSet.fold(ch);
+                }
+                assertEquals(expected, set.contains(ch));
+            }
+        }
+    }
+
+    @Test
+    public void testReplaceChars() {
+        assertNull(StringAide.replaceChars(null, "a", "b"));
+        assertEquals("abc", StringAide.replaceChars("abc", null, "x"));
+        assertEquals("ac", StringAide.replaceChars("abc", "b", null));
+        assertEquals("ayzya", StringAide.replaceChars("abcba", "bc", "yz"));
+        assertEquals("ayya", StringAide.replaceChars("abcba", "bc", "y"));
+        assertEquals("ayzya", StringAide.replaceChars("abcba", "bc", "yzx"));
+        assertEquals("jelly", StringAide.replaceChars("hello", CharTranslator.compile("ho", "jy")));
+        assertEquals("a\u00E9x", StringAide.replaceChars("a\u0100\uD83D\uDE00", "\u0100\uD83D\uDE00", "\u00E9x"));
+        final String source = "abc";
+        assertSame(source, StringAide.replaceChars(source, "xyz", "XYZ"));
+    }
+
+    @Test
+    public void testEqualsAnyIn() {
+        final CharSequenceSet methods = CharSequenceSet.of("GET", "POST", null);
+        final CharSequenceSet headers = CharSequenceSet.ofIgnoreCase("Content-Type", "content-type", "Accept");
+        assertTrue(StringAide.equalsAnyIn("GET", methods));
+        assertFalse(StringAide.equalsAnyIn("get", methods));
+        assertTrue(StringAide.equalsAnyIn(new StringBuilder("POST"), methods));
+        assertTrue(StringAide.equalsAnyIn(null, methods));
+        assertFalse(StringAide.equalsAnyIn("GET", null));
+        assertEquals(2, headers.size());
+        assertTrue(StringAide.equalsAnyIn("CONTENT-TYPE", headers));
+        assertTrue(StringAide.equalsAnyIn(new StringBuilder("aCCept"), headers));
+        assertFalse(StringAide.equalsAnyIn(null, headers));
+    }
+
+    @Test
+    public void testAffixMatcher() {
+        final AffixMatcher routes = AffixMatcher.prefixes("/api", "/api/v1", "/static", "/api");
+        assertEquals("/api/v1", routes.longestMatch("/api/v1/users"));
+        assertEquals(0, routes.longestMatchIndex("/api/v2/users"));
+        assertEquals(-1, routes.longestMatchIndex("/index.html"));
+        assertNull(routes.longestMatch(null));
+
+        final AffixMatcher domains = AffixMatcher.suffixesIgnoreCase(".com", ".example.com", null);
+        assertEquals(".example.com", domains.longestMatch("WWW.EXAMPLE.COM"));
+        assertEquals(0, domains.longestMatchIndex(new StringBuilder("lomcat.Com")));
+        assertFalse(domains.matches("example.org"));
+        assertTrue(AffixMatcher.prefixes("").matches(""));
+    }
+
+    @Test
+    public void testMultiSearcher() {
+        final MultiSearcher searcher = MultiSearcher.compile("ab", "cd", null, "abyy");
+        assertEquals(2, searcher.indexOf("zzabyycdxx"));
+        assertEquals(6, searcher.lastIndexOf("zzabyycdxx"));
+        assertEquals(6, searcher.indexOf("zzabyycdxx", 3));
+        assertEquals(-1, searcher.indexOf("zzxx"));
+        assertEquals("abyy", searcher.findFirst("zzabyycdxx", 0).getNeedle());
+        assertEquals(3, searcher.findFirst("zzabyycdxx", 0).getNeedleIndex());
+        assertNull(searcher.findLast(null, 10));
+
+        final String[] needles = new String[16];
+        for (int i = 0; i < needles.length; i++) {
+            needles[i] = "token" + i + ";";
+        }
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            builder.append("lorem ipsum ");
+        }
+        builder.append("token12;");
+        for (int i = 0; i < 200; i++) {
+            builder.append(" dolor");
+        }
+        final String text = builder.append("token3;").toString();
+        assertEquals(text.indexOf("token12;"), StringAide.indexOfAny(text, needles));
+        assertEquals(text.lastIndexOf("token3;"), StringAide.lastIndexOfAny(text, needles));
+        assertTrue(StringAide.containsAny(text, (CharSequence[]) needles));
+    }
+
+    @Test
+    public void testSort() {
+        final String[] array = {"b", null, "B", "ab", "a", "A", "abc"};
+        StringAide.sort(array, false, true);
+        assertTrue(Arrays.equals(new String[]{null, "A", "B", "a", "ab", "abc", "b"}, array));
+
+        final String[] ignoreCase = {"b", null, "B", "ab", "a", "A", "abc"};
+        StringAide.sort(ignoreCase, true, false);
+        assertTrue(Arrays.equals(new String[]{"a", "A", "ab", "abc", "b", "B", null}, ignoreCase));
+
+        final String[] parallel = {"x/2", "x/10", "X/1"};
+        StringAide.parallelSort(parallel, true, true);
+        assertTrue(Arrays.equals(new String[]{"X/1", "x/10", "x/2"}, parallel));
+        StringAide.sort(null, true, true);
+
+        // 增补字符按代码点折叠：U+10400 与 U+10428 是一对大小写，且排在所有 UTF-16 字符（如 U+FF21）之后
+        final String[] supplementary = {"\uD801\uDC00b", "\uFF21", "\uD801\uDC28a", "\uD801x", "\uD801\uDC01"};
+        StringAide.sort(supplementary, true, true);
+        assertTrue(Arrays.toString(supplementary), Arrays.equals(
+                new String[]{"\uD801x", "\uFF21", "\uD801\uDC28a", "\uD801\uDC00b", "\uD801\uDC01"}, supplementary));
+        if (Runtime.version().feature() >= 16) {
+            final String[] expected = supplementary.clone();
+            Arrays.sort(expected, String::compareToIgnoreCase);
+            assertTrue(Arrays.equals(expected, supplementary));
+        }
+    }
+
+    @Test
+    public void testTagExtractor() {
+        final TagExtractor extractor = TagExtractor.compile(new String[]{"${", "[[", "<%"}, new String[]{"}", "]]", "%>"});
+        assertTrue(Arrays.equals(new String[]{"x", "y", "z"}, extractor.substrings("a ${x} b [[y]] c <%z%> ${unclosed")));
+        assertTrue(Arrays.equals(new int[]{1, 2, 3, 0, 8, 9}, extractor.offsets("[[y]] ${x}")));
+        assertEquals(0, extractor.substrings(null).length);
+
+        final TagExtractor nested = TagExtractor.compile(new String[]{"(", "["}, new String[]{")", "]"},
+                TagExtractor.Mode.NESTED);
+        assertTrue(Arrays.equals(new String[]{"b[c(d)e]f", "c(d)e", "d"}, nested.substrings("a(b[c(d)e]f)g)")));
+
+        final TagExtractor overlapping = TagExtractor.compile(new String[]{"<"}, new String[]{">"},
+                TagExtractor.Mode.OVERLAPPING);
+        assertTrue(Arrays.equals(new String[]{"a<b", "b"}, overlapping.substrings("<a<b>c>")));
+    }
+
+    @Test
+    public void testTagExtractorUnclosed() {
+        final long startNanos = System.nanoTime();
+        final int opens = 200000;
+        final StringBuilder builder = new StringBuilder("[[a]] ${b} ");
+        for (int i = 0; i < opens; i++) {
+            builder.append("${x ");
+        }
+        final String unclosed = builder.append("[[c]]").toString();
+        final TagExtractor extractor = TagExtractor.compile(new String[]{"${", "[["}, new String[]{"}", "]]"});
+        assertTrue(Arrays.equals(new String[]{"a", "b", "c"}, extractor.substrings(unclosed)));
+
+        final String sharedClose = unclosed + "}";
+        final TagExtractor overlapping = TagExtractor.compile(new String[]{"${"}, new String[]{"}"},
+                TagExtractor.Mode.OVERLAPPING);
+        final int[] spans = overlapping.offsets(sharedClose);
+        assertEquals((opens + 1) * 3, spans.length);
+        assertEquals("b", sharedClose.substring(spans[1], spans[2]));
+        assertEquals("x [[c]]", sharedClose.substring(spans[opens * 3 + 1], spans[opens * 3 + 2]));
+        // 未配对的开始标记重复查找结束标记时耗时是平方级的，20 万个需要数十秒
+        assertTrue(System.nanoTime() - startNanos < 5_000_000_000L);
+    }
+
+    @Test
+    public void testCompileTemplate() {
+        final StringTemplate template = StringAide.compileTemplate("Hello ${name}, \\${literal} ${missing}${", "${", "}");
+        final Map<String, Object> values = new HashMap<>();
+        values.put("name", "Leo");
+        assertEquals("Hello Leo, ${literal} ${missing}${", template.render(values));
+        assertEquals("Hello Leo, ${literal} ${", template.render(values::get, StringTemplate.MissingKeyPolicy.EMPTY));
+        try {
+            template.render(values::get, StringTemplate.MissingKeyPolicy.THROW);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        values.put("missing", 42);
+        assertEquals(">Hello Leo, ${literal} 42${", template.render(new StringBuilder(">"), values::get,
+                StringTemplate.MissingKeyPolicy.THROW).toString());
+        assertEquals(2, template.getVariableNames().size());
+        values.put("n", 1);
+        assertEquals("[1]", StringAide.compileTemplate("[{{n}}]", "{{", "}}").render(values));
+    }
+
+    @Test
+    public void testCompileTemplateEscape() {
+        final Map<String, Object> values = new HashMap<>();
+        values.put("dir", "tmp");
+        values.put("a}b", 1);
+        values.put("a\\", 2);
+        // 两个转义字符表示一个转义字符本身，三个则再转义其后的开始标记
+        assertEquals("C:\\tmp", StringAide.compileTemplate("C:\\\\${dir}", "${", "}").render(values));
+        assertEquals("C:\\${dir}", StringAide.compileTemplate("C:\\\\\\${dir}", "${", "}").render(values));
+        // 占位符内部被转义的结束标记属于变量名
+        assertEquals("<1>", StringAide.compileTemplate("<${a\\}b}>", "${", "}").render(values));
+        assertEquals("<2>", StringAide.compileTemplate("<${a\\\\}>", "${", "}").render(values));
+        assertEquals("${a\\}", StringAide.compileTemplate("${a\\}", "${", "}").render(values));
+        // 其它位置的转义字符保持原样，缺少变量时原样保留占位符
+        assertEquals("a\\b\\} ${x\\}y}", StringAide.compileTemplate("a\\b\\} ${x\\}y}", "${", "}").render(values));
+        assertEquals("${dir} !tmp \\tmp", StringAide.compileTemplate("!${dir} !!${dir} \\${dir}", "${", "}", '!')
+                .render(values));
+        final StringTemplate template = StringAide.compileTemplate("${a\\}b}${a\\\\}", "${", "}");
+        assertEquals(2, template.getVariableNames().size());
+        assertTrue(template.getVariableNames().contains("a}b"));
+        assertTrue(template.getVariableNames().contains("a\\"));
+    }
+
+    @Test
+    public void testTruncateToUtf8Bytes() {
+        final String string = "a中b\uD83D\uDE00";
+        assertNull(StringAide.truncateToUtf8Bytes(null, 3));
+        assertNull(StringAide.truncateToUtf8Bytes(string, -1));
+        assertSame(string, StringAide.truncateToUtf8Bytes(string, 9));
+        assertEquals("a", StringAide.truncateToUtf8Bytes(string, 3));
+        assertEquals("a中b", StringAide.truncateToUtf8Bytes(string, 8));
+        assertEquals("中b", StringAide.truncateToUtf8Bytes(string, 1, 7));
+        assertEquals("b\uD83D\uDE00", StringAide.truncateToUtf8Bytes(string, 2, 5));
+        assertEquals("", StringAide.truncateToUtf8Bytes(string, 6, 5));
+
+        final StringBuilder builder = new StringBuilder(string);
+        assertSame(builder, CharSequenceAide.truncateToUtf8Bytes(builder, 9));
+        assertEquals("a中", CharSequenceAide.truncateToUtf8Bytes(builder, 4).toString());
+    }
+
+    @Test
+    public void testUtf8Length() {
+        final String string = "a\u0000中\uD83D\uDE00é";
+        assertEquals(0, StringAide.utf8Length(null));
+        assertEquals(string.getBytes(StandardCharsets.UTF_8).length, StringAide.utf8Length(string));
+        assertEquals(11, StringAide.utf8Length(new StringBuilder(string)));
+        assertEquals(3, StringAide.utf8Length(CharBuffer.wrap(string), 2, 3));
+        assertEquals(1, StringAide.utf8Length(string, 3, 4));
+        assertEquals(14, StringAide.modifiedUtf8Length(string));
+        assertEquals(5, StringAide.codePointCount(string));
+        assertEquals(2, StringAide.codePointCount(string, 2, 5));
+        try {
+            StringAide.utf8Length(string, 2, 9);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testHash64() {
+        final String string = "key,Value中\uD83D\uDE00";
+        final byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+        assertEquals(0, StringAide.hash64(null));
+        assertEquals(StringAide.hash64("Value"), StringAide.hash64(string, 4, 9));
+        assertEquals(StringAide.hash64(string), StringAide.hash64(new StringBuilder(string)));
+        assertEquals(StringAide.hash64(string), StringAide.hash64(string.toCharArray(), 0, string.length()));
+        assertEquals(StringAide.hash64(string), StringAide.hash64Utf8(utf8, 0, utf8.length));
+        assertFalse(StringAide.hash64("ab") == StringAide.hash64("ba"));
+        assertFalse(StringAide.hash64("Value") == StringAide.hash64("value"));
+
+        assertEquals(StringAide.hashIgnoreCase("value"), StringAide.hashIgnoreCase(string, 4, 9));
+        assertEquals(StringAide.hashIgnoreCase("KEY,VALUE中\uD83D\uDE00"), StringAide.hashIgnoreCaseUtf8(utf8, 0, utf8.length));
+        assertEquals(StringAide.hashIgnoreCase("ß"), StringAide.hashIgnoreCase("ß".toCharArray(), 0, 1));
+    }
+
+    @Test
+    public void testEditDistance() {
+        assertEquals(0, StringAide.levenshtein(null, null));
+        assertEquals(-1, StringAide.levenshtein(null, ""));
+        assertEquals(3, StringAide.levenshtein("", "abc"));
+        assertEquals(3, StringAide.levenshtein("kitten", "sitting"));
+        assertEquals(3, StringAide.levenshtein("kitten", new StringBuilder("sitting"), 3));
+        assertEquals(-1, StringAide.levenshtein("kitten", "sitting", 2));
+        assertEquals(-1, StringAide.levenshtein("a", "abcd", 2));
+
+        final StringBuilder left = new StringBuilder();
+        final StringBuilder right = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            left.append("abc");
+            right.append(i % 10 == 0 ? "abd" : "abc");
+        }
+        assertEquals(10, StringAide.levenshtein(left, right));
+        assertEquals(10, StringAide.levenshtein(right, left, 10));
+        assertEquals(-1, StringAide.levenshtein(left, right, 9));
+
+        assertEquals(0, StringAide.damerauLevenshtein(null, null));
+        assertEquals(-1, StringAide.damerauLevenshtein("ab", null));
+        assertEquals(1, StringAide.damerauLevenshtein("ab", "ba"));
+        assertEquals(3, StringAide.damerauLevenshtein("ca", "abc"));
+        assertEquals(2, StringAide.damerauLevenshtein("abcdef", "bacdfe", 2));
+        assertEquals(-1, StringAide.damerauLevenshtein("abcdef", "bacdfe", 1));
+
+        assertEquals(1.0, StringAide.jaroWinkler(null, null));
+        assertEquals(0.0, StringAide.jaroWinkler(null, "abc"));
+        assertEquals(1.0, StringAide.jaroWinkler("", ""));
+        assertEquals(0.961, StringAide.jaroWinkler("MARTHA", "MARHTA"), 0.001);
+        assertEquals(0.840, StringAide.jaroWinkler("DWAYNE", "DUANE"), 0.001);
+        assertEquals(0.0, StringAide.jaroWinkler("abc", "xyz"));
+    }
+
+    @Test
+    public void testEditDistanceLongPattern() {
+        final Random random = new Random(40);
+        // 多个块、大量不同字符（哈希表需要扩容）时与逐格计算的结果一致
+        for (int round = 0; round < 20; round++) {
+            final String left = randomString(random, 50 + random.nextInt(400), round % 2 == 0 ? 4 : 3000);
+            final String right = randomString(random, 50 + random.nextInt(400), round % 2 == 0 ? 4 : 3000);
+            final int expected = referenceLevenshtein(left, right);
+            assertEquals(expected, StringAide.levenshtein(left, right));
+            assertEquals(expected, StringAide.levenshtein(right, left, expected));
+            assertEquals(-1, StringAide.levenshtein(left, right, expected - 1));
+        }
+
+        // 计算较长的输入后不再持有与输入长度相关的工作数组
+        final String left = randomString(random, 30000, 4);
+        final String right = randomString(random, 30000, 4);
+        assertTrue(StringAide.levenshtein(left, right) > 0);
+        assertEquals(-1, StringAide.damerauLevenshtein(left, right, 10));
+        assertTrue(StringAide.jaroWinkler(left, right) > 0);
+        final String distinct = randomString(random, 30000, 30000);
+        assertTrue(StringAide.levenshtein(distinct, right) > 0);
+        assertTrue(EditDistance.retainedBytes() < 32 * EditDistance.MAX_RETAINED_LENGTH);
+    }
+
+    private static String randomString(final Random random, final int length, final int alphabet) {
+        final char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(alphabet));
+        }
+        return new String(chars);
+    }
+
+    private static int referenceLevenshtein(final String left, final String right) {
+        int[] previous = new int[right.length() + 1];
+        int[] current = new int[right.length() + 1];
+        for (int j = 0; j <= right.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= left.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= right.length(); j++) {
+                final int cost = left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1], previous[j]) + 1, previous[j - 1] + cost);
+            }
+            final int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[right.length()];
+    }
+
+    @Test
+    public void testFuzzyIndex() {
+        final FuzzyIndex index = FuzzyIndex.build(Arrays.asList("Jonathan", "Johnathan", "Jon", null, "Nathan", "JONATHAN"), true, false);
+        assertEquals(Arrays.asList("Jonathan", "JONATHAN"), index.search("jonathon", 1));
+        assertEquals(Arrays.asList("Jonathan", "JONATHAN", "Johnathan"), index.search("jonathon", 2));
+        assertEquals(0, index.search(null, 2).size());
+        assertEquals(6, index.size());
+
+        final FuzzyIndex accents = FuzzyIndex.build(Arrays.asList("José", "Jose", "Joss"), false, true);
+        assertEquals(Arrays.asList("José", "Jose"), accents.search("Jose", 0));
+        assertEquals(Arrays.asList("Jose", "Joss"), FuzzyIndex.build("Jose", "Joss").search("Jos", 1));
+
+        // 与逐个计算距离的结果比较，字母表较小时长度过滤和签名过滤都会遇到边界情况
+        final Random random = new Random(20180901L);
+        final List<String> words = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            final String word = randomString(random, 1 + random.nextInt(9), 2 + i % 6);
+            words.add(i % 3 == 0 ? word.toUpperCase() : word);
+        }
+        final FuzzyIndex folded = FuzzyIndex.build(words, true, false);
+        final long[] found = new long[words.size()];
+        for (int round = 0; round < 200; round++) {
+            final String query = randomString(random, random.nextInt(11), 2 + round % 6);
+            final int maxDistance = round % 4;
+            int count = 0;
+            for (int i = 0; i < words.size(); i++) {
+                final int distance = referenceLevenshtein(words.get(i).toLowerCase(), query);
+                if (distance <= maxDistance) {
+                    found[count++] = (long) distance << 32 | i;
+                }
+            }
+            Arrays.sort(found, 0, count);
+            final List<String> expected = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                expected.add(words.get((int) found[i]));
+            }
+            assertEquals(query + " " + maxDistance, expected, folded.search(query.toUpperCase(), maxDistance));
+        }
+        try {
+            index.search("a", -1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCaseFormat() {
+        assertNull(StringAide.toSnakeCase(null));
+        assertEquals("foo_bar_baz", StringAide.toSnakeCase("fooBarBaz"));
+        assertEquals("asf_rules", StringAide.toSnakeCase("ASFRules"));
+        assertEquals("foo-200-bar", StringAide.toKebabCase("foo200Bar"));
+        assertEquals("fooBarBaz", StringAide.toCamelCase("foo_bar-baz"));
+        assertEquals("urlParser", StringAide.toCamelCase("URLParser"));
+        assertEquals("FooBar", StringAide.toPascalCase(" foo bar "));
+        assertEquals("foo_bar", StringAide.toSnakeCase("foo_bar__"));
+        // Deseret 字母由代理对表示，U+10400 / U+10401 的小写为 U+10428 / U+10429
+        assertEquals("foo_bar_\uD801\uDC28\uD801\uDC29", StringAide.toSnakeCase("fooBar\uD801\uDC00\uD801\uDC01"));
+        assertEquals("\uD801\uDC28\uD801\uDC29Id", StringAide.toCamelCase("\uD801\uDC00\uD801\uDC01_id"));
+        assertEquals("Id\uD801\uDC00\uD801\uDC29", StringAide.toPascalCase("id_\uD801\uDC28\uD801\uDC01"));
+
+        final String snake = "foo_bar";
+        assertSame(snake, StringAide.toSnakeCase(snake));
+        final String camel = "fooBar";
+        assertSame(camel, StringAide.toCamelCase(camel));
+
+        final Function<String, String> cached = CaseFormat.KEBAB_CASE.cached(2);
+        assertEquals("foo-bar", cached.apply("fooBar"));
+        assertSame(cached.apply("fooBar"), cached.apply("fooBar"));
+        assertEquals("a-b", cached.apply("aB"));
+        assertEquals("c-d", cached.apply("cD"));
+        assertNull(cached.apply(null));
+    }
+
+    @Test
+    public void testSliceView() {
+        final String string = " key=value; other ";
+        final CharSlice value = StringAide.substringBetweenView(string, "=", ";");
+        assertEquals("value", value.toString());
+        assertEquals("value".hashCode(), value.hashCode());
+        assertTrue(value.contentEquals("value"));
+        assertTrue(StringAide.equals(value, "value"));
+        assertEquals(2, StringAide.indexOf(value, 'l', 0));
+        assertEquals(CharSlice.of("value"), value);
+        assertFalse(value.equals("value"));
+
+        assertEquals("key=value; other", StringAide.trimView(string).toString());
+        assertEquals("other ", StringAide.substringAfterView(string, "; ").toString());
+        assertEquals(" key", StringAide.substringBeforeView(string, "=").toString());
+        assertEquals("ue", StringAide.substringView("value", -2).toString());
+        assertNull(StringAide.stripView(null));
+
+        final CharSlice[] tokens = StringAide.splitView("a..b.c", '.');
+        assertEquals(3, tokens.length);
+        assertEquals("b", tokens[1].toString());
+        assertEquals(Arrays.asList("a", "b", "c"), Arrays.asList(StringAide.split("a..b.c", '.')));
+        assertEquals(0, StringAide.splitView("", ' ').length);
+    }
+
+    @Test
+    public void testOffHeapStringPool() {
+        final OffHeapStringPool pool = OffHeapStringPool.direct(64);
+        final long token = pool.add("token");
+        final long chinese = pool.add("中文token");
+        final long other = pool.add("token");
+        assertEquals(3, pool.size());
+        assertEquals(5, pool.length(token));
+        assertEquals("中文token", pool.getString(chinese));
+
+        final OffHeapStringPool.View view = pool.get(token);
+        assertEquals("token".hashCode(), view.hashCode());
+        assertTrue(StringAide.equals(view, "token"));
+        assertTrue(StringAide.equals(view, pool.get(other)));
+        assertEquals(view, pool.get(other));
+        assertFalse(StringAide.equals(view, pool.get(chinese)));
+        assertTrue(StringAide.startsWith(pool.get(chinese), "中文"));
+        assertEquals(2, StringAide.indexOf(pool.get(chinese), 't', 0));
+        assertEquals(-1, StringAide.indexOf(view, '中', 0));
+        assertEquals(StringAide.hash64("token"), StringAide.hash64(view));
+        // 负数不是有效字符，不能在强制转换为 byte 后与 'ÿ' 匹配
+        final OffHeapStringPool.View latin1 = pool.get(pool.add("a\u00FF"));
+        assertEquals(1, CharSequenceAide.indexOf(latin1, 0xFF, 0));
+        assertEquals(-1, CharSequenceAide.indexOf(latin1, -1, 0));
+        assertEquals("a\u00FF".indexOf(-1, 0), latin1.indexOf(-1, 0));
+        assertEquals(-1, pool.get(chinese).indexOf(-1, 0));
+        try {
+            pool.add(new String(new char[100]));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testOffHeapStringPoolMapped() throws IOException {
+        final Path file = Files.createTempFile("off-heap-string-pool", ".bin");
+        try {
+            final long[] handles = new long[100];
+            final OffHeapStringPool.View first;
+            try (OffHeapStringPool pool = OffHeapStringPool.mapped(file, 64)) {
+                // 每个块只能容纳少量条目，条目分布在多个映射区域中
+                for (int i = 0; i < handles.length; i++) {
+                    handles[i] = pool.add(i % 2 == 0 ? "entry-" + i : "条目-" + i);
+                }
+                assertEquals(handles.length, pool.size());
+                for (int i = 0; i < handles.length; i++) {
+                    final String expected = i % 2 == 0 ? "entry-" + i : "条目-" + i;
+                    assertEquals(expected, pool.getString(handles[i]));
+                    assertEquals(expected.hashCode(), pool.get(handles[i]).hashCode());
+                }
+                first = pool.get(handles[0]);
+            }
+            // 关闭后文件通道不再可用，已映射的区域仍然可以读取
+            assertEquals("entry-0", first.toString());
+            assertTrue(Files.size(file) >= 64 * 2);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testRope() {
+        final Rope rope = Rope.of("hello world");
+        assertEquals(2, rope.replace("o", "0"));
+        assertEquals("hell0 w0rld", rope.toString());
+        rope.insert(0, "[").append("]");
+        assertEquals("[hell0 w0rld]", rope.toString());
+        rope.delete(1, 7);
+        assertEquals("[w0rld]", rope.toString());
+        assertEquals('w', rope.charAt(1));
+        assertEquals("0rl", rope.substring(2, 5));
+
+        rope.replace(0, 1, "<<").replace(rope.length() - 1, rope.length(), ">>");
+        assertEquals("<<w0rld>>", rope.toString());
+        assertEquals(5, rope.indexOf("ld", 0));
+        assertTrue(rope.replaceOnce("<", "{"));
+        assertEquals(1, rope.delete("<"));
+        assertTrue(rope.deleteStart("{"));
+        assertTrue(rope.deleteEnd(">>"));
+        assertFalse(rope.deleteEnd(">"));
+        assertEquals("w0rld", rope.toString());
+        assertEquals(0, rope.replace("", "x"));
+        assertEquals(0, rope.replace("x", null));
+
+        // 跨越片段边界的匹配
+        final Rope pieces = Rope.of("ab").append("cd").append("ab").append("cd");
+        assertEquals(2, pieces.replace("bc", "-"));
+        assertEquals("a-da-d", pieces.toString());
+    }
+
+    @Test
+    public void testLinePipeline() throws IOException {
+        final Path source = Files.createTempFile("line-pipeline", ".txt");
+        final Path target = Files.createTempFile("line-pipeline", ".txt");
+        try {
+            Files.write(source, "  a b \r\n#skip\r  中 文\n\n last ".getBytes(StandardCharsets.UTF_8));
+            final LinePipeline pipeline = LinePipeline.of(StringAide::strip)
+                    .then(line -> line.startsWith("#") ? null : line);
+            assertEquals(4, pipeline.transform(source, target));
+            assertEquals("a b\r\n中 文\n\nlast", new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+
+            assertEquals(4, pipeline.then(line -> StringAide.deleteChars(line, StringAide.SPACE)).lineSeparator(StringAide.LF).parallel(1).transform(source, target));
+            assertEquals("ab\n中文\n\nlast", new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+            assertNull(pipeline.apply("#"));
+        } finally {
+            Files.delete(source);
+            Files.delete(target);
+        }
+    }
+
+    @Test
+    public void testStringKernel() {
+        // Character.isWhitespace 的定义：\u2003、\u001C 是空白符，不换行空格 \u00A0 不是
+        final String text = "\u2003\u001C a\u00A0b \uD83D\uDE00 c\t\u2003";
+        assertEquals("a\u00A0b \uD83D\uDE00 c", StringAide.strip(text));
+        assertEquals("a\u00A0b \uD83D\uDE00 c\t\u2003", StringAide.stripStart(text, null));
+        assertEquals("\u2003\u001C a\u00A0b \uD83D\uDE00 c", StringAide.stripEnd(text, null));
+        assertSame(text, StringAide.stripEnd(text, ""));
+        assertTrue(CharSequenceAide.isBlank("\u2003\u001C \t"));
+        assertFalse(CharSequenceAide.isBlank("\u2003\u00A0"));
+
+        // 有界查找不能越过视图的末尾
+        final String source = "xxabcabc\uD83D\uDE00abcxx";
+        final CharSlice slice = CharSlice.of(source, 2, source.length() - 2);
+        for (int from = -1; from <= slice.length() + 1; from++) {
+            final String reference = slice.toString();
+            assertEquals(reference.indexOf('c', from), slice.indexOf('c', from));
+            assertEquals(reference.indexOf('x', from), slice.indexOf('x', from));
+            assertEquals(reference.indexOf(0x1F600, from), slice.indexOf(0x1F600, from));
+            assertEquals(reference.indexOf("bc", from), slice.indexOf("bc", from));
+            assertEquals(reference.indexOf("cxx", from), slice.indexOf("cxx", from));
+            assertEquals(reference.indexOf("", from), slice.indexOf("", from));
+        }
+    }
+
+    @Test
+    public void testCharSliceMutableArray() {
+        final char[] chars = "abc".toCharArray();
+        final CharSlice mutable = CharSlice.of(chars, 0, chars.length);
+        final CharSlice abc = CharSlice.of("abc");
+        final CharSlice xbc = CharSlice.of("xbc");
+        assertEquals(abc.hashCode(), mutable.hashCode());
+        assertEquals(abc, mutable);
+        // 源数组修改后哈希值和相等性都随内容改变，不能使用过期的哈希值
+        chars[0] = 'x';
+        assertEquals("xbc".hashCode(), mutable.hashCode());
+        assertEquals(xbc.hashCode(), mutable.hashCode());
+        assertEquals(xbc, mutable);
+        assertEquals(mutable, xbc);
+        assertFalse(abc.equals(mutable));
+    }
+
+    @Test
+    public void testRegexLiteral() {
+        assertEquals("a.b", RegexAide.compile("a\\.b").literal);
+        assertEquals("a+b", RegexAide.compile("\\Qa+b\\E").literal);
+        assertNull(RegexAide.compile("a.b").literal);
+        assertNull(RegexAide.compile("\\d").literal);
+
+        final String text = "1.2.3";
+        for (String replacement : new String[]{"-", "[$0]", "$00", "$01", "\\$", "\\\\"}) {
+            assertEquals(text.replaceAll("\\.", replacement), RegexAide.replaceAll(text, "\\.", replacement));
+            assertEquals(text.replaceFirst("\\.", replacement), RegexAide.replaceFirst(text, "\\.", replacement));
+        }
+        try {
+            RegexAide.replaceAll(text, "\\.", "$1");
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // 与正则路径相同
+        }
+        assertEquals("1.2.3", RegexAide.replaceAll(text, "x", "$1"));
+        assertEquals("1#2#3", RegexAide.replaceAll(text, "[.]", "#"));
+    }
+
+    @Test
+    public void testRegexSet() {
+        final RegexSet set = RegexAide.compileSet(Arrays.asList(
+                "ERROR \\d+", "time(out|d out)|refused", "(?i)warn", "^\\s*$", null, "con+ection"));
+        assertEquals(6, set.size());
+        assertTrue(set.isPrefiltered(0));
+        assertTrue(set.isPrefiltered(1));
+        assertFalse(set.isPrefiltered(2));
+        assertFalse(set.isPrefiltered(3));
+        assertTrue(set.isPrefiltered(5));
+
+        final String line = "ERROR 500: connection refused, Warn";
+        assertTrue(Arrays.equals(new int[]{0, 1, 2, 5}, set.matches(line)));
+        assertEquals("[ERROR \\d+@0, time(out|d out)|refused@22, (?i)warn@31, con+ection@11]", set.find(line).toString());
+        assertTrue(Arrays.equals(new int[]{3}, set.matches("  ")));
+        assertFalse(set.matchesAny("ERROR x"));
+        assertEquals(0, set.matches(null).length);
+
+        assertEquals(Arrays.asList("time", "refused"), RegexSet.requiredLiterals("time(out|d out)|refused"));
+        assertEquals(Arrays.asList("abcd"), RegexSet.requiredLiterals("x?abcd+e*[^]a]\\.?"));
+        assertNull(RegexSet.requiredLiterals("ab(cd)?ef"));
+    }
+
+    @Test
+    public void testLinearRegex() {
+        final String text = "id=42, name=leo_aide; id=7\r\nx = y été 😀!";
+        final String[] regexes = {"(\\d+)", "(?<key>\\w+)\\s*=\\s*(\\w*)", "\\b\\w", "[^,;\\s]+?", "a*|b",
+                "^|$", ".\\z", "[a-f]?x{0,2}", "(a|ab)(c|bcd)(d*)", "(\\w){1,3},?"};
+        for (String regex : regexes) {
+            final LinearRegex linear = RegexAide.compileLinear(regex);
+            final String replacement = linear.groupCount() > 0 ? "<$0|$1>" : "<$0>";
+            assertEquals(regex, text.replaceAll(regex, replacement), RegexAide.replaceAll(text, linear, replacement));
+            assertEquals(regex, text.replaceFirst(regex, "[$0]"), RegexAide.replaceFirst(text, linear, "[$0]"));
+        }
+        assertEquals("a[1]b[22]", RegexAide.replaceAll("a1b22", RegexAide.compileLinear("(\\d+)"), "[$1]"));
+        assertEquals("abcd", RegexAide.replaceAll("abcd", (LinearRegex) null, "x"));
+        assertNull(RegexAide.compileLinear(null));
+
+        final LinearRegex catastrophic = RegexAide.compileLinear("(a+)+$");
+        final StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            input.append('a');
+        }
+        assertFalse(catastrophic.find(input.append('!')));
+
+        final LinearRegex.Match match = LinearRegex.compile("(?<y>\\d{4})-(?<m>\\d\\d)").findMatch("on 2018-09-04");
+        assertEquals("2018-09@3", match.toString());
+        assertEquals("09", match.group("m"));
+        assertEquals(8, match.getStart(2));
+
+        assertFalse(LinearRegex.isSupported("(a)\\1"));
+        assertFalse(LinearRegex.isSupported("a(?=b)"));
+        assertFalse(LinearRegex.isSupported("a++"));
+        assertFalse(LinearRegex.isSupported("(?i)a"));
+        try {
+            RegexAide.compileLinear("(?<=a)b");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 不支持的构造不会静默地改用 Pattern
+        }
+    }
+
+    @Test
+    public void testLinearRegexFindAll() {
+        final String mixed = "aab aaxa ba a.ab";
+        for (String regex : new String[]{"a.*b|a", "(a|b)*x|a", "a.*?b|\\w"}) {
+            final LinearRegex linear = RegexAide.compileLinear(regex);
+            assertEquals(regex, mixed.replaceAll(regex, "<$0>"), linear.replaceAll(mixed, "<$0>"));
+        }
+
+        // 优先级更高的分支 a.*b 每次都扫描到文本末尾才失败，逐次重新查找时总耗时是平方级的
+        final long startNanos = System.nanoTime();
+        final String text = new String(new char[50000]).replace('\0', 'a');
+        final LinearRegex regex = RegexAide.compileLinear("a.*b|a");
+        assertEquals(text.replace('a', 'x'), regex.replaceAll(text, "x"));
+        assertEquals(text.length(), regex.findAll(text).size());
+        assertTrue(System.nanoTime() - startNanos < 5_000_000_000L);
+    }
+
     @Test
     public void testStripLeft() {
 //        System.out.println(StringAide.strip("yxabyczxy", "xyz"));